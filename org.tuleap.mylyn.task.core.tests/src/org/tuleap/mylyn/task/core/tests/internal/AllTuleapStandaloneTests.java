@@ -16,6 +16,11 @@ import junit.textui.TestRunner;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.Base64JsonDecoderTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.ChunkSizePolicyTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.HttpContentDecoderTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.JsonRequestEntityTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.PaginationPolicyTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.RestOperationsTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.RestResourceTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.TuleapRestClientQueryTest;
@@ -38,10 +43,16 @@ import org.tuleap.mylyn.task.core.tests.internal.parser.TuleapProjectDeserialize
 import org.tuleap.mylyn.task.core.tests.internal.parser.TuleapTrackerDeserializerTest;
 import org.tuleap.mylyn.task.core.tests.internal.parser.TuleapTrackerReportDeserializerTest;
 import org.tuleap.mylyn.task.core.tests.internal.parser.TuleapUserDeserializerTest;
+import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapAttachmentChunkReaderTest;
 import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapAttachmentInputStreamTest;
+import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapCommentsPrefetcherTest;
+import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapConfigurationFileTest;
+import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapConfigurationFormatTest;
+import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapProjectsRefresherTest;
 import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapRepositoryConnectorTests;
 import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapTaskAttachmentHandlerTests;
 import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapTaskDataHandlerTests;
+import org.tuleap.mylyn.task.core.tests.internal.repository.TuleapTrackerRefresherTest;
 import org.tuleap.mylyn.task.core.tests.internal.serializer.BoundFieldValueSerializerTest;
 import org.tuleap.mylyn.task.core.tests.internal.serializer.LiteralFieldValueSerializerTest;
 import org.tuleap.mylyn.task.core.tests.internal.serializer.TuleapArtifactSerializerTest;
@@ -57,6 +68,11 @@ import org.tuleap.mylyn.task.core.tests.internal.server.ServerResponseTest;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 		// client.rest
+		Base64JsonDecoderTest.class,
+		ChunkSizePolicyTest.class,
+		HttpContentDecoderTest.class,
+		JsonRequestEntityTest.class,
+		PaginationPolicyTest.class,
 		RestOperationsTest.class,
 		RestResourceTest.class,
 		TuleapRestClientTest.class,
@@ -79,8 +95,14 @@ import org.tuleap.mylyn.task.core.tests.internal.server.ServerResponseTest;
 		TuleapTrackerReportDeserializerTest.class,
 		TuleapUserDeserializerTest.class,
 		// repository
-		TuleapAttachmentInputStreamTest.class, TuleapRepositoryConnectorTests.class,
+		TuleapAttachmentChunkReaderTest.class, TuleapAttachmentInputStreamTest.class,
+		TuleapCommentsPrefetcherTest.class,
+		TuleapConfigurationFileTest.class,
+		TuleapConfigurationFormatTest.class,
+		TuleapProjectsRefresherTest.class,
+		TuleapRepositoryConnectorTests.class,
 		TuleapTaskAttachmentHandlerTests.class, TuleapTaskDataHandlerTests.class,
+		TuleapTrackerRefresherTest.class,
 		// serializer
 		BoundFieldValueSerializerTest.class, LiteralFieldValueSerializerTest.class,
 		TuleapArtifactSerializerTest.class, TuleapArtifactWithCommentSerializerTest.class,
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.gson.JsonObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.Base64JsonDecoder;
+import org.tuleap.mylyn.task.core.internal.client.rest.Base64JsonRequestEntity;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link Base64JsonDecoder} and {@link Base64JsonRequestEntity}.
+ */
+public class Base64JsonDecoderTest {
+
+	private int decode(String json, String member, byte[] out) throws IOException {
+		return new Base64JsonDecoder(new StringReader(json)).decode(member, out);
+	}
+
+	@Test
+	public void testDecodeSkipsOtherMembers() throws IOException {
+		String json = "{\"id\": 3, \"name\": \"data\", \"tags\": [\"data\", {\"data\": \"AAAA\"}], "
+				+ "\"ok\": true, \"data\" : \"VGhlIGZpbGU=\"}";
+		byte[] out = new byte[10];
+		assertEquals(8, decode(json, "data", out));
+		assertEquals("The file", new String(out, 0, 8, "UTF-8"));
+	}
+
+	@Test
+	public void testDecodeEscapedCharacters() throws IOException {
+		byte[] expected = new byte[] {(byte)0xfb, (byte)0xff, (byte)0xbf };
+		byte[] out = new byte[3];
+		assertEquals(3, decode("{\"d\\u0061ta\": \"+\\/+\\/\"}", "data", out));
+		assertArrayEquals(expected, out);
+	}
+
+	@Test
+	public void testDecodeMissingOrNullMember() throws IOException {
+		byte[] out = new byte[3];
+		assertEquals(-1, decode("{\"content\": \"AAAA\"}", "data", out));
+		assertEquals(-1, decode("{\"data\": null}", "data", out));
+		assertEquals(0, decode("{\"data\": \"\"}", "data", out));
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecodeOverflow() throws IOException {
+		decode("{\"data\": \"VGhlIGZpbGU=\"}", "data", new byte[7]);
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecodeInvalidCharacter() throws IOException {
+		decode("{\"data\": \"VGhl*GZpbGU=\"}", "data", new byte[8]);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		byte[] content = new byte[20000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte)(i * 31);
+		}
+		JsonObject envelope = new JsonObject();
+		envelope.addProperty("offset", Integer.valueOf(2));
+		for (int length : new int[] {0, 1, 2, 3, 3071, 3072, 3073, 20000 }) {
+			Base64JsonRequestEntity entity = new Base64JsonRequestEntity(envelope, "data", content, length);
+			ByteArrayOutputStream stream = new ByteArrayOutputStream();
+			entity.writeRequest(stream);
+			String json = stream.toString("UTF-8");
+			assertEquals(entity.getContentLength(), json.length());
+			assertEquals("{\"offset\":2,\"data\":\""
+					+ Base64.encodeBase64String(Arrays.copyOf(content, length)) + "\"}", json);
+
+			byte[] out = new byte[length];
+			assertEquals(length, decode(json, "data", out));
+			assertArrayEquals(Arrays.copyOf(content, length), out);
+		}
+	}
+}
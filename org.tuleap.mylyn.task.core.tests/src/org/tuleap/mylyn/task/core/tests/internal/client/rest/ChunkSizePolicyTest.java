@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.ChunkSizePolicy;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link ChunkSizePolicy}.
+ */
+public class ChunkSizePolicyTest {
+
+	private static final int MB = 1024 * 1024;
+
+	private ChunkSizePolicy policy;
+
+	private Map<String, String> headers;
+
+	@Before
+	public void setUp() {
+		policy = new ChunkSizePolicy(0);
+		headers = Maps.newHashMap();
+	}
+
+	@Test
+	public void testNotRaisedWithoutServerMaximum() {
+		assertEquals(ChunkSizePolicy.DEFAULT_CHUNK_SIZE, policy.getChunkSize());
+		policy.chunkTransferred(MB, 100L);
+		assertEquals(ChunkSizePolicy.DEFAULT_CHUNK_SIZE, policy.getChunkSize());
+	}
+
+	@Test
+	public void testRaisedUpToServerMaximum() {
+		// The maximum applies to the encoded content, 8 MB of Base64 for 6 MB of data
+		headers.put(ChunkSizePolicy.HEADER_X_UPLOAD_MAX_FILE_CHUNKSIZE, Integer.toString(8 * MB));
+		policy.responseReceived(new ServerResponse(ServerResponse.STATUS_CREATED, "{}", headers));
+		policy.chunkTransferred(MB, 100L);
+		assertEquals(2 * MB, policy.getChunkSize());
+		// The last chunk of a file is smaller, it does not lower the size
+		policy.chunkTransferred(1000, 100L);
+		assertEquals(2 * MB, policy.getChunkSize());
+		policy.chunkTransferred(2 * MB, 100L);
+		policy.chunkTransferred(4 * MB, 100L);
+		assertEquals(6 * MB, policy.getChunkSize());
+	}
+
+	@Test
+	public void testLoweredWhenSlowOrFailed() {
+		policy.chunkTransferred(MB, 10000L);
+		assertEquals(MB / 2, policy.getChunkSize());
+		policy.chunkTransferred(MB / 2, 3000L);
+		assertEquals(MB / 2, policy.getChunkSize());
+		policy.chunkFailed(MB / 2);
+		assertEquals(MB / 4, policy.getChunkSize());
+		for (int i = 0; i < 10; i++) {
+			policy.chunkFailed(policy.getChunkSize());
+		}
+		assertEquals(64 * 1024, policy.getChunkSize());
+	}
+
+	@Test
+	public void testFixedChunkSize() {
+		policy = new ChunkSizePolicy(3 * MB);
+		policy.chunkTransferred(3 * MB, 10000L);
+		assertEquals(3 * MB, policy.getChunkSize());
+		headers.put(ChunkSizePolicy.HEADER_X_UPLOAD_MAX_FILE_CHUNKSIZE, Integer.toString(2 * MB));
+		policy.responseReceived(new ServerResponse(ServerResponse.STATUS_OK, "{}", headers));
+		assertEquals(2 * MB / 4 * 3, policy.getChunkSize());
+	}
+
+	@Test
+	public void testKilobytesCappedToMaximum() {
+		assertEquals(3 * MB, ChunkSizePolicy.toBytes(3 * 1024));
+		assertEquals(0, ChunkSizePolicy.toBytes(0));
+		assertEquals(0, ChunkSizePolicy.toBytes(-3000000));
+		assertEquals(ChunkSizePolicy.MAX_CHUNK_SIZE, ChunkSizePolicy
+				.toBytes(ChunkSizePolicy.MAX_FIXED_CHUNK_SIZE_KB));
+		assertEquals(ChunkSizePolicy.MAX_CHUNK_SIZE, ChunkSizePolicy
+				.toBytes(ChunkSizePolicy.MAX_FIXED_CHUNK_SIZE_KB + 1));
+		assertEquals(ChunkSizePolicy.MAX_CHUNK_SIZE, ChunkSizePolicy.toBytes(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testSizeCappedToMaximum() {
+		policy = new ChunkSizePolicy(Integer.MAX_VALUE);
+		assertEquals(ChunkSizePolicy.MAX_CHUNK_SIZE, policy.getChunkSize());
+
+		policy = new ChunkSizePolicy(0);
+		headers.put(ChunkSizePolicy.HEADER_X_UPLOAD_MAX_FILE_CHUNKSIZE, Integer.toString(Integer.MAX_VALUE));
+		policy.responseReceived(new ServerResponse(ServerResponse.STATUS_CREATED, "{}", headers));
+		for (int i = 0; i < 20; i++) {
+			policy.chunkTransferred(policy.getChunkSize(), 100L);
+		}
+		assertEquals(ChunkSizePolicy.MAX_CHUNK_SIZE, policy.getChunkSize());
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.HttpContentDecoder;
+import org.tuleap.mylyn.task.core.internal.client.rest.TransferStatistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link HttpContentDecoder}.
+ */
+public class HttpContentDecoderTest {
+
+	private byte[] content;
+
+	private TransferStatistics statistics;
+
+	@Before
+	public void setUp() throws IOException {
+		StringBuilder b = new StringBuilder("[");
+		for (int i = 0; i < 200; i++) {
+			b.append("{\"id\":").append(i).append(",\"label\":\"Some label\"},");
+		}
+		b.append("{}]");
+		content = b.toString().getBytes("UTF-8");
+		statistics = new TransferStatistics();
+	}
+
+	private String read(byte[] body, String encoding) throws IOException {
+		InputStream in = HttpContentDecoder.decode(new ByteArrayInputStream(body), encoding, statistics);
+		try {
+			return new String(ByteStreams.toByteArray(in), "UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+
+	private byte[] compress(OutputStream out, ByteArrayOutputStream bytes) throws IOException {
+		out.write(content);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	@Test
+	public void testGzip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] body = compress(new GZIPOutputStream(bytes), bytes);
+		assertEquals(new String(content, "UTF-8"), read(body, "gzip"));
+		assertEquals(1, statistics.getResponseCount());
+		assertEquals(body.length, statistics.getWireBytes());
+		assertEquals(content.length, statistics.getDecodedBytes());
+		assertTrue(statistics.getWireBytes() < statistics.getDecodedBytes());
+	}
+
+	@Test
+	public void testDeflate() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] body = compress(new DeflaterOutputStream(bytes), bytes);
+		assertEquals(new String(content, "UTF-8"), read(body, "Deflate"));
+	}
+
+	@Test
+	public void testRawDeflate() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] body = compress(new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION,
+				true)), bytes);
+		assertEquals(new String(content, "UTF-8"), read(body, "deflate"));
+	}
+
+	@Test
+	public void testIdentity() throws IOException {
+		assertEquals(new String(content, "UTF-8"), read(content, null));
+		assertEquals(new String(content, "UTF-8"), read(content, "identity"));
+		assertEquals(2, statistics.getResponseCount());
+		assertEquals(2L * content.length, statistics.getWireBytes());
+		assertEquals(2L * content.length, statistics.getDecodedBytes());
+	}
+
+	@Test
+	public void testEmptyCompressedBody() throws IOException {
+		assertEquals("", read(new byte[0], "gzip"));
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.JsonRequestEntity;
+import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapFormElement;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
+import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
+import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link JsonRequestEntity}.
+ */
+public class JsonRequestEntityTest {
+
+	@Test
+	public void testWriteArtifact() throws IOException {
+		Gson gson = TuleapGsonProvider.defaultGson();
+		TuleapArtifactWithComment artifact = new TuleapArtifactWithComment(123, new TuleapReference(100,
+				"t/100"), new TuleapReference(50, "p/50"));
+		TuleapString field = new TuleapString(222);
+		field.setPermissions(new String[] {AbstractTuleapFormElement.PERMISSION_UPDATE });
+		artifact.addField(field);
+		StringBuilder text = new StringBuilder();
+		StringBuilder escapedText = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			text.append("\u00e9t\u00e9 \"quoted\"\n");
+			escapedText.append("\u00e9t\u00e9 \\\"quoted\\\"\\n");
+		}
+		artifact.addFieldValue(new LiteralFieldValue(222, text.toString()));
+		artifact.setNewComment("Un commentaire \u00e0 envoyer");
+
+		JsonRequestEntity entity = new JsonRequestEntity(gson, artifact, TuleapArtifactWithComment.class);
+		assertTrue(entity.isRepeatable());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		entity.writeRequest(out);
+		assertEquals("{\"values\":[{\"field_id\":222,\"value\":\"" + escapedText
+				+ "\"}],\"comment\":{\"body\":\"Un commentaire \u00e0 envoyer\",\"format\":\"text\"}}", out
+				.toString("UTF-8"));
+		assertEquals(out.size(), entity.getContentLength());
+
+		// The entity can be written again, for instance after a new authentication
+		out.reset();
+		entity.writeRequest(out);
+		assertEquals(entity.getContentLength(), out.size());
+	}
+}
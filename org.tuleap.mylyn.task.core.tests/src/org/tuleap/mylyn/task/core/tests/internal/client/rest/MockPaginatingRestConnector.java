@@ -30,7 +30,7 @@ public class MockPaginatingRestConnector extends MockRestConnector {
 	private Map<String, ServerResponse> responses = Maps.newHashMap();
 
 	@Override
-	public ServerResponse sendRequest(HttpMethod method) {
+	public synchronized ServerResponse sendRequest(HttpMethod method) {
 		String queryString = method.getQueryString();
 		String[] strings = queryString.split("&"); //$NON-NLS-1$
 		for (String s : strings) {
@@ -12,6 +12,8 @@ package org.tuleap.mylyn.task.core.tests.internal.client.rest;
 
 import com.google.common.collect.Lists;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -54,6 +56,11 @@ public class MockRestConnector implements IRestConnector {
 		return response;
 	}
 
+	@Override
+	public ServerResponse sendStreamingRequest(HttpMethod method) {
+		return sendRequest(method);
+	}
+
 	protected ServerRequest getServerRequest(HttpMethod method) {
 		Map<String, String> header = new LinkedHashMap<String, String>();
 		for (Header h : method.getRequestHeaders()) {
@@ -64,6 +71,15 @@ public class MockRestConnector implements IRestConnector {
 			if (entity instanceof StringRequestEntity) {
 				return new ServerRequest(method.getName(), method.getPath(), header, method.getQueryString(),
 						((StringRequestEntity)entity).getContent());
+			} else if (entity != null && entity.isRepeatable()) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try {
+					entity.writeRequest(out);
+					return new ServerRequest(method.getName(), method.getPath(), header, method
+							.getQueryString(), out.toString("UTF-8"));
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
 			}
 		}
 		return new ServerRequest(method.getName(), method.getPath(), header, method.getQueryString());
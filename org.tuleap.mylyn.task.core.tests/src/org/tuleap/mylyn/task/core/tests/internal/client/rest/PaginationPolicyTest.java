@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.PaginationPolicy;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestResource;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestConnector;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link PaginationPolicy}.
+ */
+public class PaginationPolicyTest {
+
+	private static final String URL = "/api/trackers/12/artifacts";
+
+	private PaginationPolicy policy;
+
+	private Map<String, String> headers;
+
+	@Before
+	public void setUp() {
+		policy = new PaginationPolicy(200);
+		headers = Maps.newHashMap();
+	}
+
+	@Test
+	public void testResourceKey() {
+		assertEquals("/api/trackers/:id/artifacts", PaginationPolicy.getResourceKey(URL));
+		assertEquals("/api/user_groups/:id/users", PaginationPolicy
+				.getResourceKey("/api/user_groups/101_3/users"));
+		assertEquals("/api/projects", PaginationPolicy.getResourceKey("/api/projects"));
+	}
+
+	@Test
+	public void testLimitRaisedToServerMaximum() {
+		assertEquals(200, policy.getLimit(URL));
+		headers.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "500");
+		policy.pageReceived(URL, 200, new ServerResponse(ServerResponse.STATUS_OK, "[]", headers));
+		assertEquals(500, policy.getLimit("/api/trackers/13/artifacts"));
+		assertEquals(200, policy.getLimit("/api/projects"));
+	}
+
+	@Test
+	public void testLimitLoweredWhenNotAcceptable() {
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_NOT_ACCEPTABLE, "", headers);
+		assertEquals(RestResource.DEFAULT_PAGINATION_LIMIT, policy.pageFailed(URL, 200, response));
+		assertEquals(RestResource.DEFAULT_PAGINATION_LIMIT, policy.getLimit(URL));
+		assertEquals(-1, policy.pageFailed(URL, RestResource.DEFAULT_PAGINATION_LIMIT, response));
+	}
+
+	@Test
+	public void testLimitLoweredOnTimeOut() {
+		ServerResponse response = new ServerResponse(TuleapRestConnector.IO_ERROR_STATUS_CODE, "", headers);
+		assertEquals(100, policy.pageFailed(URL, 200, response));
+		// A lowered limit is not raised anymore
+		headers.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "500");
+		policy.pageReceived(URL, 100, new ServerResponse(ServerResponse.STATUS_OK, "[]", headers));
+		assertEquals(100, policy.getLimit(URL));
+		// Other errors are not related to the size of the pages
+		assertEquals(-1, policy.pageFailed(URL, 100, new ServerResponse(ServerResponse.STATUS_NOT_FOUND, "",
+				headers)));
+	}
+
+	@Test
+	public void testLimitLoweredWhenPageTooLarge() {
+		policy.pageReceived(URL, 200, new ServerResponse(ServerResponse.STATUS_OK, "[]", headers));
+		policy.pageRead(URL, 200, 10L * 1024 * 1024);
+		assertEquals(100, policy.getLimit(URL));
+		// A lowered limit is not raised anymore
+		headers.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "500");
+		policy.pageReceived(URL, 100, new ServerResponse(ServerResponse.STATUS_OK, "[]", headers));
+		assertEquals(100, policy.getLimit(URL));
+	}
+
+	/**
+	 * The size of the pages is measured while they are read, since compressed or chunked responses have no
+	 * Content-Length header.
+	 */
+	@Test
+	public void testLimitLoweredWhenStreamedPageTooLarge() throws UnsupportedEncodingException {
+		char[] value = new char[5 * 1024 * 1024];
+		Arrays.fill(value, 'x');
+		byte[] page = ("[{'a':'" + new String(value) + "'}]").getBytes("UTF-8");
+		MockListRestConnector connector = new MockListRestConnector();
+		Map<String, String> responseHeaders = Maps.newHashMap();
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "1");
+		connector.addServerResponse(new ServerResponse(ServerResponse.STATUS_OK, new ByteArrayInputStream(
+				page), "UTF-8", responseHeaders));
+		RestOperation op = RestOperation.get(URL, connector, new Gson(), new TestLogger())
+				.withPaginationPolicy(policy);
+
+		int count = 0;
+		for (JsonElement element : op.iterable()) {
+			assertTrue(element.isJsonObject());
+			count++;
+		}
+		assertEquals(1, count);
+		assertEquals(100, policy.getLimit(URL));
+	}
+
+	@Test
+	public void testIterationRetriedWithSmallerPage() {
+		MockListRestConnector connector = new MockListRestConnector();
+		connector.addServerResponse(new ServerResponse(ServerResponse.STATUS_NOT_ACCEPTABLE, "", headers));
+		Map<String, String> responseHeaders = Maps.newHashMap();
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "2");
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "50");
+		connector.addServerResponse(new ServerResponse(ServerResponse.STATUS_OK, "[{'a':'1'},{'a':'2'}]",
+				responseHeaders));
+		RestOperation op = RestOperation.get(URL, connector, new Gson(), new TestLogger())
+				.withPaginationPolicy(policy);
+
+		int count = 0;
+		for (JsonElement element : op.iterable()) {
+			assertTrue(element.isJsonObject());
+			count++;
+		}
+		assertEquals(2, count);
+		assertEquals(2, connector.getRequestsSent().size());
+		assertTrue(connector.getRequestsSent().get(0).queryString.contains("limit=200"));
+		assertTrue(connector.getRequestsSent().get(1).queryString.contains("limit=50"));
+		assertEquals(50, policy.getLimit(URL));
+	}
+}
@@ -14,12 +14,18 @@ import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.Iterator;
 import java.util.Map;
 
 import org.apache.commons.httpclient.HttpMethod;
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.junit.Before;
 import org.junit.Test;
 import org.tuleap.mylyn.task.core.internal.client.rest.IAuthenticator;
@@ -175,6 +181,137 @@ public class RestOperationsTest {
 		assertFalse(iterator.hasNext());
 	}
 
+	/**
+	 * Checks that the pages received as streams are read incrementally and released once read.
+	 */
+	@Test
+	public void testIteratingOnStreamedArrayWithPagination() throws UnsupportedEncodingException {
+		MockPaginatingRestConnector paginatingConnector = new MockPaginatingRestConnector();
+		RestOperation op = RestOperation.get("some/url", paginatingConnector, gson, logger);
+
+		Map<String, String> responseHeaders = Maps.newLinkedHashMap();
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "3");
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT, "2");
+		CloseTrackingInputStream stream = new CloseTrackingInputStream("[{'a':'1'},{'a':'2'}]");
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_OK, stream, "UTF-8",
+				responseHeaders);
+		CloseTrackingInputStream stream2 = new CloseTrackingInputStream("[{'a':'3'}]");
+		ServerResponse response2 = new ServerResponse(ServerResponse.STATUS_OK, stream2, "UTF-8",
+				responseHeaders);
+		paginatingConnector.setResponse(response);
+		paginatingConnector.putResponse(2, response2);
+
+		Iterator<JsonElement> iterator = new RestOperationIterable(op).iterator();
+		assertEquals("{\"a\":\"1\"}", iterator.next().toString());
+		assertEquals("{\"a\":\"2\"}", iterator.next().toString());
+		assertFalse(stream.closed);
+		assertEquals("{\"a\":\"3\"}", iterator.next().toString());
+		assertTrue(stream.closed);
+		assertTrue(stream2.closed);
+		assertEquals(2, paginatingConnector.getInvocationsCount());
+		assertFalse(iterator.hasNext());
+	}
+
+	/**
+	 * Checks that the connection is released when the list of elements is empty.
+	 */
+	@Test
+	public void testIteratingOnEmptyArrayWithPagination() throws UnsupportedEncodingException {
+		MockPaginatingRestConnector paginatingConnector = new MockPaginatingRestConnector();
+		RestOperation op = RestOperation.get("some/url", paginatingConnector, gson, logger);
+
+		Map<String, String> responseHeaders = Maps.newLinkedHashMap();
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "0");
+		CloseTrackingInputStream stream = new CloseTrackingInputStream("[]");
+		paginatingConnector.setResponse(new ServerResponse(ServerResponse.STATUS_OK, stream, "UTF-8",
+				responseHeaders));
+
+		Iterator<JsonElement> iterator = new RestOperationIterable(op).iterator();
+		assertTrue(stream.closed);
+		assertFalse(iterator.hasNext());
+		assertEquals(1, paginatingConnector.getInvocationsCount());
+	}
+
+	/**
+	 * Checks that the following pages are retrieved in advance when a look-ahead is requested, and that the
+	 * elements are still returned in order.
+	 */
+	@Test
+	public void testIteratingWithPagesRetrievedInAdvance() throws UnsupportedEncodingException {
+		MockPaginatingRestConnector paginatingConnector = new MockPaginatingRestConnector();
+		RestOperation op = RestOperation.get("some/url", paginatingConnector, gson, logger);
+
+		Map<String, String> responseHeaders = Maps.newLinkedHashMap();
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "5");
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT, "2");
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "2");
+		paginatingConnector.setResponse(new ServerResponse(ServerResponse.STATUS_OK,
+				new CloseTrackingInputStream("[{'a':'1'},{'a':'2'}]"), "UTF-8", responseHeaders));
+		CloseTrackingInputStream stream2 = new CloseTrackingInputStream("[{'a':'3'},{'a':'4'}]");
+		paginatingConnector.putResponse(2, new ServerResponse(ServerResponse.STATUS_OK, stream2, "UTF-8",
+				responseHeaders));
+		CloseTrackingInputStream stream3 = new CloseTrackingInputStream("[{'a':'5'}]");
+		paginatingConnector.putResponse(4, new ServerResponse(ServerResponse.STATUS_OK, stream3, "UTF-8",
+				responseHeaders));
+
+		int i = 0;
+		for (JsonElement element : op.iterable(2, new NullProgressMonitor())) {
+			i++;
+			assertEquals("{\"a\":\"" + i + "\"}", element.toString());
+		}
+		assertEquals(5, i);
+		assertEquals(3, paginatingConnector.getInvocationsCount());
+		assertTrue(stream2.closed);
+		assertTrue(stream3.closed);
+	}
+
+	/**
+	 * Checks that the iteration stops when the progress monitor is canceled.
+	 */
+	@Test(expected = OperationCanceledException.class)
+	public void testIteratingWithPagesRetrievedInAdvanceCanceled() throws UnsupportedEncodingException {
+		MockPaginatingRestConnector paginatingConnector = new MockPaginatingRestConnector();
+		RestOperation op = RestOperation.get("some/url", paginatingConnector, gson, logger);
+
+		Map<String, String> responseHeaders = Maps.newLinkedHashMap();
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "3");
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT, "2");
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "2");
+		CloseTrackingInputStream stream = new CloseTrackingInputStream("[{'a':'1'},{'a':'2'}]");
+		paginatingConnector.setResponse(new ServerResponse(ServerResponse.STATUS_OK, stream, "UTF-8",
+				responseHeaders));
+		paginatingConnector.putResponse(2, new ServerResponse(ServerResponse.STATUS_OK,
+				new CloseTrackingInputStream("[{'a':'3'}]"), "UTF-8", responseHeaders));
+
+		IProgressMonitor monitor = new NullProgressMonitor();
+		Iterator<JsonElement> iterator = op.iterable(1, monitor).iterator();
+		assertEquals("{\"a\":\"1\"}", iterator.next().toString());
+		monitor.setCanceled(true);
+		try {
+			iterator.hasNext();
+		} finally {
+			assertTrue(stream.closed);
+		}
+	}
+
+	/**
+	 * Input stream that records whether it has been closed.
+	 */
+	private static class CloseTrackingInputStream extends ByteArrayInputStream {
+
+		private boolean closed;
+
+		public CloseTrackingInputStream(String content) throws UnsupportedEncodingException {
+			super(content.getBytes("UTF-8"));
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+	}
+
 	/**
 	 * Checks that invoking run() on {@link RestOperation}s attempt to login automatically when they receive a
 	 * 401 UNAUTHORIZED response.
@@ -13,12 +13,17 @@ package org.tuleap.mylyn.task.core.tests.internal.client.rest;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.StringUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -50,6 +55,9 @@ import org.tuleap.mylyn.task.core.tests.internal.parser.ParserUtil;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests of {@link TuleapRestClient}.
@@ -280,6 +288,69 @@ public class TuleapRestClientTest {
 				request.body);
 	}
 
+	@Test
+	public void testRetrieveArtifactFileContent() throws CoreException {
+		Map<String, String> respHeaders = Maps.newHashMap();
+		// The slashes may be escaped by the server
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_OK,
+				"{\"name\":\"f\",\"data\":\"VGhpcyBpcyB0aGUgZmlsZSBkYXRhIHRvIHRlc3Q=\",\"x\":null}",
+				respHeaders);
+		connector.setResponse(response);
+		byte[] buffer = new byte[29];
+		assertEquals(29, client.getArtifactFileContent(10, 0, buffer, null));
+		assertEquals("This is the file data to test", StringUtils.newStringUtf8(buffer));
+
+		List<ServerRequest> requestsSent = connector.getRequestsSent();
+		assertEquals(1, requestsSent.size());
+		ServerRequest request = requestsSent.get(0);
+		assertEquals("/api/v12.3/artifact_files/10", request.url); //$NON-NLS-1$
+		assertEquals("GET", request.method); //$NON-NLS-1$
+		assertTrue(request.queryString.contains("limit=29")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testCreateArtifactFileFromBytes() throws CoreException {
+		Map<String, String> respHeaders = Maps.newHashMap();
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_OK,
+				"{\"id\": 50, \"uri\": \"artifact_files/50\" }", respHeaders); //$NON-NLS-1$
+		connector.setResponse(response);
+		byte[] content = StringUtils.getBytesUtf8("The file data and some garbage");
+		TuleapReference reference = client.createArtifactFile(content, 13, "application/zip", "fileName",
+				"file description", null);
+		assertEquals(50, reference.getId());
+
+		List<ServerRequest> requestsSent = connector.getRequestsSent();
+		assertEquals(1, requestsSent.size());
+		ServerRequest request = requestsSent.get(0);
+		assertEquals("/api/v12.3/artifact_temporary_files", request.url); //$NON-NLS-1$
+		assertEquals("POST", request.method); //$NON-NLS-1$
+		assertEquals("{\"name\":\"fileName\",\"description\":\"file description\","
+				+ "\"mimetype\":\"application/zip\",\"content\":\""
+				+ Base64.encodeBase64String(StringUtils.getBytesUtf8("The file data")) + "\"}", //$NON-NLS-1$
+				request.body);
+	}
+
+	@Test
+	public void testUpdateArtifactFileFromBytes() throws CoreException {
+		Map<String, String> respHeaders = Maps.newHashMap();
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_OK,
+				"The response body", respHeaders); //$NON-NLS-1$
+		connector.setResponse(response);
+		byte[] content = new byte[5000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte)i;
+		}
+		client.updateArtifactFile(10, content, content.length, 64, null);
+
+		List<ServerRequest> requestsSent = connector.getRequestsSent();
+		assertEquals(1, requestsSent.size());
+		ServerRequest request = requestsSent.get(0);
+		assertEquals("/api/v12.3/artifact_temporary_files/10", request.url); //$NON-NLS-1$
+		assertEquals("PUT", request.method); //$NON-NLS-1$
+		assertEquals("{\"offset\":64,\"content\":\"" //$NON-NLS-1$
+				+ Base64.encodeBase64String(content) + "\"}", request.body); //$NON-NLS-1$
+	}
+
 	@Test
 	public void testDeleteArtifactFile() throws CoreException, ParseException {
 		Map<String, String> respHeaders = Maps.newHashMap();
@@ -430,6 +501,102 @@ public class TuleapRestClientTest {
 		assertEquals("GET", request.method); //$NON-NLS-1$
 	}
 
+	@Test
+	public void testTrackerNotModified() throws CoreException, ParseException {
+		MockListRestConnector listConnector = new MockListRestConnector();
+		restResourceFactory = new RestResourceFactory(apiVersion, listConnector, gson, new TestLogger());
+		client = new TuleapRestClient(restResourceFactory, gson, repository);
+		Map<String, String> respHeaders = Maps.newHashMap();
+		respHeaders.put("Etag", "\"abc\"");
+		listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_OK, ParserUtil
+				.loadFile("/trackers/tracker-5.json"), respHeaders));
+		listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_NOT_MODIFIED, "",
+				respHeaders));
+
+		TuleapTracker tracker = client.getTracker(102, null);
+		assertNotNull(tracker);
+		assertSame(tracker, client.getTracker(102, null));
+
+		List<ServerRequest> requestsSent = listConnector.getRequestsSent();
+		assertEquals(2, requestsSent.size());
+		assertNull(requestsSent.get(0).headers.get("If-None-Match"));
+		assertEquals("\"abc\"", requestsSent.get(1).headers.get("If-None-Match"));
+	}
+
+	@Test
+	public void testTrackerNotModifiedWithoutCachedTracker() throws CoreException, ParseException {
+		MockListRestConnector listConnector = new MockListRestConnector();
+		restResourceFactory = new RestResourceFactory(apiVersion, listConnector, gson, new TestLogger());
+		client = new TuleapRestClient(restResourceFactory, gson, repository);
+		Map<String, String> respHeaders = Maps.newHashMap();
+		listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_NOT_MODIFIED, "",
+				respHeaders));
+		listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_OK, ParserUtil
+				.loadFile("/trackers/tracker-5.json"), respHeaders));
+
+		assertNotNull(client.getTracker(102, null));
+
+		List<ServerRequest> requestsSent = listConnector.getRequestsSent();
+		assertEquals(2, requestsSent.size());
+		assertNull(requestsSent.get(0).headers.get("If-None-Match"));
+		assertNull(requestsSent.get(1).headers.get("If-None-Match"));
+	}
+
+	@Test
+	public void testRetrieveTrackerArtifactsByIdRanges() throws CoreException, UnsupportedEncodingException {
+		MockListRestConnector listConnector = new MockListRestConnector();
+		restResourceFactory = new RestResourceFactory(apiVersion, listConnector, gson, new TestLogger());
+		client = new TuleapRestClient(restResourceFactory, gson, repository);
+		Map<String, String> respHeaders = Maps.newHashMap();
+		listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_OK,
+				"[{\"id\":3,\"values\":[]},{\"id\":4,\"values\":[]},{\"id\":5,\"values\":[]}]",
+				respHeaders));
+		listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_OK,
+				"[{\"id\":250,\"values\":[]}]", respHeaders));
+		TuleapTracker tracker = new TuleapTracker(10, null, null, null, null, null);
+		tracker.setArtifactIdFieldName("artifact_id");
+
+		List<TuleapArtifact> artifacts = client.getTrackerArtifacts(tracker, Arrays.asList(
+				Integer.valueOf(250), Integer.valueOf(5), Integer.valueOf(3)), null);
+		assertEquals(3, artifacts.size());
+		assertEquals(Integer.valueOf(3), artifacts.get(0).getId());
+		assertEquals(Integer.valueOf(5), artifacts.get(1).getId());
+		assertEquals(Integer.valueOf(250), artifacts.get(2).getId());
+
+		List<ServerRequest> requestsSent = listConnector.getRequestsSent();
+		assertEquals(2, requestsSent.size());
+		String query = URLDecoder.decode(requestsSent.get(0).queryString, "UTF-8");
+		String criterion = "query={\"artifact_id\":{\"operator\":\"between\",\"value\":";
+		assertTrue(query.contains(criterion + "[3,5]}}"));
+		query = URLDecoder.decode(requestsSent.get(1).queryString, "UTF-8");
+		assertTrue(query.contains(criterion + "[250,250]}}"));
+	}
+
+	@Test
+	public void testRetrieveTrackerArtifactsWithoutFilteringServer() throws CoreException {
+		MockListRestConnector listConnector = new MockListRestConnector();
+		restResourceFactory = new RestResourceFactory(apiVersion, listConnector, gson, new TestLogger());
+		client = new TuleapRestClient(restResourceFactory, gson, repository);
+		Map<String, String> respHeaders = Maps.newHashMap();
+		listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_OK,
+				"[{\"id\":1,\"values\":[]},{\"id\":3,\"values\":[]}]", respHeaders));
+		TuleapTracker tracker = new TuleapTracker(10, null, null, null, null, null);
+		tracker.setArtifactIdFieldName("artifact_id");
+
+		// The server ignores the criterion, the artifacts must be retrieved one by one
+		assertTrue(client.getTrackerArtifacts(tracker, Arrays.asList(Integer.valueOf(3)), null).isEmpty());
+		assertTrue(client.getTrackerArtifacts(tracker, Arrays.asList(Integer.valueOf(3)), null).isEmpty());
+		assertEquals(1, listConnector.getRequestsSent().size());
+	}
+
+	@Test
+	public void testRetrieveTrackerArtifactsWithoutArtifactIdField() throws CoreException {
+		TuleapTracker tracker = new TuleapTracker(10, null, null, null, null, null);
+
+		assertTrue(client.getTrackerArtifacts(tracker, Arrays.asList(Integer.valueOf(3)), null).isEmpty());
+		assertEquals(0, connector.getRequestsSent().size());
+	}
+
 	/**
 	 * Test that the token creation on the server is well done.
 	 *
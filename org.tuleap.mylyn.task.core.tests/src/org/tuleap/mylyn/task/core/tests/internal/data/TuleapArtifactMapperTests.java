@@ -11,6 +11,7 @@
 package org.tuleap.mylyn.task.core.tests.internal.data;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -58,6 +59,7 @@ import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
 import org.tuleap.mylyn.task.core.internal.parser.DateIso8601Adapter;
 import org.tuleap.mylyn.task.core.internal.repository.ITuleapRepositoryConnector;
 import org.tuleap.mylyn.task.core.internal.repository.TuleapAttributeMapper;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapCommentsCache;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
@@ -197,6 +199,11 @@ public class TuleapArtifactMapperTests {
 				return null;
 			}
 
+			@Override
+			public TuleapCommentsCache getCommentsCache(TaskRepository taskRepository) {
+				return null;
+			}
+
 			@Override
 			public TuleapServer getServer(TaskRepository repo) {
 				return tuleapServer;
@@ -401,6 +408,57 @@ public class TuleapArtifactMapperTests {
 		assertEquals("This is the first comment", textAttribute.getValue());
 	}
 
+	/**
+	 * Verification of adding several comments at once, after a comment already added.
+	 */
+	@Test
+	public void testAddComments() {
+		mapper.initializeEmptyTaskData();
+		TuleapUser first = new TuleapUser("first", "First", 17, //$NON-NLS-1$ //$NON-NLS-2$
+				"first@mail", null); //$NON-NLS-1$
+		TuleapUser second = new TuleapUser("second", "Second", 18, //$NON-NLS-1$ //$NON-NLS-2$
+				"second@mail", null); //$NON-NLS-1$
+		mapper.addComment(new TuleapElementComment("Comment 0", first, new Date(1000L))); //$NON-NLS-1$
+
+		List<TuleapElementComment> comments = new ArrayList<TuleapElementComment>();
+		for (int i = 1; i < 50; i++) {
+			TuleapUser submitter;
+			if (i % 3 == 0) {
+				submitter = null;
+			} else if (i % 2 == 0) {
+				submitter = second;
+			} else {
+				submitter = first;
+			}
+			String body = "Comment " + i; //$NON-NLS-1$
+			comments.add(new TuleapElementComment(body, submitter, new Date(1000L * i)));
+		}
+		mapper.addComments(comments);
+
+		for (int i = 0; i < 50; i++) {
+			TaskAttribute att = taskData.getRoot().getMappedAttribute(TaskAttribute.PREFIX_COMMENT + i);
+			assertNotNull(att);
+			assertEquals(String.valueOf(i), att.getMappedAttribute(TaskAttribute.COMMENT_NUMBER).getValue());
+			TaskAttribute textAttribute = att.getMappedAttribute(TaskAttribute.COMMENT_TEXT);
+			assertEquals("Comment " + i, textAttribute.getValue()); //$NON-NLS-1$
+			assertEquals(Long.toString(Math.max(1000L * i, 1000L)), att.getMappedAttribute(
+					TaskAttribute.COMMENT_DATE).getValue());
+			TaskAttribute authorAttribute = att.getMappedAttribute(TaskAttribute.COMMENT_AUTHOR);
+			if (i > 0 && i % 3 == 0) {
+				assertNull(authorAttribute);
+			} else if (i > 0 && i % 2 == 0) {
+				assertEquals("second@mail", authorAttribute.getValue()); //$NON-NLS-1$
+				TaskAttribute nameAttribute = authorAttribute.getMappedAttribute(TaskAttribute.PERSON_NAME);
+				assertEquals("second", nameAttribute.getValue()); //$NON-NLS-1$
+			} else {
+				assertEquals("first@mail", authorAttribute.getValue()); //$NON-NLS-1$
+				TaskAttribute nameAttribute = authorAttribute.getMappedAttribute(TaskAttribute.PERSON_NAME);
+				assertEquals("first", nameAttribute.getValue()); //$NON-NLS-1$
+			}
+		}
+		assertNull(taskData.getRoot().getMappedAttribute(TaskAttribute.PREFIX_COMMENT + 50));
+	}
+
 	/**
 	 * Verification of adding an attachment.
 	 *
@@ -1000,6 +1058,36 @@ public class TuleapArtifactMapperTests {
 		assertThat(((LiteralFieldValue)fieldValue).getFieldValue(), is("2.5"));
 	}
 
+	/**
+	 * Only the values of the given attributes are returned, including the semantic ones.
+	 */
+	@Test
+	public void testGetChangedFieldValues() {
+		tuleapTracker.addField(this.newSemanticTitle(0));
+		tuleapTracker.addField(this.newTuleapString(6));
+		tuleapTracker.addField(this.newTuleapFloat(7));
+		mapper.initializeEmptyTaskData();
+
+		// Populate the task data
+		this.taskData.getRoot().getMappedAttribute(TaskAttribute.SUMMARY).setValue("Title");
+		this.taskData.getRoot().getMappedAttribute(String.valueOf(6)).setValue("Some text");
+		this.taskData.getRoot().getMappedAttribute(String.valueOf(7)).setValue("2.5");
+
+		List<AbstractFieldValue> fieldValues = this.mapper.getFieldValues(Sets.newHashSet(String
+				.valueOf(7)));
+		assertThat(fieldValues.size(), is(1));
+		assertThat(fieldValues.get(0).getFieldId(), is(7));
+		assertThat(((LiteralFieldValue)fieldValues.get(0)).getFieldValue(), is("2.5"));
+
+		fieldValues = this.mapper.getFieldValues(Sets.newHashSet(TaskAttribute.SUMMARY));
+		assertThat(fieldValues.size(), is(1));
+		assertThat(fieldValues.get(0).getFieldId(), is(0));
+		assertThat(((LiteralFieldValue)fieldValues.get(0)).getFieldValue(), is("Title"));
+
+		assertThat(this.mapper.getFieldValues(Sets.<String> newHashSet()).size(), is(0));
+		assertThat(this.mapper.getFieldValues(null).size(), is(3));
+	}
+
 	@Test
 	public void testGetIntegerFieldValue() {
 		tuleapTracker.addField(this.newTuleapFloat(5));
@@ -53,6 +53,45 @@ public class TuleapProjectConfigurationTests {
 		assertEquals(1, project.getAllTrackers().size());
 	}
 
+	/**
+	 * Checks that the trackers of the server are found whatever the order in which they are added and
+	 * replaced.
+	 */
+	@Test
+	public void testServerTrackers() {
+		TuleapServer server = new TuleapServer("http://server/url");
+		TuleapProject project = new TuleapProject("Test Project", 42);
+		Date date = new Date();
+		TuleapTracker tracker1 = new TuleapTracker(1, "tracker/1", "Tracker", "Item name", "Description",
+				date);
+		project.addTracker(tracker1);
+		server.addProject(project);
+		assertSame(tracker1, server.getTracker(1));
+		assertNull(server.getTracker(2));
+
+		// Tracker added to a project of the server
+		TuleapTracker tracker2 = new TuleapTracker(2, "tracker/2", "Tracker", "Item name", "Description",
+				date);
+		project.addTracker(tracker2);
+		assertSame(tracker2, server.getTracker(2));
+
+		// Tracker replaced
+		TuleapTracker newTracker1 = new TuleapTracker(1, "tracker/1", "Tracker", "Item name", "Description",
+				date);
+		server.replaceTracker(42, newTracker1);
+		assertSame(newTracker1, server.getTracker(1));
+
+		// Project replaced
+		TuleapProject newProject = new TuleapProject("Test Project", 42);
+		TuleapTracker tracker3 = new TuleapTracker(3, "tracker/3", "Tracker", "Item name", "Description",
+				date);
+		newProject.addTracker(tracker3);
+		server.addProject(newProject);
+		assertNull(server.getTracker(1));
+		assertNull(server.getTracker(2));
+		assertSame(tracker3, server.getTracker(3));
+	}
+
 	@Test
 	public void testResources() {
 		TuleapProject project = new TuleapProject("Test Project", 42);
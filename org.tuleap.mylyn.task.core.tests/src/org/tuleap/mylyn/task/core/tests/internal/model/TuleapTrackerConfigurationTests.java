@@ -34,6 +34,7 @@ import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapText;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -600,4 +601,23 @@ public class TuleapTrackerConfigurationTests {
 		assertNull(tracker10.getAttachmentField());
 
 	}
+
+	@Test
+	public void testGetFieldByAttributeId() {
+		TuleapString title = new TuleapString(1);
+		title.setSemanticTitle(true);
+		tracker10.addField(title);
+		TuleapInteger tuleapInteger = new TuleapInteger(3);
+		tracker10.addField(tuleapInteger);
+
+		assertSame(title, tracker10.getFieldByAttributeId("1")); //$NON-NLS-1$
+		assertSame(tuleapInteger, tracker10.getFieldByAttributeId("3")); //$NON-NLS-1$
+		assertNull(tracker10.getFieldByAttributeId("2")); //$NON-NLS-1$
+		assertNull(tracker10.getFieldByAttributeId("task.common.summary")); //$NON-NLS-1$
+
+		// The index is updated when a field is added
+		TuleapText tuleapText = new TuleapText(2);
+		tracker10.addField(tuleapText);
+		assertSame(tuleapText, tracker10.getFieldByAttributeId("2")); //$NON-NLS-1$
+	}
 }
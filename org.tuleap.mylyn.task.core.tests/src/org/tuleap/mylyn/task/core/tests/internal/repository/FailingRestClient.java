@@ -12,6 +12,8 @@ package org.tuleap.mylyn.task.core.tests.internal.repository;
 
 import com.google.gson.Gson;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
@@ -61,6 +63,13 @@ public class FailingRestClient extends TuleapRestClient {
 		return null;
 	}
 
+	@Override
+	public TuleapReference createArtifactFile(byte[] content, int length, String type, String name,
+			String description, IProgressMonitor monitor) throws CoreException {
+		fail("Should not be called.");
+		return null;
+	}
+
 	@Override
 	public void deleteArtifactFile(int fileId, IProgressMonitor monitor) throws CoreException {
 		fail("Should not be called.");
@@ -87,6 +96,13 @@ public class FailingRestClient extends TuleapRestClient {
 		return null;
 	}
 
+	@Override
+	public int getArtifactFileContent(int fileId, int offset, byte[] buffer, IProgressMonitor monitor)
+			throws CoreException {
+		fail("Should not be called.");
+		return 0;
+	}
+
 	@Override
 	public List<TuleapArtifact> getArtifactsFromQuery(IRepositoryQuery query, TuleapTracker tracker,
 			IProgressMonitor monitor) throws CoreException {
@@ -133,6 +149,20 @@ public class FailingRestClient extends TuleapRestClient {
 		return null;
 	}
 
+	@Override
+	public List<TuleapArtifact> getTrackerArtifacts(TuleapTracker tracker, Collection<Integer> artifactIds,
+			IProgressMonitor monitor) throws CoreException {
+		fail("Should not be called.");
+		return null;
+	}
+
+	@Override
+	public List<TuleapArtifact> getArtifactsModifiedSince(TuleapTracker tracker, Date since,
+			IProgressMonitor monitor) throws CoreException {
+		fail("Should not be called.");
+		return null;
+	}
+
 	@Override
 	public List<TuleapTrackerReport> getTrackerReports(int trackerId, IProgressMonitor monitor)
 			throws CoreException {
@@ -170,6 +200,12 @@ public class FailingRestClient extends TuleapRestClient {
 		fail("Should not be called.");
 	}
 
+	@Override
+	public void updateArtifactFile(int fileId, byte[] content, int length, int offset,
+			IProgressMonitor monitor) throws CoreException {
+		fail("Should not be called.");
+	}
+
 	@Override
 	public IStatus validateConnection(IProgressMonitor monitor) {
 		fail("Should not be called.");
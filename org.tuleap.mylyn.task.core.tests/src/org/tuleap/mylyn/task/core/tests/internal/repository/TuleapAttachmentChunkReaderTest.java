@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapAttachmentChunkReader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of {@link TuleapAttachmentChunkReader}.
+ */
+public class TuleapAttachmentChunkReaderTest {
+
+	@Test
+	public void testReadChunks() throws IOException {
+		byte[] bytes = new byte[17];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte)(i * 37 - 128);
+		}
+		TuleapAttachmentChunkReader reader = new TuleapAttachmentChunkReader(new ByteArrayInputStream(bytes),
+				7);
+		ByteBuffer first = reader.call();
+		assertArrayEquals(Arrays.copyOfRange(bytes, 0, 7), toArray(first));
+		ByteBuffer second = reader.call();
+		assertArrayEquals(Arrays.copyOfRange(bytes, 7, 14), toArray(second));
+		// The two buffers are used alternately
+		assertNotSame(first.array(), second.array());
+		ByteBuffer third = reader.call();
+		assertSame(first.array(), third.array());
+		assertArrayEquals(Arrays.copyOfRange(bytes, 14, 17), toArray(third));
+		assertNull(reader.call());
+	}
+
+	@Test
+	public void testFullChunksOnPartialReads() throws IOException {
+		byte[] bytes = new byte[10];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte)i;
+		}
+		// A stream that returns at most 2 bytes per read
+		TuleapAttachmentChunkReader reader = new TuleapAttachmentChunkReader(new ByteArrayInputStream(bytes) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 2));
+			}
+		}, 6);
+		assertEquals(6, reader.call().limit());
+		assertEquals(4, reader.call().limit());
+		assertNull(reader.call());
+	}
+
+	private static byte[] toArray(ByteBuffer buffer) {
+		return Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit());
+	}
+}
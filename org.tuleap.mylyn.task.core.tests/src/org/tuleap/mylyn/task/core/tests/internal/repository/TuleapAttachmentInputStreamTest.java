@@ -13,8 +13,11 @@ package org.tuleap.mylyn.task.core.tests.internal.repository;
 import com.google.gson.Gson;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
-import org.apache.commons.codec.binary.Base64;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.ILogListener;
@@ -29,11 +32,11 @@ import org.osgi.framework.Bundle;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestResourceFactory;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestConnector;
-import org.tuleap.mylyn.task.core.internal.model.data.TuleapFile;
 import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
 import org.tuleap.mylyn.task.core.internal.repository.TuleapAttachmentInputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -85,20 +88,20 @@ public class TuleapAttachmentInputStreamTest {
 
 	@Test
 	public void testWithSmallFile() throws IOException {
-		byte[] bytes = new byte[1024];
+		final byte[] bytes = new byte[1024];
 		for (int i = 0; i < 1024; i++) {
 			bytes[i] = (byte)(i % 256);
 		}
-		final TuleapFile file = new TuleapFile(Base64.encodeBase64String(bytes));
 		client = new TuleapRestClient(resourceFactory, gson, repository) {
 			@Override
-			public TuleapFile getArtifactFile(int fileId, int offset, int limit, IProgressMonitor monitor)
+			public int getArtifactFileContent(int fileId, int offset, byte[] buffer, IProgressMonitor monitor)
 					throws CoreException {
-				if (offset == 0 && limit == 1024) {
-					return file;
+				if (offset == 0 && buffer.length == 1024) {
+					System.arraycopy(bytes, 0, buffer, 0, 1024);
+					return 1024;
 				}
-				fail(String.format("Invalid arguments: offset = %d, limit = %d", offset, limit));
-				return null;
+				fail(String.format("Invalid arguments: offset = %d, limit = %d", offset, buffer.length));
+				return 0;
 			}
 		};
 		TuleapAttachmentInputStream stream = null;
@@ -117,27 +120,27 @@ public class TuleapAttachmentInputStreamTest {
 
 	@Test
 	public void testWithLargeFile() throws IOException {
-		byte[] bytes = new byte[512];
-		byte[] bytes2 = new byte[512];
+		final byte[] bytes = new byte[512];
+		final byte[] bytes2 = new byte[512];
 		for (int i = 0; i < 512; i++) {
 			bytes[i] = (byte)(i % 256);
 		}
 		for (int i = 0; i < 512; i++) {
 			bytes2[i] = (byte)((512 - i) % 256);
 		}
-		final TuleapFile file = new TuleapFile(Base64.encodeBase64String(bytes));
-		final TuleapFile file2 = new TuleapFile(Base64.encodeBase64String(bytes2));
 		client = new TuleapRestClient(resourceFactory, gson, repository) {
 			@Override
-			public TuleapFile getArtifactFile(int fileId, int offset, int limit, IProgressMonitor monitor)
+			public int getArtifactFileContent(int fileId, int offset, byte[] buffer, IProgressMonitor monitor)
 					throws CoreException {
-				if (offset == 0 && limit == 512) {
-					return file;
-				} else if (offset == 512 && limit == 512) {
-					return file2;
+				if (offset == 0 && buffer.length == 512) {
+					System.arraycopy(bytes, 0, buffer, 0, 512);
+					return 512;
+				} else if (offset == 512 && buffer.length == 512) {
+					System.arraycopy(bytes2, 0, buffer, 0, 512);
+					return 512;
 				}
-				fail(String.format("Invalid arguments: offset = %d, limit = %d", offset, limit));
-				return null;
+				fail(String.format("Invalid arguments: offset = %d, limit = %d", offset, buffer.length));
+				return 0;
 			}
 		};
 		TuleapAttachmentInputStream stream = null;
@@ -156,4 +159,97 @@ public class TuleapAttachmentInputStreamTest {
 			}
 		}
 	}
+
+	@Test
+	public void testBulkReadAndSkip() throws IOException {
+		final byte[] bytes = new byte[1000];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte)(i % 251);
+		}
+		final List<Integer> offsets = new ArrayList<Integer>();
+		client = new TuleapRestClient(resourceFactory, gson, repository) {
+			@Override
+			public int getArtifactFileContent(int fileId, int offset, byte[] buffer, IProgressMonitor monitor)
+					throws CoreException {
+				offsets.add(Integer.valueOf(offset));
+				System.arraycopy(bytes, offset, buffer, 0, buffer.length);
+				return buffer.length;
+			}
+		};
+		TuleapAttachmentInputStream stream = null;
+		try {
+			stream = new TuleapAttachmentInputStream(bytes.length, 123, 300, client, null);
+			assertEquals(0, stream.available());
+			byte[] buffer = new byte[500];
+			// A read never goes past the current chunk
+			assertEquals(300, stream.read(buffer, 0, 500));
+			assertEquals(0, stream.available());
+			assertEquals(100, stream.read(buffer, 300, 100));
+			assertEquals(200, stream.available());
+			for (int i = 0; i < 400; i++) {
+				assertEquals(bytes[i], buffer[i]);
+			}
+
+			// Skipping to 750 downloads the next chunk from 750 without downloading the bytes skipped
+			assertEquals(350, stream.skip(350));
+			assertEquals(bytes[750] & 0xff, stream.read());
+			assertEquals(249, stream.read(buffer, 0, 500));
+			assertEquals(bytes[999], buffer[248]);
+			assertEquals(-1, stream.read(buffer, 0, 500));
+			assertEquals(0, stream.skip(10));
+			assertEquals(Arrays.asList(Integer.valueOf(0), Integer.valueOf(300), Integer.valueOf(750)),
+					offsets);
+		} finally {
+			if (stream != null) {
+				stream.close();
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentDownload() throws IOException {
+		final byte[] bytes = new byte[1000];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte)(i % 251);
+		}
+		final List<Integer> offsets = Collections.synchronizedList(new ArrayList<Integer>());
+		client = new TuleapRestClient(resourceFactory, gson, repository) {
+			@Override
+			public int getArtifactFileContent(int fileId, int offset, byte[] buffer, IProgressMonitor monitor)
+					throws CoreException {
+				offsets.add(Integer.valueOf(offset));
+				System.arraycopy(bytes, offset, buffer, 0, buffer.length);
+				return buffer.length;
+			}
+		};
+		TuleapAttachmentInputStream stream = null;
+		try {
+			stream = new TuleapAttachmentInputStream(bytes.length, 123, 100, client, null, 3);
+			byte[] buffer = new byte[bytes.length];
+			int read = 0;
+			while (read < 450) {
+				read += stream.read(buffer, read, 450 - read);
+			}
+			// Skip the chunks at 500 and 600, which may have been downloaded already
+			assertEquals(250, stream.skip(250));
+			read += 250;
+			while (read < buffer.length) {
+				read += stream.read(buffer, read, buffer.length - read);
+			}
+			assertEquals(-1, stream.read(buffer, 0, 10));
+			for (int i = 0; i < 450; i++) {
+				assertEquals(bytes[i], buffer[i]);
+			}
+			for (int i = 700; i < bytes.length; i++) {
+				assertEquals(bytes[i], buffer[i]);
+			}
+			for (int i = 0; i <= 900; i += 100) {
+				assertTrue(offsets.contains(Integer.valueOf(i)) || i == 500 || i == 600);
+			}
+		} finally {
+			if (stream != null) {
+				stream.close();
+			}
+		}
+	}
 }
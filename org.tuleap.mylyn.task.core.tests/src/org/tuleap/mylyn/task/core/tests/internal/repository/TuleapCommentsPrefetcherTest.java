@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.repository;
+
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapCommentsCache;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapCommentsPrefetcher;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests of {@link TuleapCommentsPrefetcher}.
+ */
+public class TuleapCommentsPrefetcherTest {
+
+	private static final int FAILING_ARTIFACT_ID = 13;
+
+	private TuleapServer server;
+
+	private TuleapCommentsCache cache;
+
+	private AtomicInteger calls;
+
+	private TuleapRestClient client;
+
+	private List<TuleapArtifact> handled;
+
+	private TuleapCommentsPrefetcher.IArtifactHandler handler;
+
+	@Before
+	public void setUp() {
+		server = new TuleapServer("https://tuleap.net");
+		cache = new TuleapCommentsCache();
+		calls = new AtomicInteger();
+		handled = Lists.newArrayList();
+		final TuleapUser user = new TuleapUser("jdoe", "John Doe", 17, "john.doe@tuleap.net", null);
+		client = new TuleapRestClient(null, null, null) {
+			@Override
+			public List<TuleapElementComment> getArtifactComments(int artifactId,
+					TuleapServer tuleapServer, IProgressMonitor monitor) throws CoreException {
+				calls.incrementAndGet();
+				if (artifactId == FAILING_ARTIFACT_ID) {
+					throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
+							"Failure"));
+				}
+				return Collections.singletonList(new TuleapElementComment("Comment of " + artifactId, user,
+						new Date()));
+			}
+		};
+		handler = new TuleapCommentsPrefetcher.IArtifactHandler() {
+			@Override
+			public void handle(TuleapArtifact artifact) {
+				handled.add(artifact);
+			}
+		};
+	}
+
+	private List<TuleapArtifact> createArtifacts(int count, Date lastModifiedDate) {
+		TuleapReference projectRef = new TuleapReference(979, "projects/979");
+		List<TuleapArtifact> artifacts = Lists.newArrayList();
+		for (int i = 1; i <= count; i++) {
+			artifacts.add(new TuleapArtifact(i, projectRef, "", "", "", new Date(0L), lastModifiedDate));
+		}
+		return artifacts;
+	}
+
+	@Test
+	public void testConcurrentPrefetch() {
+		List<TuleapArtifact> artifacts = createArtifacts(10, new Date(1000L));
+		new TuleapCommentsPrefetcher(client, server, cache, 4).prefetch(artifacts, handler,
+				new NullProgressMonitor());
+		assertThat(calls.get(), is(10));
+		assertThat(handled.size(), is(10));
+		for (TuleapArtifact artifact : artifacts) {
+			assertThat(artifact.getComments().size(), is(1));
+			assertThat(artifact.getComments().get(0).getBody(), is("Comment of " + artifact.getId()));
+		}
+	}
+
+	@Test
+	public void testSerialPrefetch() {
+		List<TuleapArtifact> artifacts = createArtifacts(3, new Date(1000L));
+		new TuleapCommentsPrefetcher(client, server, null, 1).prefetch(artifacts, handler, null);
+		assertThat(calls.get(), is(3));
+		assertThat(handled, is(artifacts));
+	}
+
+	@Test
+	public void testUnmodifiedArtifactsAreNotRetrievedAgain() {
+		new TuleapCommentsPrefetcher(client, server, cache, 4).prefetch(createArtifacts(5, new Date(1000L)),
+				handler, null);
+		assertThat(calls.get(), is(5));
+
+		handled.clear();
+		List<TuleapArtifact> artifacts = createArtifacts(5, new Date(1000L));
+		new TuleapCommentsPrefetcher(client, server, cache, 4).prefetch(artifacts, handler, null);
+		assertThat(calls.get(), is(5));
+		assertThat(handled.size(), is(5));
+		for (TuleapArtifact artifact : artifacts) {
+			assertThat(artifact.getComments().size(), is(1));
+		}
+
+		new TuleapCommentsPrefetcher(client, server, cache, 4).prefetch(createArtifacts(5, new Date(2000L)),
+				handler, null);
+		assertThat(calls.get(), is(10));
+	}
+
+	@Test
+	public void testFailureIsNotCached() {
+		List<TuleapArtifact> artifacts = createArtifacts(FAILING_ARTIFACT_ID, new Date(1000L));
+		new TuleapCommentsPrefetcher(client, server, cache, 4).prefetch(artifacts, handler, null);
+		assertThat(handled.size(), is(FAILING_ARTIFACT_ID));
+		assertThat(artifacts.get(FAILING_ARTIFACT_ID - 1).getComments().size(), is(0));
+		assertThat(cache.get(FAILING_ARTIFACT_ID, new Date(1000L)) == null, is(true));
+		assertThat(cache.get(1, new Date(1000L)).size(), is(1));
+	}
+
+	@Test
+	public void testCancelledMonitor() {
+		IProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		new TuleapCommentsPrefetcher(client, server, cache, 4).prefetch(createArtifacts(5, new Date(1000L)),
+				handler, monitor);
+		assertThat(handled.size(), is(0));
+	}
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapConfigurationFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link TuleapConfigurationFile}.
+ */
+public class TuleapConfigurationFileTest {
+
+	private File file;
+
+	private File temporaryFile;
+
+	private TuleapConfigurationFile configurationFile;
+
+	private TuleapServer server;
+
+	private TuleapProject project;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("tuleap", ".config");
+		file.delete();
+		temporaryFile = new File(file.getPath() + ".tmp");
+		configurationFile = new TuleapConfigurationFile(file, 10L);
+		server = new TuleapServer("https://tuleap.net");
+		project = new TuleapProject("Project", 101);
+		server.addProject(project);
+		project.addTracker(new TuleapTracker(201, "trackers/201", "Bugs", "bug", "Bugs", new Date()));
+	}
+
+	@After
+	public void tearDown() {
+		configurationFile.dispose();
+		configurationFile.delete();
+	}
+
+	@Test
+	public void testSaveReplacesFile() throws IOException {
+		configurationFile.save(Collections.singleton(server));
+		configurationFile.save(Collections.singleton(server));
+		assertTrue(file.exists());
+		assertFalse(temporaryFile.exists());
+		List<TuleapServer> servers = configurationFile.read();
+		assertEquals(1, servers.size());
+		assertNotNull(servers.get(0).getTracker(201));
+	}
+
+	@Test
+	public void testReadTemporaryFile() throws IOException {
+		configurationFile.save(Collections.singleton(server));
+		// The workbench was killed after the file was deleted and before the temporary file was renamed
+		assertTrue(file.renameTo(temporaryFile));
+		List<TuleapServer> servers = configurationFile.read();
+		assertEquals(1, servers.size());
+		assertNotNull(servers.get(0).getTracker(201));
+		assertTrue(file.exists());
+	}
+
+	@Test
+	public void testReadNoFile() throws IOException {
+		assertTrue(configurationFile.read().isEmpty());
+	}
+
+	@Test
+	public void testOnlyDirtyProjectsEncoded() throws IOException {
+		configurationFile.save(Collections.singleton(server));
+		project.addTracker(new TuleapTracker(202, "trackers/202", "Tasks", "task", "Tasks", new Date()));
+
+		// The project has not been marked dirty, its previous encoding is reused
+		configurationFile.save(Collections.singleton(server));
+		assertNull(configurationFile.read().get(0).getTracker(202));
+
+		configurationFile.markDirty(project);
+		configurationFile.save(Collections.singleton(server));
+		assertNotNull(configurationFile.read().get(0).getTracker(202));
+	}
+
+	@Test
+	public void testProjectMarkedDirtyWhileEncoded() throws IOException {
+		final TuleapServer otherServer = new TuleapServer("https://tuleap.org");
+		TuleapProject changingProject = new TuleapProject("Changing", 102) {
+			private boolean changed;
+
+			@Override
+			public List<TuleapTracker> getAllTrackers() {
+				List<TuleapTracker> trackers = super.getAllTrackers();
+				if (!changed) {
+					// Changed by another refresh once the trackers have been read by the save
+					changed = true;
+					addTracker(new TuleapTracker(204, "trackers/204", "Stories", "story", "Stories",
+							new Date()));
+					configurationFile.markDirty(this);
+				}
+				return trackers;
+			}
+		};
+		otherServer.addProject(changingProject);
+		changingProject.addTracker(new TuleapTracker(203, "trackers/203", "Epics", "epic", "Epics",
+				new Date()));
+
+		configurationFile.save(Collections.singleton(otherServer));
+		assertNull(configurationFile.read().get(0).getProject(102).getTracker(204));
+
+		// The encoding started before the project was marked dirty is not reused
+		configurationFile.save(Collections.singleton(otherServer));
+		assertNotNull(configurationFile.read().get(0).getProject(102).getTracker(204));
+	}
+
+	@Test
+	public void testScheduleSave() throws Exception {
+		configurationFile.scheduleSave(new Callable<Collection<TuleapServer>>() {
+			@Override
+			public Collection<TuleapServer> call() {
+				return Collections.singleton(server);
+			}
+		});
+		for (int i = 0; i < 100 && !file.exists(); i++) {
+			Thread.sleep(50L);
+		}
+		assertTrue(file.exists());
+		assertNotNull(configurationFile.read().get(0).getTracker(201));
+	}
+}
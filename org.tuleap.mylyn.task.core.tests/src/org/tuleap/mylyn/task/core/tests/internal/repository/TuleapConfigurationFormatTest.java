@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapField;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapResource;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUserGroup;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapWorkflowTransition;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapArtifactLink;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapDate;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFileUpload;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFloat;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapMultiSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBoxItem;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapText;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapConfigurationFormat;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapConfigurationReader;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapConfigurationWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link TuleapConfigurationWriter} and {@link TuleapConfigurationReader}.
+ */
+public class TuleapConfigurationFormatTest {
+
+	private TuleapServer server;
+
+	@Before
+	public void setUp() {
+		server = new TuleapServer("https://tuleap.net");
+		server.setLastUpdate(1234567L);
+		TuleapProject project = new TuleapProject("Project", 101);
+		project.setUri("projects/101");
+		project.setProjectResources(new TuleapResource[] {new TuleapResource("trackers",
+				"projects/101/trackers"), });
+		server.addProject(project);
+
+		TuleapTracker parent = new TuleapTracker(200, "trackers/200", "Epics", "epic", "Epics", new Date(
+				1000L));
+		TuleapTracker tracker = new TuleapTracker(201, "trackers/201", "Bugs", "bug", "Tracker for bugs",
+				new Date(2000L));
+		tracker.setUri("trackers/201");
+		tracker.setLastUpdateDateFieldName("last_update");
+
+		TuleapString title = new TuleapString(1);
+		title.setName("title");
+		title.setLabel("Title");
+		title.setRequired(true);
+		title.setRank(3);
+		title.setPermissions(new String[] {"read", "submit" });
+		title.setSize(80);
+		title.setSemanticTitle(true);
+		tracker.addField(title);
+
+		TuleapText text = new TuleapText(2);
+		text.setRows(5);
+		text.setColumns(40);
+		tracker.addField(text);
+
+		TuleapFloat effort = new TuleapFloat(3);
+		effort.setInitialEffort(true);
+		tracker.addField(effort);
+
+		TuleapSelectBox status = new TuleapSelectBox(4);
+		status.setBinding("static");
+		for (int i = 10; i < 13; i++) {
+			TuleapSelectBoxItem item = new TuleapSelectBoxItem(i);
+			item.setLabel("Status " + i);
+			item.setDescription("Status");
+			status.addItem(item);
+		}
+		status.getOpenStatus().add(status.getItem("10"));
+		status.getWorkflow().addTransition(transition(100, 10));
+		status.getWorkflow().addTransition(transition(10, 11));
+		status.getWorkflow().addTransition(transition(11, 12));
+		tracker.addField(status);
+
+		TuleapMultiSelectBox contributors = new TuleapMultiSelectBox(5);
+		contributors.setSemanticContributor(true);
+		contributors.setBinding("users");
+		tracker.addField(contributors);
+
+		tracker.addField(new TuleapDate(6));
+		tracker.addField(new TuleapFileUpload(7));
+		tracker.addField(new TuleapArtifactLink(8));
+
+		project.addTracker(parent);
+		project.addTracker(tracker);
+		tracker.setParentTracker(parent);
+
+		TuleapUser user = new TuleapUser("jdoe", "John Doe", 17, "john.doe@tuleap.net", "ldap");
+		TuleapUserGroup group = new TuleapUserGroup("101_3", "Project members");
+		group.setUri("user_groups/101_3");
+		project.addUserToUserGroup(group, user);
+		project.addGroup(new TuleapUserGroup("101_4", "Project admins"));
+	}
+
+	private TuleapWorkflowTransition transition(int from, int to) {
+		TuleapWorkflowTransition transition = new TuleapWorkflowTransition();
+		transition.setFrom(from);
+		transition.setTo(to);
+		return transition;
+	}
+
+	private List<TuleapServer> writeAndRead() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new TuleapConfigurationWriter().write(out, Collections.singleton(server));
+		return TuleapConfigurationReader.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test
+	public void testServerAndProject() throws IOException {
+		List<TuleapServer> servers = writeAndRead();
+		assertEquals(1, servers.size());
+		TuleapServer read = servers.get(0);
+		assertEquals("https://tuleap.net", read.getUrl());
+		assertEquals(1234567L, read.getLastUpdate());
+		TuleapProject project = read.getProject(101);
+		assertEquals("Project", project.getLabel());
+		assertEquals("projects/101", project.getUri());
+		assertTrue(project.hasResource("trackers"));
+		assertSame(read, project.getServer());
+
+		TuleapUser user = read.getUser(17);
+		assertEquals("jdoe", user.getUserName());
+		assertEquals("John Doe", user.getRealName());
+		assertEquals("john.doe@tuleap.net", user.getEmail());
+		assertEquals("ldap", user.getLdapId());
+
+		assertEquals(2, project.getAllUserGroups().size());
+		TuleapUserGroup members = project.getUserGroup("101_3");
+		assertEquals("Project members", members.getLabel());
+		assertEquals("user_groups/101_3", members.getUri());
+		assertSame(user, members.getMembers().iterator().next());
+		assertTrue(project.getUserGroup("101_4").getMembers().isEmpty());
+	}
+
+	@Test
+	public void testTrackers() throws IOException {
+		TuleapServer read = writeAndRead().get(0);
+		TuleapTracker tracker = read.getTracker(201);
+		assertEquals("trackers/201", tracker.getUrl());
+		assertEquals("Bugs", tracker.getLabel());
+		assertEquals("bug", tracker.getItemName());
+		assertEquals("Tracker for bugs", tracker.getDescription());
+		assertEquals(2000L, tracker.getLastUpdateDate().getTime());
+		assertEquals("trackers/201", tracker.getUri());
+		assertEquals("last_update", tracker.getLastUpdateDateFieldName());
+		assertEquals(0, tracker.getTrackerResources().length);
+		assertSame(read.getTracker(200), tracker.getParentTracker());
+		assertSame(tracker, read.getTracker(200).getChildrenTrackers().iterator().next());
+		assertEquals(8, tracker.getFields().size());
+
+		TuleapString title = tracker.getTitleField();
+		assertNotNull(title);
+		assertEquals("title", title.getName());
+		assertEquals("Title", title.getLabel());
+		assertTrue(title.isRequired());
+		assertEquals(3, title.getRank());
+		assertTrue(title.isReadable());
+		assertTrue(title.isSubmitable());
+		assertFalse(title.isUpdatable());
+		assertEquals(80, title.getSize());
+
+		TuleapText text = (TuleapText)tracker.getFieldById(2);
+		assertEquals(5, text.getRows());
+		assertEquals(40, text.getColumns());
+		assertTrue(((TuleapFloat)tracker.getFieldById(3)).isInitialEffort());
+		assertTrue(tracker.getFieldById(6) instanceof TuleapDate);
+		assertSame(tracker.getFieldById(7), tracker.getAttachmentField());
+		assertTrue(tracker.getFieldById(8) instanceof TuleapArtifactLink);
+	}
+
+	@Test
+	public void testSelectBoxes() throws IOException {
+		TuleapTracker tracker = writeAndRead().get(0).getTracker(201);
+		TuleapSelectBox status = (TuleapSelectBox)tracker.getStatusField();
+		assertEquals(4, status.getIdentifier());
+		assertEquals("static", status.getBinding());
+		assertEquals(3, status.getItems().size());
+		assertEquals("Status 11", status.getItem("11").getLabel());
+		assertEquals(1, status.getOpenStatus().size());
+		assertSame(status.getItem("10"), status.getOpenStatus().get(0));
+		assertEquals(1, status.getWorkflow().accessibleStates(100).size());
+		assertSame(status.getItem("12"), status.getWorkflow().accessibleStates(11).iterator().next());
+		assertTrue(status.getWorkflow().accessibleStates(12).isEmpty());
+
+		AbstractTuleapField contributors = tracker.getContributorField();
+		assertTrue(contributors instanceof TuleapMultiSelectBox);
+		assertEquals("users", ((TuleapMultiSelectBox)contributors).getBinding());
+	}
+
+	@Test
+	public void testProjectsLoadedOnFirstAccess() throws IOException {
+		TuleapServer read = writeAndRead().get(0);
+		assertTrue(read.getLoadedProjects().isEmpty());
+		assertEquals(1, read.getProjectLoaders().size());
+		assertEquals("jdoe", read.getUser(17).getUserName());
+		assertEquals("Bugs", read.getTracker(201).getLabel());
+		assertEquals(1, read.getLoadedProjects().size());
+		assertTrue(read.getProjectLoaders().isEmpty());
+		assertNull(read.getTracker(999));
+	}
+
+	@Test
+	public void testProjectIdsWithTrackersOfProjectsNotLoaded() throws IOException {
+		TuleapServer read = writeAndRead().get(0);
+		assertEquals(Collections.singleton(Integer.valueOf(101)), read.getProjectIdsWithTrackers());
+		assertTrue(read.getLoadedProjects().isEmpty());
+	}
+
+	@Test
+	public void testWriteProjectsNotLoaded() throws IOException {
+		server = writeAndRead().get(0);
+		TuleapServer read = writeAndRead().get(0);
+		assertTrue(server.getLoadedProjects().isEmpty());
+		assertEquals("Bugs", read.getTracker(201).getLabel());
+		assertSame(read.getTracker(200), read.getTracker(201).getParentTracker());
+	}
+
+	@Test
+	public void testSmallerThanSerialization() throws IOException {
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		new TuleapConfigurationWriter().write(binary, Collections.singleton(server));
+		ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(serialized);
+		out.writeInt(1);
+		out.writeObject(server);
+		out.close();
+		assertTrue(binary.size() < serialized.size());
+	}
+
+	@Test
+	public void testLegacyFile() throws IOException {
+		ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(serialized);
+		out.writeInt(1);
+		out.writeObject(server);
+		out.close();
+		List<TuleapServer> servers = TuleapConfigurationReader.read(new ByteArrayInputStream(serialized
+				.toByteArray()));
+		assertEquals(1, servers.size());
+		assertEquals("Bugs", servers.get(0).getTracker(201).getLabel());
+	}
+
+	@Test
+	public void testMoreRecentVersion() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(TuleapConfigurationFormat.MAGIC);
+		out.writeInt(TuleapConfigurationFormat.VERSION + 1);
+		out.writeInt(0);
+		try {
+			TuleapConfigurationReader.read(new ByteArrayInputStream(bytes.toByteArray()));
+			fail("A file written by a more recent version must be rejected");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUserGroup;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapProjectsRefresher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link TuleapProjectsRefresher}.
+ */
+public class TuleapProjectsRefresherTest {
+
+	private static final int PROJECTS = 10;
+
+	private TuleapServer server;
+
+	private List<TuleapProject> projects;
+
+	private FailingRestClient client;
+
+	private AtomicInteger userGroupRequests;
+
+	@Before
+	public void setUp() {
+		server = new TuleapServer("https://test.url");
+		userGroupRequests = new AtomicInteger();
+		projects = new ArrayList<TuleapProject>();
+		for (int i = 0; i < PROJECTS; i++) {
+			TuleapProject project = new TuleapProject("Project " + i, i);
+			server.addProject(project);
+			projects.add(project);
+		}
+		client = new FailingRestClient(null, null, null) {
+			@Override
+			public List<TuleapTracker> getProjectTrackers(int projectId, IProgressMonitor monitor)
+					throws CoreException {
+				if (projectId == 3) {
+					throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, "KO"));
+				}
+				return Arrays.asList(new TuleapTracker(100 + projectId, "t", "Tracker", "item", "desc",
+						new Date()));
+			}
+
+			@Override
+			public List<TuleapUserGroup> getProjectUserGroups(int projectId, IProgressMonitor monitor)
+					throws CoreException {
+				if (projectId == 5) {
+					throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, "KO"));
+				}
+				return Arrays.asList(new TuleapUserGroup(projectId + "_3", "Members"),
+						new TuleapUserGroup(projectId + "_4", "Admins"));
+			}
+
+			@Override
+			public List<TuleapUser> getUserGroupUsers(String userGroupId, IProgressMonitor monitor)
+					throws CoreException {
+				userGroupRequests.incrementAndGet();
+				int id = 1000 + Integer.parseInt(userGroupId.replace("_", ""));
+				return Collections.singletonList(new TuleapUser("user" + id, "User", id, "u@host", null));
+			}
+		};
+	}
+
+	@Test
+	public void testRefreshConcurrently() {
+		checkRefresh(new TuleapProjectsRefresher(client, 4, 0L));
+	}
+
+	@Test
+	public void testRefreshSequentially() {
+		checkRefresh(new TuleapProjectsRefresher(client, 1, 0L));
+	}
+
+	@Test
+	public void testUserGroupsNotRetrievedAgain() {
+		TuleapProjectsRefresher refresher = new TuleapProjectsRefresher(client, 4, 60000L);
+		refresher.refresh(projects, null);
+		// 2 user groups for each project, except the ones that fail
+		assertEquals(2 * (PROJECTS - 2), userGroupRequests.get());
+		TuleapUser user = server.getUser(1003);
+		assertEquals(1, server.getUserGroupVersion("0_3"));
+		assertSame(user, server.getUserGroupMembers("0_3").get(0));
+
+		refresher.refresh(projects, null);
+		assertEquals(2 * (PROJECTS - 2), userGroupRequests.get());
+
+		new TuleapProjectsRefresher(client, 4, 0L).refresh(projects, null);
+		assertEquals(4 * (PROJECTS - 2), userGroupRequests.get());
+		// Identical users are shared, and the members have not changed
+		assertSame(user, server.getUser(1003));
+		assertEquals(1, server.getUserGroupVersion("0_3"));
+	}
+
+	@Test
+	public void testRefreshCanceled() {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		IStatus status = new TuleapProjectsRefresher(client, 4, 0L).refresh(projects, monitor);
+		assertEquals(IStatus.CANCEL, status.getSeverity());
+	}
+
+	private void checkRefresh(TuleapProjectsRefresher refresher) {
+		final int[] worked = new int[1];
+		IStatus status = refresher.refresh(projects, new NullProgressMonitor() {
+			@Override
+			public void worked(int work) {
+				worked[0] += work;
+			}
+		});
+
+		assertEquals(PROJECTS, worked[0]);
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertEquals(2, status.getChildren().length);
+		for (IStatus child : status.getChildren()) {
+			if (child.getSeverity() == IStatus.ERROR) {
+				assertTrue(child.getMessage().contains("Project 3"));
+			} else {
+				assertEquals(IStatus.WARNING, child.getSeverity());
+				assertTrue(child.getMessage().contains("Project 5"));
+			}
+		}
+
+		for (int i = 0; i < PROJECTS; i++) {
+			if (i == 3) {
+				assertNull(server.getTracker(100 + i));
+			} else {
+				assertNotNull(server.getTracker(100 + i));
+			}
+			if (i == 3 || i == 5) {
+				assertNull(server.getUser(1000 + i * 10 + 3));
+			} else {
+				assertNotNull(server.getUser(1000 + i * 10 + 3));
+				assertNotNull(server.getUser(1000 + i * 10 + 4));
+			}
+		}
+	}
+}
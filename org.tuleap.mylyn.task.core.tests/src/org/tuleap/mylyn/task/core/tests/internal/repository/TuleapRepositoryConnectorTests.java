@@ -11,6 +11,7 @@
 package org.tuleap.mylyn.task.core.tests.internal.repository;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.gson.Gson;
 
 import java.net.Proxy;
@@ -21,12 +22,16 @@ import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.net.AbstractWebLocation;
 import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
 import org.eclipse.mylyn.commons.net.AuthenticationType;
 import org.eclipse.mylyn.internal.tasks.core.LocalTask;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.sync.SynchronizationSession;
 import org.eclipse.mylyn.tasks.core.IRepositoryQuery;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
@@ -252,6 +257,133 @@ public class TuleapRepositoryConnectorTests {
 				projectRef.getId(), trackerRef.getId(), artifactId).toString()));
 	}
 
+	/**
+	 * Test that a full synchronization only marks stale the tasks modified since the last synchronization,
+	 * and that the queries do not retrieve the comments of the unmodified artifacts.
+	 */
+	@Test
+	public void testDeltaSynchronization() throws CoreException {
+		TuleapReference projectRef = new TuleapReference(979, "projects/979");
+		final TuleapReference trackerRef = new TuleapReference(42, "trackers/42");
+		final Date lastSynchronization = new Date(1000000000L);
+		final Date unmodified = new Date(lastSynchronization.getTime() - 1000L);
+		final Date modified = new Date(lastSynchronization.getTime() + 1000L);
+
+		final TuleapServer tuleapServer = new TuleapServer("https://tuleap.net");
+		TuleapProject tuleapProject = new TuleapProject("", projectRef.getId());
+		TuleapTracker trackerConfiguration = new TuleapTracker(trackerRef.getId(), null, null, null, null,
+				new Date());
+		trackerConfiguration.setLastUpdateDateFieldName("last_update_date");
+		tuleapProject.addTracker(trackerConfiguration);
+		tuleapServer.addProject(tuleapProject);
+
+		final List<TuleapArtifact> modifiedArtifacts = Lists.newArrayList(createArtifact(1, projectRef,
+				trackerRef, unmodified), createArtifact(2, projectRef, trackerRef, modified));
+		final List<TuleapArtifact> reportArtifacts = Lists.newArrayList(createArtifact(1, projectRef,
+				trackerRef, unmodified), createArtifact(2, projectRef, trackerRef, modified));
+		final List<Integer> commentedArtifacts = Lists.newArrayList();
+		final TuleapClientManager tuleapClientManager = new TuleapClientManager() {
+			@Override
+			public TuleapRestClient getRestClient(TaskRepository taskRepository) {
+				return new TuleapRestClient(null, null, null) {
+					@Override
+					public List<TuleapArtifact> getArtifactsModifiedSince(TuleapTracker tracker, Date since,
+							IProgressMonitor monitor) throws CoreException {
+						assertEquals(trackerRef.getId(), tracker.getIdentifier());
+						assertEquals(lastSynchronization, since);
+						return modifiedArtifacts;
+					}
+
+					@Override
+					public List<TuleapArtifact> getTrackerReportArtifacts(int trackerReportId,
+							IProgressMonitor monitor) {
+						return reportArtifacts;
+					}
+
+					@Override
+					public List<TuleapElementComment> getArtifactComments(int artId, TuleapServer server,
+							IProgressMonitor monitor) throws CoreException {
+						commentedArtifacts.add(Integer.valueOf(artId));
+						return Collections.emptyList();
+					}
+				};
+			}
+		};
+		TuleapRepositoryConnector tuleapRepositoryConnector = new TuleapRepositoryConnector() {
+			@Override
+			public TuleapServer getServer(TaskRepository repo) {
+				return tuleapServer;
+			}
+
+			@Override
+			public TuleapTracker refreshTracker(TaskRepository taskRepository, TuleapTracker tracker,
+					IProgressMonitor monitor) throws CoreException {
+				return tracker;
+			}
+
+			@Override
+			public TuleapClientManager getClientManager() {
+				return tuleapClientManager;
+			}
+		};
+
+		TaskRepository taskRepository = new TaskRepository(ITuleapConstants.CONNECTOR_KIND,
+				"https://tuleap.net");
+		taskRepository.setSynchronizationTimeStamp(String.valueOf(lastSynchronization.getTime()));
+		ITask unmodifiedTask = new TaskTask(ITuleapConstants.CONNECTOR_KIND, "https://tuleap.net",
+				TuleapTaskId.forArtifact(projectRef.getId(), trackerRef.getId(), 1).toString());
+		unmodifiedTask.setModificationDate(unmodified);
+		ITask modifiedTask = new TaskTask(ITuleapConstants.CONNECTOR_KIND, "https://tuleap.net", TuleapTaskId
+				.forArtifact(projectRef.getId(), trackerRef.getId(), 2).toString());
+		modifiedTask.setModificationDate(unmodified);
+		SynchronizationSession session = new SynchronizationSession();
+		session.setTaskRepository(taskRepository);
+		session.setFullSynchronization(true);
+		session.setTasks(Sets.newHashSet(unmodifiedTask, modifiedTask));
+
+		tuleapRepositoryConnector.preSynchronization(session, new NullProgressMonitor());
+		assertEquals(Collections.singleton(modifiedTask), session.getStaleTasks());
+
+		TuleapTaskDataCollector collector = new TuleapTaskDataCollector();
+		IRepositoryQuery query = new RepositoryQuery(ITuleapConstants.CONNECTOR_KIND, "");
+		query.setAttribute(ITuleapQueryConstants.QUERY_KIND, ITuleapQueryConstants.QUERY_KIND_REPORT);
+		query.setAttribute(ITuleapQueryConstants.QUERY_TRACKER_ID, String.valueOf(trackerRef.getId()));
+		query.setAttribute(ITuleapQueryConstants.QUERY_REPORT_ID, "100");
+		tuleapRepositoryConnector.performQuery(taskRepository, query, collector, session,
+				new NullProgressMonitor());
+
+		assertEquals(Collections.singletonList(Integer.valueOf(2)), commentedArtifacts);
+		assertEquals(2, collector.getTaskData().size());
+		for (TaskData taskData : collector.getTaskData()) {
+			assertEquals(unmodifiedTask.getTaskId().equals(taskData.getTaskId()), taskData.isPartial());
+		}
+		assertEquals(String.valueOf(modified.getTime()), collector.getQueryTimestamp());
+
+		tuleapRepositoryConnector.postSynchronization(session, new NullProgressMonitor());
+		assertEquals(String.valueOf(modified.getTime()), taskRepository.getSynchronizationTimeStamp());
+	}
+
+	/**
+	 * Creates an artifact.
+	 *
+	 * @param id
+	 *            The artifact id
+	 * @param projectRef
+	 *            The project reference
+	 * @param trackerRef
+	 *            The tracker reference
+	 * @param lastModifiedDate
+	 *            The last modification date
+	 * @return The new artifact.
+	 */
+	private TuleapArtifact createArtifact(int id, TuleapReference projectRef, TuleapReference trackerRef,
+			Date lastModifiedDate) {
+		TuleapArtifact artifact = new TuleapArtifact(id, projectRef, "", "", "", new Date(0L),
+				lastModifiedDate);
+		artifact.setTracker(trackerRef);
+		return artifact;
+	}
+
 	/**
 	 * Test the execution of a query to retrieve all the artifacts from a given tracker.
 	 */
@@ -499,6 +631,63 @@ public class TuleapRepositoryConnectorTests {
 		assertEquals(1, refreshedServer.getAllProjects().size());
 	}
 
+	@Test
+	public void testUpdateRepositoryConfigurationKeepsTrackersOnFailure() throws CoreException {
+		TaskRepository repository = new TaskRepository(ITuleapConstants.CONNECTOR_KIND, "https://test.url");
+		final TuleapProject[] availableProject = {new TuleapProject("Test project", 101) };
+		final boolean[] failing = new boolean[1];
+
+		final TuleapTracker tracker200 = new TuleapTracker(200, "t/200", "Tracker 200", "item 200",
+				"desc 200", new Date());
+
+		final FailingRestClient client = new FailingRestClient(null, null, null) {
+			@Override
+			public List<TuleapProject> getProjects(IProgressMonitor monitor) throws CoreException {
+				return Arrays.asList(availableProject[0]);
+			}
+
+			@Override
+			public List<TuleapTracker> getProjectTrackers(int projectId, IProgressMonitor monitor)
+					throws CoreException {
+				if (failing[0]) {
+					throw new CoreException(new Status(IStatus.ERROR, "test", "Server unavailable"));
+				}
+				return Arrays.asList(tracker200);
+			}
+
+			@Override
+			public List<TuleapUserGroup> getProjectUserGroups(int projectId, IProgressMonitor monitor)
+					throws CoreException {
+				return Collections.emptyList();
+			}
+		};
+		final TuleapClientManager manager = new TuleapClientManager() {
+			@Override
+			public TuleapRestClient getRestClient(TaskRepository taskRepository) {
+				return client;
+			}
+		};
+		TuleapRepositoryConnector connector = new TuleapRepositoryConnector() {
+			@Override
+			public TuleapClientManager getClientManager() {
+				return manager;
+			}
+		};
+		connector.updateRepositoryConfiguration(repository, null);
+		connector.refreshProject(repository, connector.getServer(repository).getProject(101), null);
+		assertSame(tracker200, connector.getServer(repository).getTracker(200));
+
+		// The trackers of the project cannot be retrieved again
+		availableProject[0] = new TuleapProject("Test project", 101);
+		failing[0] = true;
+		connector.updateRepositoryConfiguration(repository, null);
+
+		TuleapServer refreshedServer = connector.getServer(repository);
+		assertSame(tracker200, refreshedServer.getProject(101).getTracker(200));
+		assertSame(tracker200, refreshedServer.getTracker(200));
+		assertSame(refreshedServer, refreshedServer.getProject(101).getServer());
+	}
+
 	@Test
 	public void testRefreshProject() throws CoreException {
 		TaskRepository repository = new TaskRepository(ITuleapConstants.CONNECTOR_KIND, "https://test.url");
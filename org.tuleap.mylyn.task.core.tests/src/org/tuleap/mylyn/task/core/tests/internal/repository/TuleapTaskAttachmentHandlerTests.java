@@ -58,10 +58,10 @@ import org.tuleap.mylyn.task.core.internal.model.data.AttachmentValue;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithAttachment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
-import org.tuleap.mylyn.task.core.internal.model.data.TuleapFile;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
 import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
 import org.tuleap.mylyn.task.core.internal.repository.ITuleapRepositoryConnector;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapCommentsCache;
 import org.tuleap.mylyn.task.core.internal.repository.TuleapTaskAttachmentHandler;
 
 import static org.junit.Assert.assertEquals;
@@ -147,24 +147,24 @@ public class TuleapTaskAttachmentHandlerTests {
 			}
 
 			@Override
-			public TuleapReference createArtifactFile(String data, String type, String name,
+			public TuleapReference createArtifactFile(byte[] content, int length, String type, String name,
 					String description, IProgressMonitor monitor) throws CoreException {
-				dataToPost = data;
+				dataToPost = Base64.encodeBase64String(Arrays.copyOf(content, length));
 				return new TuleapReference(50, "artifact_files/50");
 			}
 
 			@Override
-			public TuleapFile getArtifactFile(int fileId, int offset, int limit, IProgressMonitor monitor)
+			public int getArtifactFileContent(int fileId, int offset, byte[] buffer, IProgressMonitor monitor)
 					throws CoreException {
-				TuleapFile file = new TuleapFile();
-				file.setData(dataToGet);
-				return file;
+				byte[] data = Base64.decodeBase64(dataToGet);
+				System.arraycopy(data, offset, buffer, 0, buffer.length);
+				return buffer.length;
 			}
 
 			@Override
-			public void updateArtifactFile(int fileId, String data, int offset, IProgressMonitor monitor)
-					throws CoreException {
-				dataToUpdate = data;
+			public void updateArtifactFile(int fileId, byte[] content, int length, int offset,
+					IProgressMonitor monitor) throws CoreException {
+				dataToUpdate = Base64.encodeBase64String(Arrays.copyOf(content, length));
 				fileIdentifier = fileId;
 			}
 
@@ -216,6 +216,11 @@ public class TuleapTaskAttachmentHandlerTests {
 				return clientManager;
 			}
 
+			@Override
+			public TuleapCommentsCache getCommentsCache(TaskRepository taskRepository) {
+				return null;
+			}
+
 			@Override
 			public TuleapTracker refreshTracker(TaskRepository taskRepository, TuleapTracker configuration,
 					IProgressMonitor monitor) throws CoreException {
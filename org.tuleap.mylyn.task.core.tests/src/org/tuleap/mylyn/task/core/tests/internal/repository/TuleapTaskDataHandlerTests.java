@@ -13,11 +13,18 @@ package org.tuleap.mylyn.task.core.tests.internal.repository;
 import com.google.common.collect.Sets;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.mylyn.internal.tasks.core.TaskTask;
 import org.eclipse.mylyn.tasks.core.ITaskMapping;
@@ -33,15 +40,20 @@ import org.tuleap.mylyn.task.core.internal.client.TuleapClientManager;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
 import org.tuleap.mylyn.task.core.internal.data.TuleapArtifactMapper;
 import org.tuleap.mylyn.task.core.internal.data.TuleapTaskId;
+import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapFormElement;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
+import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
 import org.tuleap.mylyn.task.core.internal.repository.ITuleapRepositoryConnector;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapCommentsCache;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapTaskDataCollector;
 import org.tuleap.mylyn.task.core.internal.repository.TuleapTaskDataHandler;
 import org.tuleap.mylyn.task.core.internal.repository.TuleapTaskMapping;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
@@ -108,6 +120,11 @@ public class TuleapTaskDataHandlerTests {
 	 */
 	private TaskData taskData;
 
+	/**
+	 * The cache of comments of the mocked connector.
+	 */
+	private TuleapCommentsCache commentsCache = new TuleapCommentsCache();
+
 	/**
 	 * Prepare the Tuleap server configuration and the mock connector.
 	 */
@@ -151,6 +168,11 @@ public class TuleapTaskDataHandlerTests {
 				return null;
 			}
 
+			@Override
+			public TuleapCommentsCache getCommentsCache(TaskRepository taskRepository) {
+				return null;
+			}
+
 			@Override
 			public TuleapTracker refreshTracker(TaskRepository taskRepository, TuleapTracker configuration,
 					IProgressMonitor monitor) throws CoreException {
@@ -279,6 +301,11 @@ public class TuleapTaskDataHandlerTests {
 				return tuleapClientManager;
 			}
 
+			@Override
+			public TuleapCommentsCache getCommentsCache(TaskRepository taskRepository) {
+				return null;
+			}
+
 			@Override
 			public TuleapTracker refreshTracker(TaskRepository taskRepository, TuleapTracker tracker,
 					IProgressMonitor monitor) throws CoreException {
@@ -420,11 +447,173 @@ public class TuleapTaskDataHandlerTests {
 		this.testPostTaskData(taskData, taskId, ResponseKind.TASK_UPDATED, false);
 	}
 
+	/**
+	 * Test that only the fields of the attributes that have changed are sent when an artifact is updated.
+	 */
+	@Test
+	public void testPostUpdateTaskDataWithChangedAttributes() throws CoreException {
+		TuleapTaskId taskId = TuleapTaskId.forArtifact(projectRef.getId(), trackerRef.getId(), artifactId);
+		taskData = new TaskData(new TaskAttributeMapper(this.repository), ITuleapConstants.CONNECTOR_KIND,
+				"", taskId.toString());
+		TuleapTracker tracker = this.tuleapServer.getProject(projectRef.getId()).getTracker(
+				trackerRef.getId());
+		for (int id = 100; id < 200; id++) {
+			TuleapString field = new TuleapString(id);
+			field.setPermissions(new String[] {AbstractTuleapFormElement.PERMISSION_UPDATE });
+			tracker.addField(field);
+		}
+		TuleapArtifactMapper mapper = new TuleapArtifactMapper(taskData, tracker);
+		mapper.initializeEmptyTaskData();
+		for (int id = 100; id < 200; id++) {
+			taskData.getRoot().getAttribute(String.valueOf(id)).setValue("value " + id);
+		}
+		TaskAttribute oldAttribute = new TaskData(new TaskAttributeMapper(this.repository),
+				ITuleapConstants.CONNECTOR_KIND, "", taskId.toString()).getRoot().createAttribute("142");
+
+		final List<TuleapArtifactWithComment> updated = new ArrayList<TuleapArtifactWithComment>();
+		TuleapRestClient client = new FailingRestClient(null, null, null) {
+			@Override
+			public void updateArtifact(TuleapArtifactWithComment artifact, IProgressMonitor monitor)
+					throws CoreException {
+				updated.add(artifact);
+			}
+		};
+		TuleapTaskDataHandler handler = new TuleapTaskDataHandler(mockConnector(client));
+		handler.postTaskData(this.repository, taskData, Sets.newHashSet(oldAttribute),
+				new NullProgressMonitor());
+
+		assertEquals(1, updated.size());
+		TuleapArtifactWithComment artifact = updated.get(0);
+		assertEquals(1, artifact.getFields().size());
+		assertEquals(1, artifact.getFieldValues().size());
+		LiteralFieldValue value = (LiteralFieldValue)artifact.getFieldValues().iterator().next();
+		assertEquals(142, value.getFieldId());
+		assertEquals("value 142", value.getFieldValue());
+	}
+
 	@Test
 	public void testCanGetMultiTaskData() {
 		TuleapTaskId taskId = TuleapTaskId.forArtifact(projectRef.getId(), trackerRef.getId(), artifactId);
 		TuleapTaskDataHandler handler = new TuleapTaskDataHandler(mockConnector(mockClientForCreate(taskId)));
-		assertFalse(handler.canGetMultiTaskData(repository));
+		assertTrue(handler.canGetMultiTaskData(repository));
+	}
+
+	/**
+	 * Test the retrieval of several task data at once, grouped by tracker.
+	 */
+	@Test
+	public void testGetMultiTaskData() throws CoreException {
+		final TuleapReference secondTrackerRef = new TuleapReference(secondTrackerId, "trackers/2");
+		final List<Integer> artifactsRetrievedOneByOne = new ArrayList<Integer>();
+		TuleapRestClient client = new FailingRestClient(null, null, null) {
+			@Override
+			public List<TuleapArtifact> getTrackerArtifacts(TuleapTracker tracker,
+					Collection<Integer> artifactIds, IProgressMonitor monitor) throws CoreException {
+				List<TuleapArtifact> artifacts = new ArrayList<TuleapArtifact>();
+				int trackerId = tracker.getIdentifier();
+				if (trackerId == trackerRef.getId()) {
+					assertEquals(2, artifactIds.size());
+					artifacts.add(new TuleapArtifact(42, trackerRef, projectRef));
+				} else {
+					assertEquals(secondTrackerId, trackerId);
+					assertEquals(1, artifactIds.size());
+					artifacts.add(new TuleapArtifact(44, secondTrackerRef, projectRef));
+				}
+				return artifacts;
+			}
+
+			@Override
+			public TuleapArtifact getArtifact(int id, TuleapServer server, IProgressMonitor monitor)
+					throws CoreException {
+				artifactsRetrievedOneByOne.add(Integer.valueOf(id));
+				return new TuleapArtifact(id, trackerRef, projectRef);
+			}
+
+			@Override
+			public List<TuleapElementComment> getArtifactComments(int id, TuleapServer server,
+					IProgressMonitor monitor) throws CoreException {
+				return new ArrayList<TuleapElementComment>();
+			}
+		};
+		TuleapTaskDataHandler handler = new TuleapTaskDataHandler(mockConnector(client));
+
+		Set<String> taskIds = Sets.newHashSet(TuleapTaskId.forArtifact(projectRef.getId(),
+				trackerRef.getId(), 42).toString(), TuleapTaskId.forArtifact(projectRef.getId(),
+				trackerRef.getId(), 43).toString(), TuleapTaskId.forArtifact(projectRef.getId(),
+				secondTrackerId, 44).toString());
+		TuleapTaskDataCollector collector = new TuleapTaskDataCollector();
+		handler.getMultiTaskData(repository, taskIds, collector, new NullProgressMonitor());
+
+		assertEquals(Arrays.asList(Integer.valueOf(43)), artifactsRetrievedOneByOne);
+		Set<String> collectedIds = Sets.newHashSet();
+		for (TaskData data : collector.getTaskData()) {
+			collectedIds.add(data.getTaskId());
+		}
+		assertEquals(taskIds, collectedIds);
+	}
+
+	/**
+	 * Test that the artifacts that cannot be retrieved are reported as failed to the collector.
+	 */
+	@Test
+	public void testGetMultiTaskDataWithMissingArtifact() throws CoreException {
+		TuleapRestClient client = new FailingRestClient(null, null, null) {
+			@Override
+			public List<TuleapArtifact> getTrackerArtifacts(TuleapTracker tracker,
+					Collection<Integer> artifactIds, IProgressMonitor monitor) throws CoreException {
+				return new ArrayList<TuleapArtifact>();
+			}
+
+			@Override
+			public TuleapArtifact getArtifact(int id, TuleapServer server, IProgressMonitor monitor)
+					throws CoreException {
+				return null;
+			}
+		};
+		TuleapTaskDataHandler handler = new TuleapTaskDataHandler(mockConnector(client));
+
+		String taskId = TuleapTaskId.forArtifact(projectRef.getId(), trackerRef.getId(), 42).toString();
+		final Map<String, IStatus> failures = new HashMap<String, IStatus>();
+		TuleapTaskDataCollector collector = new TuleapTaskDataCollector() {
+			@Override
+			public void failed(String id, IStatus status) {
+				failures.put(id, status);
+			}
+		};
+		handler.getMultiTaskData(repository, Collections.singleton(taskId), collector,
+				new NullProgressMonitor());
+
+		assertTrue(collector.getTaskData().isEmpty());
+		assertEquals(Collections.singleton(taskId), failures.keySet());
+		assertEquals(IStatus.ERROR, failures.get(taskId).getSeverity());
+	}
+
+	/**
+	 * Test that the comments of the artifacts retrieved by tracker are taken from the cache of the connector
+	 * when the artifacts have not been modified.
+	 */
+	@Test
+	public void testGetMultiTaskDataUsesCommentsCache() throws CoreException {
+		final Date lastModifiedDate = new Date();
+		TuleapRestClient client = new FailingRestClient(null, null, null) {
+			@Override
+			public List<TuleapArtifact> getTrackerArtifacts(TuleapTracker tracker,
+					Collection<Integer> artifactIds, IProgressMonitor monitor) throws CoreException {
+				TuleapArtifact artifact = new TuleapArtifact(42, trackerRef, projectRef);
+				artifact.setLastModifiedDate(lastModifiedDate);
+				return Collections.singletonList(artifact);
+			}
+		};
+		commentsCache.put(42, lastModifiedDate, new ArrayList<TuleapElementComment>());
+		TuleapTaskDataHandler handler = new TuleapTaskDataHandler(mockConnector(client));
+
+		String taskId = TuleapTaskId.forArtifact(projectRef.getId(), trackerRef.getId(), 42).toString();
+		TuleapTaskDataCollector collector = new TuleapTaskDataCollector();
+		handler.getMultiTaskData(repository, Collections.singleton(taskId), collector,
+				new NullProgressMonitor());
+
+		assertEquals(1, collector.getTaskData().size());
+		assertEquals(taskId, collector.getTaskData().iterator().next().getTaskId());
 	}
 
 	@Test
@@ -475,6 +664,11 @@ public class TuleapTaskDataHandlerTests {
 				return clientManager;
 			}
 
+			@Override
+			public TuleapCommentsCache getCommentsCache(TaskRepository taskRepository) {
+				return commentsCache;
+			}
+
 			@Override
 			public TuleapTracker refreshTracker(TaskRepository taskRepository, TuleapTracker tracker,
 					IProgressMonitor monitor) throws CoreException {
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.repository;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.repository.TuleapTrackerRefresher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of {@link TuleapTrackerRefresher}.
+ */
+public class TuleapTrackerRefresherTest {
+
+	private TuleapTracker tracker;
+
+	private TuleapTracker refreshed;
+
+	private AtomicInteger calls;
+
+	private CountDownLatch release;
+
+	private TuleapTrackerRefresher.ITrackerLoader loader;
+
+	@Before
+	public void setUp() {
+		tracker = new TuleapTracker(200, "trackers/200", "Bugs", "bug", "Tracker for bugs", new Date());
+		refreshed = new TuleapTracker(200, "trackers/200", "Bugs", "bug", "Tracker for bugs", new Date());
+		calls = new AtomicInteger();
+		release = new CountDownLatch(0);
+		loader = new TuleapTrackerRefresher.ITrackerLoader() {
+			@Override
+			public TuleapTracker load(IProgressMonitor monitor) throws CoreException {
+				calls.incrementAndGet();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return refreshed;
+			}
+		};
+	}
+
+	@Test
+	public void testFirstRefreshIsImmediate() throws CoreException {
+		TuleapTrackerRefresher refresher = new TuleapTrackerRefresher(60000L);
+		assertSame(refreshed, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testFreshTrackerIsNotRefreshed() throws CoreException {
+		TuleapTrackerRefresher refresher = new TuleapTrackerRefresher(60000L);
+		refresher.refresh(tracker, loader, new NullProgressMonitor());
+		assertSame(tracker, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		assertSame(tracker, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testMarkedTrackerIsNotRefreshed() throws CoreException {
+		TuleapTrackerRefresher refresher = new TuleapTrackerRefresher(60000L);
+		refresher.markRefreshed(200);
+		assertSame(tracker, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		assertEquals(0, calls.get());
+	}
+
+	@Test
+	public void testStaleTrackerIsRefreshedInBackground() throws Exception {
+		TuleapTrackerRefresher refresher = new TuleapTrackerRefresher(1L);
+		refresher.markRefreshed(200);
+		Thread.sleep(10L);
+		release = new CountDownLatch(1);
+		// The known tracker is used without waiting for the refresh
+		assertSame(tracker, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		// A single refresh is started while one is in progress
+		assertSame(tracker, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		release.countDown();
+		long end = System.currentTimeMillis() + 5000L;
+		while (calls.get() == 0 && System.currentTimeMillis() < end) {
+			Thread.sleep(10L);
+		}
+		Thread.sleep(50L);
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testConcurrentRefreshesShareTheSameRequest() throws Exception {
+		final TuleapTrackerRefresher refresher = new TuleapTrackerRefresher(60000L);
+		release = new CountDownLatch(1);
+		final TuleapTracker[] results = new TuleapTracker[4];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						results[index] = refresher.refresh(tracker, loader, new NullProgressMonitor());
+					} catch (CoreException e) {
+						// results[index] remains null
+					}
+				}
+			};
+			threads[i].start();
+		}
+		Thread.sleep(100L);
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join(5000L);
+		}
+		assertEquals(1, calls.get());
+		for (TuleapTracker result : results) {
+			assertSame(refreshed, result);
+		}
+	}
+
+	@Test
+	public void testNoTimeToLive() throws CoreException {
+		TuleapTrackerRefresher refresher = new TuleapTrackerRefresher(0L);
+		refresher.markRefreshed(200);
+		assertSame(refreshed, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		assertSame(refreshed, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void testClear() throws CoreException {
+		TuleapTrackerRefresher refresher = new TuleapTrackerRefresher(60000L);
+		refresher.refresh(tracker, loader, new NullProgressMonitor());
+		refresher.clear();
+		assertSame(refreshed, refresher.refresh(tracker, loader, new NullProgressMonitor()));
+		assertEquals(2, calls.get());
+	}
+}
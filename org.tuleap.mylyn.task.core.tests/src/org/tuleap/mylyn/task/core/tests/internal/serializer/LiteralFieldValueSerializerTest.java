@@ -13,6 +13,7 @@ package org.tuleap.mylyn.task.core.tests.internal.serializer;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -58,4 +59,9 @@ public class LiteralFieldValueSerializerTest {
 		String json = gson.toJson(value);
 		assertEquals(expected, json);
 	}
+
+	@Test(expected = JsonParseException.class)
+	public void testLiteralFieldValueCannotBeRead() {
+		gson.fromJson("{\"field_id\":222,\"value\":\"666\"}", LiteralFieldValue.class);
+	}
 }
@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.tests.internal.server;
 
+import com.google.common.io.CharStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -50,6 +54,24 @@ public class ServerResponseTest {
 		assertEquals(value, response.getHeaders().get(key));
 	}
 
+	/**
+	 * Test the body of a response received as a stream.
+	 */
+	@Test
+	public void testServerResponseWithStreamedBody() throws IOException {
+		String body = "[{\"hello\": \"w\u00f6rld\"}]"; //$NON-NLS-1$
+		ServerResponse response = new ServerResponse(200, new ByteArrayInputStream(body.getBytes("UTF-8")),
+				"UTF-8", new HashMap<String, String>());
+		assertEquals(body, response.getBody());
+		// The body is kept once the stream has been read
+		assertEquals(body, response.getBody());
+		assertEquals(body, CharStreams.toString(response.getBodyReader()));
+
+		response = new ServerResponse(200, new ByteArrayInputStream(body.getBytes("UTF-8")), "UTF-8",
+				new HashMap<String, String>());
+		assertEquals(body, CharStreams.toString(response.getBodyReader()));
+	}
+
 	/**
 	 * Tests the behavior of the {@link ServerResponse#isOk()} method.
 	 */
@@ -159,7 +159,9 @@ public class TuleapCoreActivator extends Plugin {
 			// We are out of eclipse. Prints the message on standard error.
 			// CHECKSTYLE:OFF
 			System.err.println(status.getMessage());
-			status.getException().printStackTrace();
+			if (status.getException() != null) {
+				status.getException().printStackTrace();
+			}
 			// CHECKSTYLE:ON
 		}
 	}
@@ -15,20 +15,26 @@ import com.google.gson.Gson;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.mylyn.commons.net.AbstractWebLocation;
+import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
+import org.eclipse.mylyn.commons.net.AuthenticationType;
 import org.eclipse.mylyn.tasks.core.IRepositoryListener;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
 import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.client.rest.ChunkSizePolicy;
+import org.tuleap.mylyn.task.core.internal.client.rest.PaginationPolicy;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestResourceFactory;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestConnector;
 import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
 
 /**
  * The Tuleap client manager will create new clients for a given Mylyn tasks repository or find existing ones.
@@ -39,14 +45,15 @@ import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
 public class TuleapClientManager implements IRepositoryListener {
 
 	/**
-	 * The rest connectors to dispose.
+	 * The properties of a task repository used to create its client.
 	 */
-	private List<TuleapRestConnector> restConnectors = new ArrayList<TuleapRestConnector>();
+	private static final String[] CLIENT_PROPERTIES = {ITuleapConstants.PROPERTY_MAX_CONNECTIONS,
+			ITuleapConstants.PROPERTY_INITIAL_PAGE_SIZE, ITuleapConstants.PROPERTY_ATTACHMENT_CHUNK_SIZE };
 
 	/**
-	 * The REST client cache.
+	 * The REST clients and their connectors, by task repository.
 	 */
-	private Map<TaskRepository, TuleapRestClient> restClientCache = new HashMap<TaskRepository, TuleapRestClient>();
+	private Map<TaskRepository, CachedClient> restClientCache = new HashMap<TaskRepository, CachedClient>();
 
 	/**
 	 * Returns the REST client for the given task repository. The reference to the created client should not
@@ -57,12 +64,13 @@ public class TuleapClientManager implements IRepositoryListener {
 	 *            The task repository
 	 * @return The REST client for the given task repository
 	 */
-	public TuleapRestClient getRestClient(TaskRepository taskRepository) {
-		TuleapRestClient tuleapRestClient = this.restClientCache.get(taskRepository);
-		if (tuleapRestClient == null) {
-			this.refreshClients(taskRepository);
+	public synchronized TuleapRestClient getRestClient(TaskRepository taskRepository) {
+		CachedClient cachedClient = this.restClientCache.get(taskRepository);
+		if (cachedClient == null) {
+			cachedClient = this.createClient(taskRepository);
+			this.restClientCache.put(taskRepository, cachedClient);
 		}
-		return this.restClientCache.get(taskRepository);
+		return cachedClient.client;
 	}
 
 	/**
@@ -71,32 +79,119 @@ public class TuleapClientManager implements IRepositoryListener {
 	 * @see org.eclipse.mylyn.tasks.core.IRepositoryListener#repositoryAdded(org.eclipse.mylyn.tasks.core.TaskRepository)
 	 */
 	@Override
-	public void repositoryAdded(TaskRepository taskRepository) {
-		this.refreshClients(taskRepository);
+	public synchronized void repositoryAdded(TaskRepository taskRepository) {
+		this.evict(taskRepository);
+		this.restClientCache.put(taskRepository, this.createClient(taskRepository));
 	}
 
 	/**
-	 * Refresh both REST and SOAP clients for the given task repository.
+	 * Creates the REST client for the given task repository.
 	 *
 	 * @param taskRepository
 	 *            The task repository
+	 * @return The client and its connector.
 	 */
-	private void refreshClients(TaskRepository taskRepository) {
-		// Create both clients
+	private CachedClient createClient(TaskRepository taskRepository) {
 		final AbstractWebLocation webLocation = new TaskRepositoryLocationFactory().createWebLocation(
 				taskRepository);
 
 		ILog logger = Platform.getLog(Platform.getBundle(TuleapCoreActivator.PLUGIN_ID));
 
 		Gson gson = TuleapGsonProvider.defaultGson();
-		TuleapRestConnector tuleapRestConnector = new TuleapRestConnector(webLocation, logger);
-
-		restConnectors.add(tuleapRestConnector);
+		int maxConnections = getIntProperty(taskRepository, ITuleapConstants.PROPERTY_MAX_CONNECTIONS,
+				ITuleapConstants.DEFAULT_MAX_CONNECTIONS);
+		TuleapRestConnector tuleapRestConnector = new TuleapRestConnector(webLocation, logger,
+				maxConnections);
 
+		PaginationPolicy paginationPolicy = new PaginationPolicy(getIntProperty(taskRepository,
+				ITuleapConstants.PROPERTY_INITIAL_PAGE_SIZE, PaginationPolicy.DEFAULT_INITIAL_LIMIT));
 		RestResourceFactory restResourceFactory = new RestResourceFactory(tuleapRestConnector, gson,
-				TuleapCoreActivator.getDefault().getLog());
-		TuleapRestClient tuleapRestClient = new TuleapRestClient(restResourceFactory, gson, taskRepository);
-		this.restClientCache.put(taskRepository, tuleapRestClient);
+				TuleapCoreActivator.getDefault().getLog(), paginationPolicy);
+		ChunkSizePolicy chunkSizePolicy = new ChunkSizePolicy(ChunkSizePolicy.toBytes(getIntProperty(
+				taskRepository, ITuleapConstants.PROPERTY_ATTACHMENT_CHUNK_SIZE, 0)));
+		TuleapRestClient tuleapRestClient = new TuleapRestClient(restResourceFactory, gson, taskRepository,
+				chunkSizePolicy);
+		return new CachedClient(tuleapRestClient, tuleapRestConnector, getClientSettings(taskRepository));
+	}
+
+	/**
+	 * Provides the settings of the given task repository on which its client depends.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The settings of the client, which are equal as long as the client can be kept.
+	 */
+	private static List<String> getClientSettings(TaskRepository taskRepository) {
+		List<String> settings = new ArrayList<String>();
+		settings.add(taskRepository.getRepositoryUrl());
+		AuthenticationCredentials credentials = taskRepository.getCredentials(AuthenticationType.REPOSITORY);
+		if (credentials != null) {
+			settings.add(credentials.getUserName());
+			settings.add(credentials.getPassword());
+		}
+		for (String key : CLIENT_PROPERTIES) {
+			settings.add(taskRepository.getProperty(key));
+		}
+		return settings;
+	}
+
+	/**
+	 * Removes the client of the given task repository from the cache and closes its connections. The
+	 * repository is looked up by identity if its URL, and therefore its hash code, has changed.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 */
+	private void evict(TaskRepository taskRepository) {
+		CachedClient cachedClient = this.restClientCache.remove(taskRepository);
+		if (cachedClient == null) {
+			Iterator<Map.Entry<TaskRepository, CachedClient>> iterator = this.restClientCache.entrySet()
+					.iterator();
+			while (cachedClient == null && iterator.hasNext()) {
+				Map.Entry<TaskRepository, CachedClient> entry = iterator.next();
+				if (entry.getKey() == taskRepository) {
+					cachedClient = entry.getValue();
+					iterator.remove();
+				}
+			}
+		}
+		if (cachedClient != null) {
+			cachedClient.connector.dispose();
+		}
+	}
+
+	/**
+	 * Provides the value of an integer property of the given task repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param key
+	 *            The key of the property
+	 * @param defaultValue
+	 *            The value to use if the property is not set or is invalid
+	 * @return The value of the property.
+	 */
+	private int getIntProperty(TaskRepository taskRepository, String key, int defaultValue) {
+		int value = defaultValue;
+		String property = taskRepository.getProperty(key);
+		if (property != null) {
+			try {
+				value = Integer.parseInt(property.trim());
+			} catch (NumberFormatException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Closes the connections of all the clients, which must not be used anymore.
+	 */
+	public synchronized void dispose() {
+		for (CachedClient cachedClient : restClientCache.values()) {
+			cachedClient.connector.dispose();
+		}
+		restClientCache.clear();
 	}
 
 	/**
@@ -105,21 +200,23 @@ public class TuleapClientManager implements IRepositoryListener {
 	 * @see org.eclipse.mylyn.tasks.core.IRepositoryListener#repositoryRemoved(org.eclipse.mylyn.tasks.core.TaskRepository)
 	 */
 	@Override
-	public void repositoryRemoved(TaskRepository taskRepository) {
-		// Force the re-creation of the client if the repository changes
-		this.restClientCache.remove(taskRepository);
+	public synchronized void repositoryRemoved(TaskRepository taskRepository) {
+		this.evict(taskRepository);
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * {@inheritDoc} The client is re-created on demand only if a setting it depends on has changed, so that
+	 * what it has learned about the server is kept when other settings, such as the synchronization time
+	 * stamp, change.
 	 *
 	 * @see org.eclipse.mylyn.tasks.core.IRepositoryListener#repositorySettingsChanged(org.eclipse.mylyn.tasks.core.TaskRepository)
 	 */
 	@Override
-	public void repositorySettingsChanged(TaskRepository taskRepository) {
-		// Force the re-creation of the clients if the repository changes
-		this.repositoryAdded(taskRepository);
-		this.repositoryRemoved(taskRepository);
+	public synchronized void repositorySettingsChanged(TaskRepository taskRepository) {
+		CachedClient cachedClient = this.restClientCache.get(taskRepository);
+		if (cachedClient == null || !cachedClient.settings.equals(getClientSettings(taskRepository))) {
+			this.evict(taskRepository);
+		}
 	}
 
 	/**
@@ -129,9 +226,45 @@ public class TuleapClientManager implements IRepositoryListener {
 	 *      java.lang.String)
 	 */
 	@Override
-	public void repositoryUrlChanged(TaskRepository taskRepository, String oldUrl) {
-		// Force the re-creation of the clients if the repository changes
-		this.repositoryAdded(taskRepository);
-		this.repositoryRemoved(taskRepository);
+	public synchronized void repositoryUrlChanged(TaskRepository taskRepository, String oldUrl) {
+		// Force the re-creation of the client on demand
+		this.evict(taskRepository);
+	}
+
+	/**
+	 * A REST client with the connector whose connections it uses.
+	 */
+	private static final class CachedClient {
+
+		/**
+		 * The client.
+		 */
+		private final TuleapRestClient client;
+
+		/**
+		 * The connector of the client, to dispose when the client is not used anymore.
+		 */
+		private final TuleapRestConnector connector;
+
+		/**
+		 * The settings of the task repository with which the client has been created.
+		 */
+		private final List<String> settings;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param client
+		 *            The client
+		 * @param connector
+		 *            The connector of the client
+		 * @param settings
+		 *            The settings of the task repository with which the client has been created
+		 */
+		private CachedClient(TuleapRestClient client, TuleapRestConnector connector, List<String> settings) {
+			this.client = client;
+			this.connector = connector;
+			this.settings = settings;
+		}
 	}
 }
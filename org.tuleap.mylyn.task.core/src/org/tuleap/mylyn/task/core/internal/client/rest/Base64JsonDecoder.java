@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Decodes the Base64 value of a member of a JSON object while reading the JSON, so that neither the JSON
+ * nor the encoded value are ever held in memory as a whole. The other members of the object are skipped,
+ * whatever their type.
+ */
+public class Base64JsonDecoder {
+
+	/**
+	 * Value of the characters that are not in the Base64 alphabet.
+	 */
+	private static final int INVALID = -1;
+
+	/**
+	 * Value of the characters that are ignored, the padding and white spaces.
+	 */
+	private static final int IGNORED = -2;
+
+	/**
+	 * Value of the characters in the Base64 alphabet, indexed by character.
+	 */
+	private static final int[] VALUES = new int[128];
+
+	static {
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"; //$NON-NLS-1$
+		for (int i = 0; i < VALUES.length; i++) {
+			VALUES[i] = INVALID;
+		}
+		for (int i = 0; i < alphabet.length(); i++) {
+			VALUES[alphabet.charAt(i)] = i;
+		}
+		VALUES['='] = IGNORED;
+		VALUES[' '] = IGNORED;
+		VALUES['\r'] = IGNORED;
+		VALUES['\n'] = IGNORED;
+		VALUES['\t'] = IGNORED;
+	}
+
+	/**
+	 * Size of the buffer of characters.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Number of hexadecimal digits of an escaped unicode character.
+	 */
+	private static final int UNICODE_DIGITS = 4;
+
+	/**
+	 * Radix of the escaped unicode characters.
+	 */
+	private static final int HEXADECIMAL = 16;
+
+	/**
+	 * Mask of a byte.
+	 */
+	private static final int EIGHT_BITS = 0xff;
+
+	/**
+	 * The JSON to read.
+	 */
+	private final Reader reader;
+
+	/**
+	 * The characters read and not consumed yet.
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * The position of the next character to consume in {@link #buffer}.
+	 */
+	private int position;
+
+	/**
+	 * The number of characters in {@link #buffer}.
+	 */
+	private int limit;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param reader
+	 *            The JSON to read, which is not closed by this decoder
+	 */
+	public Base64JsonDecoder(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the JSON object until the given member, and decodes its value in the given array.
+	 *
+	 * @param member
+	 *            The name of the member of the object
+	 * @param out
+	 *            The array that receives the decoded bytes
+	 * @return The number of bytes decoded, or <code>-1</code> if the object has no such member or if its
+	 *         value is <code>null</code>.
+	 * @throws IOException
+	 *             If the JSON cannot be read, is not an object, or if the value of the member is not in
+	 *             Base64 or is larger than the given array.
+	 */
+	public int decode(String member, byte[] out) throws IOException {
+		if (nextToken() != '{') {
+			throw new IOException("A JSON object is expected"); //$NON-NLS-1$
+		}
+		int depth = 1;
+		boolean key = true;
+		while (depth > 0) {
+			char c = nextToken();
+			if (c == '"') {
+				if (depth == 1 && key) {
+					boolean found = member.equals(readString());
+					if (nextToken() != ':') {
+						throw new IOException("A colon is expected"); //$NON-NLS-1$
+					}
+					key = false;
+					if (found) {
+						return decodeValue(out);
+					}
+				} else {
+					skipString();
+				}
+			} else if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				depth--;
+			} else if (c == ',' && depth == 1) {
+				key = true;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Decodes the value of the member whose colon has just been read.
+	 *
+	 * @param out
+	 *            The array that receives the decoded bytes
+	 * @return The number of bytes decoded, or <code>-1</code> if the value is <code>null</code>.
+	 * @throws IOException
+	 *             If the value is not a string in Base64 or is larger than the given array.
+	 */
+	private int decodeValue(byte[] out) throws IOException {
+		char c = nextToken();
+		if (c == 'n') {
+			return -1;
+		}
+		if (c != '"') {
+			throw new IOException("A string is expected"); //$NON-NLS-1$
+		}
+		int count = 0;
+		int bits = 0;
+		int pending = 0;
+		c = next();
+		while (c != '"') {
+			if (c == '\\') {
+				c = unescape();
+			}
+			int value = INVALID;
+			if (c < VALUES.length) {
+				value = VALUES[c];
+			}
+			if (value == INVALID) {
+				throw new IOException("Invalid Base64 character: " + c); //$NON-NLS-1$
+			}
+			if (value != IGNORED) {
+				bits = bits << 6 | value;
+				pending++;
+				if (pending == 4) {
+					checkCapacity(out, count + 3);
+					out[count++] = (byte)(bits >> 16 & EIGHT_BITS);
+					out[count++] = (byte)(bits >> 8 & EIGHT_BITS);
+					out[count++] = (byte)(bits & EIGHT_BITS);
+					pending = 0;
+				}
+			}
+			c = next();
+		}
+		if (pending == 2) {
+			checkCapacity(out, count + 1);
+			out[count++] = (byte)(bits >> 4 & EIGHT_BITS);
+		} else if (pending == 3) {
+			checkCapacity(out, count + 2);
+			out[count++] = (byte)(bits >> 10 & EIGHT_BITS);
+			out[count++] = (byte)(bits >> 2 & EIGHT_BITS);
+		} else if (pending == 1) {
+			throw new IOException("Truncated Base64 value"); //$NON-NLS-1$
+		}
+		return count;
+	}
+
+	/**
+	 * Checks that the decoded bytes fit in the array.
+	 *
+	 * @param out
+	 *            The array that receives the decoded bytes
+	 * @param count
+	 *            The number of decoded bytes
+	 * @throws IOException
+	 *             If the decoded bytes do not fit in the array.
+	 */
+	private static void checkCapacity(byte[] out, int count) throws IOException {
+		if (count > out.length) {
+			throw new IOException("The decoded value exceeds " + out.length //$NON-NLS-1$
+					+ " bytes"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Reads a string whose opening quote has just been read.
+	 *
+	 * @return The unescaped string.
+	 * @throws IOException
+	 *             If the string cannot be read.
+	 */
+	private String readString() throws IOException {
+		StringBuilder builder = new StringBuilder();
+		char c = next();
+		while (c != '"') {
+			if (c == '\\') {
+				c = unescape();
+			}
+			builder.append(c);
+			c = next();
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Skips a string whose opening quote has just been read.
+	 *
+	 * @throws IOException
+	 *             If the string cannot be read.
+	 */
+	private void skipString() throws IOException {
+		char c = next();
+		while (c != '"') {
+			if (c == '\\') {
+				unescape();
+			}
+			c = next();
+		}
+	}
+
+	/**
+	 * Reads an escape sequence whose backslash has just been read.
+	 *
+	 * @return The escaped character.
+	 * @throws IOException
+	 *             If the escape sequence is invalid.
+	 */
+	private char unescape() throws IOException {
+		char c = next();
+		switch (c) {
+			case 'u':
+				int value = 0;
+				for (int i = 0; i < UNICODE_DIGITS; i++) {
+					int digit = Character.digit(next(), HEXADECIMAL);
+					if (digit < 0) {
+						throw new IOException("Invalid unicode escape sequence"); //$NON-NLS-1$
+					}
+					value = value * HEXADECIMAL + digit;
+				}
+				return (char)value;
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			default:
+				// Quote, backslash and slash
+				return c;
+		}
+	}
+
+	/**
+	 * Provides the next character that is not a white space.
+	 *
+	 * @return The next character that is not a white space.
+	 * @throws IOException
+	 *             If the end of the JSON has been reached.
+	 */
+	private char nextToken() throws IOException {
+		char c = next();
+		while (Character.isWhitespace(c)) {
+			c = next();
+		}
+		return c;
+	}
+
+	/**
+	 * Provides the next character.
+	 *
+	 * @return The next character.
+	 * @throws IOException
+	 *             If the end of the JSON has been reached.
+	 */
+	private char next() throws IOException {
+		if (position == limit) {
+			limit = reader.read(buffer);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				throw new EOFException();
+			}
+		}
+		return buffer[position++];
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.apache.commons.httpclient.methods.RequestEntity;
+
+/**
+ * A JSON request body with a member holding bytes encoded in Base64. The bytes are encoded by a
+ * {@link Base64OutputStream} while the body is written to the connection, so that neither the encoded bytes
+ * nor the body are ever held in memory as a whole. The bytes must not change until the request has been
+ * sent.
+ */
+public class Base64JsonRequestEntity implements RequestEntity {
+
+	/**
+	 * The JSON written before the encoded bytes, up to the opening quote of the member value.
+	 */
+	private final byte[] prefix;
+
+	/**
+	 * The JSON written after the encoded bytes, from the closing quote of the member value.
+	 */
+	private final byte[] suffix;
+
+	/**
+	 * The bytes to encode.
+	 */
+	private final byte[] content;
+
+	/**
+	 * The number of bytes to encode, at the beginning of {@link #content}.
+	 */
+	private final int length;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param envelope
+	 *            The other members of the JSON object
+	 * @param member
+	 *            The name of the member holding the encoded bytes, added last to the JSON object
+	 * @param content
+	 *            The bytes to encode
+	 * @param length
+	 *            The number of bytes to encode, at the beginning of the given array
+	 */
+	public Base64JsonRequestEntity(JsonObject envelope, String member, byte[] content, int length) {
+		this.content = content;
+		this.length = length;
+		String json = envelope.toString();
+		StringBuilder builder = new StringBuilder(json.substring(0, json.length() - 1));
+		if (!envelope.entrySet().isEmpty()) {
+			builder.append(',');
+		}
+		builder.append(new JsonPrimitive(member).toString()).append(":\""); //$NON-NLS-1$
+		try {
+			this.prefix = builder.toString().getBytes(RestOperation.ENCODING_UTF8);
+			this.suffix = "\"}".getBytes(RestOperation.ENCODING_UTF8); //$NON-NLS-1$
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#isRepeatable()
+	 */
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#writeRequest(java.io.OutputStream)
+	 */
+	@Override
+	public void writeRequest(OutputStream out) throws IOException {
+		out.write(prefix);
+		// Without line breaks, and closed to write the padding without closing the connection stream
+		OutputStream base64 = new Base64OutputStream(new CloseShieldOutputStream(out), true, 0, null);
+		base64.write(content, 0, length);
+		base64.close();
+		out.write(suffix);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentLength()
+	 */
+	@Override
+	public long getContentLength() {
+		return prefix.length + (length + 2L) / 3 * 4 + suffix.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentType()
+	 */
+	@Override
+	public String getContentType() {
+		return RestOperation.CONTENT_TYPE_JSON + "; charset=" + RestOperation.ENCODING_UTF8; //$NON-NLS-1$
+	}
+
+	/**
+	 * A stream that writes to another one, which it flushes instead of closing it.
+	 */
+	private static final class CloseShieldOutputStream extends FilterOutputStream {
+
+		/**
+		 * Constructor.
+		 *
+		 * @param out
+		 *            The stream to write to
+		 */
+		private CloseShieldOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		/**
+		 * {@inheritDoc} The bytes are written at once rather than one by one.
+		 *
+		 * @see java.io.FilterOutputStream#write(byte[], int, int)
+		 */
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		/**
+		 * {@inheritDoc} The stream written to is only flushed.
+		 *
+		 * @see java.io.FilterOutputStream#close()
+		 */
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
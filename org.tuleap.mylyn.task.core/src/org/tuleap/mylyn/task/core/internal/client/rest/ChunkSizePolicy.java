@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+/**
+ * Remembers, for a repository, the number of bytes of attachment to transfer in each request. The size can
+ * be set by the user, otherwise it is doubled while the chunks are transferred quickly and halved when they
+ * are slow or fail. In both cases, it never exceeds the maximum advertised by the server with the
+ * {@code X-UPLOAD-MAX-FILE-CHUNKSIZE} header nor {@link #MAX_CHUNK_SIZE}, since each chunk is held in
+ * memory, and it is not raised above the default size as long as the server has not advertised its
+ * maximum. This class is thread-safe.
+ */
+public class ChunkSizePolicy {
+
+	/**
+	 * Default number of bytes transferred in each request.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+	/**
+	 * Maximum number of bytes transferred in each request, whatever the server accepts.
+	 */
+	public static final int MAX_CHUNK_SIZE = 32 * 1024 * 1024;
+
+	/**
+	 * Maximum number of kilobytes that can be set by the user.
+	 */
+	public static final int MAX_FIXED_CHUNK_SIZE_KB = MAX_CHUNK_SIZE / 1024;
+
+	/**
+	 * Header that gives the maximum size of the content of a request accepted by the server.
+	 */
+	public static final String HEADER_X_UPLOAD_MAX_FILE_CHUNKSIZE =
+			"X-UPLOAD-MAX-FILE-CHUNKSIZE"; //$NON-NLS-1$
+
+	/**
+	 * The size is never lowered below this number of bytes.
+	 */
+	private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * Duration in milliseconds below which a chunk is transferred quickly enough to try larger chunks.
+	 */
+	private static final long FAST_TRANSFER_DURATION = 1000L;
+
+	/**
+	 * Duration in milliseconds beyond which a chunk is transferred too slowly and smaller chunks are used.
+	 */
+	private static final long SLOW_TRANSFER_DURATION = 5000L;
+
+	/**
+	 * The size set by the user, or <code>0</code> if the size is adapted automatically.
+	 */
+	private final int fixedChunkSize;
+
+	/**
+	 * The size learned from the previous transfers.
+	 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * The maximum number of bytes accepted by the server, or <code>-1</code> if it is not known.
+	 */
+	private int maxChunkSize = -1;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param fixedChunkSize
+	 *            The number of bytes to transfer in each request, capped to {@link #MAX_CHUNK_SIZE}, or
+	 *            <code>0</code> to adapt it to the transfers
+	 */
+	public ChunkSizePolicy(int fixedChunkSize) {
+		if (fixedChunkSize > 0) {
+			this.fixedChunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, fixedChunkSize));
+		} else {
+			this.fixedChunkSize = 0;
+		}
+	}
+
+	/**
+	 * Converts a size set by the user in kilobytes into the number of bytes expected by the constructor.
+	 *
+	 * @param kilobytes
+	 *            The number of kilobytes to transfer in each request, or <code>0</code> to adapt it to the
+	 *            transfers
+	 * @return The number of bytes, capped to {@link #MAX_CHUNK_SIZE}, or <code>0</code> if the given size is
+	 *         not positive.
+	 */
+	public static int toBytes(int kilobytes) {
+		if (kilobytes <= 0) {
+			return 0;
+		}
+		return Math.min(kilobytes, MAX_FIXED_CHUNK_SIZE_KB) * 1024;
+	}
+
+	/**
+	 * Provides the number of bytes to transfer in each request.
+	 *
+	 * @return The number of bytes to transfer in each request.
+	 */
+	public synchronized int getChunkSize() {
+		int size = chunkSize;
+		if (fixedChunkSize > 0) {
+			size = fixedChunkSize;
+		}
+		if (maxChunkSize > 0) {
+			return Math.min(size, maxChunkSize);
+		}
+		return size;
+	}
+
+	/**
+	 * Learns from the headers of a response of the server.
+	 *
+	 * @param response
+	 *            The response received
+	 */
+	public void responseReceived(ServerResponse response) {
+		String value = response.getHeaders().get(HEADER_X_UPLOAD_MAX_FILE_CHUNKSIZE);
+		if (value != null) {
+			try {
+				long max = Long.parseLong(value.trim());
+				if (max > 0) {
+					// The maximum applies to the Base64 encoded content
+					setMaxChunkSize((int)Math.min(max / 4 * 3, Integer.MAX_VALUE));
+				}
+			} catch (NumberFormatException e) {
+				// Ignore the header
+			}
+		}
+	}
+
+	/**
+	 * Sets the maximum number of bytes accepted by the server.
+	 *
+	 * @param max
+	 *            The maximum number of bytes accepted by the server
+	 */
+	public synchronized void setMaxChunkSize(int max) {
+		maxChunkSize = Math.max(MIN_CHUNK_SIZE, max);
+	}
+
+	/**
+	 * Learns from a chunk successfully transferred. The size is doubled if a full chunk is transferred
+	 * quickly, and halved if a chunk is transferred slowly.
+	 *
+	 * @param size
+	 *            The number of bytes of the chunk
+	 * @param duration
+	 *            The duration of the transfer in milliseconds
+	 */
+	public synchronized void chunkTransferred(int size, long duration) {
+		if (duration > SLOW_TRANSFER_DURATION) {
+			lower(size);
+		} else if (duration < FAST_TRANSFER_DURATION && size >= chunkSize) {
+			int ceiling = Math.min(maxChunkSize, MAX_CHUNK_SIZE);
+			if (ceiling <= 0) {
+				ceiling = DEFAULT_CHUNK_SIZE;
+			}
+			chunkSize = Math.max(chunkSize, Math.min(ceiling, size * 2));
+		}
+	}
+
+	/**
+	 * Learns from a chunk that could not be transferred, most likely because the request timed out or was
+	 * too large.
+	 *
+	 * @param size
+	 *            The number of bytes of the chunk
+	 */
+	public synchronized void chunkFailed(int size) {
+		lower(size);
+	}
+
+	/**
+	 * Lowers the size below the size of a chunk that was too slow.
+	 *
+	 * @param size
+	 *            The number of bytes of the chunk
+	 */
+	private void lower(int size) {
+		chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(chunkSize, size / 2));
+	}
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.io.CountingInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses the bodies of the HTTP responses on the fly, according to their {@code Content-Encoding}
+ * header, and measures how many bytes have been received and decoded.
+ */
+public final class HttpContentDecoder {
+
+	/**
+	 * Value of the {@code Accept-Encoding} header sent with the requests.
+	 */
+	public static final String ACCEPTED_ENCODINGS = "gzip, deflate"; //$NON-NLS-1$
+
+	/**
+	 * Name of the header that gives the encoding of the response body.
+	 */
+	public static final String HEADER_CONTENT_ENCODING = "Content-Encoding"; //$NON-NLS-1$
+
+	/**
+	 * The gzip encoding.
+	 */
+	private static final String GZIP = "gzip"; //$NON-NLS-1$
+
+	/**
+	 * The deflate encoding.
+	 */
+	private static final String DEFLATE = "deflate"; //$NON-NLS-1$
+
+	/**
+	 * The constructor.
+	 */
+	private HttpContentDecoder() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Wraps the given stream so that it provides the decoded body, and records the sizes of the body in the
+	 * given statistics once the returned stream is closed.
+	 *
+	 * @param body
+	 *            The body as received from the server
+	 * @param contentEncoding
+	 *            The value of the {@code Content-Encoding} header, can be <code>null</code>
+	 * @param statistics
+	 *            The statistics to update, can be <code>null</code>
+	 * @return A stream that provides the decoded body. Closing it closes the given stream.
+	 * @throws IOException
+	 *             If the header of the compressed body cannot be read.
+	 */
+	public static InputStream decode(InputStream body, String contentEncoding,
+			TransferStatistics statistics) throws IOException {
+		CountingInputStream wire = new CountingInputStream(body);
+		InputStream decoded;
+		String encoding = null;
+		if (contentEncoding != null) {
+			encoding = contentEncoding.trim().toLowerCase(Locale.ENGLISH);
+		}
+		boolean gzip = GZIP.equals(encoding) || "x-gzip".equals(encoding); //$NON-NLS-1$
+		if (gzip || DEFLATE.equals(encoding)) {
+			BufferedInputStream buffered = new BufferedInputStream(wire);
+			buffered.mark(2);
+			int first = buffered.read();
+			int second = buffered.read();
+			buffered.reset();
+			if (first < 0) {
+				// Empty body, nothing to decompress
+				decoded = buffered;
+			} else if (gzip) {
+				decoded = new GZIPInputStream(buffered);
+			} else {
+				decoded = inflate(buffered, isZlibHeader(first, second));
+			}
+		} else {
+			decoded = wire;
+		}
+		return new MeasuredInputStream(new CountingInputStream(decoded), wire, statistics);
+	}
+
+	/**
+	 * Indicates whether the given bytes are a zlib header. The deflate encoding should use the zlib format,
+	 * but some servers send raw deflate data.
+	 *
+	 * @param first
+	 *            The first byte of the body
+	 * @param second
+	 *            The second byte of the body, negative if there is none
+	 * @return <code>true</code> if the bytes declare the deflate compression method with a valid checksum.
+	 */
+	private static boolean isZlibHeader(int first, int second) {
+		return second >= 0 && (first & 0x0f) == 8 && ((first << 8) | second) % 31 == 0;
+	}
+
+	/**
+	 * Decompresses a deflate body.
+	 *
+	 * @param body
+	 *            The compressed body
+	 * @param zlib
+	 *            <code>true</code> if the body is in the zlib format, <code>false</code> if it is raw deflate
+	 *            data
+	 * @return The decompressed body.
+	 */
+	private static InputStream inflate(InputStream body, boolean zlib) {
+		return new InflaterInputStream(body, new Inflater(!zlib)) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					// The inflater is not released by the stream since it has not been created by it
+					inf.end();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Stream that records the number of bytes received and decoded once it is closed.
+	 */
+	private static final class MeasuredInputStream extends FilterInputStream {
+
+		/**
+		 * Counter of the decoded bytes.
+		 */
+		private final CountingInputStream decoded;
+
+		/**
+		 * Counter of the received bytes.
+		 */
+		private final CountingInputStream wire;
+
+		/**
+		 * The statistics to update, can be <code>null</code>.
+		 */
+		private final TransferStatistics statistics;
+
+		/**
+		 * Whether the sizes have already been recorded.
+		 */
+		private final AtomicBoolean recorded = new AtomicBoolean();
+
+		/**
+		 * Constructor.
+		 *
+		 * @param decoded
+		 *            Counter of the decoded bytes
+		 * @param wire
+		 *            Counter of the received bytes
+		 * @param statistics
+		 *            The statistics to update, can be <code>null</code>
+		 */
+		private MeasuredInputStream(CountingInputStream decoded, CountingInputStream wire,
+				TransferStatistics statistics) {
+			super(decoded);
+			this.decoded = decoded;
+			this.wire = wire;
+			this.statistics = statistics;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.io.FilterInputStream#close()
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				if (statistics != null && recorded.compareAndSet(false, true)) {
+					statistics.record(wire.getCount(), decoded.getCount());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of the elements deserialized from GET responses, validated with the server by conditional requests.
+ * The {@code ETag} and {@code Last-Modified} headers of a response are stored along with the element, and
+ * sent back as {@code If-None-Match} and {@code If-Modified-Since} by the following requests of the same
+ * resource. When the server answers {@code 304 Not Modified}, the cached element is used as is instead of
+ * being deserialized again. This class is thread-safe.
+ *
+ * @param <T>
+ *            The type of the cached elements
+ */
+public class HttpValidationCache<T> {
+
+	/**
+	 * Response header holding the entity tag.
+	 */
+	public static final String HEADER_ETAG = "ETag"; //$NON-NLS-1$
+
+	/**
+	 * Response header holding the last modification date.
+	 */
+	public static final String HEADER_LAST_MODIFIED = "Last-Modified"; //$NON-NLS-1$
+
+	/**
+	 * Request header holding the entity tag of the cached element.
+	 */
+	public static final String HEADER_IF_NONE_MATCH = "If-None-Match"; //$NON-NLS-1$
+
+	/**
+	 * Request header holding the last modification date of the cached element.
+	 */
+	public static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since"; //$NON-NLS-1$
+
+	/**
+	 * The cached elements, by resource URL.
+	 */
+	private final ConcurrentMap<String, Validated<T>> entries = new ConcurrentHashMap<String, Validated<T>>();
+
+	/**
+	 * Adds to the given operation the headers that make it conditional, if an element is cached for its
+	 * resource. No header is added if nothing is cached, so that the server cannot answer
+	 * {@code 304 Not Modified}.
+	 *
+	 * @param operation
+	 *            The GET operation
+	 * @return The cached element to use if the server answers {@code 304 Not Modified}, or <code>null</code>
+	 *         if the operation has been left unconditional. The element is returned here rather than looked
+	 *         up again on reception of the response, since it may have been evicted in the meantime.
+	 */
+	public T prepare(RestOperation operation) {
+		Validated<T> entry = entries.get(getKey(operation));
+		if (entry == null) {
+			return null;
+		}
+		if (entry.etag != null) {
+			operation.withHeader(HEADER_IF_NONE_MATCH, entry.etag);
+		}
+		if (entry.lastModified != null) {
+			operation.withHeader(HEADER_IF_MODIFIED_SINCE, entry.lastModified);
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Caches the element deserialized from a successful response, if the response can be validated later.
+	 *
+	 * @param operation
+	 *            The operation
+	 * @param response
+	 *            The successful response
+	 * @param value
+	 *            The element deserialized from the response
+	 */
+	public void put(RestOperation operation, ServerResponse response, T value) {
+		String key = getKey(operation);
+		String etag = getHeader(response.getHeaders(), HEADER_ETAG);
+		String lastModified = getHeader(response.getHeaders(), HEADER_LAST_MODIFIED);
+		if (value == null || etag == null && lastModified == null) {
+			entries.remove(key);
+		} else {
+			entries.put(key, new Validated<T>(etag, lastModified, value));
+		}
+	}
+
+	/**
+	 * Removes all the cached elements.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Computes the key of the resource of the given operation.
+	 *
+	 * @param operation
+	 *            The operation
+	 * @return The URL of the resource, with its query parameters.
+	 */
+	private String getKey(RestOperation operation) {
+		if (operation.requestParameters.isEmpty()) {
+			return operation.fullUrl;
+		}
+		return operation.fullUrl + '?' + operation.requestParameters;
+	}
+
+	/**
+	 * Provides the value of a header, whatever the case used by the server for its name.
+	 *
+	 * @param headers
+	 *            The headers of the response
+	 * @param name
+	 *            The name of the header
+	 * @return The value of the header, or <code>null</code> if there is no such header.
+	 */
+	private static String getHeader(Map<String, String> headers, String name) {
+		String value = headers.get(name);
+		if (value == null) {
+			for (Entry<String, String> entry : headers.entrySet()) {
+				if (name.equalsIgnoreCase(entry.getKey())) {
+					return entry.getValue();
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * A cached element with its validators.
+	 *
+	 * @param <T>
+	 *            The type of the element
+	 */
+	private static final class Validated<T> {
+
+		/**
+		 * The entity tag, can be <code>null</code>.
+		 */
+		private final String etag;
+
+		/**
+		 * The last modification date, can be <code>null</code>.
+		 */
+		private final String lastModified;
+
+		/**
+		 * The cached element.
+		 */
+		private final T value;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param etag
+		 *            The entity tag, can be <code>null</code>
+		 * @param lastModified
+		 *            The last modification date, can be <code>null</code>
+		 * @param value
+		 *            The cached element
+		 */
+		private Validated(String etag, String lastModified, T value) {
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.value = value;
+		}
+	}
+}
@@ -29,4 +29,15 @@ public interface IRestConnector {
 	 */
 	ServerResponse sendRequest(HttpMethod method);
 
+	/**
+	 * Send a request whose successful response body is meant to be read incrementally.
+	 * 
+	 * @param method
+	 *            HTTP method to use (OPTIONS, GET, POST, PUT, ...) including URL, query parameters and
+	 *            request headers
+	 * @return The received server response. If it is successful, its body must be read with
+	 *         {@link ServerResponse#getBodyReader()} or released with {@link ServerResponse#release()}.
+	 */
+	ServerResponse sendStreamingRequest(HttpMethod method);
+
 }
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+
+import org.apache.commons.httpclient.methods.RequestEntity;
+
+/**
+ * A JSON request body serialized by Gson directly to the connection, so that the JSON is never held in
+ * memory as a whole. The object must not change until the request has been sent.
+ */
+public class JsonRequestEntity implements RequestEntity {
+
+	/**
+	 * Size of the buffer of characters written to the connection.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The Gson used to serialize the object.
+	 */
+	private final Gson gson;
+
+	/**
+	 * The object to serialize.
+	 */
+	private final Object value;
+
+	/**
+	 * The type used to serialize the object.
+	 */
+	private final Type type;
+
+	/**
+	 * The number of bytes of the JSON, or <code>-1</code> if it has not been computed yet.
+	 */
+	private long contentLength = -1;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The Gson used to serialize the object
+	 * @param value
+	 *            The object to serialize
+	 * @param type
+	 *            The type used to serialize the object
+	 */
+	public JsonRequestEntity(Gson gson, Object value, Type type) {
+		this.gson = gson;
+		this.value = value;
+		this.type = type;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#isRepeatable()
+	 */
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#writeRequest(java.io.OutputStream)
+	 */
+	@Override
+	public void writeRequest(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, RestOperation.ENCODING_UTF8),
+				BUFFER_SIZE);
+		try {
+			gson.toJson(value, type, writer);
+		} catch (JsonIOException e) {
+			throw new IOException(e.getMessage(), e.getCause());
+		}
+		// The stream belongs to the connection, it is flushed but not closed
+		writer.flush();
+	}
+
+	/**
+	 * Provides the number of bytes of the JSON, computed by serializing the object once without keeping the
+	 * result, so that the request is not sent with the chunked transfer encoding, which some servers reject.
+	 *
+	 * @return The number of bytes of the JSON, or <code>-1</code> if it cannot be computed.
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentLength()
+	 */
+	@Override
+	public synchronized long getContentLength() {
+		if (contentLength < 0) {
+			CountingOutputStream counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+			try {
+				writeRequest(counter);
+				contentLength = counter.getCount();
+			} catch (IOException e) {
+				// The request will fail the same way when it is sent
+				return -1;
+			}
+		}
+		return contentLength;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentType()
+	 */
+	@Override
+	public String getContentType() {
+		return RestOperation.CONTENT_TYPE_JSON + "; charset=" + RestOperation.ENCODING_UTF8; //$NON-NLS-1$
+	}
+}
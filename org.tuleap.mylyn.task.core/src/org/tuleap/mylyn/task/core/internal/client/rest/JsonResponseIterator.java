@@ -10,25 +10,49 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
-import com.google.common.collect.Iterators;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.eclipse.core.runtime.Assert;
 
 /**
  * Iterates over JsonElements in a JsonArray received in a ServerResponse, when no pagination is involved.
+ * The body of the response is read incrementally, one element at a time.
  *
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
-public class JsonResponseIterator implements Iterator<JsonElement> {
+public class JsonResponseIterator implements Iterator<JsonElement>, Closeable {
 
 	/**
-	 * The JSON array over which to iterate, replaced each time a new page is retrieved.
+	 * The reader of the response body.
 	 */
-	private Iterator<JsonElement> iterator;
+	private final JsonReader reader;
+
+	/**
+	 * The parser used to read the elements one by one.
+	 */
+	private final JsonParser parser = new JsonParser();
+
+	/**
+	 * The single element to return when the response body is not an array, <code>null</code> otherwise or
+	 * once it has been returned.
+	 */
+	private JsonElement singleElement;
+
+	/**
+	 * Whether there are still elements to read in the array of the response body.
+	 */
+	private boolean open;
 
 	/**
 	 * Constructor.
@@ -38,12 +62,23 @@ public class JsonResponseIterator implements Iterator<JsonElement> {
 	 */
 	public JsonResponseIterator(ServerResponse response) {
 		Assert.isNotNull(response);
-		JsonParser parser = new JsonParser();
-		JsonElement jsonElement = parser.parse(response.getBody());
-		if (jsonElement.isJsonArray()) {
-			iterator = jsonElement.getAsJsonArray().iterator();
-		} else {
-			iterator = Iterators.singletonIterator(jsonElement);
+		reader = new JsonReader(response.getBodyReader());
+		reader.setLenient(true);
+		try {
+			if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+				reader.beginArray();
+				open = true;
+			} else {
+				singleElement = parser.parse(reader);
+				close();
+			}
+		} catch (EOFException e) {
+			// Empty body
+			singleElement = JsonNull.INSTANCE;
+			close();
+		} catch (IOException e) {
+			close();
+			throw new JsonIOException(e);
 		}
 	}
 
@@ -54,7 +89,21 @@ public class JsonResponseIterator implements Iterator<JsonElement> {
 	 */
 	@Override
 	public boolean hasNext() {
-		return iterator.hasNext();
+		if (singleElement != null) {
+			return true;
+		}
+		if (open) {
+			try {
+				if (reader.hasNext()) {
+					return true;
+				}
+				close();
+			} catch (IOException e) {
+				close();
+				throw new JsonIOException(e);
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -64,7 +113,15 @@ public class JsonResponseIterator implements Iterator<JsonElement> {
 	 */
 	@Override
 	public JsonElement next() {
-		return iterator.next();
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		if (singleElement != null) {
+			JsonElement result = singleElement;
+			singleElement = null;
+			return result;
+		}
+		return parser.parse(reader);
 	}
 
 	/**
@@ -76,4 +133,19 @@ public class JsonResponseIterator implements Iterator<JsonElement> {
 	public void remove() {
 		throw new UnsupportedOperationException();
 	}
+
+	/**
+	 * Closes the response body, which releases the connection if the body has not been entirely read.
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() {
+		open = false;
+		try {
+			reader.close();
+		} catch (IOException e) {
+			// Nothing more can be done, the connection will be reclaimed by the connection manager
+		}
+	}
 }
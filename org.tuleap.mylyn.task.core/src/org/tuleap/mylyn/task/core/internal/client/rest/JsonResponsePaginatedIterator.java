@@ -12,22 +12,49 @@ package org.tuleap.mylyn.task.core.internal.client.rest;
 
 import com.google.common.collect.Maps;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+import org.tuleap.mylyn.task.core.internal.util.TuleapThreadFactory;
 
 /**
- * Handles the pagination of a REST dialog.
+ * Handles the pagination of a REST dialog. The body of each page is read incrementally, one element at a
+ * time. The following pages can be retrieved in the background while the current page is consumed.
  *
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
-public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
+public class JsonResponsePaginatedIterator implements Iterator<JsonElement>, Closeable {
+
+	/**
+	 * Delay in milliseconds between two checks of the progress monitor while waiting for a page.
+	 */
+	private static final long POLL_DELAY = 100L;
+
+	/**
+	 * Delay in seconds after which idle background threads are stopped.
+	 */
+	private static final long KEEP_ALIVE = 1L;
 
 	/**
 	 * The number of elements in the list of elements to iterate over. Corresponds to the
@@ -61,6 +88,16 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	 */
 	private final String body;
 
+	/**
+	 * The maximum number of pages retrieved in advance.
+	 */
+	private final int lookAhead;
+
+	/**
+	 * The progress monitor, can be <code>null</code>.
+	 */
+	private final IProgressMonitor monitor;
+
 	/**
 	 * The latest {@link ServerResponse} retrieved from the server, <code>null</code> when no invocation has
 	 * been made.
@@ -68,9 +105,39 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	private ServerResponse currentResponse;
 
 	/**
-	 * The JSON array over which to iterate, replaced each time a new page is retrieved.
+	 * The limit requested for the current page, <code>-1</code> if unknown.
+	 */
+	private int currentPageLimit;
+
+	/**
+	 * The latest response whose size has been given to the pagination policy.
+	 */
+	private ServerResponse measuredResponse;
+
+	/**
+	 * The reader of the JSON array over which to iterate, replaced each time a new page is retrieved.
 	 */
-	private Iterator<JsonElement> iterator;
+	private JsonReader reader;
+
+	/**
+	 * The parser used to read the elements one by one.
+	 */
+	private final JsonParser parser = new JsonParser();
+
+	/**
+	 * The pages being retrieved in advance, in the order of their offsets.
+	 */
+	private final LinkedList<PendingPage> pendingPages = new LinkedList<PendingPage>();
+
+	/**
+	 * The offset of the next page to retrieve in advance.
+	 */
+	private int nextPageOffset;
+
+	/**
+	 * The executor used to retrieve pages in advance, created on demand.
+	 */
+	private ThreadPoolExecutor executor;
 
 	/**
 	 * Constructor.
@@ -81,14 +148,82 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	 *            The first response received from the server.
 	 */
 	public JsonResponsePaginatedIterator(RestOperation operation, ServerResponse firstResponse) {
+		this(operation, firstResponse, 0, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param operation
+	 *            The REST operation to perform, several times if there is pagination involved.
+	 * @param firstResponse
+	 *            The first response received from the server.
+	 * @param lookAhead
+	 *            The maximum number of pages retrieved in the background while the current page is
+	 *            consumed, pages are only retrieved when needed if this number is lower than 1.
+	 * @param monitor
+	 *            The progress monitor, the iteration throws an {@link OperationCanceledException} when it
+	 *            is canceled. Can be <code>null</code>.
+	 */
+	public JsonResponsePaginatedIterator(RestOperation operation, ServerResponse firstResponse,
+			int lookAhead, IProgressMonitor monitor) {
 		Assert.isNotNull(operation);
 		Assert.isNotNull(firstResponse);
 		this.operation = operation;
 		this.headers = Maps.newHashMap();
 		this.headers.putAll(operation.requestHeaders);
 		this.body = operation.body;
+		this.lookAhead = lookAhead;
+		this.monitor = monitor;
 		this.currentResponse = firstResponse;
+		this.currentPageLimit = getRequestedLimit(operation);
 		extractCounters(firstResponse);
+		nextPageOffset = getFirstPageLimit(firstResponse);
+		prefetchPages();
+	}
+
+	/**
+	 * Provides the number of elements of the first page, as announced by the server or, failing that, as
+	 * requested.
+	 *
+	 * @param firstResponse
+	 *            The first response received from the server.
+	 * @return The number of elements of the first page.
+	 */
+	private int getFirstPageLimit(ServerResponse firstResponse) {
+		String limit = firstResponse.getHeaders().get(RestResource.HEADER_X_PAGINATION_LIMIT);
+		if (limit == null) {
+			Collection<String> limits = operation.requestParameters.get(RestResource.LIMIT);
+			if (limits.isEmpty()) {
+				limit = RestResource.LIMIT_DEFAULT;
+			} else {
+				limit = limits.iterator().next();
+			}
+		}
+		try {
+			return Integer.parseInt(limit);
+		} catch (NumberFormatException e) {
+			return Integer.parseInt(RestResource.LIMIT_DEFAULT);
+		}
+	}
+
+	/**
+	 * Provides the limit requested by the given operation.
+	 *
+	 * @param pageOperation
+	 *            The operation that retrieves a page
+	 * @return The limit requested by the operation, or <code>-1</code> if it is unknown.
+	 */
+	private static int getRequestedLimit(RestOperation pageOperation) {
+		String limit = pageOperation.getQueryParameter(RestResource.LIMIT);
+		if (limit != null) {
+			try {
+				return Integer.parseInt(limit);
+			} catch (NumberFormatException e) {
+				// The limit is unknown
+			}
+		}
+		return -1;
 	}
 
 	/**
@@ -102,6 +237,7 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 		Map<String, String> responseHeaders = currentResponse.getHeaders();
 		String xPaginationSize = responseHeaders.get(RestResource.HEADER_X_PAGINATION_SIZE);
 		if (xPaginationSize == null) {
+			currentResponse.release();
 			throw new IllegalArgumentException(TuleapCoreMessages
 					.getString(TuleapCoreKeys.invalidPaginationHeader));
 		}
@@ -109,6 +245,7 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 		try {
 			nbElements = Integer.parseInt(xPaginationSize);
 		} catch (NumberFormatException e) {
+			currentResponse.release();
 			throw new IllegalArgumentException(TuleapCoreMessages
 					.getString(TuleapCoreKeys.invalidPaginationHeader), e);
 		}
@@ -123,16 +260,38 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 			// Use default value
 			nbElementsPerPageMax = RestResource.DEFAULT_PAGINATION_LIMIT;
 		}
-		iterator = new JsonParser().parse(currentResponse.getBody()).getAsJsonArray().iterator();
+		if (operation.paginationPolicy != null) {
+			int limit = operation.paginationPolicy.getLimit(operation.fullUrl);
+			if (xPaginationLimitMax == null || limit < nbElementsPerPageMax) {
+				nbElementsPerPageMax = limit;
+			}
+		}
+		reader = new JsonReader(currentResponse.getBodyReader());
+		reader.setLenient(true);
+		try {
+			reader.beginArray();
+		} catch (IOException e) {
+			close();
+			throw new JsonIOException(e);
+		}
+		if (nbElements == 0) {
+			// There is nothing to iterate over, release the connection now
+			close();
+		}
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * {@inheritDoc} Throws an {@link OperationCanceledException} if the progress monitor is canceled, so that
+	 * a partial list of elements is never mistaken for the whole list.
 	 *
 	 * @see java.util.Iterator#hasNext()
 	 */
 	@Override
 	public boolean hasNext() {
+		if (monitor != null && monitor.isCanceled()) {
+			close();
+			throw new OperationCanceledException();
+		}
 		return currentOffset < nbElements;
 	}
 
@@ -143,17 +302,114 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	 */
 	@Override
 	public JsonElement next() {
-		if (currentOffset >= nbElements) {
+		if (!hasNext()) {
 			throw new NoSuchElementException();
 		}
-		if (!iterator.hasNext()) {
-			currentResponse = operation.withHeaders(headers).withBody(body).withQueryParameter(
-					RestResource.OFFSET, Integer.toString(currentOffset)).withQueryParameter(
-							RestResource.LIMIT, Integer.toString(nbElementsPerPageMax)).run();
-			extractCounters(currentResponse);
+		try {
+			if (!reader.hasNext()) {
+				closeReader();
+				currentResponse = retrieveNextPage();
+				extractCounters(currentResponse);
+				prefetchPages();
+				if (!reader.hasNext()) {
+					close();
+					throw new NoSuchElementException();
+				}
+			}
+			currentOffset++;
+			JsonElement element = parser.parse(reader);
+			if (currentOffset >= nbElements) {
+				// Release the connection as soon as possible
+				close();
+			}
+			return element;
+		} catch (IOException e) {
+			close();
+			throw new JsonIOException(e);
+		}
+	}
+
+	/**
+	 * Provides the page that starts at the current offset, either from the pages retrieved in advance or by
+	 * requesting it.
+	 *
+	 * @return The response containing the next page.
+	 */
+	private ServerResponse retrieveNextPage() {
+		PendingPage page = pendingPages.poll();
+		if (page != null && page.offset != currentOffset) {
+			// The server has returned less elements than expected, the pages retrieved in advance are useless
+			page.discard();
+			discardPendingPages();
+			page = null;
+		}
+		if (page == null) {
+			nextPageOffset = currentOffset + nbElementsPerPageMax;
+			operation.withHeaders(headers).withBody(body).withQueryParameter(RestResource.OFFSET,
+					Integer.toString(currentOffset)).withQueryParameter(RestResource.LIMIT,
+					Integer.toString(nbElementsPerPageMax));
+			currentPageLimit = nbElementsPerPageMax;
+			return learnFrom(operation, operation.streamingRun());
+		}
+		currentPageLimit = getRequestedLimit(page.pageOperation);
+		return page.await();
+	}
+
+	/**
+	 * Informs the pagination policy of the operation, if any, of the response received for a page.
+	 *
+	 * @param pageOperation
+	 *            The operation that retrieved the page
+	 * @param response
+	 *            The response received
+	 * @return The given response.
+	 */
+	private static ServerResponse learnFrom(RestOperation pageOperation, ServerResponse response) {
+		PaginationPolicy policy = pageOperation.paginationPolicy;
+		if (policy != null) {
+			int limit = Integer.parseInt(pageOperation.getQueryParameter(RestResource.LIMIT));
+			if (response.getStatus() == ServerResponse.STATUS_OK) {
+				policy.pageReceived(pageOperation.fullUrl, limit, response);
+			} else {
+				policy.pageFailed(pageOperation.fullUrl, limit, response);
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * Requests in the background the pages that follow the current one, up to the look-ahead limit.
+	 */
+	private void prefetchPages() {
+		if (lookAhead < 1) {
+			return;
+		}
+		while (pendingPages.size() < lookAhead && nextPageOffset < nbElements) {
+			if (executor == null) {
+				TuleapThreadFactory threadFactory = new TuleapThreadFactory("Tuleap pagination"); //$NON-NLS-1$
+				executor = new ThreadPoolExecutor(lookAhead, lookAhead, KEEP_ALIVE, TimeUnit.SECONDS,
+						new LinkedBlockingQueue<Runnable>(), threadFactory);
+				executor.allowCoreThreadTimeOut(true);
+			}
+			// The operation is copied so that it is never modified by several threads
+			RestOperation pageOperation = operation.copy().withQueryParameter(RestResource.OFFSET,
+					Integer.toString(nextPageOffset)).withQueryParameter(RestResource.LIMIT,
+					Integer.toString(nbElementsPerPageMax));
+			PendingPage page = new PendingPage(nextPageOffset, pageOperation);
+			page.future = executor.submit(page);
+			pendingPages.add(page);
+			nextPageOffset += nbElementsPerPageMax;
 		}
-		currentOffset++;
-		return iterator.next();
+	}
+
+	/**
+	 * Discards the pages retrieved in advance and releases their connections.
+	 */
+	private void discardPendingPages() {
+		for (PendingPage page : pendingPages) {
+			page.discard();
+		}
+		pendingPages.clear();
 	}
 
 	/**
@@ -165,4 +421,148 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	public void remove() {
 		throw new UnsupportedOperationException();
 	}
+
+	/**
+	 * Closes the body of the current page and discards the pages retrieved in advance, which releases the
+	 * connections if the bodies have not been entirely read.
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() {
+		closeReader();
+		discardPendingPages();
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Closes the body of the current page, and informs the pagination policy of the operation, if any, of
+	 * the number of bytes read from it.
+	 */
+	private void closeReader() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// Nothing more can be done, the connection will be reclaimed by the connection manager
+			}
+		}
+		PaginationPolicy policy = operation.paginationPolicy;
+		if (policy != null && currentPageLimit > 0 && currentResponse != measuredResponse) {
+			measuredResponse = currentResponse;
+			policy.pageRead(operation.fullUrl, currentPageLimit, currentResponse.getBodyBytesRead());
+		}
+	}
+
+	/**
+	 * A page retrieved in the background.
+	 */
+	private final class PendingPage implements Callable<ServerResponse> {
+
+		/**
+		 * The offset of the page.
+		 */
+		private final int offset;
+
+		/**
+		 * The operation that retrieves the page.
+		 */
+		private final RestOperation pageOperation;
+
+		/**
+		 * The result of the retrieval.
+		 */
+		private Future<ServerResponse> future;
+
+		/**
+		 * The response, once received.
+		 */
+		private ServerResponse response;
+
+		/**
+		 * Whether the page is no longer needed.
+		 */
+		private boolean discarded;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param offset
+		 *            The offset of the page
+		 * @param pageOperation
+		 *            The operation that retrieves the page, which is not shared with other threads
+		 */
+		private PendingPage(int offset, RestOperation pageOperation) {
+			this.offset = offset;
+			this.pageOperation = pageOperation;
+		}
+
+		/**
+		 * {@inheritDoc} The operation handles the authentication as usual, logging in again if the server
+		 * answers 401.
+		 *
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public ServerResponse call() {
+			ServerResponse r = learnFrom(pageOperation, pageOperation.streamingRun());
+			synchronized (this) {
+				if (discarded) {
+					r.release();
+				} else {
+					response = r;
+				}
+			}
+			return r;
+		}
+
+		/**
+		 * Waits for the page, checking the progress monitor regularly.
+		 *
+		 * @return The response containing the page.
+		 */
+		private ServerResponse await() {
+			try {
+				while (true) {
+					if (monitor != null && monitor.isCanceled()) {
+						discard();
+						close();
+						throw new OperationCanceledException();
+					}
+					try {
+						return future.get(POLL_DELAY, TimeUnit.MILLISECONDS);
+					} catch (TimeoutException e) {
+						// Check the monitor again
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				discard();
+				close();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				close();
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException)e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		/**
+		 * Marks the page as no longer needed, and releases its connection.
+		 */
+		private void discard() {
+			synchronized (this) {
+				discarded = true;
+				if (response != null) {
+					response.release();
+				}
+			}
+			future.cancel(false);
+		}
+	}
 }
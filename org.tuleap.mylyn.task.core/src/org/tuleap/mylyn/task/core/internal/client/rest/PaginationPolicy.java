@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers, for each paginated resource of a repository, the number of elements to ask for in each page.
+ * The first request of a resource asks for a large page, then the limit is raised to the maximum advertised
+ * by the server with the {@code X-PAGINATION-LIMIT-MAX} header, or lowered when the server rejects the
+ * limit, does not answer or returns a body that is too large. This class is thread-safe.
+ */
+public class PaginationPolicy {
+
+	/**
+	 * Default number of elements asked for in the first request of a resource.
+	 */
+	public static final int DEFAULT_INITIAL_LIMIT = 100;
+
+	/**
+	 * The limit is never lowered below this number of elements.
+	 */
+	private static final int MIN_LIMIT = 10;
+
+	/**
+	 * Size in bytes beyond which a page is considered too large, in which case the following requests ask
+	 * for smaller pages.
+	 */
+	private static final long MAX_PAGE_BYTES = 4L * 1024 * 1024;
+
+	/**
+	 * Pattern of the URL segments that identify an element, which are ignored to identify a resource.
+	 */
+	private static final Pattern ID_SEGMENT = Pattern.compile("/[0-9][^/]*"); //$NON-NLS-1$
+
+	/**
+	 * Replacement of the URL segments that identify an element.
+	 */
+	private static final String ID_PLACEHOLDER = "/:id"; //$NON-NLS-1$
+
+	/**
+	 * The number of elements asked for in the first request of a resource.
+	 */
+	private final int initialLimit;
+
+	/**
+	 * The learned limits, by resource.
+	 */
+	private final ConcurrentMap<String, Limit> limitsByResource = new ConcurrentHashMap<String, Limit>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param initialLimit
+	 *            The number of elements asked for in the first request of a resource.
+	 */
+	public PaginationPolicy(int initialLimit) {
+		this.initialLimit = Math.max(MIN_LIMIT, initialLimit);
+	}
+
+	/**
+	 * Provides the number of elements to ask for in each page of the given resource.
+	 *
+	 * @param url
+	 *            The URL of the resource
+	 * @return The number of elements to ask for.
+	 */
+	public int getLimit(String url) {
+		Limit limit = limitsByResource.get(getResourceKey(url));
+		if (limit == null) {
+			return initialLimit;
+		}
+		return limit.value;
+	}
+
+	/**
+	 * Learns from a page successfully received. The limit is raised to the maximum advertised by the server,
+	 * unless it has already been lowered.
+	 *
+	 * @param url
+	 *            The URL of the resource
+	 * @param requestedLimit
+	 *            The limit sent with the request
+	 * @param response
+	 *            The response received
+	 */
+	public void pageReceived(String url, int requestedLimit, ServerResponse response) {
+		String key = getResourceKey(url);
+		Limit current = limitsByResource.get(key);
+		if (current == null || !current.lowered) {
+			long max = parse(response.getHeaders().get(RestResource.HEADER_X_PAGINATION_LIMIT_MAX));
+			int value = requestedLimit;
+			if (max > 0) {
+				value = (int)Math.min(max, Integer.MAX_VALUE);
+			}
+			limitsByResource.put(key, new Limit(Math.max(MIN_LIMIT, value), false));
+		}
+	}
+
+	/**
+	 * Learns from the body of a page once it has been read. The limit is lowered if the page is too large.
+	 * The size is measured while reading, since compressed or chunked responses do not announce it.
+	 *
+	 * @param url
+	 *            The URL of the resource
+	 * @param requestedLimit
+	 *            The limit sent with the request
+	 * @param bytes
+	 *            The number of bytes read from the body of the page
+	 */
+	public void pageRead(String url, int requestedLimit, long bytes) {
+		if (bytes > MAX_PAGE_BYTES) {
+			lower(getResourceKey(url), requestedLimit / 2);
+		}
+	}
+
+	/**
+	 * Learns from a page that could not be received, and provides the limit to use to try again.
+	 *
+	 * @param url
+	 *            The URL of the resource
+	 * @param requestedLimit
+	 *            The limit sent with the request
+	 * @param response
+	 *            The response received
+	 * @return The limit to use to try again, or <code>-1</code> if the failure is not related to the size of
+	 *         the page or if the limit cannot be lowered anymore.
+	 */
+	public int pageFailed(String url, int requestedLimit, ServerResponse response) {
+		int newLimit;
+		if (response.getStatus() == ServerResponse.STATUS_NOT_ACCEPTABLE) {
+			// The requested limit exceeds the maximum accepted by the server
+			newLimit = RestResource.DEFAULT_PAGINATION_LIMIT;
+			long max = parse(response.getHeaders().get(RestResource.HEADER_X_PAGINATION_LIMIT_MAX));
+			if (max > 0 && max < requestedLimit) {
+				newLimit = (int)max;
+			}
+		} else if (response.getStatus() == TuleapRestConnector.IO_ERROR_STATUS_CODE) {
+			// Most likely a time out
+			newLimit = requestedLimit / 2;
+		} else {
+			return -1;
+		}
+		newLimit = Math.max(MIN_LIMIT, newLimit);
+		if (newLimit >= requestedLimit) {
+			return -1;
+		}
+		lower(getResourceKey(url), newLimit);
+		return newLimit;
+	}
+
+	/**
+	 * Lowers the limit of the given resource, which will not be raised anymore.
+	 *
+	 * @param key
+	 *            The key of the resource
+	 * @param value
+	 *            The new limit
+	 */
+	private void lower(String key, int value) {
+		limitsByResource.put(key, new Limit(Math.max(MIN_LIMIT, value), true));
+	}
+
+	/**
+	 * Computes the key that identifies a resource, independently of the elements it belongs to. For
+	 * instance, {@code /api/trackers/12/artifacts} and {@code /api/trackers/13/artifacts} share the same
+	 * key.
+	 *
+	 * @param url
+	 *            The URL of the resource
+	 * @return The key of the resource.
+	 */
+	public static String getResourceKey(String url) {
+		return ID_SEGMENT.matcher(url).replaceAll(ID_PLACEHOLDER);
+	}
+
+	/**
+	 * Parses the value of a numeric header.
+	 *
+	 * @param value
+	 *            The value of the header, can be <code>null</code>
+	 * @return The parsed value, or <code>-1</code> if it cannot be parsed.
+	 */
+	private static long parse(String value) {
+		if (value != null) {
+			try {
+				return Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				// Ignore the header
+			}
+		}
+		return -1L;
+	}
+
+	/**
+	 * A learned limit.
+	 */
+	private static final class Limit {
+
+		/**
+		 * The number of elements to ask for.
+		 */
+		private final int value;
+
+		/**
+		 * Whether the limit has been lowered because of a failure or of a page too large.
+		 */
+		private final boolean lowered;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param value
+		 *            The number of elements to ask for
+		 * @param lowered
+		 *            Whether the limit has been lowered
+		 */
+		private Limit(int value, boolean lowered) {
+			this.value = value;
+			this.lowered = lowered;
+		}
+	}
+}
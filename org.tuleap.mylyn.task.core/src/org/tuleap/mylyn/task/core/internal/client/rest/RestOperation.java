@@ -30,12 +30,15 @@ import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.OptionsMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.PutMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.commons.httpclient.methods.StringRequestEntity;
 import org.apache.commons.lang.NotImplementedException;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
 import org.tuleap.mylyn.task.core.internal.model.TuleapDebugPart;
@@ -72,12 +75,12 @@ public class RestOperation {
 	/**
 	 * JSON content type.
 	 */
-	private static final String CONTENT_TYPE_JSON = "application/json"; //$NON-NLS-1$
+	static final String CONTENT_TYPE_JSON = "application/json"; //$NON-NLS-1$
 
 	/**
 	 * UTF-8 encoding.
 	 */
-	private static final String ENCODING_UTF8 = "UTF-8"; //$NON-NLS-1$
+	static final String ENCODING_UTF8 = "UTF-8"; //$NON-NLS-1$
 
 	/**
 	 * The full URL.
@@ -89,11 +92,22 @@ public class RestOperation {
 	 */
 	protected String body;
 
+	/**
+	 * The body to send in the request when it is not a string, which replaces {@link #body}.
+	 */
+	protected RequestEntity bodyEntity;
+
 	/**
 	 * Authenticator to use.
 	 */
 	protected IAuthenticator authenticator;
 
+	/**
+	 * The policy that determines the size of the pages requested by {@link #iterable()}, can be
+	 * <code>null</code>.
+	 */
+	protected PaginationPolicy paginationPolicy;
+
 	/**
 	 * HTTP headers to send.
 	 */
@@ -243,7 +257,9 @@ public class RestOperation {
 	 */
 	public HttpMethod createMethod() {
 		HttpMethod m = method.create();
-		if (m instanceof EntityEnclosingMethod) {
+		if (m instanceof EntityEnclosingMethod && bodyEntity != null) {
+			((EntityEnclosingMethod)m).setRequestEntity(bodyEntity);
+		} else if (m instanceof EntityEnclosingMethod) {
 			StringRequestEntity entity;
 			try {
 				if (body == null) {
@@ -277,6 +293,27 @@ public class RestOperation {
 	 * @return The response received from the server after sending it the relevant request.
 	 */
 	public ServerResponse run() {
+		return run(false);
+	}
+
+	/**
+	 * Run this operation by sending the relevant request and returning the received response, whose body
+	 * can be read incrementally with {@link ServerResponse#getBodyReader()} if it is successful.
+	 *
+	 * @return The response received from the server after sending it the relevant request.
+	 */
+	public ServerResponse streamingRun() {
+		return run(true);
+	}
+
+	/**
+	 * Run this operation by sending the relevant request and returning the received response.
+	 *
+	 * @param streaming
+	 *            <code>true</code> if the body of a successful response must be readable incrementally
+	 * @return The response received from the server after sending it the relevant request.
+	 */
+	private ServerResponse run(boolean streaming) {
 		if (authenticator != null) {
 			TuleapToken token = authenticator.getToken();
 			if (token != null) {
@@ -285,7 +322,7 @@ public class RestOperation {
 			}
 		}
 		HttpMethod httpMethod = createMethod();
-		ServerResponse response = connector.sendRequest(httpMethod);
+		ServerResponse response = send(httpMethod, streaming);
 		if (response.getStatus() == ServerResponse.STATUS_UNAUTHORIZED) {
 			// Try to login
 			if (authenticator != null) {
@@ -296,7 +333,7 @@ public class RestOperation {
 						requestHeaders.put(X_AUTH_TOKEN, token.getToken());
 						requestHeaders.put(X_AUTH_USER_ID, token.getUserId());
 						httpMethod = createMethod();
-						response = connector.sendRequest(httpMethod);
+						response = send(httpMethod, streaming);
 					}
 				} catch (CoreException e) {
 					logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
@@ -307,6 +344,22 @@ public class RestOperation {
 		return response;
 	}
 
+	/**
+	 * Sends the given request with the connector.
+	 *
+	 * @param httpMethod
+	 *            The request to send
+	 * @param streaming
+	 *            <code>true</code> if the body of a successful response must be readable incrementally
+	 * @return The received response.
+	 */
+	private ServerResponse send(HttpMethod httpMethod, boolean streaming) {
+		if (streaming) {
+			return connector.sendStreamingRequest(httpMethod);
+		}
+		return connector.sendRequest(httpMethod);
+	}
+
 	/**
 	 * Runs this operation by sending the relevant request, and checks the received response.
 	 *
@@ -329,6 +382,38 @@ public class RestOperation {
 		return new RestOperationIterable(this);
 	}
 
+	/**
+	 * Provides an iterable view of this operation that retrieves the following pages in the background
+	 * while the current one is consumed. Use this for operation that return large JSON arrays.
+	 *
+	 * @param lookAhead
+	 *            The maximum number of pages retrieved in advance
+	 * @param monitor
+	 *            The progress monitor, the iteration throws an {@link OperationCanceledException} when it
+	 *            is canceled. Can be <code>null</code>.
+	 * @return a new {@link RestOperationIterable} that wraps this operation.
+	 */
+	public Iterable<JsonElement> iterable(int lookAhead, IProgressMonitor monitor) {
+		return new RestOperationIterable(this, lookAhead, monitor);
+	}
+
+	/**
+	 * Creates a copy of this operation, with the same body, authenticator, headers and query parameters,
+	 * which can be modified and run independently of this operation.
+	 *
+	 * @return A new operation.
+	 */
+	public RestOperation copy() {
+		RestOperation copy = new RestOperation(fullUrl, connector, method, gson, logger);
+		copy.body = body;
+		copy.bodyEntity = bodyEntity;
+		copy.authenticator = authenticator;
+		copy.paginationPolicy = paginationPolicy;
+		copy.requestHeaders.putAll(requestHeaders);
+		copy.requestParameters.putAll(requestParameters);
+		return copy;
+	}
+
 	/**
 	 * Throws a CoreException that encapsulates useful info about a server error.
 	 *
@@ -394,6 +479,19 @@ public class RestOperation {
 		return this;
 	}
 
+	/**
+	 * Sets the policy that determines the size of the pages requested when iterating over the elements
+	 * returned by this operation.
+	 *
+	 * @param policy
+	 *            The policy to use. Can be <code>null</code>, in which case the pages have the default size.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withPaginationPolicy(PaginationPolicy policy) {
+		this.paginationPolicy = policy;
+		return this;
+	}
+
 	/**
 	 * Sets the body to send in the request.
 	 *
@@ -403,6 +501,21 @@ public class RestOperation {
 	 */
 	public RestOperation withBody(String someBody) {
 		this.body = someBody;
+		this.bodyEntity = null;
+		return this;
+	}
+
+	/**
+	 * Sets the body to send in the request, written by the given entity. The entity must be repeatable,
+	 * since the request is sent again after logging in if the server requires it.
+	 *
+	 * @param entity
+	 *            The entity that writes the body to send.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withBody(RequestEntity entity) {
+		this.bodyEntity = entity;
+		this.body = null;
 		return this;
 	}
 
@@ -456,6 +569,21 @@ public class RestOperation {
 		return requestParameters.containsKey(key);
 	}
 
+	/**
+	 * Provides the value of the given query parameter.
+	 *
+	 * @param key
+	 *            The parameter key
+	 * @return The first value of the given query parameter, or <code>null</code> if this operation does not
+	 *         have this query parameter.
+	 */
+	public String getQueryParameter(String key) {
+		if (requestParameters.containsKey(key)) {
+			return requestParameters.get(key).iterator().next();
+		}
+		return null;
+	}
+
 	/**
 	 * Adds one query parameter.
 	 *
@@ -17,6 +17,8 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
 
 /**
@@ -31,6 +33,21 @@ public class RestOperationIterable implements Iterable<JsonElement> {
 	 */
 	private RestOperation operation;
 
+	/**
+	 * The maximum number of pages retrieved in advance.
+	 */
+	private final int lookAhead;
+
+	/**
+	 * The progress monitor, can be <code>null</code>.
+	 */
+	private final IProgressMonitor monitor;
+
+	/**
+	 * Whether the size of the pages is determined by the pagination policy of the operation.
+	 */
+	private boolean adaptive;
+
 	/**
 	 * Constructor.
 	 *
@@ -38,9 +55,33 @@ public class RestOperationIterable implements Iterable<JsonElement> {
 	 *            the REST operation to iterate over.
 	 */
 	public RestOperationIterable(RestOperation operation) {
+		this(operation, 0, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param operation
+	 *            the REST operation to iterate over.
+	 * @param lookAhead
+	 *            The maximum number of pages retrieved in the background while the current page is
+	 *            consumed, pages are only retrieved when needed if this number is lower than 1.
+	 * @param monitor
+	 *            The progress monitor, the iteration throws an {@link OperationCanceledException} when it
+	 *            is canceled. Can be <code>null</code>.
+	 */
+	public RestOperationIterable(RestOperation operation, int lookAhead, IProgressMonitor monitor) {
 		this.operation = operation;
+		this.lookAhead = lookAhead;
+		this.monitor = monitor;
 		if (!operation.hasQueryParameter(RestResource.LIMIT)) {
-			operation.withQueryParameter(RestResource.LIMIT, RestResource.LIMIT_DEFAULT);
+			if (operation.paginationPolicy == null) {
+				operation.withQueryParameter(RestResource.LIMIT, RestResource.LIMIT_DEFAULT);
+			} else {
+				adaptive = true;
+				operation.withQueryParameter(RestResource.LIMIT, Integer.toString(operation.paginationPolicy
+						.getLimit(operation.fullUrl)));
+			}
 		}
 	}
 
@@ -51,14 +92,17 @@ public class RestOperationIterable implements Iterable<JsonElement> {
 	 */
 	@Override
 	public Iterator<JsonElement> iterator() {
-		ServerResponse response = operation.run();
+		ServerResponse response = operation.streamingRun();
 		Iterator<JsonElement> it;
 		try {
+			if (adaptive) {
+				response = negotiateLimit(response);
+			}
 			operation.checkServerError(response);
 			Map<String, String> responseHeaders = response.getHeaders();
 			// ONLY X-PAGINATION-SIZE needs be checked, other values are not mandatory
 			if (responseHeaders.containsKey(RestResource.HEADER_X_PAGINATION_SIZE)) {
-				it = new JsonResponsePaginatedIterator(operation, response);
+				it = new JsonResponsePaginatedIterator(operation, response, lookAhead, monitor);
 			} else {
 				it = new JsonResponseIterator(response);
 			}
@@ -68,4 +112,31 @@ public class RestOperationIterable implements Iterable<JsonElement> {
 		}
 		return it;
 	}
+
+	/**
+	 * Informs the pagination policy of the first response, and tries again once with a smaller page if the
+	 * server rejected the limit or did not answer.
+	 *
+	 * @param response
+	 *            The first response
+	 * @return The response to use.
+	 */
+	private ServerResponse negotiateLimit(ServerResponse response) {
+		PaginationPolicy policy = operation.paginationPolicy;
+		int limit = Integer.parseInt(operation.getQueryParameter(RestResource.LIMIT));
+		ServerResponse result = response;
+		if (result.getStatus() != ServerResponse.STATUS_OK) {
+			int newLimit = policy.pageFailed(operation.fullUrl, limit, result);
+			if (newLimit > 0) {
+				result.release();
+				limit = newLimit;
+				operation.withQueryParameter(RestResource.LIMIT, Integer.toString(limit));
+				result = operation.streamingRun();
+			}
+		}
+		if (result.getStatus() == ServerResponse.STATUS_OK) {
+			policy.pageReceived(operation.fullUrl, limit, result);
+		}
+		return result;
+	}
 }
@@ -152,6 +152,11 @@ public class RestResource {
 	 */
 	private IAuthenticator authenticator;
 
+	/**
+	 * The policy that determines the size of the pages, can be <code>null</code>.
+	 */
+	private PaginationPolicy paginationPolicy;
+
 	/**
 	 * Constructor.
 	 *
@@ -220,7 +225,7 @@ public class RestResource {
 					TuleapCoreKeys.operationNotAllowedOnResource, "GET", getUrl())); //$NON-NLS-1$
 		}
 		RestOperation operation = RestOperation.get(url, connector, gson, logger).withAuthenticator(
-				authenticator);
+				authenticator).withPaginationPolicy(paginationPolicy);
 		return operation;
 	}
 
@@ -279,6 +284,18 @@ public class RestResource {
 		return this;
 	}
 
+	/**
+	 * Sets the policy that determines the size of the pages requested by the GET operations.
+	 *
+	 * @param policy
+	 *            The policy to use, can be <code>null</code>.
+	 * @return this, for a fluent API.
+	 */
+	public RestResource withPaginationPolicy(PaginationPolicy policy) {
+		this.paginationPolicy = policy;
+		return this;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
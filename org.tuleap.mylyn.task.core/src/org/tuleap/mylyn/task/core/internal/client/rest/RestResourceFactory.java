@@ -60,6 +60,11 @@ public final class RestResourceFactory {
 	 */
 	private final Gson gson;
 
+	/**
+	 * The policy that determines the size of the pages of the resources, can be <code>null</code>.
+	 */
+	private final PaginationPolicy paginationPolicy;
+
 	/**
 	 * Constructor.
 	 *
@@ -79,6 +84,7 @@ public final class RestResourceFactory {
 		this.gson = gson;
 		Assert.isNotNull(logger);
 		this.logger = logger;
+		this.paginationPolicy = null;
 	}
 
 	/**
@@ -92,12 +98,31 @@ public final class RestResourceFactory {
 	 *            The logger to use.
 	 */
 	public RestResourceFactory(IRestConnector connector, Gson gson, ILog logger) {
+		this(connector, gson, logger, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param connector
+	 *            The connector to use.
+	 * @param gson
+	 *            The {@link Gson} to use.
+	 * @param logger
+	 *            The logger to use.
+	 * @param paginationPolicy
+	 *            The policy that determines the size of the pages of the resources. Can be <code>null</code>,
+	 *            in which case the pages have the default size.
+	 */
+	public RestResourceFactory(IRestConnector connector, Gson gson, ILog logger,
+			PaginationPolicy paginationPolicy) {
 		Assert.isNotNull(connector);
 		this.connector = connector;
 		Assert.isNotNull(gson);
 		this.gson = gson;
 		Assert.isNotNull(logger);
 		this.logger = logger;
+		this.paginationPolicy = paginationPolicy;
 	}
 
 	/**
@@ -254,7 +279,8 @@ public final class RestResourceFactory {
 	 */
 	public RestResource resource(int supportedMethods, String... urlFragments) {
 		final String url = url(urlFragments);
-		return new RestResource(url, supportedMethods, connector, gson, logger);
+		return new RestResource(url, supportedMethods, connector, gson, logger)
+				.withPaginationPolicy(paginationPolicy);
 	}
 
 	/**
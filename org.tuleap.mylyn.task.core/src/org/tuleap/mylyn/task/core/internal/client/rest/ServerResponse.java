@@ -11,6 +11,15 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
+import com.google.common.io.CountingInputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
 import java.util.Map;
 
 /**
@@ -35,6 +44,11 @@ public class ServerResponse {
 	 */
 	public static final int STATUS_MOVED = 301;
 
+	/**
+	 * Not Modified - 304.
+	 */
+	public static final int STATUS_NOT_MODIFIED = 304;
+
 	/**
 	 * Bad Request - 400.
 	 */
@@ -70,6 +84,11 @@ public class ServerResponse {
 	 */
 	public static final int STATUS_GONE = 410;
 
+	/**
+	 * Request Entity Too Large - 413.
+	 */
+	public static final int STATUS_REQUEST_ENTITY_TOO_LARGE = 413;
+
 	/**
 	 * Requested Range Not Satisfiable - 416.
 	 */
@@ -86,10 +105,32 @@ public class ServerResponse {
 	private int status;
 
 	/**
-	 * The body.
+	 * Size of the buffer used to read the body stream.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The body, <code>null</code> as long as a body stream has not been read.
 	 */
 	private String body;
 
+	/**
+	 * The stream of the body, <code>null</code> if the body has been received as a string or if the stream
+	 * has already been consumed.
+	 */
+	private InputStream bodyStream;
+
+	/**
+	 * Counter of the bytes read from the body stream, <code>null</code> if the body has been received as a
+	 * string.
+	 */
+	private CountingInputStream bodyCounter;
+
+	/**
+	 * The charset of the body stream.
+	 */
+	private String charset;
+
 	/**
 	 * The headers.
 	 */
@@ -111,6 +152,27 @@ public class ServerResponse {
 		this.headers = headers;
 	}
 
+	/**
+	 * Constructor of a response whose body is read from the given stream, which must release the underlying
+	 * connection when it is closed.
+	 *
+	 * @param status
+	 *            The status
+	 * @param bodyStream
+	 *            The stream of the body
+	 * @param charset
+	 *            The charset of the body
+	 * @param headers
+	 *            The headers
+	 */
+	public ServerResponse(int status, InputStream bodyStream, String charset, Map<String, String> headers) {
+		this.status = status;
+		this.bodyCounter = new CountingInputStream(bodyStream);
+		this.bodyStream = bodyCounter;
+		this.charset = charset;
+		this.headers = headers;
+	}
+
 	/**
 	 * Returns the status.
 	 *
@@ -125,10 +187,93 @@ public class ServerResponse {
 	 *
 	 * @return The body
 	 */
-	public String getBody() {
+	public synchronized String getBody() {
+		if (bodyStream != null) {
+			InputStream stream = bodyStream;
+			bodyStream = null;
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int read = stream.read(buffer);
+				while (read != -1) {
+					out.write(buffer, 0, read);
+					read = stream.read(buffer);
+				}
+				body = out.toString(charset);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				closeQuietly(stream);
+			}
+		}
 		return this.body;
 	}
 
+	/**
+	 * Provides a reader on the body, which can be read incrementally without holding the whole body in
+	 * memory. The reader must be closed once it has been read, in order to release the connection. The body
+	 * of a response received as a stream can only be read once, either with this method or with
+	 * {@link #getBody()}.
+	 *
+	 * @return A reader on the body.
+	 */
+	public synchronized Reader getBodyReader() {
+		if (bodyStream != null) {
+			InputStream stream = bodyStream;
+			bodyStream = null;
+			try {
+				return new InputStreamReader(stream, charset);
+			} catch (UnsupportedEncodingException e) {
+				closeQuietly(stream);
+				throw new IllegalStateException(e);
+			}
+		}
+		if (body == null) {
+			return new StringReader(""); //$NON-NLS-1$
+		}
+		return new StringReader(body);
+	}
+
+	/**
+	 * Provides the number of bytes of the body read so far, which does not depend on the presence of a
+	 * {@code Content-Length} header. For a body received as a string, this is its number of characters.
+	 *
+	 * @return The number of bytes of the body read so far.
+	 */
+	public long getBodyBytesRead() {
+		if (bodyCounter != null) {
+			return bodyCounter.getCount();
+		}
+		if (body != null) {
+			return body.length();
+		}
+		return 0L;
+	}
+
+	/**
+	 * Releases the body stream if it has not been read.
+	 */
+	public synchronized void release() {
+		if (bodyStream != null) {
+			closeQuietly(bodyStream);
+			bodyStream = null;
+		}
+	}
+
+	/**
+	 * Closes the given stream, ignoring errors.
+	 *
+	 * @param stream
+	 *            The stream to close
+	 */
+	private static void closeQuietly(InputStream stream) {
+		try {
+			stream.close();
+		} catch (IOException e) {
+			// Nothing more can be done, the connection will be reclaimed by the connection manager
+		}
+	}
+
 	/**
 	 * Returns the headers.
 	 *
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes of the response bodies received from a server, as transferred and once decoded. This
+ * class is thread-safe.
+ */
+public class TransferStatistics {
+
+	/**
+	 * The number of bodies read.
+	 */
+	private final AtomicLong responseCount = new AtomicLong();
+
+	/**
+	 * The number of bytes received.
+	 */
+	private final AtomicLong wireBytes = new AtomicLong();
+
+	/**
+	 * The number of bytes once decoded.
+	 */
+	private final AtomicLong decodedBytes = new AtomicLong();
+
+	/**
+	 * Records the sizes of a response body.
+	 *
+	 * @param wire
+	 *            The number of bytes received
+	 * @param decoded
+	 *            The number of bytes once decoded
+	 */
+	public void record(long wire, long decoded) {
+		responseCount.incrementAndGet();
+		wireBytes.addAndGet(wire);
+		decodedBytes.addAndGet(decoded);
+	}
+
+	/**
+	 * Provides the number of response bodies read.
+	 *
+	 * @return The number of response bodies read.
+	 */
+	public long getResponseCount() {
+		return responseCount.get();
+	}
+
+	/**
+	 * Provides the number of bytes received.
+	 *
+	 * @return The number of bytes received.
+	 */
+	public long getWireBytes() {
+		return wireBytes.get();
+	}
+
+	/**
+	 * Provides the number of bytes once decoded.
+	 *
+	 * @return The number of bytes once decoded.
+	 */
+	public long getDecodedBytes() {
+		return decodedBytes.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getResponseCount() + " responses, " + getWireBytes() + " bytes received, " //$NON-NLS-1$ //$NON-NLS-2$
+				+ getDecodedBytes() + " bytes decoded"; //$NON-NLS-1$
+	}
+}
@@ -11,6 +11,7 @@
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -18,8 +19,16 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -50,6 +59,7 @@ import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapFile;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
+import org.tuleap.mylyn.task.core.internal.parser.DateIso8601Adapter;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
@@ -69,6 +79,22 @@ import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
  */
 public class TuleapRestClient implements IAuthenticator {
 
+	/**
+	 * Margin in milliseconds subtracted from the date sent to the server when retrieving the recently
+	 * modified artifacts, since the server only compares days.
+	 */
+	private static final long MODIFICATION_DATE_MARGIN = 2L * 24 * 60 * 60 * 1000;
+
+	/**
+	 * Number of pages retrieved in the background while iterating over large lists of artifacts.
+	 */
+	private static final int PAGINATION_LOOK_AHEAD = 2;
+
+	/**
+	 * Maximum difference between the identifiers of the artifacts retrieved with a single query.
+	 */
+	private static final int ARTIFACT_ID_RANGE = 100;
+
 	/**
 	 * The JSON parser.
 	 */
@@ -85,9 +111,27 @@ public class TuleapRestClient implements IAuthenticator {
 	private RestResourceFactory restResourceFactory;
 
 	/**
-	 * The current authentication token.
+	 * The trackers already retrieved, which are reused as long as the server indicates they have not been
+	 * modified.
+	 */
+	private final HttpValidationCache<TuleapTracker> trackerCache = new HttpValidationCache<TuleapTracker>();
+
+	/**
+	 * The current authentication token, which can be renewed by the threads retrieving pages in the
+	 * background.
 	 */
-	private TuleapToken token;
+	private volatile TuleapToken token;
+
+	/**
+	 * The size of the attachment chunks transferred in each request.
+	 */
+	private final ChunkSizePolicy chunkSizePolicy;
+
+	/**
+	 * Indicates whether the server filters the artifacts of a tracker with criteria on their identifier, set
+	 * to <code>false</code> as soon as it returns an artifact that does not match such a criterion.
+	 */
+	private volatile boolean artifactIdCriteriaSupported = true;
 
 	/**
 	 * The constructor.
@@ -100,9 +144,36 @@ public class TuleapRestClient implements IAuthenticator {
 	 *            The task repository
 	 */
 	public TuleapRestClient(RestResourceFactory resourceFactory, Gson gson, TaskRepository taskRepository) {
+		this(resourceFactory, gson, taskRepository, new ChunkSizePolicy(0));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param resourceFactory
+	 *            The RESt resource factory to use
+	 * @param gson
+	 *            The JSON parser
+	 * @param taskRepository
+	 *            The task repository
+	 * @param chunkSizePolicy
+	 *            The size of the attachment chunks transferred in each request
+	 */
+	public TuleapRestClient(RestResourceFactory resourceFactory, Gson gson, TaskRepository taskRepository,
+			ChunkSizePolicy chunkSizePolicy) {
 		this.restResourceFactory = resourceFactory;
 		this.gson = gson;
 		this.taskRepository = taskRepository;
+		this.chunkSizePolicy = chunkSizePolicy;
+	}
+
+	/**
+	 * Provides the size of the attachment chunks transferred in each request.
+	 *
+	 * @return The size of the attachment chunks transferred in each request.
+	 */
+	public ChunkSizePolicy getChunkSizePolicy() {
+		return chunkSizePolicy;
 	}
 
 	/**
@@ -134,7 +205,7 @@ public class TuleapRestClient implements IAuthenticator {
 	 *             In case of error during the authentication.
 	 */
 	@Override
-	public void login() throws CoreException {
+	public synchronized void login() throws CoreException {
 		RestResource restTokens = restResourceFactory.tokens();
 		AuthenticationCredentials credentials = taskRepository.getCredentials(AuthenticationType.REPOSITORY);
 		// Credentials can be null?
@@ -216,7 +287,8 @@ public class TuleapRestClient implements IAuthenticator {
 		}
 		RestResource artifactResource = restResourceFactory.artifact(artifact.getId().intValue())
 				.withAuthenticator(this);
-		artifactResource.put().withBody(gson.toJson(artifact, TuleapArtifactWithComment.class)).checkedRun();
+		artifactResource.put().withBody(
+				new JsonRequestEntity(gson, artifact, TuleapArtifactWithComment.class)).checkedRun();
 	}
 
 	/**
@@ -236,8 +308,8 @@ public class TuleapRestClient implements IAuthenticator {
 		}
 		RestResource artifactResource = restResourceFactory.artifact(artifact.getId().intValue())
 				.withAuthenticator(this);
-		artifactResource.put().withBody(gson.toJson(artifact, TuleapArtifactWithAttachment.class))
-		.checkedRun();
+		artifactResource.put().withBody(
+				new JsonRequestEntity(gson, artifact, TuleapArtifactWithAttachment.class)).checkedRun();
 	}
 
 	/**
@@ -258,7 +330,7 @@ public class TuleapRestClient implements IAuthenticator {
 		}
 		RestResource artifactResource = restResourceFactory.artifacts().withAuthenticator(this);
 		ServerResponse response = artifactResource.post().withBody(
-				gson.toJson(artifact, TuleapArtifact.class)).checkedRun();
+				new JsonRequestEntity(gson, artifact, TuleapArtifact.class)).checkedRun();
 		ArtifactReference ref = gson.fromJson(response.getBody(), ArtifactReference.class);
 		return TuleapTaskId.forArtifact(artifact.getProject().getId(), ref.getTracker().getId(), ref.getId());
 	}
@@ -285,9 +357,9 @@ public class TuleapRestClient implements IAuthenticator {
 					.valueOf(fileId)));
 		}
 		RestResource fileResource = restResourceFactory.artifactFile(fileId).withAuthenticator(this);
-		ServerResponse response = fileResource.get().withQueryParameter(RestResource.OFFSET,
-				Integer.toString(offset)).withQueryParameter(RestResource.LIMIT, Integer.toString(limit))
-				.checkedRun();
+		RestOperation operation = fileResource.get().withQueryParameter(RestResource.OFFSET,
+				Integer.toString(offset)).withQueryParameter(RestResource.LIMIT, Integer.toString(limit));
+		ServerResponse response = runChunkTransfer(operation, limit);
 		TuleapFile file = gson.fromJson(response.getBody(), TuleapFile.class);
 		if (file == null || file.getData() == null) {
 			file = new TuleapFile(""); //$NON-NLS-1$
@@ -295,6 +367,56 @@ public class TuleapRestClient implements IAuthenticator {
 		return file;
 	}
 
+	/**
+	 * Retrieve a chunk of an artifact file attachment, decoding it while it is received.
+	 *
+	 * @param fileId
+	 *            The file identifier
+	 * @param offset
+	 *            the offset Where to start reading the file
+	 * @param buffer
+	 *            The array that receives the bytes of the chunk, whose length is the maximum number of bytes
+	 *            to read from the file
+	 * @param monitor
+	 *            Used to monitor the progress
+	 * @return The number of bytes read.
+	 * @throws CoreException
+	 *             In case of error during the attachment content retrieval
+	 */
+	public int getArtifactFileContent(int fileId, int offset, byte[] buffer, IProgressMonitor monitor)
+			throws CoreException {
+		if (monitor != null) {
+			monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.retrievingFile, Integer
+					.valueOf(fileId)));
+		}
+		RestResource fileResource = restResourceFactory.artifactFile(fileId).withAuthenticator(this);
+		RestOperation operation = fileResource.get().withQueryParameter(RestResource.OFFSET,
+				Integer.toString(offset)).withQueryParameter(RestResource.LIMIT,
+				Integer.toString(buffer.length));
+		long start = System.currentTimeMillis();
+		ServerResponse response = operation.streamingRun();
+		checkChunkTransfer(operation, response, buffer.length);
+		int length;
+		Reader reader = response.getBodyReader();
+		try {
+			length = new Base64JsonDecoder(reader).decode(ITuleapConstants.DATA, buffer);
+		} catch (IOException e) {
+			chunkSizePolicy.chunkFailed(buffer.length);
+			throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
+					TuleapCoreMessages.getString(TuleapCoreKeys.cannotDecodeFileContent, Integer
+							.valueOf(fileId)), e));
+		} finally {
+			// Releases the connection
+			try {
+				reader.close();
+			} catch (IOException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		chunkSizePolicy.chunkTransferred(buffer.length, System.currentTimeMillis() - start);
+		return Math.max(0, length);
+	}
+
 	/**
 	 * Create a new file attachment that is not yet attached to an artifact. If parameters are right, the
 	 * server returns the identifier and the URI of the created file.
@@ -325,11 +447,46 @@ public class TuleapRestClient implements IAuthenticator {
 
 		String changesToPost = json.toString();
 		RestOperation operation = restFiles.post().withBody(changesToPost);
-		ServerResponse response = operation.checkedRun();
+		ServerResponse response = runChunkTransfer(operation, getDecodedLength(content));
 		TuleapReference ref = gson.fromJson(response.getBody(), TuleapReference.class);
 		return ref;
 	}
 
+	/**
+	 * Create a new file attachment that is not yet attached to an artifact, encoding its first chunk while it
+	 * is sent. If parameters are right, the server returns the identifier and the URI of the created file.
+	 *
+	 * @param content
+	 *            The bytes of the first chunk of the file
+	 * @param length
+	 *            The number of bytes of the chunk, at the beginning of the given array
+	 * @param type
+	 *            the file type
+	 * @param name
+	 *            the file name
+	 * @param description
+	 *            the file description
+	 * @param monitor
+	 *            Used to monitor the progress
+	 * @return The tuleap reference
+	 * @throws CoreException
+	 *             In case of error during the file creation
+	 */
+	public TuleapReference createArtifactFile(byte[] content, int length, String type, String name,
+			String description, IProgressMonitor monitor) throws CoreException {
+		RestResource restFiles = restResourceFactory.artifactTemporaryFiles().withAuthenticator(this);
+
+		JsonObject json = new JsonObject();
+		json.add(ITuleapConstants.NAME, new JsonPrimitive(name));
+		json.add(ITuleapConstants.DESCRIPTION, new JsonPrimitive(description));
+		json.add(ITuleapConstants.MIME_TYPE, new JsonPrimitive(type));
+
+		RestOperation operation = restFiles.post().withBody(
+				new Base64JsonRequestEntity(json, ITuleapConstants.CONTENT, content, length));
+		ServerResponse response = runChunkTransfer(operation, length);
+		return gson.fromJson(response.getBody(), TuleapReference.class);
+	}
+
 	/**
 	 * Update the file attachment.
 	 *
@@ -354,7 +511,89 @@ public class TuleapRestClient implements IAuthenticator {
 
 		String changesToPut = json.toString();
 		RestOperation operation = restFile.put().withBody(changesToPut);
-		operation.checkedRun();
+		runChunkTransfer(operation, getDecodedLength(data));
+	}
+
+	/**
+	 * Runs an operation that transfers a chunk of attachment, and checks the received response. The duration
+	 * and the outcome of the transfer are recorded in the chunk size policy.
+	 *
+	 * @param operation
+	 *            The operation
+	 * @param size
+	 *            The number of bytes of the chunk
+	 * @return The received response.
+	 * @throws CoreException
+	 *             If the received response status is not 200 OK.
+	 */
+	private ServerResponse runChunkTransfer(RestOperation operation, int size) throws CoreException {
+		long start = System.currentTimeMillis();
+		ServerResponse response = operation.run();
+		checkChunkTransfer(operation, response, size);
+		chunkSizePolicy.chunkTransferred(size, System.currentTimeMillis() - start);
+		return response;
+	}
+
+	/**
+	 * Checks the response to an operation that transfers a chunk of attachment. The failures are recorded in
+	 * the chunk size policy.
+	 *
+	 * @param operation
+	 *            The operation
+	 * @param response
+	 *            The received response
+	 * @param size
+	 *            The number of bytes of the chunk
+	 * @throws CoreException
+	 *             If the received response status is not 200 OK.
+	 */
+	private void checkChunkTransfer(RestOperation operation, ServerResponse response, int size)
+			throws CoreException {
+		chunkSizePolicy.responseReceived(response);
+		if (response.getStatus() == TuleapRestConnector.IO_ERROR_STATUS_CODE
+				|| response.getStatus() == ServerResponse.STATUS_REQUEST_ENTITY_TOO_LARGE) {
+			chunkSizePolicy.chunkFailed(size);
+		}
+		operation.checkServerError(response);
+	}
+
+	/**
+	 * Computes the number of bytes encoded in a Base64 string.
+	 *
+	 * @param base64
+	 *            The Base64 string
+	 * @return The number of bytes encoded, ignoring the padding.
+	 */
+	private static int getDecodedLength(String base64) {
+		return base64.length() / 4 * 3;
+	}
+
+	/**
+	 * Update the file attachment, encoding the chunk while it is sent.
+	 *
+	 * @param fileId
+	 *            The file identifier
+	 * @param content
+	 *            The bytes of the chunk
+	 * @param length
+	 *            The number of bytes of the chunk, at the beginning of the given array
+	 * @param offset
+	 *            the offset
+	 * @param monitor
+	 *            Used to monitor the progress
+	 * @throws CoreException
+	 *             In case of error during the file update
+	 */
+	public void updateArtifactFile(int fileId, byte[] content, int length, int offset,
+			IProgressMonitor monitor) throws CoreException {
+		RestResource restFile = restResourceFactory.artifactTemporaryFile(fileId).withAuthenticator(this);
+
+		JsonObject json = new JsonObject();
+		json.add(ITuleapConstants.OFFSET, new JsonPrimitive(Integer.valueOf(offset)));
+
+		RestOperation operation = restFile.put().withBody(
+				new Base64JsonRequestEntity(json, ITuleapConstants.CONTENT, content, length));
+		runChunkTransfer(operation, length);
 	}
 
 	/**
@@ -392,11 +631,7 @@ public class TuleapRestClient implements IAuthenticator {
 			throws CoreException {
 		RestResource r = restResourceFactory.projectUserGroups(projectId).withAuthenticator(this);
 		RestOperation operation = r.get();
-		List<TuleapUserGroup> userGroups = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			userGroups.add(gson.fromJson(e, TuleapUserGroup.class));
-		}
-		return userGroups;
+		return fromJson(operation.iterable(), TuleapUserGroup.class);
 	}
 
 	/**
@@ -414,11 +649,7 @@ public class TuleapRestClient implements IAuthenticator {
 			throws CoreException {
 		RestResource r = restResourceFactory.userGroupUsers(userGroupId).withAuthenticator(this);
 		RestOperation operation = r.get();
-		List<TuleapUser> users = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			users.add(gson.fromJson(e, TuleapUser.class));
-		}
-		return users;
+		return fromJson(operation.iterable(), TuleapUser.class);
 	}
 
 	/**
@@ -436,11 +667,7 @@ public class TuleapRestClient implements IAuthenticator {
 			throws CoreException {
 		RestResource r = restResourceFactory.trackerReports(trackerId).withAuthenticator(this);
 		RestOperation operation = r.get();
-		List<TuleapTrackerReport> reports = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			reports.add(gson.fromJson(e, TuleapTrackerReport.class));
-		}
-		return reports;
+		return fromJson(operation.iterable(), TuleapTrackerReport.class);
 	}
 
 	/**
@@ -455,11 +682,7 @@ public class TuleapRestClient implements IAuthenticator {
 	public List<TuleapProject> getProjects(IProgressMonitor monitor) throws CoreException {
 		RestResource r = restResourceFactory.projects().withAuthenticator(this);
 		RestOperation operation = r.get();
-		List<TuleapProject> projects = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			projects.add(gson.fromJson(e, TuleapProject.class));
-		}
-		return projects;
+		return fromJson(operation.iterable(), TuleapProject.class);
 	}
 
 	/**
@@ -477,11 +700,7 @@ public class TuleapRestClient implements IAuthenticator {
 			throws CoreException {
 		RestResource r = restResourceFactory.projectsTrackers(projectId).withAuthenticator(this);
 		RestOperation operation = r.get();
-		List<TuleapTracker> trackers = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			trackers.add(gson.fromJson(e, TuleapTracker.class));
-		}
-		return trackers;
+		return fromJson(operation.iterable(), TuleapTracker.class);
 	}
 
 	/**
@@ -501,13 +720,151 @@ public class TuleapRestClient implements IAuthenticator {
 		// The /tracker_reports/:id/artifacts returns no values by default
 		// So it's necessary to add the parameter ?values=all
 		RestOperation operation = r.get().withQueryParameter("values", "all"); //$NON-NLS-1$//$NON-NLS-2$
+		return fromJson(operation.iterable(PAGINATION_LOOK_AHEAD, monitor), TuleapArtifact.class);
+	}
+
+	/**
+	 * Retrieves the artifacts of the given tracker that have one of the given identifiers, with all their
+	 * values. The identifiers are sent to the server in ranges, as criteria on the artifact id field of the
+	 * tracker, so that only the requested artifacts are returned. Nothing is retrieved if the artifact id
+	 * field of the tracker is not known or if the server does not filter the artifacts with such criteria,
+	 * the artifacts that are not returned must then be retrieved with
+	 * {@link #getArtifact(int, TuleapServer, IProgressMonitor)}.
+	 *
+	 * @param tracker
+	 *            The tracker
+	 * @param artifactIds
+	 *            The identifiers of the artifacts to retrieve
+	 * @param monitor
+	 *            the progress monitor
+	 * @return The list of the artifacts found, without their comments.
+	 * @throws CoreException
+	 *             If communication fails.
+	 */
+	public List<TuleapArtifact> getTrackerArtifacts(TuleapTracker tracker, Collection<Integer> artifactIds,
+			IProgressMonitor monitor) throws CoreException {
 		List<TuleapArtifact> artifacts = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			artifacts.add(gson.fromJson(e, TuleapArtifact.class));
+		String fieldName = tracker.getArtifactIdFieldName();
+		if (fieldName == null || !artifactIdCriteriaSupported) {
+			return artifacts;
+		}
+		if (monitor != null) {
+			monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.retrievingTrackerArtifacts, Integer
+					.valueOf(artifactIds.size()), Integer.valueOf(tracker.getIdentifier())));
+		}
+		List<Integer> sortedIds = Lists.newArrayList(artifactIds);
+		Collections.sort(sortedIds);
+		int rangeStart = 0;
+		for (int i = 1; i <= sortedIds.size(); i++) {
+			int first = sortedIds.get(rangeStart).intValue();
+			if (i == sortedIds.size() || sortedIds.get(i).intValue() - first >= ARTIFACT_ID_RANGE) {
+				List<Integer> range = sortedIds.subList(rangeStart, i);
+				if (!getTrackerArtifactsInRange(tracker.getIdentifier(), fieldName, range, artifacts)) {
+					// The server ignores the criterion, the artifacts will be retrieved one by one
+					artifactIdCriteriaSupported = false;
+					break;
+				}
+				rangeStart = i;
+			}
 		}
 		return artifacts;
 	}
 
+	/**
+	 * Retrieves the artifacts of the given tracker whose identifier is between the first and the last of the
+	 * given sorted identifiers, and keeps those that have one of the given identifiers.
+	 *
+	 * @param trackerId
+	 *            The tracker id
+	 * @param fieldName
+	 *            The name of the artifact id field of the tracker
+	 * @param sortedIds
+	 *            The sorted identifiers of the artifacts to retrieve
+	 * @param artifacts
+	 *            The list to which the artifacts found are added
+	 * @return <code>false</code> if the server returned an artifact out of the range of the given
+	 *         identifiers, which means that it does not filter the artifacts by identifier.
+	 * @throws CoreException
+	 *             If communication fails.
+	 */
+	private boolean getTrackerArtifactsInRange(int trackerId, String fieldName, List<Integer> sortedIds,
+			List<TuleapArtifact> artifacts) throws CoreException {
+		int min = sortedIds.get(0).intValue();
+		int max = sortedIds.get(sortedIds.size() - 1).intValue();
+		JsonArray value = new JsonArray();
+		value.add(new JsonPrimitive(Integer.valueOf(min)));
+		value.add(new JsonPrimitive(Integer.valueOf(max)));
+		JsonObject criterion = new JsonObject();
+		criterion.add("operator", new JsonPrimitive(IQueryCriterion.OP_BETWEEN)); //$NON-NLS-1$
+		criterion.add("value", value); //$NON-NLS-1$
+		JsonObject criteria = new JsonObject();
+		criteria.add(fieldName, criterion);
+
+		RestResource r = restResourceFactory.trackerArtifacts(trackerId).withAuthenticator(this);
+		RestOperation op = r.get().withQueryParameter("values", "all"); //$NON-NLS-1$//$NON-NLS-2$
+		op.withQueryParameter(RestResource.QUERY, criteria.toString());
+		Set<Integer> requestedIds = Sets.newHashSet(sortedIds);
+		Iterator<JsonElement> iterator = op.iterable().iterator();
+		try {
+			while (iterator.hasNext()) {
+				TuleapArtifact artifact = gson.fromJson(iterator.next(), TuleapArtifact.class);
+				int id = artifact.getId();
+				if (id < min || id > max) {
+					return false;
+				}
+				if (requestedIds.contains(Integer.valueOf(id))) {
+					artifacts.add(artifact);
+				}
+			}
+		} finally {
+			// Releases the connection if the iteration stopped before the end
+			close(iterator);
+		}
+		return true;
+	}
+
+	/**
+	 * Converts all the given JSON elements, and releases the connection of the response they come from if
+	 * the conversion fails.
+	 *
+	 * @param elements
+	 *            The elements of a response
+	 * @param type
+	 *            The class of the elements
+	 * @param <T>
+	 *            The type of the elements
+	 * @return The list of the converted elements.
+	 */
+	private <T> List<T> fromJson(Iterable<JsonElement> elements, Class<T> type) {
+		List<T> result = Lists.newArrayList();
+		Iterator<JsonElement> iterator = elements.iterator();
+		try {
+			while (iterator.hasNext()) {
+				result.add(gson.fromJson(iterator.next(), type));
+			}
+		} finally {
+			close(iterator);
+		}
+		return result;
+	}
+
+	/**
+	 * Closes the given iterator if it holds a connection, which releases the connection when the iteration
+	 * stops before the end.
+	 *
+	 * @param iterator
+	 *            The iterator over the elements of a response
+	 */
+	private static void close(Iterator<JsonElement> iterator) {
+		if (iterator instanceof Closeable) {
+			try {
+				((Closeable)iterator).close();
+			} catch (IOException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+	}
+
 	/**
 	 * Retrieves the {@link TuleapArtifact} from a query run on the server.
 	 *
@@ -561,9 +918,56 @@ public class TuleapRestClient implements IAuthenticator {
 		}
 
 		op.withQueryParameter(RestResource.QUERY, criteriaToSend.toString());
+		return fromJson(op.iterable(PAGINATION_LOOK_AHEAD, monitor), TuleapArtifact.class);
+	}
+
+	/**
+	 * Retrieves the artifacts of the given tracker that have been modified after the given date, without
+	 * their comments.
+	 *
+	 * @param tracker
+	 *            The tracker, which must have a "last update date" field
+	 * @param since
+	 *            The date after which the returned artifacts have been modified
+	 * @param monitor
+	 *            The progress monitor
+	 * @return The list of artifacts modified after the given date.
+	 * @throws CoreException
+	 *             If the tracker has no "last update date" field or if the communication goes wrong.
+	 */
+	public List<TuleapArtifact> getArtifactsModifiedSince(TuleapTracker tracker, Date since,
+			IProgressMonitor monitor) throws CoreException {
+		String fieldName = tracker.getLastUpdateDateFieldName();
+		if (fieldName == null) {
+			throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
+					TuleapCoreMessages.getString(TuleapCoreKeys.missingLastUpdateDateField, tracker
+							.getQualifiedName())));
+		}
+		if (monitor != null) {
+			monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.retrievingModifiedArtifacts, tracker
+					.getQualifiedName()));
+		}
+		// Tuleap date criteria have a day granularity and are evaluated in the timezone of the server
+		Date lowerBound = new Date(since.getTime() - MODIFICATION_DATE_MARGIN);
+		JsonArray value = new JsonArray();
+		value.add(new JsonPrimitive(DateIso8601Adapter.toIso8601String(lowerBound)));
+		JsonObject criterion = new JsonObject();
+		criterion.add("operator", new JsonPrimitive(IQueryCriterion.OP_GT)); //$NON-NLS-1$
+		criterion.add("value", value); //$NON-NLS-1$
+		JsonObject criteria = new JsonObject();
+		criteria.add(fieldName, criterion);
+
+		RestResource r = restResourceFactory.trackerArtifacts(tracker.getIdentifier())
+				.withAuthenticator(this);
+		RestOperation op = r.get().withQueryParameter("values", "all"); //$NON-NLS-1$//$NON-NLS-2$
+		op.withQueryParameter(RestResource.QUERY, criteria.toString());
 		List<TuleapArtifact> artifacts = Lists.newArrayList();
-		for (JsonElement e : op.iterable()) {
-			artifacts.add(gson.fromJson(e, TuleapArtifact.class));
+		for (TuleapArtifact artifact : fromJson(op.iterable(PAGINATION_LOOK_AHEAD, monitor),
+				TuleapArtifact.class)) {
+			Date lastModifiedDate = artifact.getLastModifiedDate();
+			if (lastModifiedDate == null || lastModifiedDate.after(since)) {
+				artifacts.add(artifact);
+			}
 		}
 		return artifacts;
 	}
@@ -618,8 +1022,7 @@ public class TuleapRestClient implements IAuthenticator {
 		// Only retrieve comments, not full changes
 		RestOperation operation = r.get().withHeader("fields", "comments"); //$NON-NLS-1$//$NON-NLS-2$
 		List<TuleapElementComment> comments = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			TuleapElementComment comment = gson.fromJson(e, TuleapElementComment.class);
+		for (TuleapElementComment comment : fromJson(operation.iterable(), TuleapElementComment.class)) {
 			int submitterId = comment.getSubmitter().getId();
 			TuleapUser submitter = server.getUser(submitterId);
 			comment.setSubmitter(submitter);
@@ -631,7 +1034,8 @@ public class TuleapRestClient implements IAuthenticator {
 	}
 
 	/**
-	 * Returns the Tuleap tracker with the given identifier from the server.
+	 * Returns the Tuleap tracker with the given identifier from the server. The tracker previously returned
+	 * is returned again, without being deserialized, if the server indicates that it has not been modified.
 	 *
 	 * @param trackerId
 	 *            The identifier of the tracker
@@ -648,8 +1052,19 @@ public class TuleapRestClient implements IAuthenticator {
 		}
 		RestResource restTracker = restResourceFactory.tracker(trackerId).withAuthenticator(this);
 		RestOperation operation = restTracker.get();
-		ServerResponse response = operation.checkedRun();
+		TuleapTracker cachedTracker = trackerCache.prepare(operation);
+		ServerResponse response = operation.run();
+		if (response.getStatus() == ServerResponse.STATUS_NOT_MODIFIED) {
+			if (cachedTracker != null) {
+				return cachedTracker;
+			}
+			// Nothing to reuse, the tracker is requested again without any condition
+			operation = restTracker.get();
+			response = operation.run();
+		}
+		operation.checkServerError(response);
 		TuleapTracker tracker = gson.fromJson(response.getBody(), TuleapTracker.class);
+		trackerCache.put(operation, response, tracker);
 		return tracker;
 	}
 }
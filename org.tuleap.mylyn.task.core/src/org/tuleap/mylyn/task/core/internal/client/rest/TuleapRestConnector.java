@@ -10,8 +10,12 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
+import com.google.common.io.CharStreams;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -20,10 +24,15 @@ import java.util.Map;
 import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpConnectionManager;
 import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpMethodBase;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
 import org.apache.commons.httpclient.methods.RequestEntity;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.apache.commons.httpclient.util.HttpURLConnection;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
@@ -52,6 +61,21 @@ public class TuleapRestConnector implements IRestConnector {
 	 */
 	public static final int IO_ERROR_STATUS_CODE = 1001;
 
+	/**
+	 * Delay in milliseconds after which an idle connection of the pool is closed.
+	 */
+	private static final long IDLE_CONNECTION_TIMEOUT = 60000L;
+
+	/**
+	 * Delay in milliseconds between two checks of the idle connections.
+	 */
+	private static final long IDLE_CONNECTION_CHECK_INTERVAL = 15000L;
+
+	/**
+	 * The thread that closes the idle connections of the pools of all the connectors, started on demand.
+	 */
+	private static IdleConnectionTimeoutThread idleConnectionThread;
+
 	/**
 	 * The serverUrl of the server.
 	 */
@@ -68,7 +92,23 @@ public class TuleapRestConnector implements IRestConnector {
 	private final HttpClient httpClient;
 
 	/**
-	 * The host configuration.
+	 * The pool of connections to the server, dedicated to this connector.
+	 */
+	private final MultiThreadedHttpConnectionManager connectionManager;
+
+	/**
+	 * The maximum number of simultaneous connections to the server.
+	 */
+	private final int maxConnections;
+
+	/**
+	 * The sizes of the response bodies received by this connector.
+	 */
+	private final TransferStatistics transferStatistics = new TransferStatistics();
+
+	/**
+	 * The host configuration, computed along with the configuration of the HTTP client before the first
+	 * request.
 	 */
 	private HostConfiguration hostConfiguration;
 
@@ -81,9 +121,76 @@ public class TuleapRestConnector implements IRestConnector {
 	 *            The logger.
 	 */
 	public TuleapRestConnector(AbstractWebLocation location, ILog logger) {
+		this(location, logger, ITuleapConstants.DEFAULT_MAX_CONNECTIONS);
+	}
+
+	/**
+	 * the constructor.
+	 *
+	 * @param location
+	 *            The abstract web location, to support proxies.
+	 * @param logger
+	 *            The logger.
+	 * @param maxConnections
+	 *            The maximum number of simultaneous connections to the server.
+	 */
+	public TuleapRestConnector(AbstractWebLocation location, ILog logger, int maxConnections) {
 		this.location = location;
 		this.logger = logger;
-		this.httpClient = new HttpClient(WebUtil.getConnectionManager());
+		this.maxConnections = Math.max(1, maxConnections);
+		this.connectionManager = new MultiThreadedHttpConnectionManager();
+		this.httpClient = new HttpClient(connectionManager);
+		registerIdleConnections(connectionManager);
+	}
+
+	/**
+	 * Registers the given pool so that its idle connections get closed.
+	 *
+	 * @param manager
+	 *            The pool of connections
+	 */
+	private static synchronized void registerIdleConnections(HttpConnectionManager manager) {
+		if (idleConnectionThread == null) {
+			idleConnectionThread = new IdleConnectionTimeoutThread();
+			idleConnectionThread.setName("Tuleap idle connections"); //$NON-NLS-1$
+			idleConnectionThread.setConnectionTimeout(IDLE_CONNECTION_TIMEOUT);
+			idleConnectionThread.setTimeoutInterval(IDLE_CONNECTION_CHECK_INTERVAL);
+			idleConnectionThread.start();
+		}
+		idleConnectionThread.addConnectionManager(manager);
+	}
+
+	/**
+	 * Configures the HTTP client and computes the host configuration, the first time it is called. The
+	 * connections of the pool are kept alive between requests, and the same client is used by all the
+	 * threads that communicate with the server.
+	 *
+	 * @return The host configuration.
+	 */
+	private synchronized HostConfiguration getHostConfiguration() {
+		if (hostConfiguration == null) {
+			WebUtil.configureHttpClient(httpClient, getUserAgent());
+			// After the configuration by WebUtil, which sets the defaults of the shared Mylyn pool
+			HttpConnectionManagerParams params = connectionManager.getParams();
+			params.setDefaultMaxConnectionsPerHost(maxConnections);
+			params.setMaxTotalConnections(maxConnections);
+			// Connections closed by the server while idle must not be used
+			params.setStaleCheckingEnabled(true);
+			hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, null);
+		}
+		return hostConfiguration;
+	}
+
+	/**
+	 * Closes all the connections of the pool. The connector must not be used anymore.
+	 */
+	public void dispose() {
+		synchronized (TuleapRestConnector.class) {
+			if (idleConnectionThread != null) {
+				idleConnectionThread.removeConnectionManager(connectionManager);
+			}
+		}
+		connectionManager.shutdown();
 	}
 
 	/**
@@ -93,6 +200,30 @@ public class TuleapRestConnector implements IRestConnector {
 	 */
 	@Override
 	public ServerResponse sendRequest(HttpMethod method) {
+		return send(method, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendStreamingRequest(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ServerResponse sendStreamingRequest(HttpMethod method) {
+		return send(method, true);
+	}
+
+	/**
+	 * Send a request.
+	 *
+	 * @param method
+	 *            HTTP method to use, including URL, query parameters and request headers
+	 * @param streaming
+	 *            <code>true</code> if the body of a successful response must be provided as a stream, in
+	 *            which case the connection is only released once this stream is closed
+	 * @return The received server response.
+	 */
+	private ServerResponse send(HttpMethod method, boolean streaming) {
 		// debug mode
 		boolean debug = false;
 		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(ITuleapConstants.TULEAP_PREFERENCE_NODE);
@@ -100,43 +231,111 @@ public class TuleapRestConnector implements IRestConnector {
 			debug = node.getBoolean(ITuleapConstants.TULEAP_PREFERENCE_DEBUG_MODE, false);
 		}
 
-		if (hostConfiguration == null) {
-			hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, null);
-		}
+		HostConfiguration configuration = getHostConfiguration();
 
 		method.setRequestHeader("Accept", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
 		method.setRequestHeader("Accept-Charset", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
 		method.setRequestHeader("Content-Type", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
-
-		WebUtil.configureHttpClient(httpClient, getUserAgent());
+		method.setRequestHeader("Accept-Encoding", HttpContentDecoder.ACCEPTED_ENCODINGS); //$NON-NLS-1$
 
 		Header[] responseHeaders = null;
 		String responseBody = null;
 		ServerResponse serverResponse = null;
+		boolean released = true;
 		try {
-			int code = WebUtil.execute(httpClient, hostConfiguration, method, null);
-			responseBody = method.getResponseBodyAsString();
+			int code = WebUtil.execute(httpClient, configuration, method, null);
 			responseHeaders = method.getResponseHeaders();
-			if (debug) {
-				debugRestCall(method, responseBody);
-			}
 			Map<String, String> rHeaders = new LinkedHashMap<String, String>();
 			for (Header h : responseHeaders) {
 				rHeaders.put(h.getName(), h.getValue());
 			}
-			serverResponse = new ServerResponse(code, responseBody, rHeaders);
+			InputStream responseStream = null;
+			String charset = null;
+			if (method instanceof HttpMethodBase) {
+				responseStream = getDecodedBody(method);
+				charset = ((HttpMethodBase)method).getResponseCharSet();
+			}
+			// The body is needed as a string to be logged in debug mode
+			if (responseStream != null && streaming && !debug
+					&& (code == ServerResponse.STATUS_OK || code == ServerResponse.STATUS_CREATED)) {
+				// Closing the stream releases the connection
+				serverResponse = new ServerResponse(code, responseStream, charset, rHeaders);
+				released = false;
+			} else {
+				if (responseStream != null) {
+					responseBody = readBody(responseStream, charset);
+				} else if (!(method instanceof HttpMethodBase)) {
+					responseBody = method.getResponseBodyAsString();
+				}
+				if (debug) {
+					debugRestCall(method, responseBody);
+				}
+				serverResponse = new ServerResponse(code, responseBody, rHeaders);
+			}
 		} catch (IOException e) {
 			logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages.getString(
 					TuleapCoreKeys.ioError, method.getName() + ' ' + method.getPath(), e.getMessage())));
 			serverResponse = new ServerResponse(IO_ERROR_STATUS_CODE, "", Collections //$NON-NLS-1$
 					.<String, String> emptyMap());
 		} finally {
-			method.releaseConnection();
+			if (released) {
+				method.releaseConnection();
+			}
 		}
 
 		return serverResponse;
 	}
 
+	/**
+	 * Provides the body of the response, decompressed on the fly if needed.
+	 *
+	 * @param method
+	 *            The executed method
+	 * @return The decoded body, or <code>null</code> if the response has no body.
+	 * @throws IOException
+	 *             If the body cannot be read.
+	 */
+	private InputStream getDecodedBody(HttpMethod method) throws IOException {
+		InputStream body = method.getResponseBodyAsStream();
+		if (body == null) {
+			return null;
+		}
+		String contentEncoding = null;
+		Header header = method.getResponseHeader(HttpContentDecoder.HEADER_CONTENT_ENCODING);
+		if (header != null) {
+			contentEncoding = header.getValue();
+		}
+		return HttpContentDecoder.decode(body, contentEncoding, transferStatistics);
+	}
+
+	/**
+	 * Reads the whole body of a response and closes it.
+	 *
+	 * @param body
+	 *            The decoded body
+	 * @param charset
+	 *            The charset of the body
+	 * @return The body.
+	 * @throws IOException
+	 *             If the body cannot be read.
+	 */
+	private String readBody(InputStream body, String charset) throws IOException {
+		try {
+			return CharStreams.toString(new InputStreamReader(body, charset));
+		} finally {
+			body.close();
+		}
+	}
+
+	/**
+	 * Provides the sizes of the response bodies received by this connector, compressed and decoded.
+	 *
+	 * @return The statistics of this connector.
+	 */
+	public TransferStatistics getTransferStatistics() {
+		return transferStatistics;
+	}
+
 	/**
 	 * Logs a debug message of the REST request/response.
 	 *
@@ -175,6 +374,7 @@ public class TuleapRestConnector implements IRestConnector {
 		b.append(method.getStatusLine()).append("\n"); //$NON-NLS-1$
 		b.append("body:\n"); //$NON-NLS-1$
 		b.append(bodyReceived);
+		b.append("\n__________\ntransfers: ").append(transferStatistics); //$NON-NLS-1$
 		int status = IStatus.INFO;
 		if (responseStatus != HttpURLConnection.HTTP_OK) {
 			status = IStatus.ERROR;
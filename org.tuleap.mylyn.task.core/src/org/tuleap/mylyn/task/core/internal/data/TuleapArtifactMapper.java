@@ -18,7 +18,9 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.mylyn.tasks.core.IRepositoryPerson;
@@ -38,7 +40,6 @@ import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
 import org.tuleap.mylyn.task.core.internal.model.config.field.AbstractTuleapSelectBox;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBox;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBoxItem;
-import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
 import org.tuleap.mylyn.task.core.internal.model.data.AbstractFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.AttachmentValue;
 import org.tuleap.mylyn.task.core.internal.model.data.BoundFieldValue;
@@ -83,6 +84,12 @@ public class TuleapArtifactMapper extends TaskMapper {
 	 */
 	protected final TuleapTracker tracker;
 
+	/**
+	 * The number of comment attributes in the task data, counted on the first comment added and maintained
+	 * afterwards, or <code>-1</code> if they have not been counted yet.
+	 */
+	private int commentCount = -1;
+
 	/**
 	 * The constructor.
 	 *
@@ -488,29 +495,50 @@ public class TuleapArtifactMapper extends TaskMapper {
 	 *            The comment to add
 	 */
 	public void addComment(TuleapElementComment tuleapArtifactComment) {
-		int count = getNumberOfCommentAttributes();
-		TaskAttribute attribute = getTaskData().getRoot().createAttribute(
-				TaskAttribute.PREFIX_COMMENT + String.valueOf(count));
-		attribute.getMetaData().defaults().setReadOnly(true).setType(TaskAttribute.TYPE_COMMENT);
-		attribute.getMetaData().putValue(TaskAttribute.META_ASSOCIATED_ATTRIBUTE_ID,
-				TaskAttribute.COMMENT_TEXT);
-		TaskCommentMapper taskComment = TaskCommentMapper.createFrom(attribute);
-
-		taskComment.setCommentId(String.valueOf(count));
-		taskComment.setNumber(Integer.valueOf(count));
+		addComments(Collections.singletonList(tuleapArtifactComment));
+	}
+
+	/**
+	 * Adds comments to the task, in the given order. The comments are numbered from the number of comments
+	 * already in the task, and the authors are shared by the comments they submitted.
+	 *
+	 * @param tuleapArtifactComments
+	 *            The comments to add
+	 */
+	public void addComments(List<TuleapElementComment> tuleapArtifactComments) {
+		if (commentCount < 0) {
+			commentCount = getNumberOfCommentAttributes();
+		}
+		TaskRepository taskRepository = getTaskData().getAttributeMapper().getTaskRepository();
+		Map<String, IRepositoryPerson> authors = new HashMap<String, IRepositoryPerson>();
 		Calendar calendar = Calendar.getInstance();
-		calendar.setTime(tuleapArtifactComment.getSubmittedOn());
-		Date creationDate = calendar.getTime();
-		taskComment.setCreationDate(creationDate);
-		taskComment.setText(tuleapArtifactComment.getBody());
-		TuleapUser submitter = tuleapArtifactComment.getSubmitter();
-		if (submitter != null) {
-			TaskRepository taskRepository = attribute.getTaskData().getAttributeMapper().getTaskRepository();
-			IRepositoryPerson repositoryPerson = taskRepository.createPerson(submitter.getEmail());
-			repositoryPerson.setName(submitter.getUserName());
-			taskComment.setAuthor(repositoryPerson);
+		for (TuleapElementComment tuleapArtifactComment : tuleapArtifactComments) {
+			int count = commentCount++;
+			TaskAttribute attribute = getTaskData().getRoot().createAttribute(
+					TaskAttribute.PREFIX_COMMENT + String.valueOf(count));
+			attribute.getMetaData().defaults().setReadOnly(true).setType(TaskAttribute.TYPE_COMMENT);
+			attribute.getMetaData().putValue(TaskAttribute.META_ASSOCIATED_ATTRIBUTE_ID,
+					TaskAttribute.COMMENT_TEXT);
+			TaskCommentMapper taskComment = TaskCommentMapper.createFrom(attribute);
+
+			taskComment.setCommentId(String.valueOf(count));
+			taskComment.setNumber(Integer.valueOf(count));
+			calendar.setTime(tuleapArtifactComment.getSubmittedOn());
+			Date creationDate = calendar.getTime();
+			taskComment.setCreationDate(creationDate);
+			taskComment.setText(tuleapArtifactComment.getBody());
+			TuleapUser submitter = tuleapArtifactComment.getSubmitter();
+			if (submitter != null) {
+				IRepositoryPerson repositoryPerson = authors.get(submitter.getEmail());
+				if (repositoryPerson == null) {
+					repositoryPerson = taskRepository.createPerson(submitter.getEmail());
+					repositoryPerson.setName(submitter.getUserName());
+					authors.put(submitter.getEmail(), repositoryPerson);
+				}
+				taskComment.setAuthor(repositoryPerson);
+			}
+			taskComment.applyTo(attribute);
 		}
-		taskComment.applyTo(attribute);
 	}
 
 	/**
@@ -603,81 +631,83 @@ public class TuleapArtifactMapper extends TaskMapper {
 	 * @return The set of the field values, never null but potentially empty.
 	 */
 	public List<AbstractFieldValue> getFieldValues() {
-		// returns all the tuleap field value in order to send them to the server
+		return getFieldValues(null);
+	}
+
+	/**
+	 * Returns the set of the values of the fields mapped to the given task attributes, which are typically
+	 * the attributes that have changed since the last synchronization.
+	 *
+	 * @param attributeIds
+	 *            The identifiers of the task attributes whose values must be returned, or <code>null</code>
+	 *            to return the values of all the attributes
+	 * @return The set of the field values, never null but potentially empty.
+	 */
+	public List<AbstractFieldValue> getFieldValues(Set<String> attributeIds) {
+		// returns the tuleap field values in order to send them to the server
 		// attachments are not uploaded with the same mechanism so no need to return them here
 		// do not return the fields computed by tuleap or mylyn: creation date, completion date, id, etc
+		// Each attribute is mapped to its field through the index of the tracker, or to the semantic field
+		// of the tracker for the common attributes
 		List<AbstractFieldValue> result = new ArrayList<AbstractFieldValue>();
-		// For the moment, we return all known values.
-		// Later, an improvement will be to return only those values that have changed.
 		for (TaskAttribute attribute : getTaskData().getRoot().getAttributes().values()) {
-			Collection<AbstractTuleapField> fields = this.tracker.getFields();
-			for (AbstractTuleapField field : fields) {
-				int fieldId = field.getIdentifier();
-				if (String.valueOf(fieldId).equals(attribute.getId()) && shouldBeSentToTheServer(fieldId)) {
-					result.add(field.createFieldValue(attribute, fieldId));
-				} else if (field instanceof TuleapString && ((TuleapString)field).isSemanticTitle()) {
-
-					if (attribute.getId().equals(TaskAttribute.SUMMARY)) {
-						LiteralFieldValue afieldValue = new LiteralFieldValue(tracker.getTitleField()
-								.getIdentifier(), attribute.getValue());
-						result.add(afieldValue);
-					}
-				} else if (field instanceof AbstractTuleapSelectBox
-						&& ((AbstractTuleapSelectBox)field).isSemanticStatus()) {
-					if (attribute.getId().equals(TaskAttribute.STATUS)) {
-						// select box or multi select box (or check box)
-						List<Integer> valueIds = new ArrayList<Integer>();
-						// if (!attribute.getValues().isEmpty()) {
-						for (String strValue : attribute.getValues()) {
-							try {
-								valueIds.add(Integer.valueOf(strValue));
-							} catch (NumberFormatException e) {
-								TuleapCoreActivator.log(e, false);
-							}
-						}
-						// } else {
-						// valueIds.add(Integer.valueOf(ITuleapConstants.CONFIGURABLE_FIELD_NONE_BINDING_ID));
-						// }
-
-						BoundFieldValue boundFieldValue = new BoundFieldValue(this.tracker.getStatusField()
-								.getIdentifier(), valueIds);
-						result.add(boundFieldValue);
-					}
-				} else if (field instanceof AbstractTuleapSelectBox
-						&& ((AbstractTuleapSelectBox)field).isSemanticContributor()) {
-					if (attribute.getId().equals(TaskAttribute.USER_ASSIGNED)) {
-						// select box or multi select box (or check box)
-						List<Integer> valueIds = new ArrayList<Integer>();
-						// if (!attribute.getValues().isEmpty()) {
-						for (String strValue : attribute.getValues()) {
-							try {
-								valueIds.add(Integer.valueOf(strValue));
-							} catch (NumberFormatException e) {
-								TuleapCoreActivator.log(e, false);
-							}
-						}
-						// } else {
-						// valueIds.add(Integer.valueOf(ITuleapConstants.CONFIGURABLE_FIELD_NONE_BINDING_ID));
-						// }
-						BoundFieldValue boundFieldValue = new BoundFieldValue(this.tracker
-								.getContributorField().getIdentifier(), valueIds);
-						result.add(boundFieldValue);
-					}
+			String attributeId = attribute.getId();
+			if (attributeIds != null && !attributeIds.contains(attributeId)) {
+				continue;
+			}
+			AbstractTuleapField field = tracker.getFieldByAttributeId(attributeId);
+			if (field != null) {
+				if (shouldBeSentToTheServer(attributeId)) {
+					result.add(field.createFieldValue(attribute, field.getIdentifier()));
+				}
+			} else if (TaskAttribute.SUMMARY.equals(attributeId)) {
+				if (tracker.getTitleField() != null) {
+					result.add(new LiteralFieldValue(tracker.getTitleField().getIdentifier(), attribute
+							.getValue()));
+				}
+			} else if (TaskAttribute.STATUS.equals(attributeId)) {
+				if (tracker.getStatusField() != null) {
+					result.add(new BoundFieldValue(tracker.getStatusField().getIdentifier(),
+							getValueIds(attribute)));
+				}
+			} else if (TaskAttribute.USER_ASSIGNED.equals(attributeId)) {
+				if (tracker.getContributorField() != null) {
+					result.add(new BoundFieldValue(tracker.getContributorField().getIdentifier(),
+							getValueIds(attribute)));
 				}
 			}
 		}
 		return result;
 	}
 
+	/**
+	 * Provides the identifiers of the values of a select box, multi select box or check box attribute.
+	 *
+	 * @param attribute
+	 *            The attribute
+	 * @return The identifiers of the values of the attribute, the invalid ones being logged and ignored.
+	 */
+	private List<Integer> getValueIds(TaskAttribute attribute) {
+		List<Integer> valueIds = new ArrayList<Integer>();
+		for (String strValue : attribute.getValues()) {
+			try {
+				valueIds.add(Integer.valueOf(strValue));
+			} catch (NumberFormatException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		return valueIds;
+	}
+
 	/**
 	 * Indicates if the attribute with the given identifier should be sent to the server.
 	 *
-	 * @param identifier
+	 * @param attributeId
 	 *            The identifier of the attribute
 	 * @return <code>true</code> if it should be sent to the server, <code>false</code> otherwise
 	 */
-	private boolean shouldBeSentToTheServer(int identifier) {
-		return !ATTRIBUTE_IDS_NOT_TO_SEND.contains(String.valueOf(identifier));
+	private boolean shouldBeSentToTheServer(String attributeId) {
+		return !ATTRIBUTE_IDS_NOT_TO_SEND.contains(attributeId);
 	}
 
 	/**
@@ -11,7 +11,9 @@
 package org.tuleap.mylyn.task.core.internal.data.converter;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -32,7 +34,6 @@ import org.tuleap.mylyn.task.core.internal.model.data.BoundFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
-import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
 import org.tuleap.mylyn.task.core.internal.repository.ITuleapRepositoryConnector;
 
@@ -154,10 +155,7 @@ public class ArtifactTaskDataConverter {
 		}
 
 		// Comments
-		List<TuleapElementComment> comments = element.getComments();
-		for (TuleapElementComment comment : comments) {
-			tuleapArtifactMapper.addComment(comment);
-		}
+		tuleapArtifactMapper.addComments(element.getComments());
 
 		// Attachments
 		TuleapFileUpload attachmentField = this.tracker.getAttachmentField();
@@ -244,6 +242,22 @@ public class ArtifactTaskDataConverter {
 	 * @return The tuleap artifact POJO.
 	 */
 	public TuleapArtifactWithComment createTuleapArtifactWithComment(TaskData taskData) {
+		return createTuleapArtifactWithComment(taskData, null);
+	}
+
+	/**
+	 * Creates a tuleap artifact POJO from the related task data, with only the fields of the attributes that
+	 * have changed, so that the other fields are left untouched on the server.
+	 *
+	 * @param taskData
+	 *            The task data of the task to update, <b>must not be new</b>.
+	 * @param oldAttributes
+	 *            The previous state of the attributes that have changed, or <code>null</code> to send all the
+	 *            fields
+	 * @return The tuleap artifact POJO.
+	 */
+	public TuleapArtifactWithComment createTuleapArtifactWithComment(TaskData taskData,
+			Set<TaskAttribute> oldAttributes) {
 		Assert.isTrue(!taskData.isNew());
 		TuleapArtifactMapper tuleapArtifactMapper = new TuleapArtifactMapper(taskData, this.tracker);
 		TuleapTaskId taskId = tuleapArtifactMapper.getTaskId();
@@ -253,12 +267,24 @@ public class ArtifactTaskDataConverter {
 		projectRef.setId(taskId.getProjectId());
 		TuleapArtifactWithComment tuleapArtifact = new TuleapArtifactWithComment(taskId.getArtifactId(),
 				trackerRef, projectRef);
-		for (AbstractTuleapField field : tracker.getFields()) {
-			tuleapArtifact.addField(field);
-		}
-		List<AbstractFieldValue> fieldValues = tuleapArtifactMapper.getFieldValues();
-		for (AbstractFieldValue abstractFieldValue : fieldValues) {
-			tuleapArtifact.addFieldValue(abstractFieldValue);
+		if (oldAttributes == null) {
+			for (AbstractTuleapField field : tracker.getFields()) {
+				tuleapArtifact.addField(field);
+			}
+			for (AbstractFieldValue abstractFieldValue : tuleapArtifactMapper.getFieldValues()) {
+				tuleapArtifact.addFieldValue(abstractFieldValue);
+			}
+		} else {
+			// Only the fields that have a value are serialized, the others would be sent empty
+			List<AbstractFieldValue> fieldValues = tuleapArtifactMapper
+					.getFieldValues(getRootAttributeIds(oldAttributes));
+			for (AbstractFieldValue abstractFieldValue : fieldValues) {
+				AbstractTuleapField field = tracker.getFieldById(abstractFieldValue.getFieldId());
+				if (field != null) {
+					tuleapArtifact.addField(field);
+					tuleapArtifact.addFieldValue(abstractFieldValue);
+				}
+			}
 		}
 		// New comment
 		String newComment = ""; //$NON-NLS-1$
@@ -270,4 +296,25 @@ public class ArtifactTaskDataConverter {
 		return tuleapArtifact;
 	}
 
+	/**
+	 * Computes the identifiers of the attributes of the root of the task data that contain the given
+	 * attributes.
+	 *
+	 * @param attributes
+	 *            Some attributes of the task data
+	 * @return The identifiers of the attributes of the root of the task data that are or contain the given
+	 *         attributes.
+	 */
+	private static Set<String> getRootAttributeIds(Set<TaskAttribute> attributes) {
+		Set<String> ids = new HashSet<String>();
+		for (TaskAttribute attribute : attributes) {
+			TaskAttribute rootAttribute = attribute;
+			while (rootAttribute.getParentAttribute() != null
+					&& rootAttribute.getParentAttribute().getParentAttribute() != null) {
+				rootAttribute = rootAttribute.getParentAttribute();
+			}
+			ids.add(rootAttribute.getId());
+		}
+		return ids;
+	}
 }
@@ -15,14 +15,15 @@ import com.google.common.collect.Maps;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
 
 /**
- * This class will hold a Tuleap project.
+ * This class will hold a Tuleap project. Its trackers and user groups can be changed while it is read by
+ * other threads, which can lock the project to read a consistent state of it. The server of the project must
+ * not be locked while the project is locked, since the server locks its projects.
  * 
  * @author <a href="mailto:stephane.begaudeau@obeo.fr">Stephane Begaudeau</a>
  */
@@ -97,8 +98,15 @@ public class TuleapProject implements Serializable {
 	 *            The tracker.
 	 */
 	public void addTracker(TuleapTracker tracker) {
-		this.trackersById.put(Integer.valueOf(tracker.getIdentifier()), tracker);
-		tracker.setProject(this);
+		TuleapServer tuleapServer;
+		synchronized (this) {
+			this.trackersById.put(Integer.valueOf(tracker.getIdentifier()), tracker);
+			tracker.setProject(this);
+			tuleapServer = server;
+		}
+		if (tuleapServer != null) {
+			tuleapServer.indexTracker(tracker);
+		}
 	}
 
 	/**
@@ -108,7 +116,7 @@ public class TuleapProject implements Serializable {
 	 *            the id of the tracker
 	 * @return The tracker for the given tracker id.
 	 */
-	public TuleapTracker getTracker(int trackerId) {
+	public synchronized TuleapTracker getTracker(int trackerId) {
 		return this.trackersById.get(Integer.valueOf(trackerId));
 	}
 
@@ -117,7 +125,7 @@ public class TuleapProject implements Serializable {
 	 * 
 	 * @return The list of all the tracker.
 	 */
-	public List<TuleapTracker> getAllTrackers() {
+	public synchronized List<TuleapTracker> getAllTrackers() {
 		return new ArrayList<TuleapTracker>(this.trackersById.values());
 	}
 
@@ -135,7 +143,7 @@ public class TuleapProject implements Serializable {
 	 * 
 	 * @return The uri of the project
 	 */
-	public String getUri() {
+	public synchronized String getUri() {
 		return uri;
 	}
 
@@ -145,7 +153,7 @@ public class TuleapProject implements Serializable {
 	 * @param uri
 	 *            The project uri
 	 */
-	public void setUri(String uri) {
+	public synchronized void setUri(String uri) {
 		this.uri = uri;
 	}
 
@@ -164,7 +172,7 @@ public class TuleapProject implements Serializable {
 	 * @param group
 	 *            User group to register with this project. Must not be {@code null}.
 	 */
-	public void addGroup(TuleapUserGroup group) {
+	public synchronized void addGroup(TuleapUserGroup group) {
 		userGroupsById.put(group.getId(), group);
 	}
 
@@ -176,17 +184,17 @@ public class TuleapProject implements Serializable {
 	 *            The id of the group being looked for.
 	 * @return The group with the given id if it is registered with this project, {@code null} otherwise.
 	 */
-	public TuleapUserGroup getUserGroup(String groupId) {
+	public synchronized TuleapUserGroup getUserGroup(String groupId) {
 		return userGroupsById.get(groupId);
 	}
 
 	/**
 	 * Provides all the registered groups of this project.
 	 * 
-	 * @return An unmodifiable view of the user groups registered with this project.
+	 * @return A copy of the user groups registered with this project.
 	 */
-	public Collection<TuleapUserGroup> getAllUserGroups() {
-		return Collections.unmodifiableCollection(userGroupsById.values());
+	public synchronized Collection<TuleapUserGroup> getAllUserGroups() {
+		return new ArrayList<TuleapUserGroup>(userGroupsById.values());
 	}
 
 	/**
@@ -200,15 +208,17 @@ public class TuleapProject implements Serializable {
 	public void addUserToUserGroup(TuleapUserGroup group, TuleapUser member) {
 		Assert.isNotNull(group);
 		Assert.isNotNull(member);
-		TuleapUserGroup groupToUse;
-		if (userGroupsById.containsKey(group.getId())) {
-			groupToUse = userGroupsById.get(group.getId());
-		} else {
-			userGroupsById.put(group.getId(), group);
-			groupToUse = group;
+		TuleapUser registeredMember = getServer().intern(member);
+		synchronized (this) {
+			TuleapUserGroup groupToUse;
+			if (userGroupsById.containsKey(group.getId())) {
+				groupToUse = userGroupsById.get(group.getId());
+			} else {
+				userGroupsById.put(group.getId(), group);
+				groupToUse = group;
+			}
+			groupToUse.addMember(registeredMember);
 		}
-		groupToUse.addMember(member);
-		server.register(member);
 	}
 
 	/**
@@ -217,7 +227,7 @@ public class TuleapProject implements Serializable {
 	 * @param server
 	 *            The parent server.
 	 */
-	protected void setServer(TuleapServer server) {
+	protected synchronized void setServer(TuleapServer server) {
 		this.server = server;
 	}
 
@@ -226,7 +236,7 @@ public class TuleapProject implements Serializable {
 	 * 
 	 * @return The parent server.
 	 */
-	public TuleapServer getServer() {
+	public synchronized TuleapServer getServer() {
 		return server;
 	}
 
@@ -235,7 +245,7 @@ public class TuleapProject implements Serializable {
 	 * 
 	 * @return the projectResources, a list that is never <code>null</code> but possibly empty.
 	 */
-	public TuleapResource[] getProjectResources() {
+	public synchronized TuleapResource[] getProjectResources() {
 		return resources;
 	}
 
@@ -245,7 +255,7 @@ public class TuleapProject implements Serializable {
 	 * @param projectResources
 	 *            the projectResources to set
 	 */
-	public void setProjectResources(TuleapResource[] projectResources) {
+	public synchronized void setProjectResources(TuleapResource[] projectResources) {
 		this.resources = projectResources;
 	}
 
@@ -257,7 +267,7 @@ public class TuleapProject implements Serializable {
 	 * @return {@code true} if and only if the given service is present in the list of services of this
 	 *         project.
 	 */
-	public boolean hasResource(String key) {
+	public synchronized boolean hasResource(String key) {
 		if (resources != null) {
 			for (TuleapResource resource : resources) {
 				if (resource.getType().equals(key)) {
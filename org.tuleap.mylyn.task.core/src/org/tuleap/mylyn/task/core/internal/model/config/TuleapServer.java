@@ -10,13 +10,19 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.model.config;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.Maps;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class will hold the configuration of a Tuleap server instance.
@@ -51,6 +57,26 @@ public class TuleapServer implements Serializable {
 	 */
 	private Map<Integer, TuleapProject> projectsById = new HashMap<Integer, TuleapProject>();
 
+	/**
+	 * The loaders of the projects that have not been loaded yet, by project id.
+	 */
+	private transient Map<Integer, IProjectLoader> projectLoaders;
+
+	/**
+	 * The ids of the projects that have not been loaded yet, by id of their trackers.
+	 */
+	private transient Map<Integer, Integer> pendingProjectIdsByTrackerId;
+
+	/**
+	 * The trackers of the projects that have been loaded, by tracker id. Built on first access.
+	 */
+	private transient Map<Integer, TuleapTracker> trackersById;
+
+	/**
+	 * The members of the user groups that have been retrieved, by user group id.
+	 */
+	private transient Map<String, UserGroupMembers> userGroupMembers;
+
 	/**
 	 * The constructor.
 	 * 
@@ -67,11 +93,139 @@ public class TuleapServer implements Serializable {
 	 * @param tuleapProject
 	 *            The project (must not be null).
 	 */
-	public void addProject(TuleapProject tuleapProject) {
-		this.projectsById.put(Integer.valueOf(tuleapProject.getIdentifier()), tuleapProject);
+	public synchronized void addProject(TuleapProject tuleapProject) {
+		removeProjectLoader(Integer.valueOf(tuleapProject.getIdentifier()));
+		TuleapProject oldProject = this.projectsById.put(Integer.valueOf(tuleapProject.getIdentifier()),
+				tuleapProject);
+		if (trackersById != null) {
+			if (oldProject != null) {
+				for (TuleapTracker tracker : oldProject.getAllTrackers()) {
+					trackersById.remove(Integer.valueOf(tracker.getIdentifier()));
+				}
+			}
+			for (TuleapTracker tracker : tuleapProject.getAllTrackers()) {
+				trackersById.put(Integer.valueOf(tracker.getIdentifier()), tracker);
+			}
+		}
 		tuleapProject.setServer(this);
 	}
 
+	/**
+	 * Indexes a tracker added to one of the projects of the server.
+	 * 
+	 * @param tracker
+	 *            The tracker
+	 */
+	synchronized void indexTracker(TuleapTracker tracker) {
+		if (trackersById != null) {
+			trackersById.put(Integer.valueOf(tracker.getIdentifier()), tracker);
+		}
+	}
+
+	/**
+	 * Registers a project that will be loaded the first time it, or one of its trackers, is accessed.
+	 * 
+	 * @param projectId
+	 *            The id of the project
+	 * @param trackerIds
+	 *            The ids of the trackers of the project
+	 * @param loader
+	 *            The loader of the project
+	 */
+	public synchronized void addProjectLoader(int projectId, int[] trackerIds, IProjectLoader loader) {
+		if (projectLoaders == null) {
+			projectLoaders = new HashMap<Integer, IProjectLoader>();
+			pendingProjectIdsByTrackerId = new HashMap<Integer, Integer>();
+		}
+		Integer id = Integer.valueOf(projectId);
+		projectLoaders.put(id, loader);
+		for (int trackerId : trackerIds) {
+			pendingProjectIdsByTrackerId.put(Integer.valueOf(trackerId), id);
+		}
+	}
+
+	/**
+	 * Returns the loaders of the projects that have not been loaded yet.
+	 * 
+	 * @return A new map of the loaders of the projects that have not been loaded yet, by project id.
+	 */
+	public synchronized Map<Integer, IProjectLoader> getProjectLoaders() {
+		if (projectLoaders == null) {
+			return new HashMap<Integer, IProjectLoader>();
+		}
+		return new HashMap<Integer, IProjectLoader>(projectLoaders);
+	}
+
+	/**
+	 * Returns the projects that have already been loaded, without loading the others.
+	 * 
+	 * @return The list of the projects already loaded.
+	 */
+	public synchronized List<TuleapProject> getLoadedProjects() {
+		return new ArrayList<TuleapProject>(this.projectsById.values());
+	}
+
+	/**
+	 * Returns the ids of the projects that have trackers, without loading the projects that have not been
+	 * loaded yet.
+	 * 
+	 * @return A new set of the ids of the projects that have trackers.
+	 */
+	public synchronized Set<Integer> getProjectIdsWithTrackers() {
+		Set<Integer> projectIds = new HashSet<Integer>();
+		for (TuleapProject project : this.projectsById.values()) {
+			if (!project.getAllTrackers().isEmpty()) {
+				projectIds.add(Integer.valueOf(project.getIdentifier()));
+			}
+		}
+		if (pendingProjectIdsByTrackerId != null) {
+			projectIds.addAll(pendingProjectIdsByTrackerId.values());
+		}
+		return projectIds;
+	}
+
+	/**
+	 * Loads the project with the given id if it has not been loaded yet.
+	 * 
+	 * @param projectId
+	 *            The id of the project
+	 */
+	private synchronized void loadProject(Integer projectId) {
+		IProjectLoader loader = removeProjectLoader(projectId);
+		if (loader != null) {
+			loader.load(this);
+		}
+	}
+
+	/**
+	 * Loads all the projects that have not been loaded yet.
+	 */
+	private synchronized void loadAllProjects() {
+		if (projectLoaders != null) {
+			for (Integer projectId : new ArrayList<Integer>(projectLoaders.keySet())) {
+				loadProject(projectId);
+			}
+		}
+	}
+
+	/**
+	 * Forgets the loader of the project with the given id.
+	 * 
+	 * @param projectId
+	 *            The id of the project
+	 * @return The loader of the project, or <code>null</code> if the project has no pending loader.
+	 */
+	private synchronized IProjectLoader removeProjectLoader(Integer projectId) {
+		if (projectLoaders == null) {
+			return null;
+		}
+		IProjectLoader loader = projectLoaders.remove(projectId);
+		if (loader != null) {
+			pendingProjectIdsByTrackerId.values().removeAll(Collections.singleton(projectId));
+		}
+		return loader;
+	}
+
 	/**
 	 * Returns the project for the given project id.
 	 * 
@@ -79,7 +233,8 @@ public class TuleapServer implements Serializable {
 	 *            the id of the project
 	 * @return The project for the given project id.
 	 */
-	public TuleapProject getProject(int projectId) {
+	public synchronized TuleapProject getProject(int projectId) {
+		loadProject(Integer.valueOf(projectId));
 		return this.projectsById.get(Integer.valueOf(projectId));
 	}
 
@@ -98,7 +253,7 @@ public class TuleapServer implements Serializable {
 	 * @param time
 	 *            The time at which the server was last updated.
 	 */
-	public void setLastUpdate(long time) {
+	public synchronized void setLastUpdate(long time) {
 		this.lastUpdate = time;
 	}
 
@@ -107,7 +262,7 @@ public class TuleapServer implements Serializable {
 	 * 
 	 * @return The time at which the server was last updated.
 	 */
-	public long getLastUpdate() {
+	public synchronized long getLastUpdate() {
 		return this.lastUpdate;
 	}
 
@@ -116,26 +271,35 @@ public class TuleapServer implements Serializable {
 	 * 
 	 * @return The list of all the projects.
 	 */
-	public List<TuleapProject> getAllProjects() {
+	public synchronized List<TuleapProject> getAllProjects() {
+		loadAllProjects();
 		return new ArrayList<TuleapProject>(this.projectsById.values());
 	}
 
 	/**
-	 * Iterates on all the projects of the server and returns the tracker with the given identifier or null if
-	 * none can be found.
+	 * Returns the tracker with the given identifier, whatever its project, or null if none can be found.
 	 * 
 	 * @param trackerId
 	 *            The identifier of the tracker
 	 * @return The tracker with the given identifier or null if none can be found
 	 */
-	public TuleapTracker getTracker(int trackerId) {
-		for (TuleapProject tuleapProject : this.projectsById.values()) {
-			TuleapTracker tracker = tuleapProject.getTracker(trackerId);
-			if (tracker != null) {
-				return tracker;
+	public synchronized TuleapTracker getTracker(int trackerId) {
+		Integer id = Integer.valueOf(trackerId);
+		if (pendingProjectIdsByTrackerId != null) {
+			Integer projectId = pendingProjectIdsByTrackerId.get(id);
+			if (projectId != null) {
+				loadProject(projectId);
+			}
+		}
+		if (trackersById == null) {
+			trackersById = new HashMap<Integer, TuleapTracker>();
+			for (TuleapProject tuleapProject : this.projectsById.values()) {
+				for (TuleapTracker tracker : tuleapProject.getAllTrackers()) {
+					trackersById.put(Integer.valueOf(tracker.getIdentifier()), tracker);
+				}
 			}
 		}
-		return null;
+		return trackersById.get(id);
 	}
 
 	/**
@@ -148,7 +312,7 @@ public class TuleapServer implements Serializable {
 	 *            The new version of the tracker
 	 */
 	public void replaceTracker(int projectId, TuleapTracker tracker) {
-		TuleapProject project = this.projectsById.get(Integer.valueOf(projectId));
+		TuleapProject project = getProject(projectId);
 		if (project != null) {
 			project.addTracker(tracker);
 		}
@@ -161,7 +325,7 @@ public class TuleapServer implements Serializable {
 	 *            the user id.
 	 * @return The person registered for this id, or null if none is found.
 	 */
-	public TuleapUser getUser(int id) {
+	public synchronized TuleapUser getUser(int id) {
 		return personsById.get(Integer.valueOf(id));
 	}
 
@@ -172,10 +336,19 @@ public class TuleapServer implements Serializable {
 	 *            the user id.
 	 * @return {@code true} if and only if this id matches a registered user.
 	 */
-	public boolean isRegistered(int id) {
+	public synchronized boolean isRegistered(int id) {
 		return personsById.containsKey(Integer.valueOf(id));
 	}
 
+	/**
+	 * Returns the registered users.
+	 * 
+	 * @return A copy of the registered users.
+	 */
+	public synchronized Collection<TuleapUser> getAllUsers() {
+		return new ArrayList<TuleapUser>(personsById.values());
+	}
+
 	/**
 	 * Register a user.
 	 * 
@@ -184,8 +357,188 @@ public class TuleapServer implements Serializable {
 	 */
 	public void register(TuleapUser person) {
 		if (person != null) {
-			personsById.put(Integer.valueOf(person.getId()), person);
+			intern(person);
+		}
+	}
+
+	/**
+	 * Registers a user, unless an identical user is already registered, so that all the occurrences of a
+	 * user share the same instance.
+	 * 
+	 * @param person
+	 *            The user, must not be <code>null</code>
+	 * @return The registered user identical to the given one.
+	 */
+	public synchronized TuleapUser intern(TuleapUser person) {
+		Integer id = Integer.valueOf(person.getId());
+		TuleapUser registered = personsById.get(id);
+		if (registered != null && Objects.equal(registered.getUserName(), person.getUserName())
+				&& Objects.equal(registered.getRealName(), person.getRealName())
+				&& Objects.equal(registered.getEmail(), person.getEmail())
+				&& Objects.equal(registered.getLdapId(), person.getLdapId())) {
+			return registered;
+		}
+		personsById.put(id, person);
+		return person;
+	}
+
+	/**
+	 * Indicates whether the members of the given user group must be retrieved, because they have never been
+	 * retrieved or have been retrieved too long ago.
+	 * 
+	 * @param userGroupId
+	 *            The id of the user group
+	 * @param timeToLive
+	 *            The time in milliseconds during which retrieved members are up to date
+	 * @return <code>true</code> if the members of the user group must be retrieved.
+	 */
+	public synchronized boolean isUserGroupStale(String userGroupId, long timeToLive) {
+		UserGroupMembers members = null;
+		if (userGroupMembers != null) {
+			members = userGroupMembers.get(userGroupId);
+		}
+		return members == null || System.currentTimeMillis() - members.retrievalDate >= timeToLive;
+	}
+
+	/**
+	 * Registers the retrieved members of a user group.
+	 * 
+	 * @param userGroupId
+	 *            The id of the user group
+	 * @param members
+	 *            The members of the user group
+	 */
+	public synchronized void setUserGroupMembers(String userGroupId, Collection<TuleapUser> members) {
+		if (userGroupMembers == null) {
+			userGroupMembers = new HashMap<String, UserGroupMembers>();
+		}
+		UserGroupMembers previous = userGroupMembers.get(userGroupId);
+		int version = 1;
+		if (previous != null) {
+			version = previous.version;
+		}
+		int[] ids = new int[members.size()];
+		int i = 0;
+		for (TuleapUser member : members) {
+			ids[i++] = intern(member).getId();
+		}
+		if (previous != null && !Arrays.equals(previous.memberIds, ids)) {
+			version++;
+		}
+		userGroupMembers.put(userGroupId, new UserGroupMembers(ids, version, System.currentTimeMillis()));
+	}
+
+	/**
+	 * Returns the members of a user group, as last retrieved.
+	 * 
+	 * @param userGroupId
+	 *            The id of the user group
+	 * @return The members of the user group, or <code>null</code> if they have not been retrieved.
+	 */
+	public synchronized List<TuleapUser> getUserGroupMembers(String userGroupId) {
+		if (userGroupMembers == null || !userGroupMembers.containsKey(userGroupId)) {
+			return null;
+		}
+		List<TuleapUser> result = new ArrayList<TuleapUser>();
+		for (int id : userGroupMembers.get(userGroupId).memberIds) {
+			TuleapUser user = personsById.get(Integer.valueOf(id));
+			if (user != null) {
+				result.add(user);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the version of the members of a user group, which changes each time the members of the user
+	 * group are retrieved and found different.
+	 * 
+	 * @param userGroupId
+	 *            The id of the user group
+	 * @return The version of the members of the user group, <code>0</code> if they have not been retrieved.
+	 */
+	public synchronized int getUserGroupVersion(String userGroupId) {
+		if (userGroupMembers == null || !userGroupMembers.containsKey(userGroupId)) {
+			return 0;
+		}
+		return userGroupMembers.get(userGroupId).version;
+	}
+
+	/**
+	 * Takes over the users and the user groups members of the given server, which this server replaces.
+	 * 
+	 * @param previous
+	 *            The server replaced by this one
+	 */
+	public void copyUsers(TuleapServer previous) {
+		Map<Integer, TuleapUser> users;
+		Map<String, UserGroupMembers> members = null;
+		synchronized (previous) {
+			users = new HashMap<Integer, TuleapUser>(previous.personsById);
+			if (previous.userGroupMembers != null) {
+				members = new HashMap<String, UserGroupMembers>(previous.userGroupMembers);
+			}
+		}
+		synchronized (this) {
+			for (TuleapUser user : users.values()) {
+				intern(user);
+			}
+			if (members != null) {
+				if (userGroupMembers == null) {
+					userGroupMembers = new HashMap<String, UserGroupMembers>();
+				}
+				userGroupMembers.putAll(members);
+			}
 		}
 	}
 
+	/**
+	 * The members of a user group, as last retrieved.
+	 */
+	private static final class UserGroupMembers {
+
+		/**
+		 * The ids of the members.
+		 */
+		private final int[] memberIds;
+
+		/**
+		 * The version of the members, incremented each time they change.
+		 */
+		private final int version;
+
+		/**
+		 * The date at which the members were retrieved.
+		 */
+		private final long retrievalDate;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param memberIds
+		 *            The ids of the members
+		 * @param version
+		 *            The version of the members
+		 * @param retrievalDate
+		 *            The date at which the members were retrieved
+		 */
+		private UserGroupMembers(int[] memberIds, int version, long retrievalDate) {
+			this.memberIds = memberIds;
+			this.version = version;
+			this.retrievalDate = retrievalDate;
+		}
+	}
+
+	/**
+	 * Loads a project that has not been loaded with its server.
+	 */
+	public interface IProjectLoader {
+		/**
+		 * Creates the project and adds it to the given server.
+		 * 
+		 * @param server
+		 *            The server of the project
+		 */
+		void load(TuleapServer server);
+	}
 }
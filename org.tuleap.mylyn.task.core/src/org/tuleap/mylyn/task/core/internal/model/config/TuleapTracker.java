@@ -14,6 +14,7 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -92,6 +93,12 @@ public class TuleapTracker implements Serializable {
 	 */
 	private Map<Integer, AbstractTuleapField> fields = new LinkedHashMap<Integer, AbstractTuleapField>();
 
+	/**
+	 * The fields of the Tuleap element, by identifier of the task attribute they are mapped to. Built on
+	 * first access.
+	 */
+	private transient Map<String, AbstractTuleapField> fieldsByAttributeId;
+
 	/**
 	 * The title field.
 	 */
@@ -117,6 +124,17 @@ public class TuleapTracker implements Serializable {
 	 */
 	private TuleapFileUpload attachmentField;
 
+	/**
+	 * The name of the "last update date" field, used to query the recently modified artifacts.
+	 */
+	private String lastUpdateDateFieldName;
+
+	/**
+	 * The name of the "artifact id" field, used to query artifacts by identifier. It is not saved in the
+	 * configuration file, so it is only known once the tracker has been retrieved from the server.
+	 */
+	private String artifactIdFieldName;
+
 	/**
 	 * The project containing the tracker.
 	 */
@@ -353,6 +371,7 @@ public class TuleapTracker implements Serializable {
 	 */
 	public void addField(AbstractTuleapField field) {
 		this.fields.put(Integer.valueOf(field.getIdentifier()), field);
+		this.fieldsByAttributeId = null;
 		if (field instanceof AbstractTuleapSelectBox) {
 			AbstractTuleapSelectBox selectbox = (AbstractTuleapSelectBox)field;
 			if (selectbox.isSemanticStatus()) {
@@ -412,6 +431,45 @@ public class TuleapTracker implements Serializable {
 		return attachmentField;
 	}
 
+	/**
+	 * Provides the name of the "last update date" field of this tracker.
+	 *
+	 * @return The name of the "last update date" field of this tracker, or <code>null</code> if the tracker
+	 *         does not have such a field.
+	 */
+	public String getLastUpdateDateFieldName() {
+		return lastUpdateDateFieldName;
+	}
+
+	/**
+	 * Sets the name of the "last update date" field of this tracker.
+	 *
+	 * @param lastUpdateDateFieldName
+	 *            The name of the "last update date" field
+	 */
+	public void setLastUpdateDateFieldName(String lastUpdateDateFieldName) {
+		this.lastUpdateDateFieldName = lastUpdateDateFieldName;
+	}
+
+	/**
+	 * Provides the name of the "artifact id" field of this tracker.
+	 *
+	 * @return The name of the "artifact id" field of this tracker, or <code>null</code> if it is not known.
+	 */
+	public String getArtifactIdFieldName() {
+		return artifactIdFieldName;
+	}
+
+	/**
+	 * Sets the name of the "artifact id" field of this tracker.
+	 *
+	 * @param artifactIdFieldName
+	 *            The name of the "artifact id" field
+	 */
+	public void setArtifactIdFieldName(String artifactIdFieldName) {
+		this.artifactIdFieldName = artifactIdFieldName;
+	}
+
 	/**
 	 * Indicates whether the given status represents a closed status.
 	 *
@@ -442,6 +500,27 @@ public class TuleapTracker implements Serializable {
 		return fields.get(Integer.valueOf(id));
 	}
 
+	/**
+	 * Provides access to a tracker field by the identifier of the task attribute it is mapped to, which is
+	 * the identifier of the field as a string. The semantic fields mapped to the common task attributes,
+	 * such as the summary, are not returned by this method.
+	 *
+	 * @param attributeId
+	 *            the task attribute identifier
+	 * @return The tracker field or null if it doesn't exist.
+	 */
+	public AbstractTuleapField getFieldByAttributeId(String attributeId) {
+		Map<String, AbstractTuleapField> index = fieldsByAttributeId;
+		if (index == null) {
+			index = new HashMap<String, AbstractTuleapField>();
+			for (AbstractTuleapField field : fields.values()) {
+				index.put(String.valueOf(field.getIdentifier()), field);
+			}
+			fieldsByAttributeId = index;
+		}
+		return index.get(attributeId);
+	}
+
 	/**
 	 * Tracker resources getter.
 	 *
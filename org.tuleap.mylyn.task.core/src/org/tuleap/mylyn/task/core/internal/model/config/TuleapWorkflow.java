@@ -15,8 +15,11 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBox;
@@ -114,6 +117,39 @@ public class TuleapWorkflow implements Serializable {
 		return transitions.get(selectBox.getItem(String.valueOf(from)));
 	}
 
+	/**
+	 * Returns the transitions of this workflow, starting with the transitions from the initial pseudo-state.
+	 * 
+	 * @return A new list of the transitions of this workflow.
+	 */
+	public List<TuleapWorkflowTransition> getTransitions() {
+		List<TuleapWorkflowTransition> result = new ArrayList<TuleapWorkflowTransition>();
+		for (TuleapSelectBoxItem initialState : initialStates) {
+			result.add(newTransition(ITuleapConstants.CONFIGURABLE_FIELD_NONE_BINDING_ID, initialState
+					.getIdentifier()));
+		}
+		for (Entry<TuleapSelectBoxItem, TuleapSelectBoxItem> entry : transitions.entries()) {
+			result.add(newTransition(entry.getKey().getIdentifier(), entry.getValue().getIdentifier()));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a transition.
+	 * 
+	 * @param from
+	 *            the source of the transition.
+	 * @param to
+	 *            the target of the transition.
+	 * @return The new transition.
+	 */
+	private TuleapWorkflowTransition newTransition(int from, int to) {
+		TuleapWorkflowTransition transition = new TuleapWorkflowTransition();
+		transition.setFrom(from);
+		transition.setTo(to);
+		return transition;
+	}
+
 	/**
 	 * Indicates whether this workflow really has transitions.
 	 * 
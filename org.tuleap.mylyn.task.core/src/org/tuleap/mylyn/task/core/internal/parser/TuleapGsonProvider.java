@@ -23,15 +23,11 @@ import org.tuleap.mylyn.task.core.internal.model.data.AttachmentFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.BoundFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
-import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithAttachment;
-import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
 import org.tuleap.mylyn.task.core.internal.serializer.ArtifactLinkFieldValueAdapter;
 import org.tuleap.mylyn.task.core.internal.serializer.BoundFieldValueSerializer;
 import org.tuleap.mylyn.task.core.internal.serializer.LiteralFieldValueSerializer;
-import org.tuleap.mylyn.task.core.internal.serializer.TuleapArtifactSerializer;
-import org.tuleap.mylyn.task.core.internal.serializer.TuleapArtifactWithAttachmentSerializer;
-import org.tuleap.mylyn.task.core.internal.serializer.TuleapArtifactWithCommentSerializer;
+import org.tuleap.mylyn.task.core.internal.serializer.TuleapArtifactSerializerFactory;
 
 /**
  * Utility class to configure the Gson instance(s) used by the connector for Tuleap.
@@ -78,12 +74,9 @@ public final class TuleapGsonProvider {
 		gsonBuilder.registerTypeAdapter(TuleapWorkflowTransition.class,
 				new TuleapWorkflowTransitionDeserializer());
 		gsonBuilder.registerTypeAdapter(Date.class, new DateIso8601Adapter());
+		// Registered before the deserializer, which delegates the serialization of artifacts to it
+		gsonBuilder.registerTypeAdapterFactory(new TuleapArtifactSerializerFactory());
 		gsonBuilder.registerTypeAdapter(TuleapArtifact.class, new TuleapArtifactDeserializer());
-		gsonBuilder.registerTypeAdapter(TuleapArtifact.class, new TuleapArtifactSerializer());
-		gsonBuilder.registerTypeAdapter(TuleapArtifactWithComment.class,
-				new TuleapArtifactWithCommentSerializer<TuleapArtifactWithComment>());
-		gsonBuilder.registerTypeAdapter(TuleapArtifactWithAttachment.class,
-				new TuleapArtifactWithAttachmentSerializer());
 		gsonBuilder.registerTypeAdapter(ArtifactLinkFieldValue.class, new ArtifactLinkFieldValueAdapter());
 		gsonBuilder.registerTypeAdapter(LiteralFieldValue.class, new LiteralFieldValueSerializer());
 		gsonBuilder.registerTypeAdapter(AttachmentFieldValue.class, new AttachmentFieldValueAdapter());
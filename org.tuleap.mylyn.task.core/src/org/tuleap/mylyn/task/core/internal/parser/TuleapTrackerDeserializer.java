@@ -300,6 +300,13 @@ public class TuleapTrackerDeserializer implements JsonDeserializer<TuleapTracker
 		int fieldId = field.get(FIELD_ID).getAsInt();
 		String fieldType = field.get(TYPE).getAsString();
 		AbstractTuleapField tuleapField = createField(fieldId, fieldType);
+		if (ITuleapTrackerConstants.TYPE_LAST_UPDATED_ON.equals(fieldType)) {
+			// Not displayed in the editor, but used to query the recently modified artifacts
+			tracker.setLastUpdateDateFieldName(field.get("name").getAsString()); //$NON-NLS-1$
+		} else if (ITuleapTrackerConstants.TYPE_AID.equals(fieldType)) {
+			// Not displayed in the editor, but used to query artifacts by identifier
+			tracker.setArtifactIdFieldName(field.get("name").getAsString()); //$NON-NLS-1$
+		}
 		if (tuleapField != null) {
 			// the field label
 			tuleapField.setLabel(field.get(LABEL).getAsString());
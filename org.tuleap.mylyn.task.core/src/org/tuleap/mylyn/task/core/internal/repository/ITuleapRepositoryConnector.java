@@ -41,6 +41,15 @@ public interface ITuleapRepositoryConnector {
 	 */
 	TuleapServer getServer(TaskRepository taskRepository);
 
+	/**
+	 * Provides the cache of artifact comments of the given repository.
+	 *
+	 * @param taskRepository
+	 *            the repository
+	 * @return The cache of comments of the given repository.
+	 */
+	TuleapCommentsCache getCommentsCache(TaskRepository taskRepository);
+
 	/**
 	 * Returns a refreshed version of the given tracker. This operation will communicate with the server. The
 	 * server will be modified to contain the refreshed version of the tracker.
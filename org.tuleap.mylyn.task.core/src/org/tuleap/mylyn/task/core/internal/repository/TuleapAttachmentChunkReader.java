@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+
+/**
+ * Reads the chunks of a file to upload, one chunk per call. Two buffers are used alternately for all the
+ * chunks, so that the next chunk can be read in another thread while the previous one is uploaded, but a
+ * chunk must have been uploaded before the chunk after the next one is read.
+ */
+public class TuleapAttachmentChunkReader implements Callable<ByteBuffer> {
+
+	/**
+	 * The stream of the file to upload.
+	 */
+	private final InputStream in;
+
+	/**
+	 * The buffers used alternately to read the chunks.
+	 */
+	private final byte[][] buffers;
+
+	/**
+	 * The index of the buffer of the next chunk.
+	 */
+	private int next;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            The stream of the file to upload
+	 * @param chunkSize
+	 *            The number of bytes of a chunk
+	 */
+	public TuleapAttachmentChunkReader(InputStream in, int chunkSize) {
+		this.in = in;
+		this.buffers = new byte[][] {new byte[chunkSize], new byte[chunkSize] };
+	}
+
+	/**
+	 * Reads the next chunk, which is full unless it is the last one.
+	 *
+	 * @return The bytes of the next chunk, wrapping one of the buffers, or <code>null</code> at the end of
+	 *         the file.
+	 * @throws IOException
+	 *             If the file cannot be read.
+	 * @see java.util.concurrent.Callable#call()
+	 */
+	@Override
+	public ByteBuffer call() throws IOException {
+		byte[] buffer = buffers[next];
+		int length = 0;
+		while (length < buffer.length) {
+			int read = in.read(buffer, length, buffer.length - length);
+			if (read == -1) {
+				break;
+			}
+			length += read;
+		}
+		if (length == 0) {
+			return null;
+		}
+		next = 1 - next;
+		return ByteBuffer.wrap(buffer, 0, length);
+	}
+}
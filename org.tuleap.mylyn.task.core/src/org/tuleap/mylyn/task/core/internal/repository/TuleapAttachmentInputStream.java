@@ -10,22 +10,46 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.repository;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import org.apache.commons.codec.binary.Base64;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+import org.tuleap.mylyn.task.core.internal.util.TuleapThreadFactory;
 
 /**
  * An input stream that iterates over file chunks to manage large files without consuming too much memory.
+ * Several chunks can be downloaded and decoded in the background while the current one is read, the number
+ * of chunks kept in memory being bounded by the number of threads.
  *
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
 public class TuleapAttachmentInputStream extends InputStream {
+	/**
+	 * Delay in milliseconds between two checks of the progress monitor while waiting for a chunk.
+	 */
+	private static final long POLL_DELAY = 100L;
+
 	/**
 	 * The size of the file to download.
 	 */
@@ -52,12 +76,32 @@ public class TuleapAttachmentInputStream extends InputStream {
 	private final int attachmentId;
 
 	/**
-	 * The bytes received.
+	 * The maximum number of chunks downloaded at the same time.
+	 */
+	private final int maxThreads;
+
+	/**
+	 * The executor of the background downloads, created on first use.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * The chunks downloaded in the background and not read yet, by offset in the file.
+	 */
+	private Map<Integer, Future<byte[]>> prefetchedChunks = new HashMap<Integer, Future<byte[]>>();
+
+	/**
+	 * The bytes of the current chunk.
 	 */
 	private byte[] bytes;
 
 	/**
-	 * The current index.
+	 * The offset in the file of the first byte of the current chunk.
+	 */
+	private int chunkOffset;
+
+	/**
+	 * The offset in the file of the next byte to read.
 	 */
 	private int index;
 
@@ -77,12 +121,56 @@ public class TuleapAttachmentInputStream extends InputStream {
 	 */
 	public TuleapAttachmentInputStream(int size, int attachmentId, int chunkSize, TuleapRestClient client,
 			IProgressMonitor monitor) {
+		this(size, attachmentId, chunkSize, client, monitor, 1);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param size
+	 *            the size of the file to download
+	 * @param attachmentId
+	 *            The id of the attachment to download
+	 * @param chunkSize
+	 *            The chunk size to use
+	 * @param client
+	 *            The client to use
+	 * @param monitor
+	 *            The progress monitor, can be null
+	 * @param maxThreads
+	 *            The maximum number of chunks downloaded at the same time. The chunks are downloaded one at a
+	 *            time in the reading thread if it is lower than 2.
+	 */
+	public TuleapAttachmentInputStream(int size, int attachmentId, int chunkSize, TuleapRestClient client,
+			IProgressMonitor monitor, int maxThreads) {
 		this.size = size;
 		this.monitor = monitor;
 		this.client = client;
 		this.attachmentId = attachmentId;
 		index = 0;
 		this.chunkSize = chunkSize;
+		this.maxThreads = maxThreads;
+	}
+
+	/**
+	 * Provides the number of chunks of an attachment of the given repository to download at the same time,
+	 * as configured in the task repository properties.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The number of threads to use.
+	 */
+	public static int getMaxThreads(TaskRepository taskRepository) {
+		int threads = ITuleapConstants.DEFAULT_ATTACHMENT_DOWNLOAD_THREADS;
+		String property = taskRepository.getProperty(ITuleapConstants.PROPERTY_ATTACHMENT_DOWNLOAD_THREADS);
+		if (property != null) {
+			try {
+				threads = Integer.parseInt(property.trim());
+			} catch (NumberFormatException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		return threads;
 	}
 
 	/**
@@ -93,10 +181,7 @@ public class TuleapAttachmentInputStream extends InputStream {
 	@Override
 	public int read() throws IOException {
 		if (index < size) {
-			int arrIndex = index % chunkSize;
-			if (arrIndex == 0) {
-				readNextChunk(index);
-			}
+			int arrIndex = getChunkIndex();
 			index++;
 			// CHECKSTYLE:OFF Useless constant 0xff
 			return bytes[arrIndex] & 0xff;
@@ -106,48 +191,236 @@ public class TuleapAttachmentInputStream extends InputStream {
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Reads the bytes of the current chunk, downloading it if needed. Never reads past the end of the
+	 * current chunk, so that a chunk is only downloaded when the caller needs its bytes.
+	 *
+	 * @param b
+	 *            The buffer into which the data is read
+	 * @param off
+	 *            The start offset in the buffer
+	 * @param len
+	 *            The maximum number of bytes to read
+	 * @return The number of bytes read, or <code>-1</code> if the end of the file has been reached.
+	 * @throws IOException
+	 *             If an error occurs while downloading the file chunks.
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (index >= size) {
+			return -1; // Finished
+		}
+		int arrIndex = getChunkIndex();
+		int count = Math.min(len, Math.min(bytes.length - arrIndex, size - index));
+		System.arraycopy(bytes, arrIndex, b, off, count);
+		index += count;
+		return count;
+	}
+
+	/**
+	 * Skips bytes without downloading them. The next chunk is downloaded from the new offset.
+	 *
+	 * @param n
+	 *            The number of bytes to skip
+	 * @return The number of bytes skipped.
+	 * @see java.io.InputStream#skip(long)
+	 */
+	@Override
+	public long skip(long n) {
+		if (n <= 0) {
+			return 0;
+		}
+		int skipped = (int)Math.min(n, size - index);
+		index += skipped;
+		return skipped;
+	}
+
+	/**
+	 * Provides the number of bytes of the current chunk that have not been read yet, which can be read
+	 * without downloading anything.
 	 *
+	 * @return The number of bytes that can be read without blocking.
 	 * @see java.io.InputStream#available()
 	 */
 	@Override
-	public int available() throws IOException {
-		if (bytes != null) {
-			int arrIndex = index % chunkSize;
-			if (arrIndex > 0) {
-				return bytes.length - arrIndex;
-			}
+	public int available() {
+		if (bytes != null && index >= chunkOffset && index < chunkOffset + bytes.length) {
+			return Math.min(chunkOffset + bytes.length, size) - index;
 		}
 		return 0;
 	}
 
 	/**
-	 * Reads the next chunk for the file to download.
+	 * Provides the index in the current chunk of the next byte to read, after downloading the chunk starting
+	 * at this byte if the current chunk does not contain it.
+	 *
+	 * @return The index in {@link #bytes} of the next byte to read.
+	 * @throws IOException
+	 *             If an error occurs while downloading the file chunks.
+	 */
+	private int getChunkIndex() throws IOException {
+		if (bytes == null || index < chunkOffset || index >= chunkOffset + bytes.length) {
+			if (monitor != null) {
+				monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.downloadingAttachment, Integer
+						.toString(index), Integer.toString(size)));
+			}
+			if (maxThreads < 2) {
+				bytes = readChunk(index, monitor);
+			} else {
+				bytes = readPrefetchedChunk(index);
+			}
+			if (bytes.length == 0) {
+				throw new EOFException();
+			}
+			chunkOffset = index;
+		}
+		return index - chunkOffset;
+	}
+
+	/**
+	 * Provides the chunk starting at the given offset, downloaded in the background, and starts the download
+	 * of the chunks that follow it. Chunks downloaded for offsets that have been skipped are dropped.
+	 *
+	 * @param offset
+	 *            The offset of the chunk in the file
+	 * @return The decoded bytes of the chunk.
+	 * @throws IOException
+	 *             If an error occurs while downloading the chunk.
+	 */
+	private byte[] readPrefetchedChunk(int offset) throws IOException {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(maxThreads, new TuleapThreadFactory(
+					"Tuleap attachment download")); //$NON-NLS-1$
+		}
+		Map<Integer, Future<byte[]>> chunks = new HashMap<Integer, Future<byte[]>>();
+		for (int next = offset; next < size && chunks.size() < maxThreads; next += chunkSize) {
+			Integer key = Integer.valueOf(next);
+			Future<byte[]> chunk = prefetchedChunks.remove(key);
+			if (chunk == null) {
+				chunk = executor.submit(new ChunkDownload(next));
+			}
+			chunks.put(key, chunk);
+		}
+		for (Future<byte[]> dropped : prefetchedChunks.values()) {
+			dropped.cancel(true);
+		}
+		prefetchedChunks = chunks;
+		return waitFor(prefetchedChunks.remove(Integer.valueOf(offset)));
+	}
+
+	/**
+	 * Waits for the download of a chunk, checking the progress monitor regularly.
+	 *
+	 * @param chunk
+	 *            The download of the chunk
+	 * @return The decoded bytes of the chunk.
+	 * @throws IOException
+	 *             If an error occurs while downloading the chunk.
+	 */
+	private byte[] waitFor(Future<byte[]> chunk) throws IOException {
+		try {
+			while (true) {
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				try {
+					return chunk.get(POLL_DELAY, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// Check the monitor again
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Stops the downloads in progress.
+	 *
+	 * @throws IOException
+	 *             Never.
+	 * @see java.io.InputStream#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+		prefetchedChunks.clear();
+		super.close();
+	}
+
+	/**
+	 * Downloads the chunk starting at the given offset.
 	 *
 	 * @param offset
 	 *            the offset of the chunk to load
-	 * @return the supposed size of data you'll get after decoding the base64-encoded downloaded data.
+	 * @param progressMonitor
+	 *            The progress monitor, can be null
+	 * @return the decoded bytes of the chunk.
 	 * @throws IOException
 	 *             If an error occurs while downloading the file chunks.
 	 */
-	private int readNextChunk(int offset) throws IOException {
+	private byte[] readChunk(int offset, IProgressMonitor progressMonitor) throws IOException {
 		int sizeToDownload = chunkSize;
 		if (offset + sizeToDownload > size) {
 			sizeToDownload = size - offset;
 		}
 		try {
-			if (monitor != null) {
-				monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.downloadingAttachment, Integer
-						.toString(offset), Integer.toString(size)));
+			// Each chunk is decoded while it is received
+			byte[] chunk = new byte[sizeToDownload];
+			int length = client.getArtifactFileContent(attachmentId, offset, chunk, progressMonitor);
+			if (length < chunk.length) {
+				return Arrays.copyOf(chunk, length);
 			}
-			String chunkBase64 = client.getArtifactFile(attachmentId, offset, sizeToDownload, monitor)
-					.getData();
-			// Each chunk must be decoded one after the other, you cannot concatenate the strings and
-			// decode after because concatenated base64 strings don't result in a valid base64 string
-			bytes = Base64.decodeBase64(chunkBase64);
+			return chunk;
 		} catch (CoreException e) {
 			throw new IOException(e);
 		}
-		return sizeToDownload;
+	}
+
+	/**
+	 * Task that downloads and decodes a chunk in the background. The progress monitor is not shared with the
+	 * worker threads since it is not thread-safe.
+	 */
+	private final class ChunkDownload implements Callable<byte[]> {
+
+		/**
+		 * The offset of the chunk in the file.
+		 */
+		private final int offset;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param offset
+		 *            The offset of the chunk in the file
+		 */
+		private ChunkDownload(int offset) {
+			this.offset = offset;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public byte[] call() throws IOException {
+			return readChunk(offset, new NullProgressMonitor());
+		}
 	}
 }
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
+
+/**
+ * In-memory cache of the comments of the artifacts of a repository, used to avoid retrieving the changesets
+ * of artifacts that have not been modified since the last synchronization. This class is thread-safe.
+ */
+public class TuleapCommentsCache {
+
+	/**
+	 * The cached entries, by artifact id.
+	 */
+	private final ConcurrentMap<Integer, Entry> entriesByArtifactId = new ConcurrentHashMap<Integer, Entry>();
+
+	/**
+	 * Provides the cached comments of the given artifact if they are up-to-date.
+	 *
+	 * @param artifactId
+	 *            The artifact id
+	 * @param lastModifiedDate
+	 *            The last modification date of the artifact on the server
+	 * @return The cached comments of the artifact, or <code>null</code> if they are not in the cache or if
+	 *         the artifact has been modified since they have been cached.
+	 */
+	public List<TuleapElementComment> get(int artifactId, Date lastModifiedDate) {
+		if (lastModifiedDate == null) {
+			return null;
+		}
+		Entry entry = entriesByArtifactId.get(Integer.valueOf(artifactId));
+		if (entry != null && entry.lastModifiedDate == lastModifiedDate.getTime()) {
+			return entry.comments;
+		}
+		return null;
+	}
+
+	/**
+	 * Caches the comments of the given artifact.
+	 *
+	 * @param artifactId
+	 *            The artifact id
+	 * @param lastModifiedDate
+	 *            The last modification date of the artifact on the server, nothing is cached if
+	 *            <code>null</code>.
+	 * @param comments
+	 *            The comments of the artifact
+	 */
+	public void put(int artifactId, Date lastModifiedDate, List<TuleapElementComment> comments) {
+		if (lastModifiedDate == null) {
+			entriesByArtifactId.remove(Integer.valueOf(artifactId));
+		} else {
+			entriesByArtifactId.put(Integer.valueOf(artifactId), new Entry(lastModifiedDate.getTime(),
+					comments));
+		}
+	}
+
+	/**
+	 * Removes all the cached comments.
+	 */
+	public void clear() {
+		entriesByArtifactId.clear();
+	}
+
+	/**
+	 * The comments of an artifact, along with the last modification date of the artifact they correspond to.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The last modification date of the artifact, in milliseconds.
+		 */
+		private final long lastModifiedDate;
+
+		/**
+		 * The unmodifiable list of comments.
+		 */
+		private final List<TuleapElementComment> comments;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param lastModifiedDate
+		 *            The last modification date of the artifact, in milliseconds
+		 * @param comments
+		 *            The comments of the artifact
+		 */
+		private Entry(long lastModifiedDate, List<TuleapElementComment> comments) {
+			this.lastModifiedDate = lastModifiedDate;
+			this.comments = Collections.unmodifiableList(new ArrayList<TuleapElementComment>(comments));
+		}
+	}
+}
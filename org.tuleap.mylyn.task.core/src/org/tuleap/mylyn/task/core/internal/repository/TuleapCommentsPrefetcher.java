@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+import org.tuleap.mylyn.task.core.internal.util.TuleapThreadFactory;
+
+/**
+ * Retrieves the comments of a list of artifacts concurrently, with a bounded number of threads. The comments
+ * of artifacts that have not been modified since they were last retrieved are taken from a
+ * {@link TuleapCommentsCache} instead of being retrieved from the server.
+ */
+public class TuleapCommentsPrefetcher {
+
+	/**
+	 * Delay in milliseconds between two checks of the progress monitor while waiting for comments.
+	 */
+	private static final long POLL_DELAY = 100L;
+
+	/**
+	 * The client used to retrieve comments.
+	 */
+	private final TuleapRestClient client;
+
+	/**
+	 * The server, used to resolve the comments submitters.
+	 */
+	private final TuleapServer server;
+
+	/**
+	 * The cache of comments, can be <code>null</code>.
+	 */
+	private final TuleapCommentsCache cache;
+
+	/**
+	 * The maximum number of threads to use.
+	 */
+	private final int maxThreads;
+
+	/**
+	 * Callback notified each time the comments of an artifact are available.
+	 */
+	public interface IArtifactHandler {
+		/**
+		 * Handles an artifact whose comments have been added. This is always called in the thread that
+		 * invoked {@link TuleapCommentsPrefetcher#prefetch(List, IArtifactHandler, IProgressMonitor)}.
+		 *
+		 * @param artifact
+		 *            The artifact, with its comments.
+		 */
+		void handle(TuleapArtifact artifact);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param client
+	 *            The client used to retrieve comments
+	 * @param server
+	 *            The server, used to resolve the comments submitters
+	 * @param cache
+	 *            The cache of comments, can be <code>null</code>
+	 * @param maxThreads
+	 *            The maximum number of threads to use, comments are retrieved in the calling thread if this
+	 *            number is lower than 2.
+	 */
+	public TuleapCommentsPrefetcher(TuleapRestClient client, TuleapServer server, TuleapCommentsCache cache,
+			int maxThreads) {
+		this.client = client;
+		this.server = server;
+		this.cache = cache;
+		this.maxThreads = maxThreads;
+	}
+
+	/**
+	 * Provides the number of threads to use to retrieve the comments of artifacts from the given repository,
+	 * as configured in the task repository properties.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The number of threads to use.
+	 */
+	public static int getMaxThreads(TaskRepository taskRepository) {
+		int threads = ITuleapConstants.DEFAULT_COMMENTS_PREFETCH_THREADS;
+		String property = taskRepository.getProperty(ITuleapConstants.PROPERTY_COMMENTS_PREFETCH_THREADS);
+		if (property != null) {
+			try {
+				threads = Integer.parseInt(property.trim());
+			} catch (NumberFormatException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		return threads;
+	}
+
+	/**
+	 * Adds their comments to the given artifacts, and passes each artifact to the given handler as soon as
+	 * its comments are available. Artifacts whose comments are cached are handled first, the others are
+	 * handled in the order in which their comments are received. An artifact whose comments cannot be
+	 * retrieved is handled without comments, and the error is logged.
+	 *
+	 * @param artifacts
+	 *            The artifacts
+	 * @param handler
+	 *            The handler to notify
+	 * @param monitor
+	 *            The progress monitor, the prefetch stops as soon as it is canceled
+	 */
+	public void prefetch(List<TuleapArtifact> artifacts, IArtifactHandler handler, IProgressMonitor monitor) {
+		List<TuleapArtifact> toRetrieve = new ArrayList<TuleapArtifact>();
+		for (TuleapArtifact artifact : artifacts) {
+			if (isCanceled(monitor)) {
+				return;
+			}
+			List<TuleapElementComment> cachedComments = null;
+			if (cache != null) {
+				cachedComments = cache.get(artifact.getId().intValue(), artifact.getLastModifiedDate());
+			}
+			if (cachedComments == null) {
+				toRetrieve.add(artifact);
+			} else {
+				addComments(artifact, cachedComments);
+				handler.handle(artifact);
+			}
+		}
+		if (maxThreads < 2 || toRetrieve.size() < 2) {
+			for (TuleapArtifact artifact : toRetrieve) {
+				if (isCanceled(monitor)) {
+					return;
+				}
+				handleRetrieval(new CommentsRetrieval(artifact).call(), handler);
+			}
+		} else {
+			retrieveConcurrently(toRetrieve, handler, monitor);
+		}
+	}
+
+	/**
+	 * Retrieves the comments of the given artifacts with a bounded pool of threads.
+	 *
+	 * @param toRetrieve
+	 *            The artifacts whose comments must be retrieved
+	 * @param handler
+	 *            The handler to notify
+	 * @param monitor
+	 *            The progress monitor
+	 */
+	private void retrieveConcurrently(List<TuleapArtifact> toRetrieve, IArtifactHandler handler,
+			IProgressMonitor monitor) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxThreads, toRetrieve.size()),
+				new TuleapThreadFactory("Tuleap comments retrieval")); //$NON-NLS-1$
+		try {
+			CompletionService<CommentsRetrieval> completionService;
+			completionService = new ExecutorCompletionService<CommentsRetrieval>(executor);
+			for (TuleapArtifact artifact : toRetrieve) {
+				completionService.submit(new CommentsRetrieval(artifact));
+			}
+			int remaining = toRetrieve.size();
+			while (remaining > 0) {
+				if (isCanceled(monitor)) {
+					return;
+				}
+				Future<CommentsRetrieval> future = completionService.poll(POLL_DELAY, TimeUnit.MILLISECONDS);
+				if (future != null) {
+					remaining--;
+					handleRetrieval(future.get(), handler);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// Cannot happen, CommentsRetrieval.call() catches the exceptions
+			TuleapCoreActivator.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
+					TuleapCoreMessages.getString(TuleapCoreKeys.commentsRetrievalFailed), e.getCause()));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Adds the retrieved comments to the artifact, caches them and notifies the handler. Must be called in
+	 * the thread that invoked {@link #prefetch(List, IArtifactHandler, IProgressMonitor)}.
+	 *
+	 * @param retrieval
+	 *            The completed retrieval
+	 * @param handler
+	 *            The handler to notify
+	 */
+	private void handleRetrieval(CommentsRetrieval retrieval, IArtifactHandler handler) {
+		TuleapArtifact artifact = retrieval.artifact;
+		if (retrieval.error == null) {
+			addComments(artifact, retrieval.comments);
+			if (cache != null) {
+				cache.put(artifact.getId().intValue(), artifact.getLastModifiedDate(), retrieval.comments);
+			}
+		} else {
+			TuleapCoreActivator.log(retrieval.error, true);
+		}
+		handler.handle(artifact);
+	}
+
+	/**
+	 * Adds the given comments to the given artifact.
+	 *
+	 * @param artifact
+	 *            The artifact
+	 * @param comments
+	 *            The comments
+	 */
+	private void addComments(TuleapArtifact artifact, List<TuleapElementComment> comments) {
+		for (TuleapElementComment comment : comments) {
+			artifact.addComment(comment);
+		}
+	}
+
+	/**
+	 * Checks whether the monitor is canceled.
+	 *
+	 * @param monitor
+	 *            The monitor, can be <code>null</code>
+	 * @return <code>true</code> if and only if the monitor is not null and canceled.
+	 */
+	private boolean isCanceled(IProgressMonitor monitor) {
+		return monitor != null && monitor.isCanceled();
+	}
+
+	/**
+	 * Task that retrieves the comments of one artifact. The progress monitor is not shared with the worker
+	 * threads since it is not thread-safe.
+	 */
+	private final class CommentsRetrieval implements Callable<CommentsRetrieval> {
+
+		/**
+		 * The artifact.
+		 */
+		private final TuleapArtifact artifact;
+
+		/**
+		 * The retrieved comments.
+		 */
+		private List<TuleapElementComment> comments;
+
+		/**
+		 * The error that occurred during the retrieval, if any.
+		 */
+		private Exception error;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param artifact
+		 *            The artifact whose comments must be retrieved
+		 */
+		private CommentsRetrieval(TuleapArtifact artifact) {
+			this.artifact = artifact;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public CommentsRetrieval call() {
+			try {
+				comments = client.getArtifactComments(artifact.getId().intValue(), server,
+						new NullProgressMonitor());
+			} catch (CoreException e) {
+				error = e;
+			} catch (RuntimeException e) {
+				error = e;
+			}
+			return this;
+		}
+	}
+}
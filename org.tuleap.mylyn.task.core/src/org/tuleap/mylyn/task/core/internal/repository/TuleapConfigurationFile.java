@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.util.TuleapThreadFactory;
+
+/**
+ * The file of the repository configuration cache. The file is never written in place: the servers are
+ * written to a temporary file which then replaces the file, so that the cache cannot be left half written if
+ * the workbench is killed. The saves are done in the background shortly after the configuration changes,
+ * several changes being saved at once, and only the projects that have changed are encoded again. This
+ * class is thread-safe.
+ */
+public class TuleapConfigurationFile {
+
+	/**
+	 * Default delay in milliseconds between a change of the configuration and its save.
+	 */
+	public static final long DEFAULT_SAVE_DELAY = 2000L;
+
+	/**
+	 * Suffix of the temporary file.
+	 */
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+	/**
+	 * The file.
+	 */
+	private final File file;
+
+	/**
+	 * The temporary file written before replacing the file.
+	 */
+	private final File temporaryFile;
+
+	/**
+	 * The writer, which keeps the projects encoded by the previous save.
+	 */
+	private final TuleapConfigurationWriter writer = new TuleapConfigurationWriter();
+
+	/**
+	 * The executor of the background saves.
+	 */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * Indicates that a background save is scheduled and has not started yet.
+	 */
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+	/**
+	 * The delay in milliseconds between a change of the configuration and its save.
+	 */
+	private final long saveDelay;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The file
+	 * @param saveDelay
+	 *            The delay in milliseconds between a change of the configuration and its save
+	 */
+	public TuleapConfigurationFile(File file, long saveDelay) {
+		this.file = file;
+		this.temporaryFile = new File(file.getPath() + TEMPORARY_FILE_SUFFIX);
+		this.saveDelay = saveDelay;
+		executor = new ScheduledThreadPoolExecutor(1, new TuleapThreadFactory(
+				"Tuleap configuration writer")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Provides the file.
+	 *
+	 * @return The file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Reads the servers of the file. If the workbench was killed while the file was being replaced, the
+	 * temporary file is read instead.
+	 *
+	 * @return The servers read, empty if there is no file.
+	 * @throws IOException
+	 *             If the file cannot be read.
+	 */
+	public synchronized List<TuleapServer> read() throws IOException {
+		if (!file.exists() && temporaryFile.exists() && !temporaryFile.renameTo(file)) {
+			throw new IOException("Cannot rename " + temporaryFile); //$NON-NLS-1$
+		}
+		if (!file.exists()) {
+			return Collections.emptyList();
+		}
+		BufferedInputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			return TuleapConfigurationReader.read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Deletes the file and its temporary file.
+	 */
+	public synchronized void delete() {
+		if (file.exists()) {
+			file.delete();
+		}
+		if (temporaryFile.exists()) {
+			temporaryFile.delete();
+		}
+	}
+
+	/**
+	 * Indicates that the given project has changed and must be encoded again by the next save.
+	 *
+	 * @param project
+	 *            The project
+	 */
+	public void markDirty(TuleapProject project) {
+		writer.markDirty(project);
+	}
+
+	/**
+	 * Writes the given servers to the temporary file, then replaces the file with it once its content has
+	 * reached the disk, so that a crash cannot leave a truncated file in place of the previous one.
+	 *
+	 * @param servers
+	 *            The servers to write
+	 * @throws IOException
+	 *             If the servers cannot be written.
+	 */
+	public synchronized void save(Collection<TuleapServer> servers) throws IOException {
+		FileOutputStream fileOut = new FileOutputStream(temporaryFile);
+		try {
+			OutputStream out = new BufferedOutputStream(fileOut);
+			writer.write(out, servers);
+			out.flush();
+			fileOut.getFD().sync();
+		} finally {
+			fileOut.close();
+		}
+		// On some platforms, a file cannot be renamed over an existing one
+		if (!temporaryFile.renameTo(file) && !(file.delete() && temporaryFile.renameTo(file))) {
+			throw new IOException("Cannot rename " + temporaryFile); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Schedules a save in the background, unless one is already scheduled. The servers are provided when the
+	 * save starts, so that all the changes made in the meantime are saved at once.
+	 *
+	 * @param servers
+	 *            Provides the servers to write
+	 */
+	public void scheduleSave(final Callable<Collection<TuleapServer>> servers) {
+		if (executor.isShutdown() || !saveScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		executor.schedule(new Runnable() {
+			@Override
+			public void run() {
+				saveScheduled.set(false);
+				try {
+					save(servers.call());
+					// CHECKSTYLE:OFF (All exceptions are treated equally since we can't do anything about
+					// them)
+				} catch (Exception e) {
+					// CHECKSTYLE:ON
+					TuleapCoreActivator.log(e, false);
+				}
+			}
+		}, saveDelay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the background saves. The saves already scheduled are dropped, the caller being expected to
+	 * save the configuration a last time.
+	 */
+	public void dispose() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+/**
+ * Constants of the binary format of the repository configuration cache file.
+ * <p>
+ * The file starts with a header made of {@link #MAGIC} and the version of the format. Then, for each server,
+ * comes a section holding the server, its users and the table of contents of its projects, followed by one
+ * section per project. The table of contents gives the id, the length and the tracker ids of each project,
+ * so that the projects can be decoded only when they are first accessed. Each section holds its own table of
+ * strings so that it can be decoded independently of the others.
+ * </p>
+ * <p>
+ * In the version 1 of the format, there is no table of contents: the server section is followed by the
+ * number of projects and the project sections, each preceded by its length.
+ * </p>
+ */
+public final class TuleapConfigurationFormat {
+
+	/**
+	 * The first bytes of the file, "TLPC".
+	 */
+	public static final int MAGIC = 0x544C5043;
+
+	/**
+	 * The version of the format written.
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * The version of the format without table of contents, where all the projects are read at once.
+	 */
+	static final int VERSION_EAGER = 1;
+
+	/**
+	 * The first bytes of a file written by Java serialization, used by the previous versions.
+	 */
+	public static final int LEGACY_MAGIC = 0xACED;
+
+	/**
+	 * Kind of a string field.
+	 */
+	static final int FIELD_STRING = 1;
+
+	/**
+	 * Kind of a text field.
+	 */
+	static final int FIELD_TEXT = 2;
+
+	/**
+	 * Kind of an integer field.
+	 */
+	static final int FIELD_INTEGER = 3;
+
+	/**
+	 * Kind of a float field.
+	 */
+	static final int FIELD_FLOAT = 4;
+
+	/**
+	 * Kind of a date field.
+	 */
+	static final int FIELD_DATE = 5;
+
+	/**
+	 * Kind of a computed value field.
+	 */
+	static final int FIELD_COMPUTED_VALUE = 6;
+
+	/**
+	 * Kind of a file upload field.
+	 */
+	static final int FIELD_FILE_UPLOAD = 7;
+
+	/**
+	 * Kind of an artifact link field.
+	 */
+	static final int FIELD_ARTIFACT_LINK = 8;
+
+	/**
+	 * Kind of an open list field.
+	 */
+	static final int FIELD_OPEN_LIST = 9;
+
+	/**
+	 * Kind of a select box field.
+	 */
+	static final int FIELD_SELECT_BOX = 10;
+
+	/**
+	 * Kind of a multi select box field.
+	 */
+	static final int FIELD_MULTI_SELECT_BOX = 11;
+
+	/**
+	 * Flag of a readable form element.
+	 */
+	static final int PERMISSION_READ = 1;
+
+	/**
+	 * Flag of a submitable form element.
+	 */
+	static final int PERMISSION_SUBMIT = 2;
+
+	/**
+	 * Flag of an updatable form element.
+	 */
+	static final int PERMISSION_UPDATE = 4;
+
+	/**
+	 * The constructor.
+	 */
+	private TuleapConfigurationFormat() {
+		// prevent instantiation
+	}
+}
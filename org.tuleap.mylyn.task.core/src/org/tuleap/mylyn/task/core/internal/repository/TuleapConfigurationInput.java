@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import com.google.common.base.Charsets;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes a section of the repository configuration cache file written by a
+ * {@link TuleapConfigurationOutput}.
+ */
+class TuleapConfigurationInput {
+
+	/**
+	 * The stream used to decode the values.
+	 */
+	private final DataInputStream in;
+
+	/**
+	 * The strings already read, by index.
+	 */
+	private final List<String> strings = new ArrayList<String>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param section
+	 *            The bytes of the section
+	 */
+	public TuleapConfigurationInput(byte[] section) {
+		in = new DataInputStream(new ByteArrayInputStream(section));
+	}
+
+	/**
+	 * Reads the next section of the given stream.
+	 *
+	 * @param source
+	 *            The stream of the file
+	 * @return The section.
+	 * @throws IOException
+	 *             If the section cannot be read.
+	 */
+	public static TuleapConfigurationInput readFrom(DataInputStream source) throws IOException {
+		int length = source.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid section length " + length); //$NON-NLS-1$
+		}
+		byte[] section = new byte[length];
+		source.readFully(section);
+		return new TuleapConfigurationInput(section);
+	}
+
+	/**
+	 * Reads an integer written by {@link TuleapConfigurationOutput#writeInt(int)}.
+	 *
+	 * @return The value.
+	 * @throws IOException
+	 *             If the value cannot be read.
+	 */
+	public int readInt() throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			if (shift > 28) {
+				throw new IOException("Malformed integer"); //$NON-NLS-1$
+			}
+			b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Reads a long.
+	 *
+	 * @return The value.
+	 * @throws IOException
+	 *             If the value cannot be read.
+	 */
+	public long readLong() throws IOException {
+		return in.readLong();
+	}
+
+	/**
+	 * Reads a boolean.
+	 *
+	 * @return The value.
+	 * @throws IOException
+	 *             If the value cannot be read.
+	 */
+	public boolean readBoolean() throws IOException {
+		return in.readBoolean();
+	}
+
+	/**
+	 * Reads a string written by {@link TuleapConfigurationOutput#writeString(String)}.
+	 *
+	 * @return The string, can be <code>null</code>.
+	 * @throws IOException
+	 *             If the string cannot be read.
+	 */
+	public String readString() throws IOException {
+		int code = readInt();
+		if (code == TuleapConfigurationOutput.NULL_STRING) {
+			return null;
+		}
+		if (code == TuleapConfigurationOutput.NEW_STRING) {
+			byte[] utf8 = new byte[readInt()];
+			in.readFully(utf8);
+			String value = new String(utf8, Charsets.UTF_8);
+			strings.add(value);
+			return value;
+		}
+		int index = code - TuleapConfigurationOutput.STRING_INDEX_OFFSET;
+		if (index >= strings.size()) {
+			throw new IOException("Invalid string index " + index); //$NON-NLS-1$
+		}
+		return strings.get(index);
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import com.google.common.base.Charsets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes a section of the repository configuration cache file. Integers are written with a variable
+ * length, and each string is written once, the following occurrences being replaced by its index in the
+ * section.
+ */
+class TuleapConfigurationOutput {
+
+	/**
+	 * Code of the <code>null</code> string.
+	 */
+	static final int NULL_STRING = 0;
+
+	/**
+	 * Code of a string written for the first time in the section.
+	 */
+	static final int NEW_STRING = 1;
+
+	/**
+	 * Offset of the index of a string already written in the section.
+	 */
+	static final int STRING_INDEX_OFFSET = 2;
+
+	/**
+	 * The encoded bytes.
+	 */
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+	/**
+	 * The stream used to encode the values.
+	 */
+	private final DataOutputStream out = new DataOutputStream(bytes);
+
+	/**
+	 * The index of the strings already written.
+	 */
+	private final Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+
+	/**
+	 * Writes an integer on 1 to 5 bytes, small positive values being the shortest.
+	 *
+	 * @param value
+	 *            The value
+	 * @throws IOException
+	 *             If the value cannot be written.
+	 */
+	public void writeInt(int value) throws IOException {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			out.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		out.writeByte(remaining);
+	}
+
+	/**
+	 * Writes a long on 8 bytes.
+	 *
+	 * @param value
+	 *            The value
+	 * @throws IOException
+	 *             If the value cannot be written.
+	 */
+	public void writeLong(long value) throws IOException {
+		out.writeLong(value);
+	}
+
+	/**
+	 * Writes a boolean on one byte.
+	 *
+	 * @param value
+	 *            The value
+	 * @throws IOException
+	 *             If the value cannot be written.
+	 */
+	public void writeBoolean(boolean value) throws IOException {
+		out.writeBoolean(value);
+	}
+
+	/**
+	 * Writes a string, or its index if it has already been written in the section.
+	 *
+	 * @param value
+	 *            The string, can be <code>null</code>
+	 * @throws IOException
+	 *             If the string cannot be written.
+	 */
+	public void writeString(String value) throws IOException {
+		if (value == null) {
+			writeInt(NULL_STRING);
+			return;
+		}
+		Integer index = stringIndexes.get(value);
+		if (index != null) {
+			writeInt(index.intValue() + STRING_INDEX_OFFSET);
+		} else {
+			stringIndexes.put(value, Integer.valueOf(stringIndexes.size()));
+			byte[] utf8 = value.getBytes(Charsets.UTF_8);
+			writeInt(NEW_STRING);
+			writeInt(utf8.length);
+			out.write(utf8);
+		}
+	}
+
+	/**
+	 * Provides the bytes of the section.
+	 *
+	 * @return The bytes written so far.
+	 * @throws IOException
+	 *             If the section cannot be flushed.
+	 */
+	public byte[] toByteArray() throws IOException {
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes the section, preceded by its length, to the given stream.
+	 *
+	 * @param target
+	 *            The stream of the file
+	 * @throws IOException
+	 *             If the section cannot be written.
+	 */
+	public void writeTo(DataOutputStream target) throws IOException {
+		out.flush();
+		target.writeInt(bytes.size());
+		bytes.writeTo(target);
+	}
+}
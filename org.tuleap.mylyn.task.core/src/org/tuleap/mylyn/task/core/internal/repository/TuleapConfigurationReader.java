@@ -0,0 +1,485 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapField;
+import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapFormElement;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapResource;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUserGroup;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapWorkflowTransition;
+import org.tuleap.mylyn.task.core.internal.model.config.field.AbstractTuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapArtifactLink;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapComputedValue;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapDate;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFileUpload;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFloat;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapInteger;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapMultiSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapOpenList;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBoxItem;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapText;
+
+/**
+ * Reads the configuration of Tuleap servers written in the binary format described in
+ * {@link TuleapConfigurationFormat}, or by Java serialization in the previous versions. A project that cannot
+ * be decoded is skipped, the other projects are still read.
+ */
+public final class TuleapConfigurationReader {
+
+	/**
+	 * The constructor.
+	 */
+	private TuleapConfigurationReader() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Reads the servers from the given stream, which is not closed.
+	 *
+	 * @param stream
+	 *            The stream
+	 * @return The servers read.
+	 * @throws IOException
+	 *             If the file is not a configuration file, has been written by a more recent version, or
+	 *             cannot be read.
+	 */
+	public static List<TuleapServer> read(InputStream stream) throws IOException {
+		BufferedInputStream buffered = new BufferedInputStream(stream);
+		buffered.mark(2);
+		int legacyMagic = buffered.read() << 8 | buffered.read();
+		buffered.reset();
+		if (legacyMagic == TuleapConfigurationFormat.LEGACY_MAGIC) {
+			return readLegacy(buffered);
+		}
+		DataInputStream in = new DataInputStream(buffered);
+		if (in.readInt() != TuleapConfigurationFormat.MAGIC) {
+			throw new IOException("Not a Tuleap configuration file"); //$NON-NLS-1$
+		}
+		int version = in.readInt();
+		if (version < TuleapConfigurationFormat.VERSION_EAGER
+				|| version > TuleapConfigurationFormat.VERSION) {
+			throw new IOException("Unsupported Tuleap configuration file version " + version); //$NON-NLS-1$
+		}
+		int serverCount = in.readInt();
+		List<TuleapServer> servers = new ArrayList<TuleapServer>(serverCount);
+		for (int i = 0; i < serverCount; i++) {
+			if (version == TuleapConfigurationFormat.VERSION_EAGER) {
+				servers.add(readEagerServer(in));
+			} else {
+				servers.add(readServer(in));
+			}
+		}
+		return servers;
+	}
+
+	/**
+	 * Reads the servers written by Java serialization.
+	 *
+	 * @param stream
+	 *            The stream
+	 * @return The servers read.
+	 * @throws IOException
+	 *             If the servers cannot be read.
+	 */
+	private static List<TuleapServer> readLegacy(InputStream stream) throws IOException {
+		ObjectInputStream in = new ObjectInputStream(stream);
+		int size = in.readInt();
+		List<TuleapServer> servers = new ArrayList<TuleapServer>(size);
+		try {
+			for (int i = 0; i < size; i++) {
+				TuleapServer server = (TuleapServer)in.readObject();
+				if (server != null) {
+					servers.add(server);
+				}
+			}
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+		return servers;
+	}
+
+	/**
+	 * Reads a server with the table of contents of its projects. The sections of the projects are read but
+	 * decoded only when the projects are first accessed.
+	 *
+	 * @param in
+	 *            The stream of the file
+	 * @return The server.
+	 * @throws IOException
+	 *             If the server cannot be read.
+	 */
+	private static TuleapServer readServer(DataInputStream in) throws IOException {
+		TuleapConfigurationInput section = TuleapConfigurationInput.readFrom(in);
+		TuleapServer server = readServerHeader(section);
+		int projectCount = section.readInt();
+		int[] projectIds = new int[projectCount];
+		int[] lengths = new int[projectCount];
+		int[][] trackerIds = new int[projectCount][];
+		for (int i = 0; i < projectCount; i++) {
+			projectIds[i] = section.readInt();
+			lengths[i] = section.readInt();
+			trackerIds[i] = new int[section.readInt()];
+			for (int j = 0; j < trackerIds[i].length; j++) {
+				trackerIds[i][j] = section.readInt();
+			}
+		}
+		for (int i = 0; i < projectCount; i++) {
+			byte[] projectSection = new byte[lengths[i]];
+			in.readFully(projectSection);
+			server.addProjectLoader(projectIds[i], trackerIds[i], new TuleapLazyProject(projectIds[i],
+					trackerIds[i], projectSection));
+		}
+		return server;
+	}
+
+	/**
+	 * Reads a server written in the version 1 of the format, followed by all its projects.
+	 *
+	 * @param in
+	 *            The stream of the file
+	 * @return The server.
+	 * @throws IOException
+	 *             If the server cannot be read.
+	 */
+	private static TuleapServer readEagerServer(DataInputStream in) throws IOException {
+		TuleapServer server = readServerHeader(TuleapConfigurationInput.readFrom(in));
+		Map<TuleapTracker, Integer> parentIds = new LinkedHashMap<TuleapTracker, Integer>();
+		int projectCount = in.readInt();
+		for (int i = 0; i < projectCount; i++) {
+			TuleapConfigurationInput projectSection = TuleapConfigurationInput.readFrom(in);
+			try {
+				readProject(projectSection, server, parentIds);
+			} catch (IOException e) {
+				TuleapCoreActivator.log(e, false);
+			} catch (RuntimeException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		linkParents(server, parentIds);
+		return server;
+	}
+
+	/**
+	 * Reads a server and its users.
+	 *
+	 * @param section
+	 *            The section of the server
+	 * @return The server.
+	 * @throws IOException
+	 *             If the server cannot be read.
+	 */
+	private static TuleapServer readServerHeader(TuleapConfigurationInput section) throws IOException {
+		TuleapServer server = new TuleapServer(section.readString());
+		server.setLastUpdate(section.readLong());
+		int userCount = section.readInt();
+		for (int i = 0; i < userCount; i++) {
+			int id = section.readInt();
+			String username = section.readString();
+			String realName = section.readString();
+			String email = section.readString();
+			String ldapId = section.readString();
+			server.register(new TuleapUser(username, realName, id, email, ldapId));
+		}
+		return server;
+	}
+
+	/**
+	 * Links trackers to their parents.
+	 *
+	 * @param server
+	 *            The server
+	 * @param parentIds
+	 *            The identifiers of the parents, by tracker
+	 */
+	static void linkParents(TuleapServer server, Map<TuleapTracker, Integer> parentIds) {
+		for (Entry<TuleapTracker, Integer> entry : parentIds.entrySet()) {
+			TuleapTracker parent = server.getTracker(entry.getValue().intValue());
+			if (parent != null) {
+				entry.getKey().setParentTracker(parent);
+			}
+		}
+	}
+
+	/**
+	 * Reads a project and adds it to its server. The project is added only if it has been entirely read.
+	 *
+	 * @param in
+	 *            The section of the project
+	 * @param server
+	 *            The server
+	 * @param parentIds
+	 *            The identifiers of the parents of the trackers read, to resolve once the project is added
+	 * @throws IOException
+	 *             If the project cannot be read.
+	 */
+	static void readProject(TuleapConfigurationInput in, TuleapServer server,
+			Map<TuleapTracker, Integer> parentIds) throws IOException {
+		int id = in.readInt();
+		TuleapProject project = new TuleapProject(in.readString(), id);
+		project.setUri(in.readString());
+		TuleapResource[] resources = readResources(in);
+		if (resources != null) {
+			project.setProjectResources(resources);
+		}
+
+		Map<TuleapTracker, Integer> projectParentIds = new LinkedHashMap<TuleapTracker, Integer>();
+		List<TuleapTracker> trackers = new ArrayList<TuleapTracker>();
+		int trackerCount = in.readInt();
+		for (int i = 0; i < trackerCount; i++) {
+			trackers.add(readTracker(in, projectParentIds));
+		}
+
+		List<TuleapUserGroup> groups = new ArrayList<TuleapUserGroup>();
+		List<int[]> membersByGroup = new ArrayList<int[]>();
+		int groupCount = in.readInt();
+		for (int i = 0; i < groupCount; i++) {
+			TuleapUserGroup group = new TuleapUserGroup(in.readString(), in.readString());
+			group.setUri(in.readString());
+			int[] memberIds = new int[in.readInt()];
+			for (int j = 0; j < memberIds.length; j++) {
+				memberIds[j] = in.readInt();
+			}
+			groups.add(group);
+			membersByGroup.add(memberIds);
+		}
+
+		server.addProject(project);
+		for (TuleapTracker tracker : trackers) {
+			project.addTracker(tracker);
+		}
+		for (int i = 0; i < groups.size(); i++) {
+			TuleapUserGroup group = groups.get(i);
+			project.addGroup(group);
+			for (int memberId : membersByGroup.get(i)) {
+				TuleapUser member = server.getUser(memberId);
+				if (member != null) {
+					project.addUserToUserGroup(group, member);
+				}
+			}
+		}
+		parentIds.putAll(projectParentIds);
+	}
+
+	/**
+	 * Reads resources.
+	 *
+	 * @param in
+	 *            The section
+	 * @return The resources, can be <code>null</code>.
+	 * @throws IOException
+	 *             If the resources cannot be read.
+	 */
+	private static TuleapResource[] readResources(TuleapConfigurationInput in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		TuleapResource[] resources = new TuleapResource[in.readInt()];
+		for (int i = 0; i < resources.length; i++) {
+			resources[i] = new TuleapResource(in.readString(), in.readString());
+		}
+		return resources;
+	}
+
+	/**
+	 * Reads a tracker with its fields.
+	 *
+	 * @param in
+	 *            The section of the project
+	 * @param parentIds
+	 *            The identifiers of the parents of the trackers read
+	 * @return The tracker.
+	 * @throws IOException
+	 *             If the tracker cannot be read.
+	 */
+	private static TuleapTracker readTracker(TuleapConfigurationInput in,
+			Map<TuleapTracker, Integer> parentIds) throws IOException {
+		int id = in.readInt();
+		String url = in.readString();
+		String label = in.readString();
+		String itemName = in.readString();
+		String description = in.readString();
+		Date lastUpdateDate = null;
+		if (in.readBoolean()) {
+			lastUpdateDate = new Date(in.readLong());
+		}
+		TuleapTracker tracker = new TuleapTracker(id, url, label, itemName, description, lastUpdateDate);
+		tracker.setUri(in.readString());
+		tracker.setLastUpdateDateFieldName(in.readString());
+		TuleapResource[] resources = readResources(in);
+		if (resources != null) {
+			tracker.setTrackerResources(resources);
+		}
+		if (in.readBoolean()) {
+			parentIds.put(tracker, Integer.valueOf(in.readInt()));
+		}
+
+		int fieldCount = in.readInt();
+		for (int i = 0; i < fieldCount; i++) {
+			tracker.addField(readField(in));
+		}
+		return tracker;
+	}
+
+	/**
+	 * Reads a field.
+	 *
+	 * @param in
+	 *            The section of the project
+	 * @return The field.
+	 * @throws IOException
+	 *             If the field cannot be read.
+	 */
+	private static AbstractTuleapField readField(TuleapConfigurationInput in) throws IOException {
+		int kind = in.readInt();
+		AbstractTuleapField field = newField(kind, in.readInt());
+		field.setName(in.readString());
+		field.setLabel(in.readString());
+		field.setDescription(in.readString());
+		field.setRequired(in.readBoolean());
+		field.setRank(in.readInt());
+		int permissions = in.readInt();
+		List<String> granted = new ArrayList<String>();
+		if ((permissions & TuleapConfigurationFormat.PERMISSION_READ) != 0) {
+			granted.add(AbstractTuleapFormElement.PERMISSION_READ);
+		}
+		if ((permissions & TuleapConfigurationFormat.PERMISSION_SUBMIT) != 0) {
+			granted.add(AbstractTuleapFormElement.PERMISSION_SUBMIT);
+		}
+		if ((permissions & TuleapConfigurationFormat.PERMISSION_UPDATE) != 0) {
+			granted.add(AbstractTuleapFormElement.PERMISSION_UPDATE);
+		}
+		field.setPermissions(granted.toArray(new String[granted.size()]));
+
+		if (field instanceof TuleapString) {
+			((TuleapString)field).setSize(in.readInt());
+			((TuleapString)field).setSemanticTitle(in.readBoolean());
+		} else if (field instanceof TuleapText) {
+			((TuleapText)field).setRows(in.readInt());
+			((TuleapText)field).setColumns(in.readInt());
+		} else if (field instanceof TuleapFloat) {
+			((TuleapFloat)field).setInitialEffort(in.readBoolean());
+		} else if (field instanceof AbstractTuleapSelectBox) {
+			readSelectBox(in, (AbstractTuleapSelectBox)field);
+		}
+		return field;
+	}
+
+	/**
+	 * Reads the items and semantics of a select box, and its workflow if any.
+	 *
+	 * @param in
+	 *            The section of the project
+	 * @param selectBox
+	 *            The select box
+	 * @throws IOException
+	 *             If the select box cannot be read.
+	 */
+	private static void readSelectBox(TuleapConfigurationInput in, AbstractTuleapSelectBox selectBox)
+			throws IOException {
+		selectBox.setBinding(in.readString());
+		selectBox.setSemanticContributor(in.readBoolean());
+		int itemCount = in.readInt();
+		for (int i = 0; i < itemCount; i++) {
+			TuleapSelectBoxItem item = new TuleapSelectBoxItem(in.readInt());
+			item.setLabel(in.readString());
+			item.setDescription(in.readString());
+			selectBox.addItem(item);
+		}
+		int openStatusCount = in.readInt();
+		for (int i = 0; i < openStatusCount; i++) {
+			TuleapSelectBoxItem item = selectBox.getItem(String.valueOf(in.readInt()));
+			if (item != null) {
+				selectBox.getOpenStatus().add(item);
+			}
+		}
+		if (selectBox instanceof TuleapSelectBox) {
+			int transitionCount = in.readInt();
+			for (int i = 0; i < transitionCount; i++) {
+				TuleapWorkflowTransition transition = new TuleapWorkflowTransition();
+				transition.setFrom(in.readInt());
+				transition.setTo(in.readInt());
+				((TuleapSelectBox)selectBox).getWorkflow().addTransition(transition);
+			}
+		}
+	}
+
+	/**
+	 * Creates a field of the given kind.
+	 *
+	 * @param kind
+	 *            The kind of the field in the file
+	 * @param id
+	 *            The identifier of the field
+	 * @return The new field.
+	 * @throws IOException
+	 *             If the kind is unknown.
+	 */
+	private static AbstractTuleapField newField(int kind, int id) throws IOException {
+		AbstractTuleapField field;
+		switch (kind) {
+			case TuleapConfigurationFormat.FIELD_STRING:
+				field = new TuleapString(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_TEXT:
+				field = new TuleapText(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_INTEGER:
+				field = new TuleapInteger(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_FLOAT:
+				field = new TuleapFloat(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_DATE:
+				field = new TuleapDate(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_COMPUTED_VALUE:
+				field = new TuleapComputedValue(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_FILE_UPLOAD:
+				field = new TuleapFileUpload(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_ARTIFACT_LINK:
+				field = new TuleapArtifactLink(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_OPEN_LIST:
+				field = new TuleapOpenList(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_SELECT_BOX:
+				field = new TuleapSelectBox(id);
+				break;
+			case TuleapConfigurationFormat.FIELD_MULTI_SELECT_BOX:
+				field = new TuleapMultiSelectBox(id);
+				break;
+			default:
+				throw new IOException("Unknown field kind " + kind); //$NON-NLS-1$
+		}
+		return field;
+	}
+}
@@ -0,0 +1,493 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import com.google.common.collect.Maps;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapField;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapResource;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer.IProjectLoader;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUserGroup;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapWorkflowTransition;
+import org.tuleap.mylyn.task.core.internal.model.config.field.AbstractTuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapArtifactLink;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapComputedValue;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapDate;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFileUpload;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFloat;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapInteger;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapMultiSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapOpenList;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBoxItem;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapText;
+
+/**
+ * Writes the configuration of Tuleap servers in the binary format described in
+ * {@link TuleapConfigurationFormat}. The encoded projects are kept so that only the projects that have
+ * changed since the previous write are encoded again. Each server and each project is locked while it is
+ * encoded, and a project marked dirty while it is being encoded is encoded again by the next write. This
+ * class is thread-safe.
+ */
+public class TuleapConfigurationWriter {
+
+	/**
+	 * The projects encoded by the previous write, by project.
+	 */
+	private Map<TuleapProject, EncodedProject> encodedProjects = Maps.newIdentityHashMap();
+
+	/**
+	 * The number of times each project has been marked dirty, by project.
+	 */
+	private final Map<TuleapProject, Integer> modificationCounts = Maps.newIdentityHashMap();
+
+	/**
+	 * Indicates that the given project has changed and must be encoded again. If the project is being
+	 * encoded, the encoding will not be reused since it may have been started before the change.
+	 *
+	 * @param project
+	 *            The project
+	 */
+	public synchronized void markDirty(TuleapProject project) {
+		encodedProjects.remove(project);
+		modificationCounts.put(project, Integer.valueOf(getModificationCount(project) + 1));
+	}
+
+	/**
+	 * Provides the number of times the given project has been marked dirty.
+	 *
+	 * @param project
+	 *            The project
+	 * @return The number of times the project has been marked dirty.
+	 */
+	private synchronized int getModificationCount(TuleapProject project) {
+		Integer count = modificationCounts.get(project);
+		if (count == null) {
+			return 0;
+		}
+		return count.intValue();
+	}
+
+	/**
+	 * Provides the encoding of the given project by the previous write, if the project has not been marked
+	 * dirty since.
+	 *
+	 * @param project
+	 *            The project
+	 * @param modificationCount
+	 *            The current number of times the project has been marked dirty
+	 * @return The encoded project, or <code>null</code> if it must be encoded again.
+	 */
+	private synchronized TuleapLazyProject getEncodedProject(TuleapProject project, int modificationCount) {
+		EncodedProject encodedProject = encodedProjects.get(project);
+		if (encodedProject != null && encodedProject.modificationCount == modificationCount) {
+			return encodedProject.section;
+		}
+		return null;
+	}
+
+	/**
+	 * Keeps the projects encoded by a write for the next one, and forgets the projects that have not been
+	 * written.
+	 *
+	 * @param encoded
+	 *            The projects encoded by the write, by project
+	 */
+	private synchronized void setEncodedProjects(Map<TuleapProject, EncodedProject> encoded) {
+		encodedProjects = encoded;
+		modificationCounts.keySet().retainAll(encoded.keySet());
+	}
+
+	/**
+	 * Writes the given servers to the given stream, which is flushed but not closed.
+	 *
+	 * @param stream
+	 *            The stream
+	 * @param servers
+	 *            The servers to write
+	 * @throws IOException
+	 *             If the servers cannot be written.
+	 */
+	public void write(OutputStream stream, Collection<TuleapServer> servers) throws IOException {
+		Map<TuleapProject, EncodedProject> encoded = Maps.newIdentityHashMap();
+		DataOutputStream out = new DataOutputStream(stream);
+		out.writeInt(TuleapConfigurationFormat.MAGIC);
+		out.writeInt(TuleapConfigurationFormat.VERSION);
+		out.writeInt(servers.size());
+		for (TuleapServer server : servers) {
+			writeServer(out, server, encoded);
+		}
+		out.flush();
+		setEncodedProjects(encoded);
+	}
+
+	/**
+	 * Writes a server with the table of contents of its projects, followed by its projects. The projects
+	 * that have not been loaded yet are written as they were read, and the projects that have not changed as
+	 * they were previously encoded.
+	 *
+	 * @param out
+	 *            The stream of the file
+	 * @param server
+	 *            The server
+	 * @param encoded
+	 *            The projects encoded by this write, by project
+	 * @throws IOException
+	 *             If the server cannot be written.
+	 */
+	private void writeServer(DataOutputStream out, TuleapServer server,
+			Map<TuleapProject, EncodedProject> encoded) throws IOException {
+		List<TuleapProject> projects;
+		Map<Integer, IProjectLoader> loaders;
+		String url;
+		long lastUpdate;
+		Collection<TuleapUser> users;
+		synchronized (server) {
+			projects = server.getLoadedProjects();
+			loaders = server.getProjectLoaders();
+			url = server.getUrl();
+			lastUpdate = server.getLastUpdate();
+			users = server.getAllUsers();
+		}
+		for (Entry<Integer, IProjectLoader> entry : loaders.entrySet()) {
+			if (!(entry.getValue() instanceof TuleapLazyProject)) {
+				TuleapProject project = server.getProject(entry.getKey().intValue());
+				if (project != null) {
+					projects.add(project);
+				}
+			}
+		}
+		List<TuleapLazyProject> sections = new ArrayList<TuleapLazyProject>();
+		for (TuleapProject project : projects) {
+			int modificationCount = getModificationCount(project);
+			TuleapLazyProject section = getEncodedProject(project, modificationCount);
+			if (section == null) {
+				section = encodeProject(project);
+			}
+			encoded.put(project, new EncodedProject(section, modificationCount));
+			sections.add(section);
+		}
+		for (IProjectLoader loader : loaders.values()) {
+			if (loader instanceof TuleapLazyProject) {
+				sections.add((TuleapLazyProject)loader);
+			}
+		}
+
+		TuleapConfigurationOutput section = new TuleapConfigurationOutput();
+		section.writeString(url);
+		section.writeLong(lastUpdate);
+		section.writeInt(users.size());
+		for (TuleapUser user : users) {
+			section.writeInt(user.getId());
+			section.writeString(user.getUserName());
+			section.writeString(user.getRealName());
+			section.writeString(user.getEmail());
+			section.writeString(user.getLdapId());
+		}
+		section.writeInt(sections.size());
+		for (TuleapLazyProject projectSection : sections) {
+			section.writeInt(projectSection.getProjectId());
+			section.writeInt(projectSection.getSection().length);
+			int[] trackerIds = projectSection.getTrackerIds();
+			section.writeInt(trackerIds.length);
+			for (int trackerId : trackerIds) {
+				section.writeInt(trackerId);
+			}
+		}
+		section.writeTo(out);
+
+		for (TuleapLazyProject projectSection : sections) {
+			out.write(projectSection.getSection());
+		}
+	}
+
+	/**
+	 * Encodes a project in its own section, while the project is locked so that it cannot change.
+	 *
+	 * @param project
+	 *            The project
+	 * @return The encoded project.
+	 * @throws IOException
+	 *             If the project cannot be encoded.
+	 */
+	private static TuleapLazyProject encodeProject(TuleapProject project) throws IOException {
+		TuleapConfigurationOutput section = new TuleapConfigurationOutput();
+		List<TuleapTracker> trackers;
+		synchronized (project) {
+			writeProject(section, project);
+			trackers = project.getAllTrackers();
+		}
+		int[] trackerIds = new int[trackers.size()];
+		for (int i = 0; i < trackerIds.length; i++) {
+			trackerIds[i] = trackers.get(i).getIdentifier();
+		}
+		return new TuleapLazyProject(project.getIdentifier(), trackerIds, section.toByteArray());
+	}
+
+	/**
+	 * Writes a project with its trackers and user groups.
+	 *
+	 * @param out
+	 *            The section of the project
+	 * @param project
+	 *            The project
+	 * @throws IOException
+	 *             If the project cannot be written.
+	 */
+	private static void writeProject(TuleapConfigurationOutput out, TuleapProject project)
+			throws IOException {
+		out.writeInt(project.getIdentifier());
+		out.writeString(project.getLabel());
+		out.writeString(project.getUri());
+		writeResources(out, project.getProjectResources());
+
+		List<TuleapTracker> trackers = project.getAllTrackers();
+		out.writeInt(trackers.size());
+		for (TuleapTracker tracker : trackers) {
+			writeTracker(out, tracker);
+		}
+
+		Collection<TuleapUserGroup> groups = project.getAllUserGroups();
+		out.writeInt(groups.size());
+		for (TuleapUserGroup group : groups) {
+			out.writeString(group.getId());
+			out.writeString(group.getLabel());
+			out.writeString(group.getUri());
+			Collection<TuleapUser> members = group.getMembers();
+			out.writeInt(members.size());
+			for (TuleapUser member : members) {
+				out.writeInt(member.getId());
+			}
+		}
+	}
+
+	/**
+	 * Writes resources.
+	 *
+	 * @param out
+	 *            The section
+	 * @param resources
+	 *            The resources, can be <code>null</code>
+	 * @throws IOException
+	 *             If the resources cannot be written.
+	 */
+	private static void writeResources(TuleapConfigurationOutput out, TuleapResource[] resources)
+			throws IOException {
+		out.writeBoolean(resources != null);
+		if (resources != null) {
+			out.writeInt(resources.length);
+			for (TuleapResource resource : resources) {
+				out.writeString(resource.getType());
+				out.writeString(resource.getUri());
+			}
+		}
+	}
+
+	/**
+	 * Writes a tracker with its fields. Its parent is written as an identifier.
+	 *
+	 * @param out
+	 *            The section of the project
+	 * @param tracker
+	 *            The tracker
+	 * @throws IOException
+	 *             If the tracker cannot be written.
+	 */
+	private static void writeTracker(TuleapConfigurationOutput out, TuleapTracker tracker)
+			throws IOException {
+		out.writeInt(tracker.getIdentifier());
+		out.writeString(tracker.getUrl());
+		out.writeString(tracker.getLabel());
+		out.writeString(tracker.getItemName());
+		out.writeString(tracker.getDescription());
+		out.writeBoolean(tracker.getLastUpdateDate() != null);
+		if (tracker.getLastUpdateDate() != null) {
+			out.writeLong(tracker.getLastUpdateDate().getTime());
+		}
+		out.writeString(tracker.getUri());
+		out.writeString(tracker.getLastUpdateDateFieldName());
+		writeResources(out, tracker.getTrackerResources());
+		out.writeBoolean(tracker.getParentTracker() != null);
+		if (tracker.getParentTracker() != null) {
+			out.writeInt(tracker.getParentTracker().getIdentifier());
+		}
+
+		List<AbstractTuleapField> fields = new ArrayList<AbstractTuleapField>();
+		for (AbstractTuleapField field : tracker.getFields()) {
+			if (getKind(field) > 0) {
+				fields.add(field);
+			}
+		}
+		out.writeInt(fields.size());
+		for (AbstractTuleapField field : fields) {
+			writeField(out, field);
+		}
+	}
+
+	/**
+	 * Writes a field.
+	 *
+	 * @param out
+	 *            The section of the project
+	 * @param field
+	 *            The field
+	 * @throws IOException
+	 *             If the field cannot be written.
+	 */
+	private static void writeField(TuleapConfigurationOutput out, AbstractTuleapField field)
+			throws IOException {
+		out.writeInt(getKind(field));
+		out.writeInt(field.getIdentifier());
+		out.writeString(field.getName());
+		out.writeString(field.getLabel());
+		out.writeString(field.getDescription());
+		out.writeBoolean(field.isRequired());
+		out.writeInt(field.getRank());
+		int permissions = 0;
+		if (field.isReadable()) {
+			permissions |= TuleapConfigurationFormat.PERMISSION_READ;
+		}
+		if (field.isSubmitable()) {
+			permissions |= TuleapConfigurationFormat.PERMISSION_SUBMIT;
+		}
+		if (field.isUpdatable()) {
+			permissions |= TuleapConfigurationFormat.PERMISSION_UPDATE;
+		}
+		out.writeInt(permissions);
+
+		if (field instanceof TuleapString) {
+			out.writeInt(((TuleapString)field).getSize());
+			out.writeBoolean(((TuleapString)field).isSemanticTitle());
+		} else if (field instanceof TuleapText) {
+			out.writeInt(((TuleapText)field).getRows());
+			out.writeInt(((TuleapText)field).getColumns());
+		} else if (field instanceof TuleapFloat) {
+			out.writeBoolean(((TuleapFloat)field).isInitialEffort());
+		} else if (field instanceof AbstractTuleapSelectBox) {
+			writeSelectBox(out, (AbstractTuleapSelectBox)field);
+		}
+	}
+
+	/**
+	 * Writes the items and semantics of a select box, and its workflow if any.
+	 *
+	 * @param out
+	 *            The section of the project
+	 * @param selectBox
+	 *            The select box
+	 * @throws IOException
+	 *             If the select box cannot be written.
+	 */
+	private static void writeSelectBox(TuleapConfigurationOutput out, AbstractTuleapSelectBox selectBox)
+			throws IOException {
+		out.writeString(selectBox.getBinding());
+		out.writeBoolean(selectBox.isSemanticContributor());
+		Collection<TuleapSelectBoxItem> items = selectBox.getItems();
+		out.writeInt(items.size());
+		for (TuleapSelectBoxItem item : items) {
+			out.writeInt(item.getIdentifier());
+			out.writeString(item.getLabel());
+			out.writeString(item.getDescription());
+		}
+		List<TuleapSelectBoxItem> openStatus = selectBox.getOpenStatus();
+		out.writeInt(openStatus.size());
+		for (TuleapSelectBoxItem item : openStatus) {
+			out.writeInt(item.getIdentifier());
+		}
+		if (selectBox instanceof TuleapSelectBox) {
+			List<TuleapWorkflowTransition> transitions = ((TuleapSelectBox)selectBox).getWorkflow()
+					.getTransitions();
+			out.writeInt(transitions.size());
+			for (TuleapWorkflowTransition transition : transitions) {
+				out.writeInt(transition.getFrom());
+				out.writeInt(transition.getTo());
+			}
+		}
+	}
+
+	/**
+	 * Provides the kind of a field in the file.
+	 *
+	 * @param field
+	 *            The field
+	 * @return The kind of the field, or <code>0</code> if the field cannot be written.
+	 */
+	private static int getKind(AbstractTuleapField field) {
+		int kind = 0;
+		if (field instanceof TuleapString) {
+			kind = TuleapConfigurationFormat.FIELD_STRING;
+		} else if (field instanceof TuleapText) {
+			kind = TuleapConfigurationFormat.FIELD_TEXT;
+		} else if (field instanceof TuleapInteger) {
+			kind = TuleapConfigurationFormat.FIELD_INTEGER;
+		} else if (field instanceof TuleapFloat) {
+			kind = TuleapConfigurationFormat.FIELD_FLOAT;
+		} else if (field instanceof TuleapDate) {
+			kind = TuleapConfigurationFormat.FIELD_DATE;
+		} else if (field instanceof TuleapComputedValue) {
+			kind = TuleapConfigurationFormat.FIELD_COMPUTED_VALUE;
+		} else if (field instanceof TuleapFileUpload) {
+			kind = TuleapConfigurationFormat.FIELD_FILE_UPLOAD;
+		} else if (field instanceof TuleapArtifactLink) {
+			kind = TuleapConfigurationFormat.FIELD_ARTIFACT_LINK;
+		} else if (field instanceof TuleapOpenList) {
+			kind = TuleapConfigurationFormat.FIELD_OPEN_LIST;
+		} else if (field instanceof TuleapSelectBox) {
+			kind = TuleapConfigurationFormat.FIELD_SELECT_BOX;
+		} else if (field instanceof TuleapMultiSelectBox) {
+			kind = TuleapConfigurationFormat.FIELD_MULTI_SELECT_BOX;
+		}
+		return kind;
+	}
+
+	/**
+	 * A project encoded by a write, with the number of times it had been marked dirty before it was encoded.
+	 */
+	private static final class EncodedProject {
+
+		/**
+		 * The encoded project.
+		 */
+		private final TuleapLazyProject section;
+
+		/**
+		 * The number of times the project had been marked dirty before it was encoded.
+		 */
+		private final int modificationCount;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param section
+		 *            The encoded project
+		 * @param modificationCount
+		 *            The number of times the project had been marked dirty before it was encoded
+		 */
+		private EncodedProject(TuleapLazyProject section, int modificationCount) {
+			this.section = section;
+			this.modificationCount = modificationCount;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+
+/**
+ * A project of the repository configuration cache file that is decoded only when it is first accessed. Until
+ * then, it is kept encoded, and written back as is when the file is written again.
+ */
+class TuleapLazyProject implements TuleapServer.IProjectLoader {
+
+	/**
+	 * The id of the project.
+	 */
+	private final int projectId;
+
+	/**
+	 * The ids of the trackers of the project.
+	 */
+	private final int[] trackerIds;
+
+	/**
+	 * The encoded project.
+	 */
+	private final byte[] section;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param projectId
+	 *            The id of the project
+	 * @param trackerIds
+	 *            The ids of the trackers of the project
+	 * @param section
+	 *            The encoded project
+	 */
+	public TuleapLazyProject(int projectId, int[] trackerIds, byte[] section) {
+		this.projectId = projectId;
+		this.trackerIds = trackerIds;
+		this.section = section;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.model.config.TuleapServer.IProjectLoader#load(org.tuleap.mylyn.task.core.internal.model.config.TuleapServer)
+	 */
+	@Override
+	public void load(TuleapServer server) {
+		Map<TuleapTracker, Integer> parentIds = new LinkedHashMap<TuleapTracker, Integer>();
+		try {
+			TuleapConfigurationReader.readProject(new TuleapConfigurationInput(section), server, parentIds);
+			TuleapConfigurationReader.linkParents(server, parentIds);
+		} catch (IOException e) {
+			TuleapCoreActivator.log(e, false);
+		} catch (RuntimeException e) {
+			TuleapCoreActivator.log(e, false);
+		}
+	}
+
+	/**
+	 * Provides the id of the project.
+	 *
+	 * @return The id of the project.
+	 */
+	public int getProjectId() {
+		return projectId;
+	}
+
+	/**
+	 * Provides the ids of the trackers of the project.
+	 *
+	 * @return The ids of the trackers of the project.
+	 */
+	public int[] getTrackerIds() {
+		return trackerIds;
+	}
+
+	/**
+	 * Provides the encoded project.
+	 *
+	 * @return The encoded project.
+	 */
+	public byte[] getSection() {
+		return section;
+	}
+}
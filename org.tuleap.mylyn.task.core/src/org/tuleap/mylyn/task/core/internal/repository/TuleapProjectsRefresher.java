@@ -0,0 +1,553 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUserGroup;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+import org.tuleap.mylyn.task.core.internal.util.TuleapThreadFactory;
+
+/**
+ * Refreshes the trackers and the users of a list of projects concurrently, with a bounded number of threads.
+ * The trackers and user groups of each project are retrieved by one request, then the users of each user
+ * group by another one, all these requests sharing the same threads. The retrieved elements are added to the
+ * configuration in the calling thread only. A failure is reported without stopping the refresh of the other
+ * projects. An instance must not be used by several threads at once.
+ */
+public class TuleapProjectsRefresher {
+
+	/**
+	 * Delay in milliseconds between two checks of the progress monitor while waiting for a retrieval.
+	 */
+	private static final long POLL_DELAY = 100L;
+
+	/**
+	 * The client used to retrieve the configuration.
+	 */
+	private final TuleapRestClient client;
+
+	/**
+	 * The maximum number of threads to use.
+	 */
+	private final int maxThreads;
+
+	/**
+	 * The time in milliseconds during which the retrieved members of a user group are up to date.
+	 */
+	private final long userGroupTimeToLive;
+
+	/**
+	 * The ids of the user groups whose members are retrieved by the current refresh.
+	 */
+	private final Set<String> retrievedUserGroupIds = Sets.newHashSet();
+
+	/**
+	 * The number of retrievals not yet applied, by project.
+	 */
+	private final Map<TuleapProject, Integer> pendingRetrievals = Maps.newIdentityHashMap();
+
+	/**
+	 * The projects whose trackers have been retrieved by the current refresh.
+	 */
+	private final Set<TuleapProject> projectsWithTrackersRetrieved = Sets.newIdentityHashSet();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param client
+	 *            The client used to retrieve the configuration
+	 * @param maxThreads
+	 *            The maximum number of threads to use, the configuration is retrieved in the calling thread
+	 *            if this number is lower than 2.
+	 * @param userGroupTimeToLive
+	 *            The time in milliseconds during which the members of a user group are not retrieved again.
+	 *            They are always retrieved if it is not positive.
+	 */
+	public TuleapProjectsRefresher(TuleapRestClient client, int maxThreads, long userGroupTimeToLive) {
+		this.client = client;
+		this.maxThreads = maxThreads;
+		this.userGroupTimeToLive = userGroupTimeToLive;
+	}
+
+	/**
+	 * Provides the number of threads to use to refresh the projects of the given repository, as configured
+	 * in the task repository properties.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The number of threads to use.
+	 */
+	public static int getMaxThreads(TaskRepository taskRepository) {
+		int threads = ITuleapConstants.DEFAULT_PROJECTS_REFRESH_THREADS;
+		String property = taskRepository.getProperty(ITuleapConstants.PROPERTY_PROJECTS_REFRESH_THREADS);
+		if (property != null) {
+			try {
+				threads = Integer.parseInt(property.trim());
+			} catch (NumberFormatException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		return threads;
+	}
+
+	/**
+	 * Provides the time during which the members of a user group of the given repository are used without
+	 * being retrieved again, as configured in the task repository properties.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The time to live in milliseconds.
+	 */
+	public static long getUserGroupTimeToLive(TaskRepository taskRepository) {
+		long seconds = ITuleapConstants.DEFAULT_USER_GROUPS_REFRESH_TTL;
+		String property = taskRepository.getProperty(ITuleapConstants.PROPERTY_USER_GROUPS_REFRESH_TTL);
+		if (property != null) {
+			try {
+				seconds = Long.parseLong(property.trim());
+			} catch (NumberFormatException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		return TimeUnit.SECONDS.toMillis(seconds);
+	}
+
+	/**
+	 * Adds their trackers to the given projects, and registers the users of their user groups in their
+	 * server. The members of a user group are only retrieved once per refresh, and not at all if they have
+	 * been retrieved recently. The progress monitor advances by one each time a project has been refreshed.
+	 *
+	 * @param projects
+	 *            The projects to refresh
+	 * @param monitor
+	 *            The progress monitor, can be <code>null</code>. The refresh stops as soon as it is canceled
+	 * @return The status of the refresh, made of an error for each project whose trackers could not be
+	 *         retrieved and a warning for each project whose users could not be retrieved, or
+	 *         {@link Status#CANCEL_STATUS} if the refresh has been canceled.
+	 */
+	public IStatus refresh(List<TuleapProject> projects, IProgressMonitor monitor) {
+		IProgressMonitor progress = monitor;
+		if (progress == null) {
+			progress = new NullProgressMonitor();
+		}
+		pendingRetrievals.clear();
+		retrievedUserGroupIds.clear();
+		projectsWithTrackersRetrieved.clear();
+		MultiStatus status = new MultiStatus(TuleapCoreActivator.PLUGIN_ID, 0, TuleapCoreMessages
+				.getString(TuleapCoreKeys.projectsRefreshFailed), null);
+		List<Retrieval> retrievals = new ArrayList<Retrieval>();
+		for (TuleapProject project : projects) {
+			retrievals.add(new ProjectRetrieval(project));
+			pendingRetrievals.put(project, Integer.valueOf(1));
+		}
+		progress.beginTask(TuleapCoreMessages.getString(TuleapCoreKeys.retrieveTuleapServer), projects
+				.size());
+		try {
+			boolean completed;
+			if (maxThreads < 2 || projects.isEmpty()) {
+				completed = refreshSequentially(retrievals, status, progress);
+			} else {
+				completed = refreshConcurrently(retrievals, status, progress);
+			}
+			if (!completed) {
+				return Status.CANCEL_STATUS;
+			}
+		} finally {
+			progress.done();
+		}
+		return status;
+	}
+
+	/**
+	 * Indicates whether the trackers of the given project have been retrieved and added to it by the last
+	 * refresh. They have not if their retrieval has failed or if the refresh has been canceled.
+	 *
+	 * @param project
+	 *            The project
+	 * @return <code>true</code> if the trackers of the project have been retrieved.
+	 */
+	public boolean hasRetrievedTrackers(TuleapProject project) {
+		return projectsWithTrackersRetrieved.contains(project);
+	}
+
+	/**
+	 * Performs the given retrievals, and those they lead to, in the calling thread.
+	 *
+	 * @param retrievals
+	 *            The retrievals to perform
+	 * @param status
+	 *            The status to which failures are added
+	 * @param monitor
+	 *            The progress monitor
+	 * @return <code>false</code> if the refresh has been canceled.
+	 */
+	private boolean refreshSequentially(List<Retrieval> retrievals, MultiStatus status,
+			IProgressMonitor monitor) {
+		LinkedList<Retrieval> queue = new LinkedList<Retrieval>(retrievals);
+		while (!queue.isEmpty()) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			Retrieval retrieval = queue.removeFirst();
+			queue.addAll(0, apply(retrieval.call(), status, monitor));
+		}
+		return true;
+	}
+
+	/**
+	 * Performs the given retrievals, and those they lead to, with a bounded pool of threads.
+	 *
+	 * @param retrievals
+	 *            The retrievals to perform
+	 * @param status
+	 *            The status to which failures are added
+	 * @param monitor
+	 *            The progress monitor
+	 * @return <code>false</code> if the refresh has been canceled.
+	 */
+	private boolean refreshConcurrently(List<Retrieval> retrievals, MultiStatus status,
+			IProgressMonitor monitor) {
+		ExecutorService executor = Executors.newFixedThreadPool(maxThreads, new TuleapThreadFactory(
+				"Tuleap projects refresh")); //$NON-NLS-1$
+		try {
+			CompletionService<Retrieval> completionService = new ExecutorCompletionService<Retrieval>(
+					executor);
+			for (Retrieval retrieval : retrievals) {
+				completionService.submit(retrieval);
+			}
+			int remaining = retrievals.size();
+			while (remaining > 0) {
+				if (monitor.isCanceled()) {
+					return false;
+				}
+				Future<Retrieval> future = completionService.poll(POLL_DELAY, TimeUnit.MILLISECONDS);
+				if (future != null) {
+					remaining--;
+					for (Retrieval next : apply(future.get(), status, monitor)) {
+						completionService.submit(next);
+						remaining++;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			// Cannot happen, Retrieval.call() catches the exceptions
+			status.add(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+					.getString(TuleapCoreKeys.projectsRefreshFailed), e.getCause()));
+		} finally {
+			executor.shutdownNow();
+		}
+		return true;
+	}
+
+	/**
+	 * Applies a completed retrieval to the configuration, records its failure if any, and reports the
+	 * progress once its project has been completely refreshed. Must be called in the thread that invoked
+	 * {@link #refresh(List, IProgressMonitor)}.
+	 *
+	 * @param retrieval
+	 *            The completed retrieval
+	 * @param status
+	 *            The status to which failures are added
+	 * @param monitor
+	 *            The progress monitor
+	 * @return The retrievals to perform next.
+	 */
+	private List<Retrieval> apply(Retrieval retrieval, MultiStatus status, IProgressMonitor monitor) {
+		monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.refreshingProject, retrieval.project
+				.getLabel()));
+		List<Retrieval> next;
+		if (retrieval.getError() == null) {
+			next = retrieval.apply(status);
+		} else {
+			status.add(retrieval.getErrorStatus());
+			next = Collections.emptyList();
+		}
+		int pending = pendingRetrievals.get(retrieval.project).intValue() - 1 + next.size();
+		if (pending == 0) {
+			pendingRetrievals.remove(retrieval.project);
+			monitor.worked(1);
+		} else {
+			pendingRetrievals.put(retrieval.project, Integer.valueOf(pending));
+		}
+		return next;
+	}
+
+	/**
+	 * Creates the status describing the failure of the retrieval of the users of a project. The project is
+	 * still refreshed, so this is only a warning.
+	 *
+	 * @param project
+	 *            The project
+	 * @param error
+	 *            The error that occurred
+	 * @return The status of the error.
+	 */
+	private static IStatus getUsersErrorStatus(TuleapProject project, Exception error) {
+		return new Status(IStatus.WARNING, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages.getString(
+				TuleapCoreKeys.projectUsersRetrievalFailed, project.getLabel()), error);
+	}
+
+	/**
+	 * Task that retrieves a part of the configuration of a project. The progress monitor is not shared with
+	 * the worker threads since it is not thread-safe.
+	 */
+	private abstract static class Retrieval implements Callable<Retrieval> {
+
+		/**
+		 * The project.
+		 */
+		protected final TuleapProject project;
+
+		/**
+		 * The error that occurred during the retrieval, if any.
+		 */
+		private Exception error;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param project
+		 *            The project
+		 */
+		protected Retrieval(TuleapProject project) {
+			this.project = project;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Retrieval call() {
+			try {
+				retrieve();
+			} catch (CoreException e) {
+				error = e;
+			} catch (RuntimeException e) {
+				error = e;
+			}
+			return this;
+		}
+
+		/**
+		 * Provides the error that occurred during the retrieval.
+		 *
+		 * @return The error, or <code>null</code> if the retrieval succeeded.
+		 */
+		protected Exception getError() {
+			return error;
+		}
+
+		/**
+		 * Provides the status describing the failure of the retrieval.
+		 *
+		 * @return The status of the error.
+		 */
+		protected abstract IStatus getErrorStatus();
+
+		/**
+		 * Retrieves the elements from the server, in a worker thread.
+		 *
+		 * @throws CoreException
+		 *             If the elements cannot be retrieved.
+		 */
+		protected abstract void retrieve() throws CoreException;
+
+		/**
+		 * Adds the retrieved elements to the configuration, in the calling thread.
+		 *
+		 * @param status
+		 *            The status to which failures are added
+		 * @return The retrievals to perform next.
+		 */
+		protected abstract List<Retrieval> apply(MultiStatus status);
+	}
+
+	/**
+	 * Retrieves the trackers and the user groups of a project.
+	 */
+	private final class ProjectRetrieval extends Retrieval {
+
+		/**
+		 * The retrieved trackers.
+		 */
+		private List<TuleapTracker> trackers;
+
+		/**
+		 * The retrieved user groups.
+		 */
+		private List<TuleapUserGroup> userGroups;
+
+		/**
+		 * The error that occurred during the retrieval of the user groups, if any.
+		 */
+		private CoreException userGroupsError;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param project
+		 *            The project
+		 */
+		private ProjectRetrieval(TuleapProject project) {
+			super(project);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see org.tuleap.mylyn.task.core.internal.repository.TuleapProjectsRefresher.Retrieval#retrieve()
+		 */
+		@Override
+		protected void retrieve() throws CoreException {
+			NullProgressMonitor monitor = new NullProgressMonitor();
+			trackers = client.getProjectTrackers(project.getIdentifier(), monitor);
+			try {
+				userGroups = client.getProjectUserGroups(project.getIdentifier(), monitor);
+			} catch (CoreException e) {
+				userGroupsError = e;
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see org.tuleap.mylyn.task.core.internal.repository.TuleapProjectsRefresher.Retrieval#getErrorStatus()
+		 */
+		@Override
+		protected IStatus getErrorStatus() {
+			return new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages.getString(
+					TuleapCoreKeys.projectTrackersRetrievalFailed, project.getLabel()), getError());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see org.tuleap.mylyn.task.core.internal.repository.TuleapProjectsRefresher.Retrieval#apply(org.eclipse.core.runtime.MultiStatus)
+		 */
+		@Override
+		protected List<Retrieval> apply(MultiStatus status) {
+			for (TuleapTracker tracker : trackers) {
+				project.addTracker(tracker);
+			}
+			projectsWithTrackersRetrieved.add(project);
+			List<Retrieval> next = new ArrayList<Retrieval>();
+			if (userGroupsError != null) {
+				status.add(getUsersErrorStatus(project, userGroupsError));
+			} else {
+				TuleapServer server = project.getServer();
+				for (TuleapUserGroup userGroup : userGroups) {
+					if (retrievedUserGroupIds.add(userGroup.getId())
+							&& (userGroupTimeToLive <= 0 || server.isUserGroupStale(userGroup.getId(),
+									userGroupTimeToLive))) {
+						next.add(new UsersRetrieval(project, userGroup));
+					}
+				}
+			}
+			return next;
+		}
+	}
+
+	/**
+	 * Retrieves the users of a user group.
+	 */
+	private final class UsersRetrieval extends Retrieval {
+
+		/**
+		 * The user group.
+		 */
+		private final TuleapUserGroup userGroup;
+
+		/**
+		 * The retrieved users.
+		 */
+		private List<TuleapUser> users;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param project
+		 *            The project
+		 * @param userGroup
+		 *            The user group
+		 */
+		private UsersRetrieval(TuleapProject project, TuleapUserGroup userGroup) {
+			super(project);
+			this.userGroup = userGroup;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see org.tuleap.mylyn.task.core.internal.repository.TuleapProjectsRefresher.Retrieval#retrieve()
+		 */
+		@Override
+		protected void retrieve() throws CoreException {
+			users = client.getUserGroupUsers(userGroup.getId(), new NullProgressMonitor());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see org.tuleap.mylyn.task.core.internal.repository.TuleapProjectsRefresher.Retrieval#getErrorStatus()
+		 */
+		@Override
+		protected IStatus getErrorStatus() {
+			return getUsersErrorStatus(project, getError());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see org.tuleap.mylyn.task.core.internal.repository.TuleapProjectsRefresher.Retrieval#apply(org.eclipse.core.runtime.MultiStatus)
+		 */
+		@Override
+		protected List<Retrieval> apply(MultiStatus status) {
+			project.getServer().setUserGroupMembers(userGroup.getId(), users);
+			return Collections.emptyList();
+		}
+	}
+}
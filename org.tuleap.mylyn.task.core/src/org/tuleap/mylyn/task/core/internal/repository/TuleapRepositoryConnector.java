@@ -10,18 +10,19 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.repository;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -29,6 +30,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
 import org.eclipse.mylyn.tasks.core.IRepositoryQuery;
 import org.eclipse.mylyn.tasks.core.ITask;
@@ -51,12 +53,9 @@ import org.tuleap.mylyn.task.core.internal.data.converter.ArtifactTaskDataConver
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapProject;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
-import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
-import org.tuleap.mylyn.task.core.internal.model.config.TuleapUserGroup;
 import org.tuleap.mylyn.task.core.internal.model.config.field.AbstractTuleapSelectBox;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBoxItem;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
-import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
@@ -82,13 +81,23 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	/**
 	 * The repository configuration file.
 	 */
-	private File repositoryConfigurationFile;
+	private TuleapConfigurationFile repositoryConfigurationFile;
 
 	/**
 	 * The cache of the repository servers.
 	 */
 	private final Map<String, TuleapServer> serversByUrl = new HashMap<String, TuleapServer>();
 
+	/**
+	 * The caches of artifact comments, by repository URL.
+	 */
+	private final Map<String, TuleapCommentsCache> commentsCachesByUrl = Maps.newHashMap();
+
+	/**
+	 * The refreshers of trackers, by repository URL.
+	 */
+	private final Map<String, TuleapTrackerRefresher> trackerRefreshersByUrl = Maps.newHashMap();
+
 	/**
 	 * Indicates that the cache of the repository configuration has been read.
 	 */
@@ -101,7 +110,8 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 		if (TuleapCoreActivator.getDefault() != null) {
 			TuleapCoreActivator.getDefault().setConnector(this);
 			IPath path = TuleapCoreActivator.getDefault().getConfigurationCachePath();
-			this.repositoryConfigurationFile = path.toFile();
+			this.repositoryConfigurationFile = new TuleapConfigurationFile(path.toFile(),
+					TuleapConfigurationFile.DEFAULT_SAVE_DELAY);
 			this.readRepositoryConfigurationFile();
 		}
 	}
@@ -289,7 +299,7 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 		if (ITuleapQueryConstants.QUERY_KIND_REPORT.equals(queryKind)
 				|| ITuleapQueryConstants.QUERY_KIND_CUSTOM.equals(queryKind)) {
 			try {
-				performReportOrCustomQuery(taskRepository, query, collector, monitor);
+				performReportOrCustomQuery(taskRepository, query, collector, session, monitor);
 			} catch (CoreException e) {
 				status = new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, e.getMessage(), e);
 			}
@@ -309,13 +319,16 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	 *            The query to execute
 	 * @param collector
 	 *            The task data collector
+	 * @param session
+	 *            The synchronization session, can be <code>null</code>
 	 * @param monitor
 	 *            The progress monitor
 	 * @throws CoreException
 	 *             If artifact retrieval goes wrong.
 	 */
-	private void performReportOrCustomQuery(TaskRepository taskRepository, IRepositoryQuery query,
-			TaskDataCollector collector, IProgressMonitor monitor) throws CoreException {
+	private void performReportOrCustomQuery(final TaskRepository taskRepository, IRepositoryQuery query,
+			final TaskDataCollector collector, ISynchronizationSession session,
+			final IProgressMonitor monitor) throws CoreException {
 		TuleapRestClient client = this.getClientManager().getRestClient(taskRepository);
 		int trackerId = Integer.valueOf(query.getAttribute(ITuleapQueryConstants.QUERY_TRACKER_ID))
 				.intValue();
@@ -345,38 +358,259 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 							.valueOf(trackerId)), true);
 			return;
 		}
-		ArtifactTaskDataConverter artifactTaskDataConverter = new ArtifactTaskDataConverter(tracker,
+		final ArtifactTaskDataConverter artifactTaskDataConverter = new ArtifactTaskDataConverter(tracker,
 				taskRepository, this);
 		List<TuleapArtifact> artifacts = getRawArtifacts(query, tracker, client, monitor);
 		if (artifacts != null) {
+			final TaskAttributeMapper attributeMapper = this.getTaskDataHandler().getAttributeMapper(
+					taskRepository);
+			final int projectId = tracker.getProject().getIdentifier();
+			Date highWaterMark = null;
+			if (session != null) {
+				highWaterMark = getHighWaterMark(taskRepository);
+			}
+			Date queryTimestamp = null;
+			List<TuleapArtifact> modifiedArtifacts = Lists.newArrayList();
 			for (TuleapArtifact artifact : artifacts) {
-				if (monitor != null && monitor.isCanceled()) {
-					return;
+				Date lastModifiedDate = artifact.getLastModifiedDate();
+				if (lastModifiedDate != null
+						&& (queryTimestamp == null || lastModifiedDate.after(queryTimestamp))) {
+					queryTimestamp = lastModifiedDate;
 				}
-				TuleapTaskId taskDataId = TuleapTaskId.forArtifact(tracker.getProject().getIdentifier(),
-						artifact.getTracker().getId(), artifact.getId().intValue());
-				try {
-					List<TuleapElementComment> artifactComments = client.getArtifactComments(artifact.getId()
-							.intValue(), server, monitor);
-					for (TuleapElementComment comment : artifactComments) {
-						artifact.addComment(comment);
-					}
-				} catch (CoreException e) {
-					TuleapCoreActivator.log(e, true);
+				if (highWaterMark != null && lastModifiedDate != null
+						&& !lastModifiedDate.after(highWaterMark)) {
+					// Unchanged since the last synchronization, there is no need to retrieve its comments
+					TaskData taskData = createTaskData(taskRepository, attributeMapper,
+							artifactTaskDataConverter, projectId, artifact, monitor);
+					taskData.setPartial(true);
+					acceptTaskData(collector, taskData);
+				} else {
+					modifiedArtifacts.add(artifact);
+				}
+			}
+			raiseHighWaterMark(session, queryTimestamp);
+			if (queryTimestamp != null && collector instanceof TuleapTaskDataCollector) {
+				((TuleapTaskDataCollector)collector).setQueryTimestamp(toTimestamp(queryTimestamp));
+			}
+			TuleapCommentsPrefetcher prefetcher = new TuleapCommentsPrefetcher(client, server,
+					getCommentsCache(taskRepository), TuleapCommentsPrefetcher.getMaxThreads(taskRepository));
+			prefetcher.prefetch(modifiedArtifacts, new TuleapCommentsPrefetcher.IArtifactHandler() {
+				@Override
+				public void handle(TuleapArtifact artifact) {
+					acceptTaskData(collector, createTaskData(taskRepository, attributeMapper,
+							artifactTaskDataConverter, projectId, artifact, monitor));
 				}
+			}, monitor);
+		}
+	}
 
-				TaskAttributeMapper attributeMapper = this.getTaskDataHandler().getAttributeMapper(
-						taskRepository);
-				TaskData taskData = new TaskData(attributeMapper, this.getConnectorKind(), taskRepository
-						.getRepositoryUrl(), taskDataId.toString());
-				artifactTaskDataConverter.populateTaskData(taskData, artifact, monitor);
-				try {
-					collector.accept(taskData);
-				} catch (IllegalArgumentException exception) {
-					// Do not log, the query has been deleted while it was executed, see:
-					// org.eclipse.mylyn.internal.tasks.core.TaskList.getValidElement(IRepositoryElement)
+	/**
+	 * Creates the task data of the given artifact.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param attributeMapper
+	 *            The attribute mapper
+	 * @param artifactTaskDataConverter
+	 *            The converter used to populate the task data
+	 * @param projectId
+	 *            The id of the project of the artifact
+	 * @param artifact
+	 *            The artifact
+	 * @param monitor
+	 *            The progress monitor
+	 * @return The populated task data.
+	 */
+	private TaskData createTaskData(TaskRepository taskRepository, TaskAttributeMapper attributeMapper,
+			ArtifactTaskDataConverter artifactTaskDataConverter, int projectId, TuleapArtifact artifact,
+			IProgressMonitor monitor) {
+		TuleapTaskId taskDataId = TuleapTaskId.forArtifact(projectId, artifact.getTracker().getId(), artifact
+				.getId().intValue());
+		TaskData taskData = new TaskData(attributeMapper, getConnectorKind(), taskRepository
+				.getRepositoryUrl(), taskDataId.toString());
+		artifactTaskDataConverter.populateTaskData(taskData, artifact, monitor);
+		return taskData;
+	}
+
+	/**
+	 * Passes the given task data to the given collector.
+	 *
+	 * @param collector
+	 *            The task data collector
+	 * @param taskData
+	 *            The task data
+	 */
+	private void acceptTaskData(TaskDataCollector collector, TaskData taskData) {
+		try {
+			collector.accept(taskData);
+		} catch (IllegalArgumentException exception) {
+			// Do not log, the query has been deleted while it was executed, see:
+			// org.eclipse.mylyn.internal.tasks.core.TaskList.getValidElement(IRepositoryElement)
+		}
+	}
+
+	/**
+	 * {@inheritDoc} During a full synchronization, only the tasks whose artifacts have been modified on the
+	 * server since the last synchronization are marked stale.
+	 *
+	 * @see org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector#preSynchronization(org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession,
+	 *      org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	public void preSynchronization(ISynchronizationSession session, IProgressMonitor monitor)
+			throws CoreException {
+		TaskRepository taskRepository = session.getTaskRepository();
+		Date highWaterMark = getHighWaterMark(taskRepository);
+		if (!session.isFullSynchronization() || highWaterMark == null) {
+			return;
+		}
+		session.setData(highWaterMark);
+		// Tasks by artifact id, by tracker id
+		Map<Integer, Map<Integer, ITask>> tasksByTracker = Maps.newLinkedHashMap();
+		for (ITask task : session.getTasks()) {
+			TuleapTaskId taskId = TuleapTaskId.forName(task.getTaskId());
+			Map<Integer, ITask> trackerTasks = tasksByTracker.get(Integer.valueOf(taskId.getTrackerId()));
+			if (trackerTasks == null) {
+				trackerTasks = Maps.newHashMap();
+				tasksByTracker.put(Integer.valueOf(taskId.getTrackerId()), trackerTasks);
+			}
+			trackerTasks.put(Integer.valueOf(taskId.getArtifactId()), task);
+		}
+		TuleapRestClient client = this.getClientManager().getRestClient(taskRepository);
+		TuleapServer server = this.getServer(taskRepository);
+		for (Map.Entry<Integer, Map<Integer, ITask>> entry : tasksByTracker.entrySet()) {
+			if (monitor != null && monitor.isCanceled()) {
+				return;
+			}
+			TuleapTracker tracker = server.getTracker(entry.getKey().intValue());
+			if (tracker == null || tracker.getLastUpdateDateFieldName() == null) {
+				// The tasks of this tracker are only refreshed through the queries
+				continue;
+			}
+			List<TuleapArtifact> artifacts;
+			try {
+				artifacts = client.getArtifactsModifiedSince(tracker, highWaterMark, monitor);
+			} catch (CoreException e) {
+				TuleapCoreActivator.log(e, false);
+				continue;
+			}
+			for (TuleapArtifact artifact : artifacts) {
+				ITask task = entry.getValue().get(artifact.getId());
+				Date lastModifiedDate = artifact.getLastModifiedDate();
+				if (task != null && (lastModifiedDate == null || !lastModifiedDate.equals(task
+						.getModificationDate()))) {
+					session.markStale(task);
 				}
+				raiseHighWaterMark(session, lastModifiedDate);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc} After a successful full synchronization, the most recent modification date of the
+	 * artifacts seen during the synchronization is recorded as the synchronization time stamp of the
+	 * repository.
+	 *
+	 * @see org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector#postSynchronization(org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession,
+	 *      org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	public void postSynchronization(ISynchronizationSession session, IProgressMonitor monitor)
+			throws CoreException {
+		if (session.isFullSynchronization() && session.getStatus() == null
+				&& session.getData() instanceof Date) {
+			session.getTaskRepository().setSynchronizationTimeStamp(toTimestamp((Date)session.getData()));
+		}
+	}
+
+	/**
+	 * Provides the most recent artifact modification date recorded during the last successful full
+	 * synchronization of the given repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The date recorded during the last synchronization, or <code>null</code> if the repository has
+	 *         never been synchronized.
+	 */
+	private Date getHighWaterMark(TaskRepository taskRepository) {
+		String timestamp = taskRepository.getSynchronizationTimeStamp();
+		if (timestamp != null) {
+			try {
+				return new Date(Long.parseLong(timestamp));
+			} catch (NumberFormatException e) {
+				// Not recorded by this connector, the next synchronization will record it
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Records the given modification date in the synchronization session if it is more recent than the
+	 * dates already recorded.
+	 *
+	 * @param session
+	 *            The synchronization session, can be <code>null</code>
+	 * @param date
+	 *            The modification date of an artifact, can be <code>null</code>
+	 */
+	private void raiseHighWaterMark(ISynchronizationSession session, Date date) {
+		if (session != null && date != null) {
+			Object data = session.getData();
+			if (!(data instanceof Date) || date.after((Date)data)) {
+				session.setData(date);
+			}
+		}
+	}
+
+	/**
+	 * Converts the given date into a timestamp.
+	 *
+	 * @param date
+	 *            The date
+	 * @return The number of milliseconds of the date, as a string.
+	 */
+	private String toTimestamp(Date date) {
+		return Long.toString(date.getTime());
+	}
+
+	/**
+	 * Provides the cache of artifact comments of the given repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The cache of comments of the given repository, never <code>null</code>.
+	 */
+	@Override
+	public TuleapCommentsCache getCommentsCache(TaskRepository taskRepository) {
+		synchronized (commentsCachesByUrl) {
+			TuleapCommentsCache cache = commentsCachesByUrl.get(taskRepository.getUrl());
+			if (cache == null) {
+				cache = new TuleapCommentsCache();
+				commentsCachesByUrl.put(taskRepository.getUrl(), cache);
 			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Provides the refresher of the trackers of the given repository, configured with the time to live of
+	 * the trackers of this repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The refresher of trackers of the given repository, never <code>null</code>.
+	 */
+	private TuleapTrackerRefresher getTrackerRefresher(TaskRepository taskRepository) {
+		long timeToLive = TuleapTrackerRefresher.getTimeToLive(taskRepository);
+		synchronized (trackerRefreshersByUrl) {
+			TuleapTrackerRefresher refresher = trackerRefreshersByUrl.get(taskRepository.getUrl());
+			if (refresher == null) {
+				refresher = new TuleapTrackerRefresher(timeToLive);
+				trackerRefreshersByUrl.put(taskRepository.getUrl(), refresher);
+			} else {
+				refresher.setTimeToLive(timeToLive);
+			}
+			return refresher;
 		}
 	}
 
@@ -424,28 +658,67 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 			throws CoreException {
 		if (taskRepository != null) {
 			TuleapRestClient tuleapRestClient = this.getClientManager().getRestClient(taskRepository);
+			IProgressMonitor progress = monitor;
+			if (progress == null) {
+				progress = new NullProgressMonitor();
+			}
 			try {
+				TuleapServer localServer;
+				synchronized(serversByUrl) {
+					localServer = serversByUrl.get(taskRepository.getRepositoryUrl());
+				}
 				TuleapServer tuleapServer = new TuleapServer(taskRepository.getRepositoryUrl());
 				tuleapServer.setLastUpdate(new Date().getTime());
 
-				if (monitor != null) {
-					monitor.beginTask(TuleapCoreMessages.getString(TuleapCoreKeys.retrieveTuleapServer), 100);
-				}
+				progress.beginTask(TuleapCoreMessages.getString(TuleapCoreKeys.retrieveTuleapServer), 100);
 
 				// This list of projects might have changed if the user has gained or lost access to some
 				// projects
-				List<TuleapProject> availableProjects = tuleapRestClient.getProjects(monitor);
+				List<TuleapProject> availableProjects = tuleapRestClient.getProjects(new SubProgressMonitor(
+						progress, 10));
 
+				// The projects not loaded yet are not loaded just to know whether they have trackers
+				Set<Integer> projectIdsWithTrackers = Collections.emptySet();
+				if (localServer != null) {
+					projectIdsWithTrackers = localServer.getProjectIdsWithTrackers();
+				}
+				List<TuleapProject> projectsToRefresh = Lists.newArrayList();
 				for (TuleapProject project : availableProjects) {
-					TuleapProject localProject = tuleapServer.getProject(project.getIdentifier());
 					tuleapServer.addProject(project); // replaces the local project
-					if (localProject != null && !localProject.getAllTrackers().isEmpty()) {
-						doRefreshProject(project, monitor, tuleapRestClient);
+					if (projectIdsWithTrackers.contains(Integer.valueOf(project.getIdentifier()))) {
+						projectsToRefresh.add(project);
 					}
 				}
-				this.serversByUrl.put(taskRepository.getRepositoryUrl(), tuleapServer);
+				if (localServer != null) {
+					tuleapServer.copyUsers(localServer);
+				}
+				TuleapProjectsRefresher projectsRefresher = new TuleapProjectsRefresher(tuleapRestClient,
+						TuleapProjectsRefresher.getMaxThreads(taskRepository), TuleapProjectsRefresher
+								.getUserGroupTimeToLive(taskRepository));
+				IStatus status = projectsRefresher.refresh(projectsToRefresh, new SubProgressMonitor(
+						progress, 90));
+				if (!status.isOK() && status.getSeverity() != IStatus.CANCEL) {
+					TuleapCoreActivator.log(status);
+				}
+				TuleapTrackerRefresher refresher = getTrackerRefresher(taskRepository);
+				for (TuleapProject project : projectsToRefresh) {
+					if (projectsRefresher.hasRetrievedTrackers(project)) {
+						for (TuleapTracker tracker : project.getAllTrackers()) {
+							refresher.markRefreshed(tracker.getIdentifier());
+						}
+					} else {
+						// The trackers previously retrieved are kept rather than lost
+						tuleapServer.addProject(localServer.getProject(project.getIdentifier()));
+					}
+				}
+				synchronized(serversByUrl) {
+					this.serversByUrl.put(taskRepository.getRepositoryUrl(), tuleapServer);
+				}
+				scheduleRepositoryConfigFileSave();
 			} catch (CoreException e) {
 				TuleapCoreActivator.log(e, true);
+			} finally {
+				progress.done();
 			}
 		}
 	}
@@ -543,15 +816,20 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	 */
 	@Override
 	public TuleapServer getServer(TaskRepository taskRepository) {
-		TuleapServer server = serversByUrl.get(taskRepository.getUrl());
+		TuleapServer server;
+		synchronized(serversByUrl) {
+			server = serversByUrl.get(taskRepository.getUrl());
+		}
 		if (server == null) {
-			// It may happen that if eclipse is killed or terminates abruptly, a recently created task
-			// repository is not saved in the configuration file.
+			// It may happen that if eclipse is killed or terminates abruptly before the configuration file
+			// has been saved, a recently created task repository is not in the configuration file.
 			// We try and refresh the server configuration in case this is why the server being looked for
 			// doesn't exist.
 			try {
 				updateRepositoryConfiguration(taskRepository, new NullProgressMonitor());
-				server = serversByUrl.get(taskRepository.getUrl());
+				synchronized(serversByUrl) {
+					server = serversByUrl.get(taskRepository.getUrl());
+				}
 			} catch (CoreException e) {
 				TuleapCoreActivator.log(e, true);
 			}
@@ -567,7 +845,31 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	 *      org.eclipse.core.runtime.IProgressMonitor)
 	 */
 	@Override
-	public TuleapTracker refreshTracker(TaskRepository taskRepository, TuleapTracker tracker,
+	public TuleapTracker refreshTracker(final TaskRepository taskRepository, final TuleapTracker tracker,
+			IProgressMonitor monitor) throws CoreException {
+		TuleapTrackerRefresher.ITrackerLoader loader = new TuleapTrackerRefresher.ITrackerLoader() {
+			@Override
+			public TuleapTracker load(IProgressMonitor loadMonitor) throws CoreException {
+				return doRefreshTracker(taskRepository, tracker, loadMonitor);
+			}
+		};
+		return getTrackerRefresher(taskRepository).refresh(tracker, loader, monitor);
+	}
+
+	/**
+	 * Retrieves the given tracker from the server and replaces it in the configuration of the repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param tracker
+	 *            The tracker to refresh
+	 * @param monitor
+	 *            The progress monitor
+	 * @return The refreshed tracker.
+	 * @throws CoreException
+	 *             If a problem occurs during the communication with the server.
+	 */
+	private TuleapTracker doRefreshTracker(TaskRepository taskRepository, TuleapTracker tracker,
 			IProgressMonitor monitor) throws CoreException {
 		TuleapProject project = tracker.getProject();
 
@@ -578,6 +880,7 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 		if (refreshedTracker != null) {
 			TuleapServer tuleapServer = getServer(taskRepository);
 			tuleapServer.replaceTracker(project.getIdentifier(), refreshedTracker);
+			markDirty(tuleapServer.getProject(project.getIdentifier()));
 		}
 		return refreshedTracker;
 	}
@@ -594,38 +897,19 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 			throws CoreException {
 		if (taskRepository != null) {
 			TuleapRestClient tuleapRestClient = this.getClientManager().getRestClient(taskRepository);
-			doRefreshProject(project, monitor, tuleapRestClient);
-		}
-	}
-
-	/**
-	 * Performs the refreshment of a project.
-	 *
-	 * @param project
-	 *            The project to refresh
-	 * @param monitor
-	 *            The progress monitor to use
-	 * @param tuleapRestClient
-	 *            The REST client to use
-	 * @throws CoreException
-	 *             If a problem occurs during the communication with the server.
-	 */
-	private void doRefreshProject(TuleapProject project, IProgressMonitor monitor,
-			TuleapRestClient tuleapRestClient) throws CoreException {
-		for (TuleapTracker tracker : tuleapRestClient.getProjectTrackers(project.getIdentifier(), monitor)) {
-			project.addTracker(tracker);
-		}
-
-		try {
-			TuleapServer server = project.getServer();
-			for (TuleapUserGroup userGroup : tuleapRestClient.getProjectUserGroups(project.getIdentifier(),
-					monitor)) {
-				for (TuleapUser tuleapUser : tuleapRestClient.getUserGroupUsers(userGroup.getId(), monitor)) {
-					server.register(tuleapUser);
-				}
+			IStatus status = new TuleapProjectsRefresher(tuleapRestClient, 1, TuleapProjectsRefresher
+					.getUserGroupTimeToLive(taskRepository)).refresh(Collections.singletonList(project),
+					monitor);
+			if (status.getSeverity() == IStatus.ERROR) {
+				throw new CoreException(status);
+			} else if (status.getSeverity() == IStatus.WARNING) {
+				TuleapCoreActivator.log(status);
+			}
+			markDirty(project);
+			TuleapTrackerRefresher refresher = getTrackerRefresher(taskRepository);
+			for (TuleapTracker tracker : project.getAllTrackers()) {
+				refresher.markRefreshed(tracker.getIdentifier());
 			}
-		} catch (CoreException e) {
-			TuleapCoreActivator.log(e, false);
 		}
 	}
 
@@ -633,17 +917,13 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	 * Reads the repository configuration file.
 	 */
 	public synchronized void readRepositoryConfigurationFile() {
-		if (cacheFileRead || repositoryConfigurationFile == null || !repositoryConfigurationFile.exists()) {
+		if (cacheFileRead || repositoryConfigurationFile == null) {
 			return;
 		}
 
-		ObjectInputStream in = null;
 		try {
-			in = new ObjectInputStream(new FileInputStream(repositoryConfigurationFile));
-			int size = in.readInt();
-			for (int nX = 0; nX < size; nX++) {
-				TuleapServer item = (TuleapServer)in.readObject();
-				if (item != null) {
+			for (TuleapServer item : repositoryConfigurationFile.read()) {
+				synchronized(serversByUrl) {
 					serversByUrl.put(item.getUrl(), item);
 				}
 			}
@@ -653,12 +933,7 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 			TuleapCoreActivator.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
 					TuleapCoreMessages.getString(TuleapCoreKeys.cannotLoadOldConfiguration), e));
 			try {
-				if (in != null) {
-					in.close();
-				}
-				if (repositoryConfigurationFile != null && repositoryConfigurationFile.exists()) {
-					repositoryConfigurationFile.delete();
-				}
+				repositoryConfigurationFile.delete();
 				// CHECKSTYLE:OFF (All exceptions are treated equally since we can't do anything about
 				// them)
 			} catch (Exception ex) {
@@ -667,54 +942,77 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 			}
 		} finally {
 			cacheFileRead = true;
-			if (in != null) {
-				try {
-					in.close();
-				} catch (IOException e) {
-					// ignore
-				}
-			}
 		}
 	}
 
 	/**
 	 * Writes the repository configuration file.
 	 */
-	public synchronized void writeRepositoryConfigFile() {
+	public void writeRepositoryConfigFile() {
 		if (repositoryConfigurationFile != null) {
-			ObjectOutputStream out = null;
 			try {
-				Set<TuleapServer> tempConfigs;
-				synchronized(serversByUrl) {
-					tempConfigs = new HashSet<TuleapServer>(serversByUrl.values());
-				}
-				if (tempConfigs.size() > 0) {
-					out = new ObjectOutputStream(new FileOutputStream(repositoryConfigurationFile));
-					out.writeInt(tempConfigs.size());
-					for (TuleapServer server : tempConfigs) {
-						if (server != null) {
-							out.writeObject(server);
-						}
-					}
+				Collection<TuleapServer> servers = getServersToSave();
+				if (servers.size() > 0) {
+					repositoryConfigurationFile.save(servers);
 				}
 			} catch (IOException e) {
 				TuleapCoreActivator.log(e, false);
-			} finally {
-				if (out != null) {
-					try {
-						out.close();
-					} catch (IOException e) {
-						// ignore
-					}
+			}
+		}
+	}
+
+	/**
+	 * Schedules the save of the repository configuration file in the background, shortly after the
+	 * configuration has changed.
+	 */
+	private void scheduleRepositoryConfigFileSave() {
+		if (repositoryConfigurationFile != null) {
+			repositoryConfigurationFile.scheduleSave(new Callable<Collection<TuleapServer>>() {
+				@Override
+				public Collection<TuleapServer> call() {
+					return getServersToSave();
 				}
+			});
+		}
+	}
+
+	/**
+	 * Indicates that the given project has changed and schedules the save of the repository configuration
+	 * file.
+	 *
+	 * @param project
+	 *            The project, can be <code>null</code>
+	 */
+	private void markDirty(TuleapProject project) {
+		if (repositoryConfigurationFile != null) {
+			if (project != null) {
+				repositoryConfigurationFile.markDirty(project);
 			}
+			scheduleRepositoryConfigFileSave();
 		}
 	}
 
+	/**
+	 * Provides the servers to write in the repository configuration file.
+	 *
+	 * @return A copy of the known servers.
+	 */
+	private Collection<TuleapServer> getServersToSave() {
+		Set<TuleapServer> servers;
+		synchronized(serversByUrl) {
+			servers = new HashSet<TuleapServer>(serversByUrl.values());
+		}
+		servers.remove(null);
+		return servers;
+	}
+
 	/**
 	 * Stops the Tuleap repository connector.
 	 */
 	public void stop() {
+		if (repositoryConfigurationFile != null) {
+			repositoryConfigurationFile.dispose();
+		}
 		this.writeRepositoryConfigFile();
 	}
 }
@@ -12,10 +12,17 @@ package org.tuleap.mylyn.task.core.internal.repository;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import org.apache.commons.codec.binary.Base64;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -43,6 +50,7 @@ import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithAttachme
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+import org.tuleap.mylyn.task.core.internal.util.TuleapThreadFactory;
 
 /**
  * The Tuleap task attachement handler will be in charge of manipulating the task attachments.
@@ -54,9 +62,9 @@ import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 public class TuleapTaskAttachmentHandler extends AbstractTaskAttachmentHandler {
 
 	/**
-	 * The Tuleap buffer size for attachments.
+	 * Delay in milliseconds between two checks of the progress monitor while waiting for a chunk to upload.
 	 */
-	public static final int BUFFER_SIZE = 1024 * 1024;
+	private static final long POLL_DELAY = 100L;
 
 	/**
 	 * Default description of a valid "mylyn context" attachment. DO NOT CHANGE!!!
@@ -165,8 +173,9 @@ public class TuleapTaskAttachmentHandler extends AbstractTaskAttachmentHandler {
 			TaskAttachmentMapper taskAttachment = TaskAttachmentMapper.createFrom(attachmentAttribute);
 			Long length = taskAttachment.getLength();
 			int size = length.intValue();
-			return new TuleapAttachmentInputStream(size, attachmentId, BUFFER_SIZE, clientManager
-					.getRestClient(repository), monitor);
+			TuleapRestClient client = clientManager.getRestClient(repository);
+			return new TuleapAttachmentInputStream(size, attachmentId, client.getChunkSizePolicy()
+					.getChunkSize(), client, monitor, TuleapAttachmentInputStream.getMaxThreads(repository));
 		}
 		return null;
 	}
@@ -219,37 +228,37 @@ public class TuleapTaskAttachmentHandler extends AbstractTaskAttachmentHandler {
 		TuleapFileUpload field = tracker.getAttachmentField();
 		long length = source.getLength();
 		if (field != null) {
+			ExecutorService executor = null;
 			try {
 				in = source.createInputStream(monitor);
 				// POST /artifacts_files
-				byte[] buffer = new byte[BUFFER_SIZE];
+				// The next chunk is read in the background while the current one is encoded and uploaded
+				int chunkSize = client.getChunkSizePolicy().getChunkSize();
+				TuleapAttachmentChunkReader reader = new TuleapAttachmentChunkReader(in, chunkSize);
+				executor = Executors.newSingleThreadExecutor(new TuleapThreadFactory(
+						"Tuleap attachment upload")); //$NON-NLS-1$
+				Future<ByteBuffer> nextChunk = executor.submit(reader);
 				int offset = 2; // offset must be 2 the first time we call update
 				while (true) {
-					int read = in.read(buffer);
-					checkMonitorCancelled(monitor, client, fileReference);
-					byte[] toSend;
-					if (read == -1) {
+					ByteBuffer chunk = waitFor(nextChunk, monitor, client, fileReference);
+					if (chunk == null) {
 						break; // End of input
-					} else if (read == BUFFER_SIZE) {
-						toSend = buffer;
-					} else {
-						toSend = new byte[read];
-						System.arraycopy(buffer, 0, toSend, 0, read);
 					}
-					String chunk = Base64.encodeBase64String(toSend);
+					nextChunk = executor.submit(reader);
 					if (fileReference == null) {
 						if (monitor != null) {
 							monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.uploadingAttachment,
 									"0", Long.toString(length))); //$NON-NLS-1$
 						}
-						fileReference = client.createArtifactFile(chunk, filetype, filename, description,
-								monitor);
+						fileReference = client.createArtifactFile(chunk.array(), chunk.limit(), filetype,
+								filename, description, monitor);
 					} else {
 						if (monitor != null) {
 							monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.uploadingAttachment,
-									Integer.toString((offset - 1) * BUFFER_SIZE), Long.toString(length)));
+									Integer.toString((offset - 1) * chunkSize), Long.toString(length)));
 						}
-						client.updateArtifactFile(fileReference.getId(), chunk, offset++, monitor);
+						client.updateArtifactFile(fileReference.getId(), chunk.array(), chunk.limit(),
+								offset++, monitor);
 					}
 				}
 			} catch (CoreException e) {
@@ -261,9 +270,15 @@ public class TuleapTaskAttachmentHandler extends AbstractTaskAttachmentHandler {
 				}
 				throw e;
 			} catch (IOException e) {
+				if (fileReference != null) {
+					deleteRemoteTempFile(monitor, client, fileReference);
+				}
 				throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
 						TuleapCoreMessages.getString(TuleapCoreKeys.cannotReadFileContent), e));
 			} finally {
+				if (executor != null) {
+					executor.shutdownNow();
+				}
 				try {
 					if (in != null) {
 						in.close();
@@ -327,11 +342,50 @@ public class TuleapTaskAttachmentHandler extends AbstractTaskAttachmentHandler {
 	private void checkMonitorCancelled(IProgressMonitor monitor, TuleapRestClient client,
 			TuleapReference fileReference) {
 		if (monitor != null && monitor.isCanceled()) {
-			deleteRemoteTempFile(monitor, client, fileReference);
+			if (fileReference != null) {
+				deleteRemoteTempFile(monitor, client, fileReference);
+			}
 			throw new OperationCanceledException();
 		}
 	}
 
+	/**
+	 * Waits for the next chunk to be read, checking the progress monitor regularly.
+	 *
+	 * @param chunk
+	 *            The reading of the chunk
+	 * @param monitor
+	 *            The monitor
+	 * @param client
+	 *            The client
+	 * @param fileReference
+	 *            The file reference, <code>null</code> if no chunk has been uploaded yet
+	 * @return The bytes of the chunk, or <code>null</code> at the end of the file.
+	 * @throws IOException
+	 *             If the chunk cannot be read.
+	 */
+	private ByteBuffer waitFor(Future<ByteBuffer> chunk, IProgressMonitor monitor, TuleapRestClient client,
+			TuleapReference fileReference) throws IOException {
+		try {
+			while (true) {
+				checkMonitorCancelled(monitor, client, fileReference);
+				try {
+					return chunk.get(POLL_DELAY, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// Check the monitor again
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
 	/**
 	 * Delete a remote temporary file (for example to prevent reaching the tuleap server's threshold).
 	 *
@@ -10,12 +10,20 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.repository;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.ITaskMapping;
 import org.eclipse.mylyn.tasks.core.RepositoryResponse;
@@ -25,6 +33,8 @@ import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
 import org.tuleap.mylyn.task.core.internal.data.TuleapArtifactMapper;
 import org.tuleap.mylyn.task.core.internal.data.TuleapTaskId;
@@ -83,7 +93,8 @@ public class TuleapTaskDataHandler extends AbstractTaskDataHandler {
 		TuleapProject project = tuleapServer.getProject(taskId.getProjectId());
 		TuleapTracker tuleapTracker = project.getTracker(taskId.getTrackerId());
 		tuleapTracker = this.connector.refreshTracker(taskRepository, tuleapTracker, monitor);
-		response = this.postArtifactTaskData(tuleapTracker, taskData, taskRepository, monitor);
+		response = this.postArtifactTaskData(tuleapTracker, taskData, oldAttributes, taskRepository,
+				monitor);
 
 		return response;
 	}
@@ -95,6 +106,9 @@ public class TuleapTaskDataHandler extends AbstractTaskDataHandler {
 	 *            The tracker
 	 * @param taskData
 	 *            The task data of the artifact
+	 * @param oldAttributes
+	 *            The previous state of the attributes that have changed, or <code>null</code> if unknown.
+	 *            Only the fields of these attributes are sent when the artifact is updated.
 	 * @param taskRepository
 	 *            The task repository
 	 * @param monitor
@@ -104,7 +118,8 @@ public class TuleapTaskDataHandler extends AbstractTaskDataHandler {
 	 *             In case of issues during the communication with the server
 	 */
 	private RepositoryResponse postArtifactTaskData(TuleapTracker tracker, TaskData taskData,
-			TaskRepository taskRepository, IProgressMonitor monitor) throws CoreException {
+			Set<TaskAttribute> oldAttributes, TaskRepository taskRepository, IProgressMonitor monitor)
+			throws CoreException {
 		RepositoryResponse response = null;
 
 		ArtifactTaskDataConverter artifactTaskDataConverter = new ArtifactTaskDataConverter(tracker,
@@ -118,7 +133,7 @@ public class TuleapTaskDataHandler extends AbstractTaskDataHandler {
 			response = new RepositoryResponse(ResponseKind.TASK_CREATED, artifactId.toString());
 		} else {
 			TuleapArtifactWithComment artifact = artifactTaskDataConverter
-					.createTuleapArtifactWithComment(taskData);
+					.createTuleapArtifactWithComment(taskData, oldAttributes);
 			Assert.isTrue(!artifact.isNew());
 			client.updateArtifact(artifact, monitor);
 			response = new RepositoryResponse(ResponseKind.TASK_UPDATED, taskData.getTaskId());
@@ -267,9 +282,135 @@ public class TuleapTaskDataHandler extends AbstractTaskDataHandler {
 	 */
 	@Override
 	public boolean canGetMultiTaskData(TaskRepository repository) {
-		// TODO SBE Should we support that to improve performances? maybe but it could require improvements in
-		// the REST/SOAP API
-		return false;
+		return true;
+	}
+
+	/**
+	 * Retrieves the artifacts tracker by tracker, with as few requests as possible, and converts them with a
+	 * single converter per tracker. {@inheritDoc}
+	 *
+	 * @see org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler#getMultiTaskData(org.eclipse.mylyn.tasks.core.TaskRepository,
+	 *      java.util.Set, org.eclipse.mylyn.tasks.core.data.TaskDataCollector,
+	 *      org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	public void getMultiTaskData(TaskRepository repository, Set<String> taskIds, TaskDataCollector collector,
+			IProgressMonitor monitor) throws CoreException {
+		TuleapServer server = this.connector.getServer(repository);
+		// Task ids by artifact id, by tracker id
+		Map<Integer, Map<Integer, TuleapTaskId>> taskIdsByTracker = Maps.newLinkedHashMap();
+		for (String id : taskIds) {
+			TuleapTaskId taskId = TuleapTaskId.forName(id);
+			int trackerId = taskId.getTrackerId();
+			if (trackerId == -1 || server.getTracker(trackerId) == null) {
+				collectTaskData(repository, taskId, collector, monitor);
+			} else {
+				Map<Integer, TuleapTaskId> trackerTaskIds = taskIdsByTracker.get(Integer.valueOf(trackerId));
+				if (trackerTaskIds == null) {
+					trackerTaskIds = Maps.newHashMap();
+					taskIdsByTracker.put(Integer.valueOf(trackerId), trackerTaskIds);
+				}
+				trackerTaskIds.put(Integer.valueOf(taskId.getArtifactId()), taskId);
+			}
+		}
+		for (Map.Entry<Integer, Map<Integer, TuleapTaskId>> entry : taskIdsByTracker.entrySet()) {
+			if (monitor != null && monitor.isCanceled()) {
+				return;
+			}
+			TuleapTracker tracker = server.getTracker(entry.getKey().intValue());
+			getTrackerTaskData(repository, server, tracker, entry.getValue(), collector, monitor);
+		}
+	}
+
+	/**
+	 * Retrieves the task data of several artifacts of the same tracker and passes them to the collector.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param server
+	 *            The server
+	 * @param tracker
+	 *            The tracker of the artifacts
+	 * @param taskIdsByArtifactId
+	 *            The task ids to retrieve, by artifact id
+	 * @param collector
+	 *            The collector to notify
+	 * @param monitor
+	 *            The progress monitor
+	 */
+	private void getTrackerTaskData(final TaskRepository taskRepository, TuleapServer server,
+			TuleapTracker tracker, final Map<Integer, TuleapTaskId> taskIdsByArtifactId,
+			final TaskDataCollector collector, final IProgressMonitor monitor) {
+		TuleapRestClient client = this.connector.getClientManager().getRestClient(taskRepository);
+		List<TuleapArtifact> artifacts = Lists.newArrayList();
+		try {
+			artifacts.addAll(client.getTrackerArtifacts(tracker, taskIdsByArtifactId.keySet(), monitor));
+		} catch (CoreException e) {
+			// The missing artifacts are retrieved one by one below
+			TuleapCoreActivator.log(e, false);
+		}
+		Set<Integer> missingIds = Sets.newHashSet(taskIdsByArtifactId.keySet());
+		for (TuleapArtifact artifact : artifacts) {
+			missingIds.remove(artifact.getId());
+		}
+		for (Integer artifactId : missingIds) {
+			if (monitor != null && monitor.isCanceled()) {
+				return;
+			}
+			TuleapTaskId taskId = taskIdsByArtifactId.get(artifactId);
+			try {
+				TuleapArtifact artifact = client.getArtifact(artifactId.intValue(), server, monitor);
+				if (artifact != null) {
+					artifacts.add(artifact);
+				} else {
+					collector.failed(taskId.toString(), new Status(IStatus.ERROR,
+							TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages.getString(
+									TuleapCoreKeys.artifactRetrievalFailed, artifactId.toString())));
+				}
+			} catch (CoreException e) {
+				collector.failed(taskId.toString(), e.getStatus());
+			}
+		}
+
+		final ArtifactTaskDataConverter artifactTaskDataConverter = new ArtifactTaskDataConverter(tracker,
+				taskRepository, connector);
+		final TaskAttributeMapper attributeMapper = this.getAttributeMapper(taskRepository);
+		TuleapCommentsPrefetcher prefetcher = new TuleapCommentsPrefetcher(client, server, connector
+				.getCommentsCache(taskRepository), TuleapCommentsPrefetcher.getMaxThreads(taskRepository));
+		prefetcher.prefetch(artifacts, new TuleapCommentsPrefetcher.IArtifactHandler() {
+			@Override
+			public void handle(TuleapArtifact artifact) {
+				TuleapTaskId taskId = taskIdsByArtifactId.get(artifact.getId());
+				TaskData taskData = new TaskData(attributeMapper, ITuleapConstants.CONNECTOR_KIND,
+						taskRepository.getRepositoryUrl(), taskId.toString());
+				artifactTaskDataConverter.populateTaskData(taskData, artifact, monitor);
+				collector.accept(taskData);
+			}
+		}, monitor);
+	}
+
+	/**
+	 * Retrieves the task data of a single task and passes it to the collector.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param taskId
+	 *            The task id
+	 * @param collector
+	 *            The collector to notify
+	 * @param monitor
+	 *            The progress monitor
+	 */
+	private void collectTaskData(TaskRepository taskRepository, TuleapTaskId taskId,
+			TaskDataCollector collector, IProgressMonitor monitor) {
+		try {
+			TaskData taskData = getTaskData(taskRepository, taskId, monitor);
+			if (taskData != null) {
+				collector.accept(taskData);
+			}
+		} catch (CoreException e) {
+			collector.failed(taskId.toString(), e.getStatus());
+		}
 	}
 
 	/**
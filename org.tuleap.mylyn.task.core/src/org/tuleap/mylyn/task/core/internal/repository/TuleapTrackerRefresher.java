@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.repository;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapThreadFactory;
+
+/**
+ * Decides when the trackers of a repository must be retrieved again from the server. A tracker refreshed
+ * less than a given time ago is used as is. Once this time has elapsed, the known definition is still used
+ * while the tracker is refreshed in the background. A tracker that has not been refreshed yet is refreshed
+ * right away. Concurrent refreshes of the same tracker share the same request. This class is thread-safe.
+ */
+public class TuleapTrackerRefresher {
+
+	/**
+	 * Delay in milliseconds between two checks of the progress monitor while waiting for a refresh.
+	 */
+	private static final long POLL_DELAY = 100L;
+
+	/**
+	 * Delay in seconds after which the idle background thread is stopped.
+	 */
+	private static final long KEEP_ALIVE = 30L;
+
+	/**
+	 * Retrieves a tracker from the server.
+	 */
+	public interface ITrackerLoader {
+		/**
+		 * Retrieves the tracker from the server and updates the configuration of the repository.
+		 *
+		 * @param monitor
+		 *            The progress monitor
+		 * @return The refreshed tracker.
+		 * @throws CoreException
+		 *             If the tracker cannot be retrieved.
+		 */
+		TuleapTracker load(IProgressMonitor monitor) throws CoreException;
+	}
+
+	/**
+	 * The dates of the last refresh of the trackers, by tracker id.
+	 */
+	private final ConcurrentMap<Integer, Long> refreshDates = new ConcurrentHashMap<Integer, Long>();
+
+	/**
+	 * The refreshes in progress, by tracker id.
+	 */
+	private final ConcurrentMap<Integer, FutureTask<TuleapTracker>> refreshes;
+
+	/**
+	 * The executor of the background refreshes.
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * The time to live of a refreshed tracker, in milliseconds.
+	 */
+	private volatile long timeToLive;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param timeToLive
+	 *            The time in milliseconds during which a refreshed tracker is used without being refreshed
+	 *            again. Trackers are always refreshed right away if it is not positive.
+	 */
+	public TuleapTrackerRefresher(long timeToLive) {
+		this.timeToLive = timeToLive;
+		refreshes = new ConcurrentHashMap<Integer, FutureTask<TuleapTracker>>();
+		executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new TuleapThreadFactory("Tuleap tracker refresh")); //$NON-NLS-1$
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Sets the time during which a refreshed tracker is used without being refreshed again.
+	 *
+	 * @param timeToLive
+	 *            The time to live in milliseconds. Trackers are always refreshed right away if it is not
+	 *            positive.
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Provides the time during which a tracker of the given repository is used without being refreshed
+	 * again, as configured in the task repository properties.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The time to live in milliseconds.
+	 */
+	public static long getTimeToLive(TaskRepository taskRepository) {
+		long seconds = ITuleapConstants.DEFAULT_TRACKER_REFRESH_TTL;
+		String property = taskRepository.getProperty(ITuleapConstants.PROPERTY_TRACKER_REFRESH_TTL);
+		if (property != null) {
+			try {
+				seconds = Long.parseLong(property.trim());
+			} catch (NumberFormatException e) {
+				TuleapCoreActivator.log(e, false);
+			}
+		}
+		return TimeUnit.SECONDS.toMillis(seconds);
+	}
+
+	/**
+	 * Provides the tracker to use, refreshing it if needed.
+	 *
+	 * @param tracker
+	 *            The known definition of the tracker
+	 * @param loader
+	 *            The loader used to refresh the tracker
+	 * @param monitor
+	 *            The progress monitor, can be <code>null</code>
+	 * @return The refreshed tracker if it had to be refreshed right away, the given tracker otherwise.
+	 * @throws CoreException
+	 *             If the tracker had to be refreshed right away and could not be.
+	 */
+	public TuleapTracker refresh(TuleapTracker tracker, ITrackerLoader loader, IProgressMonitor monitor)
+			throws CoreException {
+		Integer trackerId = Integer.valueOf(tracker.getIdentifier());
+		Long refreshDate = refreshDates.get(trackerId);
+		long ttl = timeToLive;
+		if (ttl > 0 && refreshDate != null) {
+			if (System.currentTimeMillis() - refreshDate.longValue() >= ttl) {
+				refreshInBackground(trackerId, loader);
+			}
+			return tracker;
+		}
+		FutureTask<TuleapTracker> refresh = new FutureTask<TuleapTracker>(new Refresh(trackerId, loader,
+				monitor, false));
+		FutureTask<TuleapTracker> existing = refreshes.putIfAbsent(trackerId, refresh);
+		if (existing == null) {
+			try {
+				refresh.run();
+			} finally {
+				refreshes.remove(trackerId, refresh);
+			}
+			return await(refresh, null);
+		}
+		TuleapTracker refreshed = await(existing, monitor);
+		if (refreshed == null) {
+			// The refresh in progress was a background refresh that has failed
+			return tracker;
+		}
+		return refreshed;
+	}
+
+	/**
+	 * Records that the given tracker has just been retrieved from the server.
+	 *
+	 * @param trackerId
+	 *            The tracker id
+	 */
+	public void markRefreshed(int trackerId) {
+		refreshDates.put(Integer.valueOf(trackerId), Long.valueOf(System.currentTimeMillis()));
+	}
+
+	/**
+	 * Forgets when the trackers have been refreshed, so that they are refreshed right away the next time
+	 * they are used.
+	 */
+	public void clear() {
+		refreshDates.clear();
+	}
+
+	/**
+	 * Starts the refresh of the given tracker in the background, unless a refresh is already in progress.
+	 *
+	 * @param trackerId
+	 *            The tracker id
+	 * @param loader
+	 *            The loader used to refresh the tracker
+	 */
+	private void refreshInBackground(final Integer trackerId, ITrackerLoader loader) {
+		final FutureTask<TuleapTracker> refresh = new FutureTask<TuleapTracker>(new Refresh(trackerId,
+				loader, new NullProgressMonitor(), true));
+		if (refreshes.putIfAbsent(trackerId, refresh) == null) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						refresh.run();
+					} finally {
+						refreshes.remove(trackerId, refresh);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Waits for the end of a refresh.
+	 *
+	 * @param refresh
+	 *            The refresh
+	 * @param monitor
+	 *            The progress monitor checked while waiting, can be <code>null</code>
+	 * @return The refreshed tracker.
+	 * @throws CoreException
+	 *             If the tracker could not be refreshed.
+	 */
+	private TuleapTracker await(FutureTask<TuleapTracker> refresh, IProgressMonitor monitor)
+			throws CoreException {
+		try {
+			while (true) {
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				try {
+					return refresh.get(POLL_DELAY, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// Check the monitor again
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException)cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, String
+					.valueOf(cause.getMessage()), cause));
+		}
+	}
+
+	/**
+	 * The refresh of a tracker.
+	 */
+	private final class Refresh implements Callable<TuleapTracker> {
+
+		/**
+		 * The tracker id.
+		 */
+		private final Integer trackerId;
+
+		/**
+		 * The loader used to refresh the tracker.
+		 */
+		private final ITrackerLoader loader;
+
+		/**
+		 * The progress monitor.
+		 */
+		private final IProgressMonitor monitor;
+
+		/**
+		 * Whether the refresh runs in the background, in which case failures are only logged.
+		 */
+		private final boolean background;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param trackerId
+		 *            The tracker id
+		 * @param loader
+		 *            The loader used to refresh the tracker
+		 * @param monitor
+		 *            The progress monitor
+		 * @param background
+		 *            Whether the refresh runs in the background
+		 */
+		private Refresh(Integer trackerId, ITrackerLoader loader, IProgressMonitor monitor,
+				boolean background) {
+			this.trackerId = trackerId;
+			this.loader = loader;
+			this.monitor = monitor;
+			this.background = background;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public TuleapTracker call() throws CoreException {
+			long start = System.currentTimeMillis();
+			try {
+				TuleapTracker tracker = loader.load(monitor);
+				refreshDates.put(trackerId, Long.valueOf(start));
+				return tracker;
+			} catch (CoreException e) {
+				if (background) {
+					TuleapCoreActivator.log(e, false);
+					return null;
+				}
+				throw e;
+			}
+		}
+	}
+}
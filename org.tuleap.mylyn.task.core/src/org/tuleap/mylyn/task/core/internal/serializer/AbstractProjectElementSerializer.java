@@ -10,25 +10,27 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.serializer;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 
 import org.tuleap.mylyn.task.core.internal.model.data.AbstractTuleapProjectElement;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
 /**
- * This class is used to serialize the JSON representation of a AbstractTuleapConfigurableElement.
+ * This class is used to serialize the JSON representation of a AbstractTuleapConfigurableElement. The JSON
+ * is written directly to the stream, member by member, without building a tree of JSON elements first.
  *
  * @author <a href="mailto:firas.bacha@obeo.fr">Firas Bacha</a>
  * @param <T>
  */
-public abstract class AbstractProjectElementSerializer<T extends AbstractTuleapProjectElement<?>> implements JsonSerializer<T> {
+public abstract class AbstractProjectElementSerializer<T extends AbstractTuleapProjectElement<?>> extends TypeAdapter<T> {
 
 	/**
 	 * The pattern used to format date following the ISO8601 standard.
@@ -38,21 +40,70 @@ public abstract class AbstractProjectElementSerializer<T extends AbstractTuleapP
 	/**
 	 * {@inheritDoc}
 	 *
-	 * @see com.google.gson.JsonSerializer#serialize(java.lang.Object, java.lang.reflect.Type,
-	 *      com.google.gson.JsonSerializationContext)
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
 	 */
 	@Override
-	public JsonElement serialize(T element, Type type, JsonSerializationContext jsonSerializationContext) {
-		JsonObject json = new JsonObject();
+	public void write(JsonWriter out, T element) throws IOException {
+		if (element == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginObject();
+		writeMembers(out, element);
+		out.endObject();
+	}
+
+	/**
+	 * Writes the members of the JSON object representing the given element. Subclasses that override this
+	 * method must call it first.
+	 *
+	 * @param out
+	 *            The JSON writer, in which the object has been begun
+	 * @param element
+	 *            The element to serialize
+	 * @throws IOException
+	 *             If the JSON cannot be written.
+	 */
+	protected void writeMembers(JsonWriter out, T element) throws IOException {
+		writeId(out, element);
+		if (element.getLabel() != null) {
+			out.name(ITuleapConstants.LABEL).value(element.getLabel());
+		}
+	}
+
+	/**
+	 * Writes the identifier of the given element. Override this method in subclasses that must not send
+	 * the identifier.
+	 *
+	 * @param out
+	 *            The JSON writer, in which the object has been begun
+	 * @param element
+	 *            The element to serialize
+	 * @throws IOException
+	 *             If the JSON cannot be written.
+	 */
+	protected void writeId(JsonWriter out, T element) throws IOException {
 		Object id = element.getId();
 		if (id instanceof Number) {
-			json.add(ITuleapConstants.ID, new JsonPrimitive((Number)element.getId()));
+			out.name(ITuleapConstants.ID).value((Number)id);
 		} else if (id != null) {
-			json.add(ITuleapConstants.ID, new JsonPrimitive(element.getId().toString()));
+			out.name(ITuleapConstants.ID).value(id.toString());
 		}
-		if (element.getLabel() != null) {
-			json.add(ITuleapConstants.LABEL, new JsonPrimitive(element.getLabel()));
-		}
-		return json;
+	}
+
+	/**
+	 * This adapter is only used to serialize.
+	 *
+	 * @param in
+	 *            The JSON reader
+	 * @return Nothing.
+	 * @throws JsonParseException
+	 *             Always, since the JSON cannot be read with this adapter.
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public T read(JsonReader in) throws JsonParseException {
+		throw new JsonParseException(TuleapCoreMessages.getString(TuleapCoreKeys.cannotDeserialize, getClass()
+				.getName()));
 	}
 }
@@ -10,12 +10,11 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.serializer;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapField;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapArtifactLink;
@@ -39,17 +38,31 @@ import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
  */
 public abstract class AbstractTuleapSerializer<T extends AbstractTuleapConfigurableElement<?>> extends AbstractProjectElementSerializer<T> {
 
+	/**
+	 * The Gson that provides the adapters of the field values.
+	 */
+	private final Gson gson;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The Gson that provides the adapters of the field values
+	 */
+	public AbstractTuleapSerializer(Gson gson) {
+		this.gson = gson;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
-	 * @see com.google.gson.JsonSerializer#serialize(java.lang.Object, java.lang.reflect.Type,
-	 *      com.google.gson.JsonSerializationContext)
+	 * @see org.tuleap.mylyn.task.core.internal.serializer.AbstractProjectElementSerializer#writeMembers(com.google.gson.stream.JsonWriter,
+	 *      org.tuleap.mylyn.task.core.internal.model.data.AbstractTuleapProjectElement)
 	 */
 	@Override
-	public JsonElement serialize(T element, Type type, JsonSerializationContext context) {
-		JsonObject json = super.serialize(element, type, context).getAsJsonObject();
-		JsonArray values = new JsonArray();
-		json.add(ITuleapConstants.VALUES, values);
+	protected void writeMembers(JsonWriter out, T element) throws IOException {
+		super.writeMembers(out, element);
+		out.name(ITuleapConstants.VALUES).beginArray();
 		for (AbstractTuleapField field : element.getFields()) {
 			if (mustSerialize(field, element.isNew())) {
 				AbstractFieldValue fieldValue = element.getFieldValue(field.getIdentifier());
@@ -65,10 +78,27 @@ public abstract class AbstractTuleapSerializer<T extends AbstractTuleapConfigura
 						fieldValue = new LiteralFieldValue(field.getIdentifier(), null);
 					}
 				}
-				values.add(context.serialize(fieldValue));
+				writeFieldValue(out, fieldValue);
 			}
 		}
-		return json;
+		out.endArray();
+	}
+
+	/**
+	 * Writes a field value with the adapter of its runtime type.
+	 *
+	 * @param out
+	 *            The JSON writer
+	 * @param fieldValue
+	 *            The field value to write
+	 * @throws IOException
+	 *             If the JSON cannot be written.
+	 */
+	@SuppressWarnings("unchecked")
+	private void writeFieldValue(JsonWriter out, AbstractFieldValue fieldValue) throws IOException {
+		TypeAdapter<AbstractFieldValue> adapter = (TypeAdapter<AbstractFieldValue>)gson.getAdapter(fieldValue
+				.getClass());
+		adapter.write(out, fieldValue);
 	}
 
 	/**
@@ -10,41 +10,59 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.serializer;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 import org.tuleap.mylyn.task.core.internal.model.data.BoundFieldValue;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
 /**
- * Json serializer for {@link BoundFieldValue}.
+ * Json serializer for {@link BoundFieldValue}, which writes the value directly to the JSON stream.
  *
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
-public class BoundFieldValueSerializer implements JsonSerializer<BoundFieldValue> {
+public class BoundFieldValueSerializer extends TypeAdapter<BoundFieldValue> {
 
 	/**
 	 * {@inheritDoc}
 	 *
-	 * @see com.google.gson.JsonSerializer#serialize(java.lang.Object, java.lang.reflect.Type,
-	 *      com.google.gson.JsonSerializationContext)
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
 	 */
 	@Override
-	public JsonElement serialize(BoundFieldValue src, Type typeOfSrc, JsonSerializationContext context) {
-		JsonObject result = new JsonObject();
-		result.add(ITuleapConstants.FIELD_ID, new JsonPrimitive(Integer.valueOf(src.getFieldId())));
-		JsonElement fieldValues = new JsonArray();
+	public void write(JsonWriter out, BoundFieldValue src) throws IOException {
+		if (src == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginObject();
+		out.name(ITuleapConstants.FIELD_ID).value(src.getFieldId());
+		out.name(ITuleapConstants.FIELD_BIND_VALUE_IDS).beginArray();
 		for (Integer valueId : src.getValueIds()) {
-			fieldValues.getAsJsonArray().add(new JsonPrimitive(valueId));
+			out.value(valueId);
 		}
-		result.add(ITuleapConstants.FIELD_BIND_VALUE_IDS, fieldValues);
-		return result;
+		out.endArray();
+		out.endObject();
 	}
 
+	/**
+	 * This adapter is only used to serialize.
+	 *
+	 * @param in
+	 *            The JSON reader
+	 * @return Nothing.
+	 * @throws JsonParseException
+	 *             Always, since the JSON cannot be read with this adapter.
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public BoundFieldValue read(JsonReader in) throws JsonParseException {
+		throw new JsonParseException(TuleapCoreMessages.getString(TuleapCoreKeys.cannotDeserialize, getClass()
+				.getName()));
+	}
 }
@@ -10,39 +10,60 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.serializer;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
 /**
- * Json serializer for {@link LiteralFieldValue}.
+ * Json serializer for {@link LiteralFieldValue}, which writes the value directly to the JSON stream.
  *
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
-public class LiteralFieldValueSerializer implements JsonSerializer<LiteralFieldValue> {
+public class LiteralFieldValueSerializer extends TypeAdapter<LiteralFieldValue> {
 
 	/**
 	 * {@inheritDoc}
 	 *
-	 * @see com.google.gson.JsonSerializer#serialize(java.lang.Object, java.lang.reflect.Type,
-	 *      com.google.gson.JsonSerializationContext)
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
 	 */
 	@Override
-	public JsonElement serialize(LiteralFieldValue src, Type typeOfSrc, JsonSerializationContext context) {
-		JsonObject result = new JsonObject();
-		result.add(ITuleapConstants.FIELD_ID, new JsonPrimitive(Integer.valueOf(src.getFieldId())));
+	public void write(JsonWriter out, LiteralFieldValue src) throws IOException {
+		if (src == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginObject();
+		out.name(ITuleapConstants.FIELD_ID).value(src.getFieldId());
+		out.name(ITuleapConstants.FIELD_VALUE);
 		if (src.getFieldValue() != null) {
-			result.add(ITuleapConstants.FIELD_VALUE, new JsonPrimitive(src.getFieldValue()));
+			out.value(src.getFieldValue());
 		} else {
-			result.add(ITuleapConstants.FIELD_VALUE, null);
+			out.nullValue();
 		}
-		return result;
+		out.endObject();
+	}
+
+	/**
+	 * This adapter is only used to serialize.
+	 *
+	 * @param in
+	 *            The JSON reader
+	 * @return Nothing.
+	 * @throws JsonParseException
+	 *             Always, since the JSON cannot be read with this adapter.
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public LiteralFieldValue read(JsonReader in) throws JsonParseException {
+		throw new JsonParseException(TuleapCoreMessages.getString(TuleapCoreKeys.cannotDeserialize, getClass()
+				.getName()));
 	}
 }
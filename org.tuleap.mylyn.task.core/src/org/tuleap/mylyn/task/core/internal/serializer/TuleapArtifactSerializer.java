@@ -10,12 +10,10 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.serializer;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
@@ -27,22 +25,44 @@ import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
  */
 public class TuleapArtifactSerializer extends AbstractTuleapSerializer<TuleapArtifact> {
 
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The Gson that provides the adapters of the field values
+	 */
+	public TuleapArtifactSerializer(Gson gson) {
+		super(gson);
+	}
+
+	/**
+	 * The identifier of the artifact is not sent.
+	 *
+	 * @param out
+	 *            The JSON writer
+	 * @param tuleapArtifact
+	 *            The artifact to serialize
+	 * @see org.tuleap.mylyn.task.core.internal.serializer.AbstractProjectElementSerializer#writeId(com.google.gson.stream.JsonWriter,
+	 *      org.tuleap.mylyn.task.core.internal.model.data.AbstractTuleapProjectElement)
+	 */
+	@Override
+	protected void writeId(JsonWriter out, TuleapArtifact tuleapArtifact) {
+		// Nothing to write
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
-	 * @see com.google.gson.JsonSerializer#serialize(java.lang.Object, java.lang.reflect.Type,
-	 *      com.google.gson.JsonSerializationContext)
+	 * @see org.tuleap.mylyn.task.core.internal.serializer.AbstractTuleapSerializer#writeMembers(com.google.gson.stream.JsonWriter,
+	 *      org.tuleap.mylyn.task.core.internal.model.data.AbstractTuleapConfigurableElement)
 	 */
 	@Override
-	public JsonElement serialize(TuleapArtifact tuleapArtifact, Type type, JsonSerializationContext context) {
-		JsonObject elementObject = (JsonObject)super.serialize(tuleapArtifact, type, context);
-		elementObject.remove(ITuleapConstants.ID);
+	protected void writeMembers(JsonWriter out, TuleapArtifact tuleapArtifact) throws IOException {
+		super.writeMembers(out, tuleapArtifact);
 		if (tuleapArtifact.getTracker() != null) {
-			JsonObject trackerObject = new JsonObject();
-			elementObject.add(ITuleapConstants.TRACKER, trackerObject);
-			trackerObject.add(ITuleapConstants.ID, new JsonPrimitive(Integer.valueOf(tuleapArtifact
-					.getTracker().getId())));
+			out.name(ITuleapConstants.TRACKER).beginObject();
+			out.name(ITuleapConstants.ID).value(tuleapArtifact.getTracker().getId());
+			out.endObject();
 		}
-		return elementObject;
 	}
 }
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.serializer;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithAttachment;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
+
+/**
+ * Creates the serializers of the artifacts, which need the {@link Gson} they are registered in to write
+ * the field values of the artifacts.
+ */
+public class TuleapArtifactSerializerFactory implements TypeAdapterFactory {
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see com.google.gson.TypeAdapterFactory#create(com.google.gson.Gson, com.google.gson.reflect.TypeToken)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		Class<? super T> rawType = type.getRawType();
+		if (rawType == TuleapArtifact.class) {
+			return (TypeAdapter<T>)new TuleapArtifactSerializer(gson);
+		}
+		if (rawType == TuleapArtifactWithComment.class) {
+			return (TypeAdapter<T>)new TuleapArtifactWithCommentSerializer<TuleapArtifactWithComment>(gson);
+		}
+		if (rawType == TuleapArtifactWithAttachment.class) {
+			return (TypeAdapter<T>)new TuleapArtifactWithAttachmentSerializer(gson);
+		}
+		return null;
+	}
+}
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.serializer;
 
+import com.google.gson.Gson;
+
 import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapField;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFileUpload;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithAttachment;
@@ -21,6 +23,16 @@ import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithAttachme
  */
 public class TuleapArtifactWithAttachmentSerializer extends TuleapArtifactWithCommentSerializer<TuleapArtifactWithAttachment> {
 
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The Gson that provides the adapters of the field values
+	 */
+	public TuleapArtifactWithAttachmentSerializer(Gson gson) {
+		super(gson);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -10,12 +10,10 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.serializer;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
@@ -30,23 +28,46 @@ import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
  */
 public class TuleapArtifactWithCommentSerializer<U extends TuleapArtifactWithComment> extends AbstractTuleapSerializer<U> {
 
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The Gson that provides the adapters of the field values
+	 */
+	public TuleapArtifactWithCommentSerializer(Gson gson) {
+		super(gson);
+	}
+
+	/**
+	 * The identifier of the artifact is not sent.
+	 *
+	 * @param out
+	 *            The JSON writer
+	 * @param commentedArtifact
+	 *            The artifact to serialize
+	 * @see org.tuleap.mylyn.task.core.internal.serializer.AbstractProjectElementSerializer#writeId(com.google.gson.stream.JsonWriter,
+	 *      org.tuleap.mylyn.task.core.internal.model.data.AbstractTuleapProjectElement)
+	 */
+	@Override
+	protected void writeId(JsonWriter out, U commentedArtifact) {
+		// Nothing to write
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
-	 * @see com.google.gson.JsonSerializer#serialize(java.lang.Object, java.lang.reflect.Type,
-	 *      com.google.gson.JsonSerializationContext)
+	 * @see org.tuleap.mylyn.task.core.internal.serializer.AbstractTuleapSerializer#writeMembers(com.google.gson.stream.JsonWriter,
+	 *      org.tuleap.mylyn.task.core.internal.model.data.AbstractTuleapConfigurableElement)
 	 */
 	@Override
-	public JsonElement serialize(U commentedArtifact, Type type, JsonSerializationContext context) {
-		JsonObject elementObject = (JsonObject)super.serialize(commentedArtifact, type, context);
-		elementObject.remove(ITuleapConstants.ID);
+	protected void writeMembers(JsonWriter out, U commentedArtifact) throws IOException {
+		super.writeMembers(out, commentedArtifact);
 		String comment = commentedArtifact.getNewComment();
 		if (comment != null && !comment.isEmpty()) {
-			JsonObject commentObject = new JsonObject();
-			elementObject.add(ITuleapConstants.COMMENT, commentObject);
-			commentObject.add(ITuleapConstants.BODY, new JsonPrimitive(comment));
-			commentObject.add(ITuleapConstants.FORMAT, new JsonPrimitive("text")); //$NON-NLS-1$
+			out.name(ITuleapConstants.COMMENT).beginObject();
+			out.name(ITuleapConstants.BODY).value(comment);
+			out.name(ITuleapConstants.FORMAT).value("text"); //$NON-NLS-1$
+			out.endObject();
 		}
-		return elementObject;
 	}
 }
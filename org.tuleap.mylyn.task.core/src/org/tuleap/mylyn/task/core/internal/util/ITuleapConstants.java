@@ -253,4 +253,92 @@ public interface ITuleapConstants {
 	 */
 	String OFFSET = "offset"; //$NON-NLS-1$
 
+	/**
+	 * The key used for the file data.
+	 */
+	String DATA = "data"; //$NON-NLS-1$
+
+	/**
+	 * The task repository property holding the number of threads used to retrieve the comments of the
+	 * artifacts returned by a query.
+	 */
+	String PROPERTY_COMMENTS_PREFETCH_THREADS = "tuleap.comments.prefetch.threads"; //$NON-NLS-1$
+
+	/**
+	 * The default number of threads used to retrieve the comments of the artifacts returned by a query.
+	 */
+	int DEFAULT_COMMENTS_PREFETCH_THREADS = 4;
+
+	/**
+	 * The task repository property holding the number of elements asked for in the first page of a
+	 * paginated resource, before the maximum accepted by the server is known.
+	 */
+	String PROPERTY_INITIAL_PAGE_SIZE = "tuleap.pagination.initial.limit"; //$NON-NLS-1$
+
+	/**
+	 * The task repository property holding the maximum number of simultaneous connections to the server.
+	 */
+	String PROPERTY_MAX_CONNECTIONS = "tuleap.http.max.connections"; //$NON-NLS-1$
+
+	/**
+	 * The default maximum number of simultaneous connections to the server, enough for the threads that
+	 * retrieve comments and pages in the background.
+	 */
+	int DEFAULT_MAX_CONNECTIONS = 8;
+
+	/**
+	 * The task repository property holding the number of seconds during which a tracker retrieved from the
+	 * server is used without being retrieved again. Trackers are retrieved each time they are used if it is
+	 * not positive.
+	 */
+	String PROPERTY_TRACKER_REFRESH_TTL = "tuleap.tracker.refresh.ttl"; //$NON-NLS-1$
+
+	/**
+	 * The default number of seconds during which a tracker retrieved from the server is used without being
+	 * retrieved again.
+	 */
+	int DEFAULT_TRACKER_REFRESH_TTL = 300;
+
+	/**
+	 * The task repository property holding the number of threads used to refresh the configuration of the
+	 * projects when the configuration of the repository is updated.
+	 */
+	String PROPERTY_PROJECTS_REFRESH_THREADS = "tuleap.projects.refresh.threads"; //$NON-NLS-1$
+
+	/**
+	 * The default number of threads used to refresh the configuration of the projects.
+	 */
+	int DEFAULT_PROJECTS_REFRESH_THREADS = 4;
+
+	/**
+	 * The task repository property holding the number of seconds during which the members of a user group
+	 * retrieved from the server are used without being retrieved again. Members are retrieved each time the
+	 * project is refreshed if it is not positive.
+	 */
+	String PROPERTY_USER_GROUPS_REFRESH_TTL = "tuleap.user.groups.refresh.ttl"; //$NON-NLS-1$
+
+	/**
+	 * The default number of seconds during which the members of a user group retrieved from the server are
+	 * used without being retrieved again.
+	 */
+	int DEFAULT_USER_GROUPS_REFRESH_TTL = 3600;
+
+	/**
+	 * The task repository property holding the number of chunks of an attachment downloaded at the same
+	 * time.
+	 */
+	String PROPERTY_ATTACHMENT_DOWNLOAD_THREADS = "tuleap.attachments.download.threads"; //$NON-NLS-1$
+
+	/**
+	 * The default number of chunks of an attachment downloaded at the same time.
+	 */
+	int DEFAULT_ATTACHMENT_DOWNLOAD_THREADS = 4;
+
+	/**
+	 * The task repository property holding the number of kilobytes of attachment transferred in each
+	 * request. The size is adapted to the speed of the transfers if the property is not set or is not
+	 * positive.
+	 */
+	String PROPERTY_ATTACHMENT_CHUNK_SIZE = "tuleap.attachments.chunk.size"; //$NON-NLS-1$
+
 }
@@ -146,6 +146,11 @@ public class TuleapCoreKeys extends NLS {
 	 */
 	public static String queryFailedBecauseMissingTracker;
 
+	/**
+	 * Tracker without "last update date" field. 1 parameter: the tracker qualified name.
+	 */
+	public static String missingLastUpdateDateField;
+
 	/**
 	 * Validate the connection.
 	 */
@@ -346,6 +351,16 @@ public class TuleapCoreKeys extends NLS {
 	 */
 	public static String retrievingArtifact;
 
+	/**
+	 * Retrieve several artifacts of a tracker. 2 parameters: the number of artifacts, the tracker id.
+	 */
+	public static String retrievingTrackerArtifacts;
+
+	/**
+	 * Retrieve the recently modified artifacts of a tracker. 1 parameter: the tracker qualified name.
+	 */
+	public static String retrievingModifiedArtifacts;
+
 	/**
 	 * Create an artifact.
 	 */
@@ -361,6 +376,12 @@ public class TuleapCoreKeys extends NLS {
 	 */
 	public static String invalidDate;
 
+	/**
+	 * Error message when JSON is read with an adapter that can only write it. 1 argument, the name of the
+	 * adapter.
+	 */
+	public static String cannotDeserialize;
+
 	/**
 	 * Message for errors during a HTTP request, uses 2 parameters:
 	 * <ol>
@@ -416,6 +437,11 @@ public class TuleapCoreKeys extends NLS {
 	 */
 	public static String cannotReadFileContent;
 
+	/**
+	 * Impossible to decode the content of a downloaded file chunk. 1 parameter: file id.
+	 */
+	public static String cannotDecodeFileContent;
+
 	/**
 	 * Sending chunk 1/23. 2 parameters, current index, total chunk number.
 	 */
@@ -431,6 +457,36 @@ public class TuleapCoreKeys extends NLS {
 	 */
 	public static String uploadAttachmentFailed;
 
+	/**
+	 * Unexpected failure during the retrieval of artifact comments.
+	 */
+	public static String commentsRetrievalFailed;
+
+	/**
+	 * An artifact could not be retrieved. 1 parameter, the artifact id.
+	 */
+	public static String artifactRetrievalFailed;
+
+	/**
+	 * Progress of the refresh of the configuration of a project. 1 parameter, the project label.
+	 */
+	public static String refreshingProject;
+
+	/**
+	 * The configuration of some projects could not be refreshed.
+	 */
+	public static String projectsRefreshFailed;
+
+	/**
+	 * The trackers of a project could not be retrieved. 1 parameter, the project label.
+	 */
+	public static String projectTrackersRetrievalFailed;
+
+	/**
+	 * The users of a project could not be retrieved. 1 parameter, the project label.
+	 */
+	public static String projectUsersRetrievalFailed;
+
 	/**
 	 * Message when local repository configuration cannot be deserialized.
 	 */
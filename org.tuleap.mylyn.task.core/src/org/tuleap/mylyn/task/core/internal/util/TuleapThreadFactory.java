@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the daemon threads used to communicate with the server in the background, so that they never
+ * prevent the shutdown of the platform.
+ */
+public class TuleapThreadFactory implements ThreadFactory {
+
+	/**
+	 * Prefix of the thread names.
+	 */
+	private final String namePrefix;
+
+	/**
+	 * Counter used to name the threads.
+	 */
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param namePrefix
+	 *            Prefix of the thread names, followed by a counter
+	 */
+	public TuleapThreadFactory(String namePrefix) {
+		this.namePrefix = namePrefix;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+	 */
+	@Override
+	public Thread newThread(Runnable r) {
+		Thread thread = new Thread(r, namePrefix + ' ' + counter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -82,6 +82,7 @@ public class TuleapTasksUIPlugin extends AbstractUIPlugin {
 			TuleapRepositoryConnector tuleapRepositoryConnector = (TuleapRepositoryConnector)repositoryConnector;
 			TuleapClientManager clientManager = tuleapRepositoryConnector.getClientManager();
 			TasksUi.getRepositoryManager().removeListener(clientManager);
+			clientManager.dispose();
 		}
 
 		Iterator<Image> imageIterator = imageMap.values().iterator();
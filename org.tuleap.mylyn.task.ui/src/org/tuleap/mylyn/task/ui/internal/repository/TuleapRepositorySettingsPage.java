@@ -13,6 +13,7 @@ package org.tuleap.mylyn.task.ui.internal.repository;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jface.layout.GridDataFactory;
 import org.eclipse.mylyn.commons.net.AbstractWebLocation;
 import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
 import org.eclipse.mylyn.commons.net.AuthenticationType;
@@ -20,9 +21,15 @@ import org.eclipse.mylyn.internal.tasks.core.IRepositoryConstants;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
 import org.eclipse.mylyn.tasks.ui.wizards.AbstractRepositorySettingsPage;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Text;
 import org.tuleap.mylyn.task.core.internal.client.TuleapClientManager;
+import org.tuleap.mylyn.task.core.internal.client.rest.ChunkSizePolicy;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
 import org.tuleap.mylyn.task.ui.internal.TuleapTasksUIPlugin;
 import org.tuleap.mylyn.task.ui.internal.util.ITuleapUIConstants;
@@ -37,6 +44,11 @@ import org.tuleap.mylyn.task.ui.internal.util.TuleapUIMessages;
  */
 public class TuleapRepositorySettingsPage extends AbstractRepositorySettingsPage {
 
+	/**
+	 * The text of the size of the attachment chunks, in kilobytes.
+	 */
+	private Text attachmentChunkSizeText;
+
 	/**
 	 * The constructor.
 	 *
@@ -79,7 +91,73 @@ public class TuleapRepositorySettingsPage extends AbstractRepositorySettingsPage
 	 */
 	@Override
 	protected void createAdditionalControls(Composite parent) {
-		// nothing yet (consider supporting multiple versions of Tuleap later)
+		Label label = new Label(parent, SWT.NONE);
+		label.setText(TuleapUIMessages.getString(TuleapUIKeys.attachmentChunkSizeLabel));
+		attachmentChunkSizeText = new Text(parent, SWT.SINGLE | SWT.BORDER);
+		attachmentChunkSizeText.setToolTipText(TuleapUIMessages
+				.getString(TuleapUIKeys.attachmentChunkSizeTooltip));
+		GridDataFactory.fillDefaults().span(2, 1).grab(true, false).applyTo(attachmentChunkSizeText);
+		if (repository != null) {
+			String chunkSize = repository.getProperty(ITuleapConstants.PROPERTY_ATTACHMENT_CHUNK_SIZE);
+			if (chunkSize != null) {
+				attachmentChunkSizeText.setText(chunkSize);
+			}
+		}
+		attachmentChunkSizeText.addModifyListener(new ModifyListener() {
+			@Override
+			public void modifyText(ModifyEvent e) {
+				if (getContainer() != null) {
+					getContainer().updateButtons();
+				}
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.eclipse.mylyn.tasks.ui.wizards.AbstractRepositorySettingsPage#isPageComplete()
+	 */
+	@Override
+	public boolean isPageComplete() {
+		boolean isPageComplete = super.isPageComplete();
+		if (isPageComplete && !isValidAttachmentChunkSize()) {
+			setErrorMessage(TuleapUIMessages.getString(TuleapUIKeys.invalidAttachmentChunkSize, Integer
+					.valueOf(ChunkSizePolicy.MAX_FIXED_CHUNK_SIZE_KB)));
+			isPageComplete = false;
+		}
+		return isPageComplete;
+	}
+
+	/**
+	 * Indicates if the size of the attachment chunks is empty, so that it is adapted automatically, or is a
+	 * positive number of kilobytes not greater than {@link ChunkSizePolicy#MAX_FIXED_CHUNK_SIZE_KB}.
+	 *
+	 * @return <code>true</code> if the size of the attachment chunks is valid, <code>false</code> otherwise.
+	 */
+	private boolean isValidAttachmentChunkSize() {
+		String chunkSize = getAttachmentChunkSize();
+		if (chunkSize.length() == 0) {
+			return true;
+		}
+		try {
+			int kilobytes = Integer.parseInt(chunkSize);
+			return kilobytes > 0 && kilobytes <= ChunkSizePolicy.MAX_FIXED_CHUNK_SIZE_KB;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Provides the size of the attachment chunks entered by the user.
+	 *
+	 * @return The trimmed size of the attachment chunks, empty if it must be adapted automatically.
+	 */
+	private String getAttachmentChunkSize() {
+		if (attachmentChunkSizeText == null || attachmentChunkSizeText.isDisposed()) {
+			return ""; //$NON-NLS-1$
+		}
+		return attachmentChunkSizeText.getText().trim();
 	}
 
 	/**
@@ -119,6 +197,12 @@ public class TuleapRepositorySettingsPage extends AbstractRepositorySettingsPage
 		super.applyTo(taskRepository);
 		taskRepository
 		.setProperty(IRepositoryConstants.PROPERTY_CATEGORY, IRepositoryConstants.CATEGORY_BUGS);
+		String chunkSize = getAttachmentChunkSize();
+		if (chunkSize.length() == 0) {
+			taskRepository.removeProperty(ITuleapConstants.PROPERTY_ATTACHMENT_CHUNK_SIZE);
+		} else {
+			taskRepository.setProperty(ITuleapConstants.PROPERTY_ATTACHMENT_CHUNK_SIZE, chunkSize);
+		}
 	}
 
 	/**
@@ -170,6 +254,11 @@ public class TuleapRepositorySettingsPage extends AbstractRepositorySettingsPage
 		 */
 		private TuleapValidator tuleapValidator;
 
+		/**
+		 * The client manager of the client used to validate the repository.
+		 */
+		private TuleapClientManager manager;
+
 		/**
 		 * The constructor.
 		 *
@@ -179,7 +268,7 @@ public class TuleapRepositorySettingsPage extends AbstractRepositorySettingsPage
 		public TuleapRepositoryValidator(TaskRepository taskRepository) {
 			final AbstractWebLocation location = new TaskRepositoryLocationFactory()
 			.createWebLocation(taskRepository);
-			TuleapClientManager manager = new TuleapClientManager();
+			this.manager = new TuleapClientManager();
 			this.tuleapValidator = new TuleapValidator(location, manager.getRestClient(taskRepository),
 					taskRepository);
 		}
@@ -191,8 +280,13 @@ public class TuleapRepositorySettingsPage extends AbstractRepositorySettingsPage
 		 */
 		@Override
 		public void run(IProgressMonitor monitor) throws CoreException {
-			IStatus validationStatus = this.tuleapValidator.validate(monitor);
-			this.setStatus(validationStatus);
+			try {
+				IStatus validationStatus = this.tuleapValidator.validate(monitor);
+				this.setStatus(validationStatus);
+			} finally {
+				// The client is only used for the validation, release its connections
+				this.manager.dispose();
+			}
 		}
 
 	}
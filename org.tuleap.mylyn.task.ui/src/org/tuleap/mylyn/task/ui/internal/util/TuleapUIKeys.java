@@ -68,6 +68,21 @@ public class TuleapUIKeys extends NLS {
 	 */
 	public static String repositorySettingsPageDescription;
 
+	/**
+	 * The label of the size of the attachment chunks in the repository setting page.
+	 */
+	public static String attachmentChunkSizeLabel;
+
+	/**
+	 * The tooltip of the size of the attachment chunks in the repository setting page.
+	 */
+	public static String attachmentChunkSizeTooltip;
+
+	/**
+	 * The message displayed when the size of the attachment chunks is not a positive number, or is too large.
+	 */
+	public static String invalidAttachmentChunkSize;
+
 	/**
 	 * The label of the task kind.
 	 */